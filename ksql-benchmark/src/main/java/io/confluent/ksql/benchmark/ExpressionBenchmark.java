@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.codegen.CodeGenRunner;
+import io.confluent.ksql.codegen.SqlToJavaVisitor;
+import io.confluent.ksql.function.FunctionRegistry;
+import io.confluent.ksql.function.InternalFunctionRegistry;
+import io.confluent.ksql.parser.tree.ArithmeticBinaryExpression;
+import io.confluent.ksql.parser.tree.ComparisonExpression;
+import io.confluent.ksql.parser.tree.Expression;
+import io.confluent.ksql.parser.tree.FunctionCall;
+import io.confluent.ksql.parser.tree.LogicalBinaryExpression;
+import io.confluent.ksql.parser.tree.LongLiteral;
+import io.confluent.ksql.parser.tree.QualifiedName;
+import io.confluent.ksql.parser.tree.QualifiedNameReference;
+import io.confluent.ksql.parser.tree.StringLiteral;
+import io.confluent.ksql.util.ExpressionMetadata;
+import io.confluent.ksql.util.ExpressionTypeManager;
+import io.confluent.ksql.util.GenericRowValueTypeEnforcer;
+import io.confluent.ksql.util.KsqlConfig;
+import io.confluent.ksql.util.SchemaUtil;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.codehaus.commons.compiler.CompilerFactoryFactory;
+import org.codehaus.commons.compiler.IExpressionEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *  Runs JMH microbenchmarks comparing reflective evaluation of generated expression code with
+ *  the direct-call classes generated by {@link CodeGenRunner}.
+ *  See `ksql-benchmark/README.md` for more info.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(4)
+@Fork(3)
+public class ExpressionBenchmark {
+
+  static final Schema SCHEMA = SchemaBuilder.struct()
+      .field("STATUS", Schema.OPTIONAL_STRING_SCHEMA)
+      .field("REGION", Schema.OPTIONAL_STRING_SCHEMA)
+      .field("LATENCY", Schema.OPTIONAL_INT64_SCHEMA)
+      .build();
+
+  private static final Expression STATUS = column("STATUS");
+  private static final Expression REGION = column("REGION");
+  private static final Expression LATENCY = column("LATENCY");
+
+  private static final Expression STATUS_IS_ERROR = new ComparisonExpression(
+      ComparisonExpression.Type.EQUAL, STATUS, new StringLiteral("ERROR"));
+
+  static final Map<String, Expression> EXPRESSIONS = ImmutableMap.of(
+      "statusFilter", STATUS_IS_ERROR,
+      "compoundFilter", new LogicalBinaryExpression(
+          LogicalBinaryExpression.Type.AND,
+          STATUS_IS_ERROR,
+          new ComparisonExpression(
+              ComparisonExpression.Type.GREATER_THAN, LATENCY, new LongLiteral(100))),
+      "udfProjection", new FunctionCall(QualifiedName.of("UCASE"), ImmutableList.of(REGION)),
+      "arithmeticProjection", new ArithmeticBinaryExpression(
+          ArithmeticBinaryExpression.Type.ADD,
+          new ArithmeticBinaryExpression(
+              ArithmeticBinaryExpression.Type.MULTIPLY, LATENCY, new LongLiteral(2)),
+          new LongLiteral(10))
+  );
+
+  @State(Scope.Thread)
+  public static class ExpressionState {
+
+    @Param({"statusFilter", "compoundFilter", "udfProjection", "arithmeticProjection"})
+    public String expressionName;
+
+    GenericRow row;
+    ExpressionMetadata compiled;
+    IExpressionEvaluator reflective;
+    private GenericRowValueTypeEnforcer typeEnforcer;
+    private Object[] reflectiveParameters;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+      final Expression expression = EXPRESSIONS.get(expressionName);
+      final KsqlConfig ksqlConfig = new KsqlConfig(Collections.emptyMap());
+      final FunctionRegistry functionRegistry = new InternalFunctionRegistry();
+      final CodeGenRunner codeGenRunner =
+          new CodeGenRunner(SCHEMA, ksqlConfig, functionRegistry);
+
+      row = new GenericRow("ERROR", "us-west", 250L);
+      compiled = codeGenRunner.buildCodeGenFromParseTree(expression, "Benchmark");
+      typeEnforcer = new GenericRowValueTypeEnforcer(SCHEMA);
+      reflective = buildReflectiveEvaluator(
+          codeGenRunner.getParameterInfo(expression),
+          expression,
+          functionRegistry);
+      reflectiveParameters = new Object[compiled.getIndexes().size()];
+    }
+
+    /**
+     * The pre-existing evaluation path: a Janino expression evaluator invoked reflectively.
+     */
+    private static IExpressionEvaluator buildReflectiveEvaluator(
+        final Set<CodeGenRunner.ParameterType> parameters,
+        final Expression expression,
+        final FunctionRegistry functionRegistry
+    ) throws Exception {
+      final String[] parameterNames = new String[parameters.size()];
+      final Class[] parameterTypes = new Class[parameters.size()];
+      int index = 0;
+      for (final CodeGenRunner.ParameterType param : parameters) {
+        parameterNames[index] = param.getName();
+        parameterTypes[index] = param.getType();
+        index++;
+      }
+
+      final Schema expressionType = new ExpressionTypeManager(SCHEMA, functionRegistry)
+          .getExpressionSchema(expression);
+
+      final IExpressionEvaluator ee =
+          CompilerFactoryFactory.getDefaultCompilerFactory().newExpressionEvaluator();
+      ee.setDefaultImports(SqlToJavaVisitor.JAVA_IMPORTS.toArray(new String[0]));
+      ee.setParameters(parameterNames, parameterTypes);
+      ee.setExpressionType(SchemaUtil.getJavaType(expressionType));
+      ee.cook(new SqlToJavaVisitor(SCHEMA, functionRegistry).process(expression));
+      return ee;
+    }
+
+    Object evaluateReflectively() throws InvocationTargetException {
+      // Bind exactly as ExpressionMetadata does, so only the call itself differs:
+      final List<Integer> indexes = compiled.getIndexes();
+      for (int idx = 0; idx < indexes.size(); idx++) {
+        final int paramIndex = indexes.get(idx);
+        if (paramIndex < 0) {
+          reflectiveParameters[idx] = compiled.getUdfs().get(idx);
+        } else {
+          reflectiveParameters[idx] = typeEnforcer
+              .enforceFieldType(paramIndex, row.getColumns().get(paramIndex));
+        }
+      }
+      return reflective.evaluate(reflectiveParameters);
+    }
+  }
+
+  private static Expression column(final String name) {
+    return new QualifiedNameReference(QualifiedName.of(name));
+  }
+
+  @Benchmark
+  public Object reflective(final ExpressionState state) throws InvocationTargetException {
+    return state.evaluateReflectively();
+  }
+
+  @Benchmark
+  public Object direct(final ExpressionState state) {
+    return state.compiled.evaluate(state.row);
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    final Options opt = new OptionsBuilder()
+        .include(ExpressionBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
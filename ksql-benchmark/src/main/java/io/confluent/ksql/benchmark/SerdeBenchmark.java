@@ -25,13 +25,16 @@ import io.confluent.ksql.datagen.RowGenerator;
 import io.confluent.ksql.datagen.SessionManager;
 import io.confluent.ksql.processing.log.ProcessingLogContext;
 import io.confluent.ksql.serde.avro.KsqlAvroTopicSerDe;
+import io.confluent.ksql.serde.delimited.KsqlDelimitedTopicSerDe;
 import io.confluent.ksql.serde.json.KsqlJsonTopicSerDe;
 import io.confluent.ksql.util.KsqlConfig;
 import io.confluent.ksql.util.Pair;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import org.apache.avro.Schema;
@@ -117,12 +120,13 @@ public class SerdeBenchmark {
     GenericRow row;
     byte[] bytes;
 
-    @Param({"JSON", "Avro"})
+    @Param({"JSON", "Avro", "DELIMITED"})
     public String serializationFormat;
 
     @Setup(Level.Iteration)
     public void setUp(final SchemaAndGenericRowState rowState) {
       final Serde<GenericRow> serde;
+      row = rowState.row;
       switch (serializationFormat) {
         case "JSON":
           serde = getJsonSerde(rowState.schema);
@@ -130,12 +134,18 @@ public class SerdeBenchmark {
         case "Avro":
           serde = getAvroSerde(rowState.schema);
           break;
+        case "DELIMITED":
+          // Delimited only supports primitive columns, so nested fields are dropped:
+          final org.apache.kafka.connect.data.Schema primitiveSchema =
+              getPrimitiveSchema(rowState.schema);
+          serde = getDelimitedSerde(primitiveSchema);
+          row = getPrimitiveRow(rowState.schema, primitiveSchema, rowState.row);
+          break;
         default:
           throw new RuntimeException("Invalid format: " + serializationFormat);
       }
       serializer = serde.serializer();
       deserializer = serde.deserializer();
-      row = rowState.row;
       bytes = serializer.serialize(TOPIC_NAME, row);
     }
 
@@ -168,6 +178,39 @@ public class SerdeBenchmark {
           ProcessingLogContext.create());
     }
 
+    private static Serde<GenericRow> getDelimitedSerde(
+        final org.apache.kafka.connect.data.Schema schema) {
+      return new KsqlDelimitedTopicSerDe().getGenericRowSerde(
+          schema,
+          new KsqlConfig(Collections.emptyMap()),
+          false,
+          () -> null,
+          "benchmark",
+          ProcessingLogContext.create());
+    }
+
+    private static org.apache.kafka.connect.data.Schema getPrimitiveSchema(
+        final org.apache.kafka.connect.data.Schema schema) {
+      SchemaBuilder builder = SchemaBuilder.struct();
+      for (final Field field : schema.fields()) {
+        if (field.schema().type().isPrimitive()) {
+          builder = builder.field(field.name(), field.schema());
+        }
+      }
+      return builder.build();
+    }
+
+    private static GenericRow getPrimitiveRow(
+        final org.apache.kafka.connect.data.Schema schema,
+        final org.apache.kafka.connect.data.Schema primitiveSchema,
+        final GenericRow row) {
+      final List<Object> columns = new ArrayList<>(primitiveSchema.fields().size());
+      for (final Field field : primitiveSchema.fields()) {
+        columns.add(row.getColumns().get(schema.field(field.name()).index()));
+      }
+      return new GenericRow(columns);
+    }
+
     private static Serde<GenericRow> getAvroSerde(
         final org.apache.kafka.connect.data.Schema schema) {
       final SchemaRegistryClient schemaRegistryClient = new MockSchemaRegistryClient();
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.function.AggregateFunctionArguments;
+import io.confluent.ksql.function.AggregateFunctionFactory;
+import io.confluent.ksql.function.KsqlAggregateFunction;
+import io.confluent.ksql.function.udaf.topk.TopKAggregateFunctionFactory;
+import io.confluent.ksql.function.udaf.topkdistinct.TopkDistinctAggFunctionFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.kafka.connect.data.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *  Runs JMH microbenchmarks of adding values to the aggregate of the TOPK and TOPKDISTINCT
+ *  aggregate functions.
+ *  See `ksql-benchmark/README.md` for more info.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(4)
+@Fork(3)
+public class TopkBenchmark {
+
+  static final Map<String, Supplier<AggregateFunctionFactory>> FUNCTIONS = ImmutableMap.of(
+      "TOPK", TopKAggregateFunctionFactory::new,
+      "TOPKDISTINCT", TopkDistinctAggFunctionFactory::new
+  );
+
+  @State(Scope.Thread)
+  public static class AggregateState {
+
+    @Param({"TOPK", "TOPKDISTINCT"})
+    public String functionName;
+
+    @Param({"10", "100", "1000"})
+    public int k;
+
+    KsqlAggregateFunction<Long, List<Long>> function;
+    List<Long> aggregate;
+    private long count;
+    private long seed;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Iteration)
+    public void setUp() {
+      function = FUNCTIONS.get(functionName).get()
+          .getProperAggregateFunction(Collections.singletonList(Schema.OPTIONAL_INT64_SCHEMA))
+          .getInstance(new AggregateFunctionArguments(
+              0, ImmutableList.of("COL0", String.valueOf(k))));
+
+      count = 0;
+      seed = new Random(0).nextLong() | 1;
+      aggregate = function.getInitialValueSupplier().get();
+      for (int i = 0; i < k; i++) {
+        aggregate = function.aggregate(nextValue(), aggregate);
+      }
+    }
+
+    /**
+     * Values trend upwards with some noise, as for a hot key whose values grow over time, so a
+     * steady share of them make it into the top k, at varying positions.
+     */
+    Long nextValue() {
+      seed ^= seed << 13;
+      seed ^= seed >>> 7;
+      seed ^= seed << 17;
+      return ++count * 8 + (seed & 0x1FFF);
+    }
+  }
+
+  @Benchmark
+  public List<Long> aggregate(final AggregateState state) {
+    state.aggregate = state.function.aggregate(state.nextValue(), state.aggregate);
+    return state.aggregate;
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    final Options opt = new OptionsBuilder()
+        .include(TopkBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.benchmark;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import io.confluent.ksql.benchmark.ExpressionBenchmark.ExpressionState;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class ExpressionBenchmarkTest {
+
+  private final String expressionName;
+
+  private ExpressionState state;
+
+  public ExpressionBenchmarkTest(final String expressionName) {
+    this.expressionName = expressionName;
+  }
+
+  @Parameterized.Parameters(name = "{0}")
+  public static Iterable<Object[]> data() {
+    return ExpressionBenchmark.EXPRESSIONS.keySet()
+        .stream()
+        .map(name -> new Object[]{name})
+        .collect(Collectors.toList());
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    state = new ExpressionState();
+    state.expressionName = expressionName;
+    state.setUp();
+  }
+
+  @Test
+  public void shouldEvaluateToSameResultOnBothPaths() throws Exception {
+    final Object expected = state.evaluateReflectively();
+    assertThat(expected, is(notNullValue()));
+    assertThat(state.compiled.evaluate(state.row), is(expected));
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.benchmark;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import io.confluent.ksql.benchmark.TopkBenchmark.AggregateState;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class TopkBenchmarkTest {
+
+  private static final int K = 100;
+
+  private final String functionName;
+
+  private AggregateState state;
+  private TopkBenchmark benchmark;
+
+  public TopkBenchmarkTest(final String functionName) {
+    this.functionName = functionName;
+  }
+
+  @Parameterized.Parameters(name = "{0}")
+  public static Iterable<Object[]> data() {
+    return TopkBenchmark.FUNCTIONS.keySet()
+        .stream()
+        .map(name -> new Object[]{name})
+        .collect(Collectors.toList());
+  }
+
+  @Before
+  public void setUp() {
+    state = new AggregateState();
+    state.functionName = functionName;
+    state.k = K;
+    state.setUp();
+    benchmark = new TopkBenchmark();
+  }
+
+  @Test
+  public void shouldKeepTopKValuesInDescendingOrder() {
+    // When:
+    List<Long> result = null;
+    for (int i = 0; i < 10_000; i++) {
+      result = benchmark.aggregate(state);
+    }
+
+    // Then:
+    final List<Long> expected = new ArrayList<>(result);
+    expected.sort(Comparator.reverseOrder());
+    assertThat(result.size(), is(K));
+    assertThat(result, is(expected));
+  }
+}
@@ -15,18 +15,30 @@
 package io.confluent.ksql.function;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.confluent.ksql.util.KsqlException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 public class AggregateFunctionArguments {
 
   private final int udafIndex;
   private final List<String> args;
+  private final Map<String, ?> config;
 
   public AggregateFunctionArguments(final int index,  final List<String> args) {
+    this(index, args, ImmutableMap.of());
+  }
+
+  public AggregateFunctionArguments(
+      final int index,
+      final List<String> args,
+      final Map<String, ?> config
+  ) {
     this.udafIndex = index;
     this.args = ImmutableList.copyOf(Objects.requireNonNull(args, "args"));
+    this.config = ImmutableMap.copyOf(Objects.requireNonNull(config, "config"));
 
     if (index < 0) {
       throw new IllegalArgumentException("index is negative: " + index);
@@ -41,6 +53,14 @@ public class AggregateFunctionArguments {
     return args.get(i);
   }
 
+  /**
+   * @return the function's config, i.e. the {@code ksql.functions.<name>.*} properties in effect
+   *     for the query the function instance is created for.
+   */
+  public Map<String, ?> config() {
+    return config;
+  }
+
   public void ensureArgCount(final int expectedCount, final String functionName) {
     if (args.size() != expectedCount) {
       throw new KsqlException(
@@ -32,6 +32,23 @@ public interface KsqlAggregateFunction<V, A> {
 
   Schema getReturnType();
 
+  /**
+   * The schema of the aggregate the function keeps in its state store.
+   *
+   * <p>By default, the aggregate is the result of the function, i.e. of its return type. Functions
+   * keeping an aggregate of another type must also override {@link #getResult}.
+   */
+  default Schema getAggregateType() {
+    return getReturnType();
+  }
+
+  /**
+   * Maps an aggregate to the result of the function, of its return type.
+   */
+  default Object getResult(final A aggregate) {
+    return aggregate;
+  }
+
   boolean hasSameArgTypes(List<Schema> argTypeList);
 
   /**
@@ -109,6 +109,20 @@ public class KsqlConfig extends AbstractConfig implements Cloneable {
       + " VARCHAR SUBSTRING(str VARCHAR, pos INT, length INT), where pos is base-one indexed,"
       + " and the last argument is the length of the substring to extract.";
 
+  public static final String KSQL_FUNCTIONS_COLLECT_SET_LIMIT_CONFIG =
+      KSQL_FUNCTIONS_PROPERTY_PREFIX + "collect_set.limit";
+  public static final int KSQL_FUNCTIONS_COLLECT_SET_LIMIT_DEFAULT = 1000;
+  private static final String KSQL_FUNCTIONS_COLLECT_SET_LIMIT_DOC =
+      "The maximum number of distinct values the COLLECT_SET function collects into its Array."
+      + " Any further values are silently ignored.";
+
+  public static final String KSQL_FUNCTIONS_HISTOGRAM_LIMIT_CONFIG =
+      KSQL_FUNCTIONS_PROPERTY_PREFIX + "histogram.limit";
+  public static final int KSQL_FUNCTIONS_HISTOGRAM_LIMIT_DEFAULT = 1000;
+  private static final String KSQL_FUNCTIONS_HISTOGRAM_LIMIT_DOC =
+      "The maximum number of distinct values the HISTOGRAM function counts in its Map."
+      + " Any further values are silently ignored.";
+
   public static final String KSQL_WINDOWED_SESSION_KEY_LEGACY_CONFIG =
       KSQL_CONFIG_PROPERTY_PREFIX + "windowed.session.key.legacy";
 
@@ -134,6 +148,90 @@ public class KsqlConfig extends AbstractConfig implements Cloneable {
       KSQL_USE_NAMED_INTERNAL_TOPICS_ON, KSQL_USE_NAMED_INTERNAL_TOPICS_OFF
   );
 
+  public static final String KSQL_FUSE_FILTER_PROJECT_CONFIG =
+      "ksql.query.fuse.filter.project";
+  private static final String KSQL_FUSE_FILTER_PROJECT_DOC =
+      "Whether a WHERE clause and the projection that follows it on a stream should be evaluated "
+      + "in a single processor. Projections are then only computed for rows that pass the "
+      + "filter, and each record makes one pass through the operator rather than two. Changing "
+      + "this setting changes the topology of new queries.";
+
+  public static final String KSQL_PREAGGREGATE_MAX_ENTRIES_CONFIG =
+      "ksql.query.preaggregate.max.entries";
+  private static final String KSQL_PREAGGREGATE_MAX_ENTRIES_DOC =
+      "The maximum number of group-by keys for which an unwindowed aggregation combines rows "
+      + "into partial aggregates before they are repartitioned. Partial aggregates are kept in a "
+      + "logged state store, and forwarded once this many keys are buffered or the commit "
+      + "interval elapses. This reduces the data written to the repartition topic when many "
+      + "rows share few keys. The default of 0 disables pre-aggregation. Changing this setting "
+      + "changes the topology of new queries.";
+
+  public static final String KSQL_GROUP_BY_BINARY_KEY_CONFIG =
+      "ksql.query.groupby.binary.key.enable";
+  private static final String KSQL_GROUP_BY_BINARY_KEY_DOC =
+      "Whether an unwindowed aggregation of a stream grouped by more than one column should "
+      + "repartition its rows, and store its aggregates, under a binary key holding the typed "
+      + "values of the columns, rather than their string values joined by a separator. The key "
+      + "written to the sink topic is unchanged. Such aggregations fail if "
+      + KSQL_PREAGGREGATE_MAX_ENTRIES_CONFIG + " is also set, as partial aggregates are keyed "
+      + "by strings. Changing this setting changes the topology of new queries.";
+
+  public static final String KSQL_HOPPING_WINDOW_PANES_CONFIG =
+      "ksql.query.hopping.panes.enable";
+  private static final String KSQL_HOPPING_WINDOW_PANES_DOC =
+      "Whether a HOPPING window aggregation should aggregate each record into one "
+      + "non-overlapping pane, whose width is the greatest common divisor of the window size and "
+      + "advance, and compute the results of the windows by merging their panes. Each record "
+      + "then makes one write to the state store, rather than one per window it falls in. "
+      + "Changing this setting changes the topology of new queries.";
+
+  public static final String KSQL_EMIT_FINAL_BUFFER_MAX_BYTES_CONFIG =
+      "ksql.query.emit.final.buffer.max.bytes";
+  private static final String KSQL_EMIT_FINAL_BUFFER_MAX_BYTES_DOC =
+      "The maximum number of bytes of window results each task of an EMIT FINAL query buffers "
+      + "in memory until their windows close. The buffer is backed by a changelog topic, so no "
+      + "results are lost on failure. A query whose buffer fills up is shut down, rather than "
+      + "emitting results before their windows close. The default of 0 leaves the buffer "
+      + "unbounded.";
+
+  public static final String KSQL_EMIT_FINAL_GRACE_PERIOD_MS_CONFIG =
+      "ksql.query.emit.final.grace.period.ms";
+  private static final String KSQL_EMIT_FINAL_GRACE_PERIOD_MS_DOC =
+      "How long, in milliseconds, the windows of an EMIT FINAL query accept out-of-order records "
+      + "after they end. A window's final result is emitted once this has passed, and later "
+      + "records for the window are dropped. The default of 0 closes each window as soon as a "
+      + "record past its end is seen.";
+
+  public static final String KSQL_PERSISTENT_QUERY_CACHE_MAX_BYTES_TOTAL_CONFIG =
+      "ksql.query.persistent.cache.max.bytes.total";
+  private static final String KSQL_PERSISTENT_QUERY_CACHE_MAX_BYTES_TOTAL_DOC =
+      "The total number of bytes of record caches shared by the persistent queries of the server. "
+      + "Each new persistent query is given an equal share of it as its "
+      + StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG + ", i.e. the total divided by "
+      + KSQL_ACTIVE_PERSISTENT_QUERY_LIMIT_CONFIG + ", which must also be set. A query's own "
+      + "setting, in its WITH clause or a property override, takes precedence. The default of 0 "
+      + "disables this, and each query uses the server's "
+      + StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG + ".";
+
+  public static final String KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG =
+      "ksql.query.rocksdb.shared.memory.max.bytes";
+  private static final String KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_DOC =
+      "The number of bytes of a RocksDB block cache shared by the state stores of all queries, to "
+      + "which their memtables are also charged, bounding the off-heap memory of the stores of "
+      + "the server as a whole. It cannot be used with a custom "
+      + StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG + ". The default of 0 gives each store "
+      + "its own block cache and memtables.";
+
+  public static final String KSQL_PERSISTENT_QUERY_STREAM_THREADS_TOTAL_CONFIG =
+      "ksql.query.persistent.stream.threads.total";
+  private static final String KSQL_PERSISTENT_QUERY_STREAM_THREADS_TOTAL_DOC =
+      "The total number of stream threads the persistent queries of the server may use, i.e. the "
+      + "sum of their " + StreamsConfig.NUM_STREAM_THREADS_CONFIG + ". A persistent query that "
+      + "would take the total over this is not started. Each stream thread owns a fixed set of "
+      + "Kafka clients, so this also bounds the connections the queries open, unless they use "
+      + "exactly-once processing, which opens a producer per task. The default of 0 leaves the "
+      + "total unbounded.";
+
   public static final String
       defaultSchemaRegistryUrl = "http://localhost:8081";
 
@@ -367,6 +465,80 @@ public class KsqlConfig extends AbstractConfig implements Cloneable {
             ConfigDef.Importance.LOW,
             "Enable the security manager for UDFs. Default is true and will stop UDFs from"
                + " calling System.exit or executing processes"
+        ).define(
+            KSQL_FUSE_FILTER_PROJECT_CONFIG,
+            ConfigDef.Type.BOOLEAN,
+            false,
+            ConfigDef.Importance.LOW,
+            KSQL_FUSE_FILTER_PROJECT_DOC
+        ).define(
+            KSQL_PREAGGREGATE_MAX_ENTRIES_CONFIG,
+            ConfigDef.Type.INT,
+            0,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            KSQL_PREAGGREGATE_MAX_ENTRIES_DOC
+        ).define(
+            KSQL_GROUP_BY_BINARY_KEY_CONFIG,
+            ConfigDef.Type.BOOLEAN,
+            false,
+            ConfigDef.Importance.LOW,
+            KSQL_GROUP_BY_BINARY_KEY_DOC
+        ).define(
+            KSQL_HOPPING_WINDOW_PANES_CONFIG,
+            ConfigDef.Type.BOOLEAN,
+            false,
+            ConfigDef.Importance.LOW,
+            KSQL_HOPPING_WINDOW_PANES_DOC
+        ).define(
+            KSQL_EMIT_FINAL_BUFFER_MAX_BYTES_CONFIG,
+            ConfigDef.Type.LONG,
+            0L,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            KSQL_EMIT_FINAL_BUFFER_MAX_BYTES_DOC
+        ).define(
+            KSQL_EMIT_FINAL_GRACE_PERIOD_MS_CONFIG,
+            ConfigDef.Type.LONG,
+            0L,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            KSQL_EMIT_FINAL_GRACE_PERIOD_MS_DOC
+        ).define(
+            KSQL_PERSISTENT_QUERY_CACHE_MAX_BYTES_TOTAL_CONFIG,
+            ConfigDef.Type.LONG,
+            0L,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            KSQL_PERSISTENT_QUERY_CACHE_MAX_BYTES_TOTAL_DOC
+        ).define(
+            KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG,
+            ConfigDef.Type.LONG,
+            0L,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_DOC
+        ).define(
+            KSQL_PERSISTENT_QUERY_STREAM_THREADS_TOTAL_CONFIG,
+            ConfigDef.Type.INT,
+            0,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            KSQL_PERSISTENT_QUERY_STREAM_THREADS_TOTAL_DOC
+        ).define(
+            KSQL_FUNCTIONS_COLLECT_SET_LIMIT_CONFIG,
+            ConfigDef.Type.INT,
+            KSQL_FUNCTIONS_COLLECT_SET_LIMIT_DEFAULT,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            KSQL_FUNCTIONS_COLLECT_SET_LIMIT_DOC
+        ).define(
+            KSQL_FUNCTIONS_HISTOGRAM_LIMIT_CONFIG,
+            ConfigDef.Type.INT,
+            KSQL_FUNCTIONS_HISTOGRAM_LIMIT_DEFAULT,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            KSQL_FUNCTIONS_HISTOGRAM_LIMIT_DOC
         )
         .withClientSslSupport();
     for (final CompatibilityBreakingConfigDef compatibilityBreakingConfigDef
@@ -27,6 +27,10 @@ public final class KsqlConstants {
 
   public static final String SINK_TIMESTAMP_COLUMN_NAME = "TIMESTAMP";
 
+  public static final String QUERY_CACHE_MAX_BYTES = "CACHE_MAX_BYTES";
+  public static final String QUERY_COMMIT_INTERVAL_MS = "COMMIT_INTERVAL_MS";
+  public static final String QUERY_NUM_STREAM_THREADS = "NUM_STREAM_THREADS";
+
   public static final String STREAMS_CHANGELOG_TOPIC_SUFFIX = "-changelog";
   public static final String STREAMS_REPARTITION_TOPIC_SUFFIX = "-repartition";
 
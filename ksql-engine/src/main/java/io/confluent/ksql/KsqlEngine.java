@@ -15,6 +15,7 @@
 package io.confluent.ksql;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
 import io.confluent.ksql.ddl.DdlConfig;
@@ -49,6 +50,7 @@ import io.confluent.ksql.parser.tree.QuerySpecification;
 import io.confluent.ksql.parser.tree.StringLiteral;
 import io.confluent.ksql.parser.tree.Table;
 import io.confluent.ksql.planner.LogicalPlanNode;
+import io.confluent.ksql.planner.plan.KsqlStructuredDataOutputNode;
 import io.confluent.ksql.processing.log.ProcessingLogContext;
 import io.confluent.ksql.query.QueryId;
 import io.confluent.ksql.schema.registry.SchemaRegistryUtil;
@@ -93,6 +95,9 @@ public class KsqlEngine implements KsqlExecutionContext, Closeable {
       .add(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG)
       .add(KsqlConfig.KSQL_EXT_DIR)
       .add(KsqlConfig.KSQL_ACTIVE_PERSISTENT_QUERY_LIMIT_CONFIG)
+      .add(KsqlConfig.KSQL_PERSISTENT_QUERY_CACHE_MAX_BYTES_TOTAL_CONFIG)
+      .add(KsqlConfig.KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG)
+      .add(KsqlConfig.KSQL_PERSISTENT_QUERY_STREAM_THREADS_TOTAL_CONFIG)
       .addAll(KsqlConfig.SSL_CONFIG_NAMES)
       .build();
 
@@ -180,6 +185,10 @@ public class KsqlEngine implements KsqlExecutionContext, Closeable {
     return primaryContext.ddlCommandExec;
   }
 
+  public QueryIdGenerator getQueryIdGenerator() {
+    return primaryContext.queryIdGenerator;
+  }
+
   public String getServiceId() {
     return serviceId;
   }
@@ -546,9 +555,13 @@ public class KsqlEngine implements KsqlExecutionContext, Closeable {
           return ExecuteResult.of(msg);
         }
 
+        if (logicalPlan.getNode() instanceof KsqlStructuredDataOutputNode) {
+          enforceStreamThreadsTotal((KsqlStructuredDataOutputNode) logicalPlan.getNode());
+        }
+
         final QueryMetadata query = queryEngine.buildPhysicalPlan(
             logicalPlan,
-            ksqlConfig,
+            withPersistentQueryCacheShare(logicalPlan),
             overriddenProperties,
             engineContext.serviceContext.getKafkaClientSupplier(),
             engineContext.metaStore
@@ -566,6 +579,80 @@ public class KsqlEngine implements KsqlExecutionContext, Closeable {
       }
     }
 
+    /**
+     * Gives a new persistent query its share of the server's total record cache size, if there
+     * is one, as its default cache size.
+     *
+     * <p>Kafka Streams cannot resize the cache of a running query, so the total is divided by the
+     * limit on active persistent queries, which must be set, rather than by the number of queries
+     * running now. Otherwise the shares of earlier queries would add up to more than the total.
+     */
+    private KsqlConfig withPersistentQueryCacheShare(final LogicalPlanNode logicalPlan) {
+      final long totalCacheBytes =
+          ksqlConfig.getLong(KsqlConfig.KSQL_PERSISTENT_QUERY_CACHE_MAX_BYTES_TOTAL_CONFIG);
+      if (totalCacheBytes == 0
+          || !(logicalPlan.getNode() instanceof KsqlStructuredDataOutputNode)) {
+        return ksqlConfig;
+      }
+
+      final int queryLimit =
+          ksqlConfig.getInt(KsqlConfig.KSQL_ACTIVE_PERSISTENT_QUERY_LIMIT_CONFIG);
+      if (queryLimit == Integer.MAX_VALUE) {
+        throw new KsqlException(KsqlConfig.KSQL_PERSISTENT_QUERY_CACHE_MAX_BYTES_TOTAL_CONFIG
+            + " can only be used if " + KsqlConfig.KSQL_ACTIVE_PERSISTENT_QUERY_LIMIT_CONFIG
+            + " is also set.");
+      }
+
+      return ksqlConfig.cloneWithPropertyOverwrite(ImmutableMap.of(
+          StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG, totalCacheBytes / queryLimit));
+    }
+
+    /**
+     * Checks a new persistent query's stream threads fit in the server's total, if there is one.
+     *
+     * <p>Kafka Streams 2.x cannot run the topologies of several queries, which are started and
+     * terminated independently, in one instance, so each query keeps its own threads and
+     * clients. Capping the threads the queries use between them bounds both.
+     *
+     * <p>A NUM_STREAM_THREADS set in the WITH clause of the statement takes precedence over the
+     * configured number, as it does when the query is built.
+     */
+    private void enforceStreamThreadsTotal(final KsqlStructuredDataOutputNode outputNode) {
+      final int threadsTotal =
+          ksqlConfig.getInt(KsqlConfig.KSQL_PERSISTENT_QUERY_STREAM_THREADS_TOTAL_CONFIG);
+      if (threadsTotal == 0) {
+        return;
+      }
+
+      final int threadsInUse = engineContext.persistentQueries.values().stream()
+          .mapToInt(query -> numStreamThreads(query.getStreamsProperties()))
+          .sum();
+      final Object queryThreads =
+          outputNode.getOutputProperties().get(StreamsConfig.NUM_STREAM_THREADS_CONFIG);
+      final int threadsNeeded = queryThreads != null
+          ? Integer.parseInt(queryThreads.toString())
+          : numStreamThreads(ksqlConfig
+              .cloneWithPropertyOverwrite(overriddenProperties)
+              .getKsqlStreamConfigProps());
+
+      if (threadsInUse + threadsNeeded > threadsTotal) {
+        throw new KsqlException(String.format(
+            "Not starting the query as its %d stream thread(s) would take the persistent queries "
+                + "over the '%s' of %d. They already use %d. Use the TERMINATE command to "
+                + "terminate existing queries, or lower '%s'.",
+            threadsNeeded,
+            KsqlConfig.KSQL_PERSISTENT_QUERY_STREAM_THREADS_TOTAL_CONFIG,
+            threadsTotal,
+            threadsInUse,
+            StreamsConfig.NUM_STREAM_THREADS_CONFIG));
+      }
+    }
+
+    private static int numStreamThreads(final Map<String, Object> streamsProperties) {
+      final Object numThreads = streamsProperties.get(StreamsConfig.NUM_STREAM_THREADS_CONFIG);
+      return numThreads == null ? 1 : Integer.parseInt(numThreads.toString());
+    }
+
     private PreparedStatement<?> preProcessStatement(final PreparedStatement<?> stmt) {
       if (stmt.getStatement() instanceof CreateAsSelect) {
         return preProcessCreateAsSelectStatement(stmt);
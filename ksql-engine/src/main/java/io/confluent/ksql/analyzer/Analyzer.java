@@ -62,10 +62,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.streams.StreamsConfig;
 
 // CHECKSTYLE_RULES.OFF: ClassDataAbstractionCoupling
 public class Analyzer extends DefaultTraversalVisitor<Node, AnalysisContext> {
@@ -148,7 +150,14 @@ public class Analyzer extends DefaultTraversalVisitor<Node, AnalysisContext> {
             intoTopicSerde = new KsqlJsonTopicSerDe();
             break;
           case DataSource.DELIMITED_SERDE_NAME:
-            intoTopicSerde = new KsqlDelimitedTopicSerDe();
+            final Character delimiter =
+                (Character) analysis.getIntoProperties().get(DdlConfig.VALUE_DELIMITER_PROPERTY);
+            if (delimiter != null) {
+              intoTopicSerde = new KsqlDelimitedTopicSerDe(delimiter);
+            } else if (!(intoTopicSerde instanceof KsqlDelimitedTopicSerDe)) {
+              intoTopicSerde = new KsqlDelimitedTopicSerDe();
+            }
+            // Otherwise the sink keeps the delimiter of the delimited source.
             break;
           default:
             throw new KsqlException(
@@ -592,6 +601,53 @@ public class Analyzer extends DefaultTraversalVisitor<Node, AnalysisContext> {
             .getProperties().get(KsqlConstants.SINK_NUMBER_OF_REPLICAS).toString());
       }
     }
+
+    setIntoStreamsProperty(
+        node,
+        KsqlConstants.QUERY_CACHE_MAX_BYTES,
+        StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG,
+        0,
+        Long::valueOf);
+
+    setIntoStreamsProperty(
+        node,
+        KsqlConstants.QUERY_COMMIT_INTERVAL_MS,
+        StreamsConfig.COMMIT_INTERVAL_MS_CONFIG,
+        0,
+        Long::valueOf);
+
+    setIntoStreamsProperty(
+        node,
+        KsqlConstants.QUERY_NUM_STREAM_THREADS,
+        StreamsConfig.NUM_STREAM_THREADS_CONFIG,
+        1,
+        Integer::valueOf);
+  }
+
+  private void setIntoStreamsProperty(
+      final Table node,
+      final String withClauseName,
+      final String streamsConfigName,
+      final long minValue,
+      final Function<String, Number> parser
+  ) {
+    final Expression property = node.getProperties().get(withClauseName);
+    if (property == null) {
+      return;
+    }
+
+    final Number value;
+    try {
+      value = parser.apply(property.toString());
+    } catch (final NumberFormatException e) {
+      throw new KsqlException(
+          "Invalid " + withClauseName + " in WITH clause: " + property.toString());
+    }
+    if (value.longValue() < minValue) {
+      throw new KsqlException(withClauseName + " in WITH clause must be at least " + minValue
+          + ", but was: " + value);
+    }
+    analysis.getIntoProperties().put(streamsConfigName, value);
   }
 
   private void setIntoTopicName(final Table node) {
@@ -637,6 +693,18 @@ public class Analyzer extends DefaultTraversalVisitor<Node, AnalysisContext> {
       throw new KsqlException(
               DdlConfig.VALUE_AVRO_SCHEMA_FULL_NAME + " is only valid for AVRO topics.");
     }
+
+    final Expression delimiter = node.getProperties().get(DdlConfig.VALUE_DELIMITER_PROPERTY);
+    if (delimiter == null) {
+      return;
+    }
+    if (!DataSource.DELIMITED_SERDE_NAME.equals(serde)) {
+      throw new KsqlException(
+          DdlConfig.VALUE_DELIMITER_PROPERTY + " is only valid for DELIMITED topics.");
+    }
+    analysis.getIntoProperties().put(
+        DdlConfig.VALUE_DELIMITER_PROPERTY,
+        KsqlDelimitedTopicSerDe.parseDelimiter(StringUtil.cleanQuotes(delimiter.toString())));
   }
 
   private void setIntoTimestampColumnAndFormat(final Table node) {
@@ -675,6 +743,10 @@ public class Analyzer extends DefaultTraversalVisitor<Node, AnalysisContext> {
     validSet.add(KsqlConstants.SINK_NUMBER_OF_REPLICAS.toUpperCase());
     validSet.add(DdlConfig.TIMESTAMP_FORMAT_PROPERTY.toUpperCase());
     validSet.add(DdlConfig.VALUE_AVRO_SCHEMA_FULL_NAME.toUpperCase());
+    validSet.add(DdlConfig.VALUE_DELIMITER_PROPERTY.toUpperCase());
+    validSet.add(KsqlConstants.QUERY_CACHE_MAX_BYTES.toUpperCase());
+    validSet.add(KsqlConstants.QUERY_COMMIT_INTERVAL_MS.toUpperCase());
+    validSet.add(KsqlConstants.QUERY_NUM_STREAM_THREADS.toUpperCase());
 
     for (final String withVariable : withClauseVariables) {
       if (!validSet.contains(withVariable.toUpperCase())) {
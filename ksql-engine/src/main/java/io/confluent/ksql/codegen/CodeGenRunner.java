@@ -51,11 +51,12 @@ import java.util.stream.Stream;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.codehaus.commons.compiler.CompileException;
-import org.codehaus.commons.compiler.CompilerFactoryFactory;
-import org.codehaus.commons.compiler.IExpressionEvaluator;
 
 public class CodeGenRunner {
 
+  private static final String PARAMETERS_VAR = "$parameters";
+  private static final String RESULT_VAR = "$result";
+
   private final Schema schema;
   private final FunctionRegistry functionRegistry;
   private final ExpressionTypeManager expressionTypeManager;
@@ -116,19 +117,16 @@ public class CodeGenRunner {
 
       final String javaCode = new SqlToJavaVisitor(schema, functionRegistry).process(expression);
 
-      final IExpressionEvaluator ee =
-          CompilerFactoryFactory.getDefaultCompilerFactory().newExpressionEvaluator();
-      ee.setDefaultImports(SqlToJavaVisitor.JAVA_IMPORTS.toArray(new String[0]));
-      ee.setParameters(parameterNames, parameterTypes);
-
       final Schema expressionType = expressionTypeManager.getExpressionSchema(expression);
 
-      ee.setExpressionType(SchemaUtil.getJavaType(expressionType));
-
-      ee.cook(javaCode);
+      final CompiledExpression compiledExpression = compileExpression(
+          parameterNames,
+          parameterTypes,
+          SchemaUtil.getJavaType(expressionType),
+          javaCode);
 
       return new ExpressionMetadata(
-          ee,
+          compiledExpression,
           columnIndexes,
           kudfObjects,
           expressionType,
@@ -144,6 +142,91 @@ public class CodeGenRunner {
     }
   }
 
+  /**
+   * Compile {@code javaCode} into a class implementing {@link CompiledExpression}.
+   *
+   * <p>Unlike Janino's {@code IExpressionEvaluator.evaluate}, which is invoked via reflection,
+   * the generated class is called directly, allowing the JIT to inline the expression body.
+   */
+  public static CompiledExpression compileExpression(
+      final String[] parameterNames,
+      final Class[] parameterTypes,
+      final Class<?> expressionType,
+      final String javaCode
+  ) throws Exception {
+    final String body = buildClassBody(
+        "Object evaluate(final Object[] " + PARAMETERS_VAR + ")",
+        parameterNames,
+        parameterTypes,
+        expressionType.getCanonicalName(),
+        javaCode);
+
+    return (CompiledExpression) cook(CompiledExpression.class, body);
+  }
+
+  /**
+   * Compile {@code javaCode}, which must evaluate to a boolean, into a class implementing
+   * {@link CompiledPredicate}.
+   */
+  public static CompiledPredicate compilePredicate(
+      final String[] parameterNames,
+      final Class[] parameterTypes,
+      final String javaCode
+  ) throws Exception {
+    final String body = buildClassBody(
+        "boolean test(final Object[] " + PARAMETERS_VAR + ")",
+        parameterNames,
+        parameterTypes,
+        "boolean",
+        javaCode);
+
+    return (CompiledPredicate) cook(CompiledPredicate.class, body);
+  }
+
+  private static Object cook(
+      final Class<?> interfaceType,
+      final String classBody
+  ) throws Exception {
+    return CompiledClassCache.newInstance(
+        interfaceType,
+        SqlToJavaVisitor.JAVA_IMPORTS.toArray(new String[0]),
+        classBody);
+  }
+
+  private static String buildClassBody(
+      final String methodSignature,
+      final String[] parameterNames,
+      final Class[] parameterTypes,
+      final String resultType,
+      final String javaCode
+  ) {
+    final StringBuilder body = new StringBuilder()
+        .append("public ").append(methodSignature).append(" {\n");
+
+    for (int i = 0; i < parameterNames.length; i++) {
+      final String typeName = declaredTypeName(parameterTypes[i]);
+      body.append("  final ").append(typeName).append(' ').append(parameterNames[i])
+          .append(" = (").append(typeName).append(") ")
+          .append(PARAMETERS_VAR).append('[').append(i).append("];\n");
+    }
+
+    return body
+        .append("  final ").append(resultType).append(' ').append(RESULT_VAR)
+        .append(" = ").append(javaCode).append(";\n")
+        .append("  return ").append(RESULT_VAR).append(";\n")
+        .append("}\n")
+        .toString();
+  }
+
+  private static String declaredTypeName(final Class<?> type) {
+    // UDF classes may be loaded by a UdfClassLoader that the generated class can not see.
+    // Generated code only ever calls Kudf.evaluate on them, so declare them by the interface.
+    if (Kudf.class.isAssignableFrom(type)) {
+      return Kudf.class.getCanonicalName();
+    }
+    return type.getCanonicalName();
+  }
+
   private static final class Visitor extends AstVisitor<Object, Object> {
 
     private final Schema schema;
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.codegen;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.concurrent.ExecutionException;
+import org.codehaus.commons.compiler.CompilerFactoryFactory;
+import org.codehaus.commons.compiler.IClassBodyEvaluator;
+
+/**
+ * A JVM wide cache of the classes generated for compiled expressions.
+ *
+ * <p>Many queries share the same filters and projections, and compiling them with Janino
+ * dominates the time taken to build a query. The generated class body fully determines the
+ * class, as it contains the Java code for the expression along with the name and type of every
+ * column and UDF it references, so it is used as the cache key. Expressions that read the same
+ * columns, with the same types, from different sources therefore share a class.
+ *
+ * <p>Generated classes hold no state, so callers are free to create a new instance per query.
+ * UDF instances are bound as parameters and so are never shared.
+ *
+ * <p>The cache is bounded, and holds its classes weakly so that classes no longer used by any
+ * running query can be unloaded.
+ */
+final class CompiledClassCache {
+
+  private static final int MAX_CACHED_CLASSES = 10_000;
+
+  private static final Cache<String, Class<?>> CLASSES = CacheBuilder.newBuilder()
+      .maximumSize(MAX_CACHED_CLASSES)
+      .weakValues()
+      .build();
+
+  private CompiledClassCache() {
+  }
+
+  static Object newInstance(
+      final Class<?> interfaceType,
+      final String[] defaultImports,
+      final String classBody
+  ) throws Exception {
+    final String key = interfaceType.getName() + "\n" + classBody;
+
+    final Class<?> clazz;
+    try {
+      clazz = CLASSES.get(key, () -> compile(interfaceType, defaultImports, classBody));
+    } catch (final ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+
+    return clazz.getDeclaredConstructor().newInstance();
+  }
+
+  private static Class<?> compile(
+      final Class<?> interfaceType,
+      final String[] defaultImports,
+      final String classBody
+  ) throws Exception {
+    final IClassBodyEvaluator cbe =
+        CompilerFactoryFactory.getDefaultCompilerFactory().newClassBodyEvaluator();
+    cbe.setParentClassLoader(interfaceType.getClassLoader());
+    cbe.setDefaultImports(defaultImports);
+    cbe.setImplementedInterfaces(new Class[]{interfaceType});
+    cbe.cook(classBody);
+    return cbe.getClazz();
+  }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.codegen;
+
+/**
+ * An expression compiled to a class that implements this interface directly.
+ *
+ * <p>Parameters are bound positionally, in the order of the expression's parameter info. Each
+ * slot holds either a column value or an instance of a UDF the expression calls.
+ */
+@FunctionalInterface
+public interface CompiledExpression {
+
+  Object evaluate(Object[] parameters);
+}
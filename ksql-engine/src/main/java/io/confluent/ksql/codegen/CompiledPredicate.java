@@ -0,0 +1,25 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.codegen;
+
+/**
+ * A boolean expression compiled to a class that implements this interface directly, so that
+ * the result of a WHERE clause is never boxed.
+ */
+@FunctionalInterface
+public interface CompiledPredicate {
+
+  boolean test(Object[] parameters);
+}
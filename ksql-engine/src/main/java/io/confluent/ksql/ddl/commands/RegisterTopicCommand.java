@@ -67,6 +67,11 @@ public class RegisterTopicCommand implements DdlCommand {
       throw new KsqlException(
               DdlConfig.VALUE_AVRO_SCHEMA_FULL_NAME + " is only valid for AVRO topics.");
     }
+    if (!serde.equalsIgnoreCase(DataSource.DELIMITED_SERDE_NAME)
+        && properties.containsKey(DdlConfig.VALUE_DELIMITER_PROPERTY)) {
+      throw new KsqlException(
+          DdlConfig.VALUE_DELIMITER_PROPERTY + " is only valid for DELIMITED topics.");
+    }
     switch (serde.toUpperCase()) {
       case DataSource.AVRO_SERDE_NAME:
         final Expression schemaFullNameExp =
@@ -78,7 +83,12 @@ public class RegisterTopicCommand implements DdlCommand {
       case DataSource.JSON_SERDE_NAME:
         return new KsqlJsonTopicSerDe();
       case DataSource.DELIMITED_SERDE_NAME:
-        return new KsqlDelimitedTopicSerDe();
+        final Expression delimiterExp = properties.get(DdlConfig.VALUE_DELIMITER_PROPERTY);
+        if (delimiterExp == null) {
+          return new KsqlDelimitedTopicSerDe();
+        }
+        return new KsqlDelimitedTopicSerDe(KsqlDelimitedTopicSerDe.parseDelimiter(
+            StringUtil.cleanQuotes(delimiterExp.toString())));
       default:
         throw new KsqlException("The specified topic serde is not supported.");
     }
@@ -15,9 +15,12 @@
 package io.confluent.ksql.function;
 
 import com.google.common.collect.ImmutableList;
+import io.confluent.ksql.function.udaf.average.AverageAggFunctionFactory;
 import io.confluent.ksql.function.udaf.count.CountAggFunctionFactory;
+import io.confluent.ksql.function.udaf.countdistinct.CountDistinctApproxAggFunctionFactory;
 import io.confluent.ksql.function.udaf.max.MaxAggFunctionFactory;
 import io.confluent.ksql.function.udaf.min.MinAggFunctionFactory;
+import io.confluent.ksql.function.udaf.percentile.PercentileApproxAggFunctionFactory;
 import io.confluent.ksql.function.udaf.sum.SumAggFunctionFactory;
 import io.confluent.ksql.function.udaf.topk.TopKAggregateFunctionFactory;
 import io.confluent.ksql.function.udaf.topkdistinct.TopkDistinctAggFunctionFactory;
@@ -336,12 +339,16 @@ public class InternalFunctionRegistry implements MutableFunctionRegistry {
 
       functionRegistry.addAggregateFunctionFactory(new CountAggFunctionFactory());
       functionRegistry.addAggregateFunctionFactory(new SumAggFunctionFactory());
+      functionRegistry.addAggregateFunctionFactory(new AverageAggFunctionFactory());
 
       functionRegistry.addAggregateFunctionFactory(new MaxAggFunctionFactory());
       functionRegistry.addAggregateFunctionFactory(new MinAggFunctionFactory());
 
       functionRegistry.addAggregateFunctionFactory(new TopKAggregateFunctionFactory());
       functionRegistry.addAggregateFunctionFactory(new TopkDistinctAggFunctionFactory());
+
+      functionRegistry.addAggregateFunctionFactory(new CountDistinctApproxAggFunctionFactory());
+      functionRegistry.addAggregateFunctionFactory(new PercentileApproxAggFunctionFactory());
     }
 
     private void addBuiltInFunction(final KsqlFunction ksqlFunction) {
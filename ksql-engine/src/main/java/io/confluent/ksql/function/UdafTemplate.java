@@ -19,6 +19,7 @@ import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeSpec;
+import io.confluent.common.Configurable;
 import io.confluent.ksql.function.udaf.TableUdaf;
 import io.confluent.ksql.function.udaf.Udaf;
 import java.lang.reflect.Method;
@@ -98,8 +99,8 @@ public final class UdafTemplate {
             .addStatement("args.ensureArgCount($L, $S)", udaf.getParameters().length + 1, udafName)
             .returns(KsqlAggregateFunction.class)
             .addStatement(
-                "return new $L($T.$L($L), args.udafIndex(), getArgTypes(), getReturnType(), "
-                    + "aggregateSensor, mergeSensor)",
+                "return new $L(configure($T.$L($L), args), args.udafIndex(), getArgTypes(), "
+                    + "getReturnType(), aggregateSensor, mergeSensor)",
                 className,
                 udaf.getDeclaringClass(),
                 udaf.getName(),
@@ -107,11 +108,20 @@ public final class UdafTemplate {
             .build());
 
     return JavaFile.builder("io.confluent.ksql.function.udaf", udafTypeSpec.build())
-        .addStaticImport(UdafTemplate.class, "coerce")
+        .addStaticImport(UdafTemplate.class, "coerce", "configure")
         .build()
         .toString();
   }
 
+  public static Udaf<?, ?> configure(
+      final Udaf<?, ?> udaf,
+      final AggregateFunctionArguments args) {
+    if (udaf instanceof Configurable) {
+      ((Configurable) udaf).configure(args.config());
+    }
+    return udaf;
+  }
+
   @SuppressWarnings("unchecked")
   public static <T> T coerce(
       final AggregateFunctionArguments args,
@@ -17,70 +17,121 @@ package io.confluent.ksql.function.udaf;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.function.KsqlAggregateFunction;
 import io.confluent.ksql.function.UdafAggregator;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import org.apache.kafka.streams.kstream.Aggregator;
 import org.apache.kafka.streams.kstream.Merger;
 
 public class KudafAggregator implements UdafAggregator {
 
-  private Map<Integer, KsqlAggregateFunction> aggValToAggFunctionMap;
-  private Map<Integer, Integer> aggValToValColumnMap;
+  // The maps passed to the constructor, flattened into arrays as apply is called for every record:
+  private final int[] valueColumnAggIndexes;
+  private final int[] valueColumnIndexes;
+  private final int[] aggFunctionAggIndexes;
+  private final int[] aggFunctionArgIndexes;
+  private final KsqlAggregateFunction[] aggFunctions;
 
   public KudafAggregator(
       final Map<Integer, KsqlAggregateFunction> aggValToAggFunctionMap,
       final Map<Integer, Integer> aggValToValColumnMap) {
-    this.aggValToAggFunctionMap = aggValToAggFunctionMap;
-    this.aggValToValColumnMap = aggValToValColumnMap;
+    this.valueColumnAggIndexes = new int[aggValToValColumnMap.size()];
+    this.valueColumnIndexes = new int[aggValToValColumnMap.size()];
+    int i = 0;
+    for (final Map.Entry<Integer, Integer> entry : aggValToValColumnMap.entrySet()) {
+      valueColumnAggIndexes[i] = entry.getKey();
+      valueColumnIndexes[i] = entry.getValue();
+      i++;
+    }
+
+    this.aggFunctionAggIndexes = new int[aggValToAggFunctionMap.size()];
+    this.aggFunctionArgIndexes = new int[aggValToAggFunctionMap.size()];
+    this.aggFunctions = new KsqlAggregateFunction[aggValToAggFunctionMap.size()];
+    i = 0;
+    for (final Map.Entry<Integer, KsqlAggregateFunction> entry
+        : aggValToAggFunctionMap.entrySet()) {
+      aggFunctionAggIndexes[i] = entry.getKey();
+      aggFunctionArgIndexes[i] = entry.getValue().getArgIndexInValue();
+      aggFunctions[i] = entry.getValue();
+      i++;
+    }
   }
 
   @SuppressWarnings("unchecked")
   @Override
   public GenericRow apply(final String s, final GenericRow rowValue, final GenericRow aggRowValue) {
+    final List<Object> columns = rowValue.getColumns();
+    final List<Object> aggColumns = aggRowValue.getColumns();
+
     // copy over group-by and aggregate parameter columns into the output row
-    aggValToValColumnMap.forEach(
-        (key, value) ->
-            aggRowValue.getColumns().set(key, rowValue.getColumns().get(value)));
+    for (int i = 0; i < valueColumnAggIndexes.length; i++) {
+      aggColumns.set(valueColumnAggIndexes[i], columns.get(valueColumnIndexes[i]));
+    }
 
     // compute the aggregation and write it into the output row. Its assumed that
     // the columns written by this statement do not overlap with those written by
     // the above statement.
-    aggValToAggFunctionMap.forEach((key, value) ->
-        aggRowValue.getColumns().set(
-            key,
-            value.aggregate(
-                rowValue.getColumns().get(value.getArgIndexInValue()),
-                aggRowValue.getColumns().get(key))));
+    for (int i = 0; i < aggFunctionAggIndexes.length; i++) {
+      final int aggIndex = aggFunctionAggIndexes[i];
+      final Object currentValue = columns.get(aggFunctionArgIndexes[i]);
+      aggColumns.set(aggIndex, aggFunctions[i].aggregate(currentValue, aggColumns.get(aggIndex)));
+    }
 
     return aggRowValue;
   }
 
+  /**
+   * Get an aggregator that combines partial aggregates, built by this aggregator from some of the
+   * rows of a key, into the aggregate of the key.
+   *
+   * <p>Partial aggregates have the same layout as the aggregate row. Each aggregate column is
+   * combined using its function's merger.
+   */
+  @SuppressWarnings("unchecked")
+  public Aggregator<String, GenericRow, GenericRow> getPartialAggregator() {
+    return (key, partialRowValue, aggRowValue) -> {
+      final List<Object> partialColumns = partialRowValue.getColumns();
+      final List<Object> aggColumns = aggRowValue.getColumns();
+
+      for (final int aggIndex : valueColumnAggIndexes) {
+        aggColumns.set(aggIndex, partialColumns.get(aggIndex));
+      }
+
+      for (int i = 0; i < aggFunctionAggIndexes.length; i++) {
+        final int aggIndex = aggFunctionAggIndexes[i];
+        aggColumns.set(aggIndex, aggFunctions[i].getMerger()
+            .apply(key, aggColumns.get(aggIndex), partialColumns.get(aggIndex)));
+      }
+
+      return aggRowValue;
+    };
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public Merger<String, GenericRow> getMerger() {
     return (key, aggRowOne, aggRowTwo) -> {
-      final List<Object> columns = Stream.generate(String::new).limit(aggRowOne.getColumns().size())
-          .collect(Collectors.toList());
-      final GenericRow mergedRow = new GenericRow(columns);
-
-      aggValToValColumnMap.forEach((columnIndex, value) -> {
-        if (aggRowOne.getColumns().get(value) == null) {
-          mergedRow.getColumns().set(columnIndex, aggRowTwo.getColumns()
-              .get(value));
-        } else {
-          mergedRow.getColumns().set(columnIndex, aggRowOne.getColumns()
-              .get(value));
-        }
-      });
-
-      aggValToAggFunctionMap.forEach((functionIndex, ksqlAggregateFunction) ->
-          mergedRow.getColumns().set(functionIndex, ksqlAggregateFunction.getMerger()
-          .apply(key,
-              aggRowOne.getColumns().get(functionIndex),
-              aggRowTwo.getColumns().get(functionIndex))));
-
-      return mergedRow;
+      final List<Object> columnsOne = aggRowOne.getColumns();
+      final List<Object> columnsTwo = aggRowTwo.getColumns();
+      final List<Object> columns = new ArrayList<>(columnsOne.size());
+      for (int i = 0; i < columnsOne.size(); i++) {
+        columns.add("");
+      }
+
+      for (int i = 0; i < valueColumnAggIndexes.length; i++) {
+        final int value = valueColumnIndexes[i];
+        columns.set(
+            valueColumnAggIndexes[i],
+            columnsOne.get(value) == null ? columnsTwo.get(value) : columnsOne.get(value));
+      }
+
+      for (int i = 0; i < aggFunctionAggIndexes.length; i++) {
+        final int functionIndex = aggFunctionAggIndexes[i];
+        columns.set(functionIndex, aggFunctions[i].getMerger()
+            .apply(key, columnsOne.get(functionIndex), columnsTwo.get(functionIndex)));
+      }
+
+      return new GenericRow(columns);
     };
   }
 
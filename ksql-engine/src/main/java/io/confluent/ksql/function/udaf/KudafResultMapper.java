@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf;
+
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.function.KsqlAggregateFunction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.streams.kstream.ValueMapper;
+
+/**
+ * Maps the aggregates in an aggregate row to the results of their functions.
+ */
+public class KudafResultMapper implements ValueMapper<GenericRow, GenericRow> {
+
+  private final int[] aggFunctionAggIndexes;
+  private final KsqlAggregateFunction[] aggFunctions;
+
+  public KudafResultMapper(final Map<Integer, KsqlAggregateFunction> aggValToAggFunctionMap) {
+    this.aggFunctionAggIndexes = new int[aggValToAggFunctionMap.size()];
+    this.aggFunctions = new KsqlAggregateFunction[aggValToAggFunctionMap.size()];
+    int i = 0;
+    for (final Map.Entry<Integer, KsqlAggregateFunction> entry
+        : aggValToAggFunctionMap.entrySet()) {
+      aggFunctionAggIndexes[i] = entry.getKey();
+      aggFunctions[i] = entry.getValue();
+      i++;
+    }
+  }
+
+  /**
+   * @return {@code true} if any of the functions keeps an aggregate that is not its result.
+   */
+  public static boolean isRequired(
+      final Map<Integer, KsqlAggregateFunction> aggValToAggFunctionMap
+  ) {
+    return aggValToAggFunctionMap.values().stream()
+        .anyMatch(function -> !function.getAggregateType().equals(function.getReturnType()));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public GenericRow apply(final GenericRow aggRowValue) {
+    // The aggregate row is the value held in the state store, so is copied rather than updated:
+    final List<Object> columns = new ArrayList<>(aggRowValue.getColumns());
+    for (int i = 0; i < aggFunctionAggIndexes.length; i++) {
+      final int aggIndex = aggFunctionAggIndexes[i];
+      columns.set(aggIndex, aggFunctions[i].getResult(columns.get(aggIndex)));
+    }
+    return new GenericRow(columns);
+  }
+}
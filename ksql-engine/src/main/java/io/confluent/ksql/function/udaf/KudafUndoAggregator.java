@@ -16,40 +16,62 @@ package io.confluent.ksql.function.udaf;
 
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.function.TableAggregationFunction;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import org.apache.kafka.streams.kstream.Aggregator;
 
 public class KudafUndoAggregator implements Aggregator<String, GenericRow, GenericRow> {
-  private Map<Integer, TableAggregationFunction> aggValToAggFunctionMap;
-  private Map<Integer, Integer> aggValToValColumnMap;
+
+  // The maps passed to the constructor, flattened into arrays as apply is called for every record:
+  private final int[] valueColumnAggIndexes;
+  private final int[] valueColumnIndexes;
+  private final int[] aggFunctionAggIndexes;
+  private final TableAggregationFunction[] aggFunctions;
 
   public KudafUndoAggregator(
       final Map<Integer, TableAggregationFunction> aggValToAggFunctionMap,
       final Map<Integer, Integer> aggValToValColumnMap) {
     Objects.requireNonNull(aggValToAggFunctionMap);
     Objects.requireNonNull(aggValToValColumnMap);
-    this.aggValToAggFunctionMap = Collections.unmodifiableMap(
-        new HashMap<>(aggValToAggFunctionMap));
-    this.aggValToValColumnMap = Collections.unmodifiableMap(new HashMap<>(aggValToValColumnMap));
+
+    this.valueColumnAggIndexes = new int[aggValToValColumnMap.size()];
+    this.valueColumnIndexes = new int[aggValToValColumnMap.size()];
+    int i = 0;
+    for (final Map.Entry<Integer, Integer> entry : aggValToValColumnMap.entrySet()) {
+      valueColumnAggIndexes[i] = entry.getKey();
+      valueColumnIndexes[i] = entry.getValue();
+      i++;
+    }
+
+    this.aggFunctionAggIndexes = new int[aggValToAggFunctionMap.size()];
+    this.aggFunctions = new TableAggregationFunction[aggValToAggFunctionMap.size()];
+    i = 0;
+    for (final Map.Entry<Integer, TableAggregationFunction> entry
+        : aggValToAggFunctionMap.entrySet()) {
+      aggFunctionAggIndexes[i] = entry.getKey();
+      aggFunctions[i] = entry.getValue();
+      i++;
+    }
   }
 
   @SuppressWarnings("unchecked")
   @Override
   public GenericRow apply(final String s, final GenericRow rowValue, final GenericRow aggRowValue) {
-    aggValToValColumnMap.forEach(
-        (aggRowIndex, rowIndex) ->
-            aggRowValue.getColumns().set(aggRowIndex, rowValue.getColumns().get(rowIndex)));
-
-    aggValToAggFunctionMap.forEach(
-        (aggRowIndex, function) ->
-            aggRowValue.getColumns().set(
-                aggRowIndex,
-                function.undo(
-                    rowValue.getColumns().get(function.getArgIndexInValue()),
-                    aggRowValue.getColumns().get(aggRowIndex))));
+    final List<Object> columns = rowValue.getColumns();
+    final List<Object> aggColumns = aggRowValue.getColumns();
+
+    for (int i = 0; i < valueColumnAggIndexes.length; i++) {
+      aggColumns.set(valueColumnAggIndexes[i], columns.get(valueColumnIndexes[i]));
+    }
+
+    for (int i = 0; i < aggFunctionAggIndexes.length; i++) {
+      final int aggIndex = aggFunctionAggIndexes[i];
+      final TableAggregationFunction function = aggFunctions[i];
+      aggColumns.set(aggIndex, function.undo(
+          columns.get(function.getArgIndexInValue()),
+          aggColumns.get(aggIndex)));
+    }
     return aggRowValue;
   }
 }
@@ -16,7 +16,6 @@ package io.confluent.ksql.function.udaf.array;
 
 import com.google.common.collect.Lists;
 import io.confluent.ksql.function.udaf.TableUdaf;
-import io.confluent.ksql.function.udaf.Udaf;
 import io.confluent.ksql.function.udaf.UdafDescription;
 import io.confluent.ksql.function.udaf.UdafFactory;
 import java.util.List;
@@ -61,34 +60,38 @@ public final class CollectListUdaf {
 
       @Override
       public List<T> undo(final T valueToUndo, final List<T> aggregateValue) {
-        aggregateValue.remove(aggregateValue.lastIndexOf(valueToUndo));
+        // The value may not have been collected, if the limit had been reached:
+        final int index = aggregateValue.lastIndexOf(valueToUndo);
+        if (index >= 0) {
+          aggregateValue.remove(index);
+        }
         return aggregateValue;
       }
     };
   }
 
   @UdafFactory(description = "collect values of a Bigint field into a single Array")
-  public static Udaf<Long, List<Long>> createCollectListLong() {
+  public static TableUdaf<Long, List<Long>> createCollectListLong() {
     return listCollector();
   }
 
   @UdafFactory(description = "collect values of an Integer field into a single Array")
-  public static Udaf<Integer, List<Integer>> createCollectListInt() {
+  public static TableUdaf<Integer, List<Integer>> createCollectListInt() {
     return listCollector();
   }
 
   @UdafFactory(description = "collect values of a Double field into a single Array")
-  public static Udaf<Double, List<Double>> createCollectListDouble() {
+  public static TableUdaf<Double, List<Double>> createCollectListDouble() {
     return listCollector();
   }
 
   @UdafFactory(description = "collect values of a String/Varchar field into a single Array")
-  public static Udaf<String, List<String>> createCollectListString() {
+  public static TableUdaf<String, List<String>> createCollectListString() {
     return listCollector();
   }
 
   @UdafFactory(description = "collect values of a Boolean field into a single Array")
-  public static Udaf<Boolean, List<Boolean>> createCollectListBool() {
+  public static TableUdaf<Boolean, List<Boolean>> createCollectListBool() {
     return listCollector();
   }
 }
@@ -15,54 +15,79 @@
 package io.confluent.ksql.function.udaf.array;
 
 import com.google.common.collect.Lists;
+import io.confluent.common.Configurable;
 import io.confluent.ksql.function.udaf.Udaf;
 import io.confluent.ksql.function.udaf.UdafDescription;
 import io.confluent.ksql.function.udaf.UdafFactory;
+import io.confluent.ksql.util.KsqlConfig;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.common.config.ConfigDef;
 
 @UdafDescription(name = "collect_set", 
     description = "Gather all of the distinct values from an input grouping into a single Array."
         + "\nNot available for aggregating values from an input Table."
         + "\nThis version limits the size of the resultant Array to 1000 entries, beyond which"
-        + " any further values will be silently ignored.")
+        + " any further values will be silently ignored. The limit can be changed via the setting:"
+        + "\n\t" + KsqlConfig.KSQL_FUNCTIONS_COLLECT_SET_LIMIT_CONFIG)
 public final class CollectSetUdaf {
 
-  private static final int LIMIT = 1000;
-
   private CollectSetUdaf() {
     // just to make the checkstyle happy
   }
-  
+
   private static <T> Udaf<T, List<T>> setCollector() {
-    return new Udaf<T, List<T>>() {
-      @Override
-      public List<T> initialize() {
-        return Lists.newArrayList();
+    return new SetCollector<>();
+  }
+
+  private static final class SetCollector<T> implements Udaf<T, List<T>>, Configurable {
+
+    private int limit = KsqlConfig.KSQL_FUNCTIONS_COLLECT_SET_LIMIT_DEFAULT;
+
+    @Override
+    public void configure(final Map<String, ?> props) {
+      // Parses the one setting, rather than building, and logging, a KsqlConfig per instance:
+      final String name = KsqlConfig.KSQL_FUNCTIONS_COLLECT_SET_LIMIT_CONFIG;
+      final Object value = props.get(name);
+      if (value == null) {
+        return;
       }
+      final int parsed = (Integer) ConfigDef.parseType(name, value, ConfigDef.Type.INT);
+      ConfigDef.Range.atLeast(1).ensureValid(name, parsed);
+      limit = parsed;
+    }
 
-      @Override
-      public List<T> aggregate(final T thisValue, final List<T> aggregate) {
-        if (aggregate.size() < LIMIT && !aggregate.contains(thisValue)) {
-          aggregate.add(thisValue);
-        }
-        return aggregate;
+    @Override
+    public List<T> initialize() {
+      return Lists.newArrayList();
+    }
+
+    @Override
+    public List<T> aggregate(final T thisValue, final List<T> aggregate) {
+      // The aggregate is deserialized afresh for each value, so a single scan is as cheap
+      // as building a set from it would be:
+      if (aggregate.size() < limit && !aggregate.contains(thisValue)) {
+        aggregate.add(thisValue);
       }
+      return aggregate;
+    }
 
-      @Override
-      public List<T> merge(final List<T> aggOne, final List<T> aggTwo) {
-        for (final T thisEntry : aggTwo) {
-          if (aggOne.size() == LIMIT) {
-            break;
-          }
-          if (!aggOne.contains(thisEntry)) {
-            aggOne.add(thisEntry);
-          }
+    @Override
+    public List<T> merge(final List<T> aggOne, final List<T> aggTwo) {
+      final Set<T> seen = new HashSet<>(aggOne);
+      for (final T thisEntry : aggTwo) {
+        if (aggOne.size() >= limit) {
+          break;
+        }
+        if (seen.add(thisEntry)) {
+          aggOne.add(thisEntry);
         }
-        return aggOne;
       }
-    };
+      return aggOne;
+    }
   }
-
   @UdafFactory(description = "collect distinct values of a Bigint field into a single Array")
   public static Udaf<Long, List<Long>> createCollectSetLong() {
     return setCollector();
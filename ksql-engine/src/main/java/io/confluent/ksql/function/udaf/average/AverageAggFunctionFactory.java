@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf.average;
+
+import io.confluent.ksql.function.AggregateFunctionFactory;
+import io.confluent.ksql.function.KsqlAggregateFunction;
+import io.confluent.ksql.util.KsqlException;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.kafka.connect.data.Schema;
+
+public class AverageAggFunctionFactory extends AggregateFunctionFactory {
+  private static final String FUNCTION_NAME = "AVG";
+
+  public AverageAggFunctionFactory() {
+    super(
+        FUNCTION_NAME,
+        Arrays.asList(
+            new AverageKudaf<Integer>(FUNCTION_NAME, -1, Schema.OPTIONAL_INT32_SCHEMA),
+            new AverageKudaf<Long>(FUNCTION_NAME, -1, Schema.OPTIONAL_INT64_SCHEMA),
+            new AverageKudaf<Double>(FUNCTION_NAME, -1, Schema.OPTIONAL_FLOAT64_SCHEMA)));
+  }
+
+  @Override
+  public KsqlAggregateFunction getProperAggregateFunction(final List<Schema> argTypeList) {
+    for (final KsqlAggregateFunction<?, ?> ksqlAggregateFunction : getAggregateFunctionList()) {
+      if (ksqlAggregateFunction.hasSameArgTypes(argTypeList)) {
+        return ksqlAggregateFunction;
+      }
+    }
+    throw new KsqlException("No AVG aggregate function with " + argTypeList.get(0)
+        + " argument type exists!");
+  }
+}
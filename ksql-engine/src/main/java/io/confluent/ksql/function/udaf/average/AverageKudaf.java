@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf.average;
+
+import io.confluent.ksql.function.AggregateFunctionArguments;
+import io.confluent.ksql.function.BaseAggregateFunction;
+import io.confluent.ksql.function.KsqlAggregateFunction;
+import io.confluent.ksql.function.TableAggregationFunction;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Collections;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.streams.kstream.Merger;
+
+/**
+ * Computes the average of the values of a column, per key.
+ *
+ * <p>The aggregate is the sum and count of the values, so a value can be undone in constant time
+ * when a row of an input table changes. They are encoded as a Base64 string, like the sketches of
+ * the approximate aggregate functions, as the aggregate is stored in the format of the source and
+ * every format, including DELIMITED, supports strings.
+ */
+public class AverageKudaf<T extends Number>
+    extends BaseAggregateFunction<T, String>
+    implements TableAggregationFunction<T, String> {
+
+  private static final String EMPTY_AGGREGATE = encode(0.0, 0L);
+
+  AverageKudaf(
+      final String functionName,
+      final int argIndexInValue,
+      final Schema argumentType
+  ) {
+    super(
+        functionName,
+        argIndexInValue,
+        () -> EMPTY_AGGREGATE,
+        Schema.OPTIONAL_FLOAT64_SCHEMA,
+        Collections.singletonList(argumentType),
+        "Computes the average for a key."
+    );
+  }
+
+  @Override
+  public Schema getAggregateType() {
+    return Schema.OPTIONAL_STRING_SCHEMA;
+  }
+
+  @Override
+  public String aggregate(final T currentValue, final String aggregateValue) {
+    if (currentValue == null) {
+      return aggregateValue;
+    }
+    final ByteBuffer aggregate = decode(aggregateValue);
+    return encode(aggregate.getDouble() + currentValue.doubleValue(), aggregate.getLong() + 1);
+  }
+
+  @Override
+  public String undo(final T valueToUndo, final String aggregateValue) {
+    if (valueToUndo == null) {
+      return aggregateValue;
+    }
+    final ByteBuffer aggregate = decode(aggregateValue);
+    return encode(aggregate.getDouble() - valueToUndo.doubleValue(), aggregate.getLong() - 1);
+  }
+
+  @Override
+  public Merger<String, String> getMerger() {
+    return (aggKey, aggOne, aggTwo) -> {
+      final ByteBuffer one = decode(aggOne);
+      final ByteBuffer two = decode(aggTwo);
+      return encode(one.getDouble() + two.getDouble(), one.getLong() + two.getLong());
+    };
+  }
+
+  @Override
+  public Object getResult(final String aggregate) {
+    final ByteBuffer decoded = decode(aggregate);
+    final double sum = decoded.getDouble();
+    final long count = decoded.getLong();
+    return count == 0 ? null : sum / count;
+  }
+
+  @Override
+  public KsqlAggregateFunction<T, String> getInstance(
+      final AggregateFunctionArguments aggregateFunctionArguments) {
+    aggregateFunctionArguments.ensureArgCount(1, functionName);
+    return new AverageKudaf<>(
+        functionName, aggregateFunctionArguments.udafIndex(), getArgTypes().get(0));
+  }
+
+  private static String encode(final double sum, final long count) {
+    final ByteBuffer buffer = ByteBuffer.allocate(Double.BYTES + Long.BYTES);
+    buffer.putDouble(sum);
+    buffer.putLong(count);
+    return Base64.getEncoder().encodeToString(buffer.array());
+  }
+
+  private static ByteBuffer decode(final String aggregate) {
+    if (aggregate == null || aggregate.isEmpty()) {
+      return decode(EMPTY_AGGREGATE);
+    }
+    return ByteBuffer.wrap(Base64.getDecoder().decode(aggregate));
+  }
+}
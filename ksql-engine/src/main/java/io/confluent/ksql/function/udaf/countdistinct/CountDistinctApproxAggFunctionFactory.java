@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf.countdistinct;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.confluent.ksql.function.AggregateFunctionFactory;
+import io.confluent.ksql.function.KsqlAggregateFunction;
+import io.confluent.ksql.util.KsqlException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.kafka.connect.data.Schema;
+
+public class CountDistinctApproxAggFunctionFactory extends AggregateFunctionFactory {
+  private static final String NAME = "COUNT_DISTINCT_APPROX";
+
+  // Hashes must not change between releases, as they are held in the aggregates in state stores:
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  private static final CountDistinctApproxKudaf<Integer> INTEGER_FUNCTION =
+      new CountDistinctApproxKudaf<>(
+          NAME,
+          -1,
+          Collections.singletonList(Schema.OPTIONAL_INT32_SCHEMA),
+          value -> HASH_FUNCTION.hashLong(value).asLong());
+
+  private static final CountDistinctApproxKudaf<Long> LONG_FUNCTION =
+      new CountDistinctApproxKudaf<>(
+          NAME,
+          -1,
+          Collections.singletonList(Schema.OPTIONAL_INT64_SCHEMA),
+          value -> HASH_FUNCTION.hashLong(value).asLong());
+
+  private static final CountDistinctApproxKudaf<Double> DOUBLE_FUNCTION =
+      new CountDistinctApproxKudaf<>(
+          NAME,
+          -1,
+          Collections.singletonList(Schema.OPTIONAL_FLOAT64_SCHEMA),
+          value -> HASH_FUNCTION.hashLong(Double.doubleToLongBits(value)).asLong());
+
+  private static final CountDistinctApproxKudaf<String> STRING_FUNCTION =
+      new CountDistinctApproxKudaf<>(
+          NAME,
+          -1,
+          Collections.singletonList(Schema.OPTIONAL_STRING_SCHEMA),
+          value -> HASH_FUNCTION.hashString(value, StandardCharsets.UTF_8).asLong());
+
+  public CountDistinctApproxAggFunctionFactory() {
+    super(NAME, Arrays.asList(INTEGER_FUNCTION, LONG_FUNCTION, DOUBLE_FUNCTION, STRING_FUNCTION));
+  }
+
+  @Override
+  public KsqlAggregateFunction getProperAggregateFunction(final List<Schema> argTypeList) {
+    if (argTypeList.isEmpty()) {
+      throw new KsqlException(NAME + " function should have one argument.");
+    }
+    switch (argTypeList.get(0).type()) {
+      case INT32:
+        return INTEGER_FUNCTION;
+      case INT64:
+        return LONG_FUNCTION;
+      case FLOAT64:
+        return DOUBLE_FUNCTION;
+      case STRING:
+        return STRING_FUNCTION;
+      default:
+        throw new KsqlException("No " + NAME + " aggregate function with " + argTypeList.get(0)
+            + " argument type exists!");
+    }
+  }
+}
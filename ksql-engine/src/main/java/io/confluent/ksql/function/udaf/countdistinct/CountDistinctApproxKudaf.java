@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf.countdistinct;
+
+import io.confluent.ksql.function.AggregateFunctionArguments;
+import io.confluent.ksql.function.BaseAggregateFunction;
+import io.confluent.ksql.function.KsqlAggregateFunction;
+import java.util.List;
+import java.util.function.ToLongFunction;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.streams.kstream.Merger;
+
+/**
+ * Estimates the number of distinct values of a column, per key.
+ *
+ * <p>The aggregate is the encoded {@link HyperLogLogSketch} of the hashes of the values, so it
+ * stays small however many distinct values there are, and two aggregates can be merged.
+ */
+public class CountDistinctApproxKudaf<T> extends BaseAggregateFunction<T, String> {
+
+  private static final String EMPTY_SKETCH = HyperLogLogSketch.empty().encode();
+
+  private final List<Schema> argumentTypes;
+  private final ToLongFunction<T> hasher;
+
+  CountDistinctApproxKudaf(
+      final String functionName,
+      final int argIndexInValue,
+      final List<Schema> argumentTypes,
+      final ToLongFunction<T> hasher
+  ) {
+    super(
+        functionName,
+        argIndexInValue,
+        () -> EMPTY_SKETCH,
+        Schema.OPTIONAL_INT64_SCHEMA,
+        argumentTypes,
+        "Estimates the number of distinct values of a column, per key."
+    );
+    this.argumentTypes = argumentTypes;
+    this.hasher = hasher;
+  }
+
+  @Override
+  public Schema getAggregateType() {
+    return Schema.OPTIONAL_STRING_SCHEMA;
+  }
+
+  @Override
+  public String aggregate(final T currentValue, final String aggregateValue) {
+    if (currentValue == null) {
+      return aggregateValue;
+    }
+
+    final HyperLogLogSketch sketch = HyperLogLogSketch.decode(aggregateValue);
+    if (!sketch.add(hasher.applyAsLong(currentValue))) {
+      return aggregateValue;
+    }
+    return sketch.encode();
+  }
+
+  @Override
+  public Merger<String, String> getMerger() {
+    return (aggKey, aggOne, aggTwo) -> {
+      final HyperLogLogSketch merged = HyperLogLogSketch.decode(aggOne);
+      merged.merge(HyperLogLogSketch.decode(aggTwo));
+      return merged.encode();
+    };
+  }
+
+  @Override
+  public Object getResult(final String aggregate) {
+    return HyperLogLogSketch.decode(aggregate).estimate();
+  }
+
+  @Override
+  public KsqlAggregateFunction<T, String> getInstance(
+      final AggregateFunctionArguments aggregateFunctionArguments) {
+    aggregateFunctionArguments.ensureArgCount(1, functionName);
+    return new CountDistinctApproxKudaf<>(
+        functionName, aggregateFunctionArguments.udafIndex(), argumentTypes, hasher);
+  }
+}
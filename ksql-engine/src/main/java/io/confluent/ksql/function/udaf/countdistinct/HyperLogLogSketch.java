@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf.countdistinct;
+
+import io.confluent.ksql.util.KsqlException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * A HyperLogLog sketch of the distinct 64-bit hashes added to it, from which their number can be
+ * estimated with a standard error of about 1.6%.
+ *
+ * <p>Sketches are encoded as Base64 strings. Sketches with few non-zero registers are encoded
+ * sparsely, as the index and value of each of those registers, so the sketch of a small set is
+ * only a few bytes. Others are encoded as all of their registers, i.e. in about 5KB.
+ */
+final class HyperLogLogSketch {
+
+  private static final int PRECISION = 12;
+  private static final int NUM_REGISTERS = 1 << PRECISION;
+  private static final int MAX_RANK = Long.SIZE - PRECISION + 1;
+
+  private static final byte SPARSE = 1;
+  private static final byte DENSE = 2;
+  private static final int SPARSE_ENTRY_SIZE = Short.BYTES + Byte.BYTES;
+
+  private final byte[] registers;
+  private int numNonZero;
+
+  private HyperLogLogSketch(final byte[] registers, final int numNonZero) {
+    this.registers = registers;
+    this.numNonZero = numNonZero;
+  }
+
+  static HyperLogLogSketch empty() {
+    return new HyperLogLogSketch(new byte[NUM_REGISTERS], 0);
+  }
+
+  static HyperLogLogSketch decode(final String encoded) {
+    if (encoded == null || encoded.isEmpty()) {
+      return empty();
+    }
+
+    final ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+    final byte format = buffer.get();
+    final byte[] registers = new byte[NUM_REGISTERS];
+    int numNonZero = 0;
+    switch (format) {
+      case SPARSE:
+        while (buffer.hasRemaining()) {
+          registers[buffer.getShort()] = buffer.get();
+          numNonZero++;
+        }
+        break;
+      case DENSE:
+        buffer.get(registers);
+        for (final byte register : registers) {
+          if (register != 0) {
+            numNonZero++;
+          }
+        }
+        break;
+      default:
+        throw new KsqlException("Unknown HyperLogLog sketch format: " + format);
+    }
+    return new HyperLogLogSketch(registers, numNonZero);
+  }
+
+  /**
+   * @return {@code true} if the sketch changed, i.e. if it may not have seen the hash before.
+   */
+  boolean add(final long hash) {
+    final int index = (int) (hash >>> (Long.SIZE - PRECISION));
+    final int rank = Math.min(Long.numberOfLeadingZeros(hash << PRECISION) + 1, MAX_RANK);
+    return update(index, (byte) rank);
+  }
+
+  void merge(final HyperLogLogSketch other) {
+    for (int i = 0; i < NUM_REGISTERS; i++) {
+      update(i, other.registers[i]);
+    }
+  }
+
+  private boolean update(final int index, final byte rank) {
+    final byte current = registers[index];
+    if (rank <= current) {
+      return false;
+    }
+    if (current == 0) {
+      numNonZero++;
+    }
+    registers[index] = rank;
+    return true;
+  }
+
+  long estimate() {
+    double sum = 0;
+    for (final byte register : registers) {
+      sum += 1.0 / (1L << register);
+    }
+
+    final double alpha = 0.7213 / (1 + 1.079 / NUM_REGISTERS);
+    final double estimate = alpha * NUM_REGISTERS * NUM_REGISTERS / sum;
+
+    // Linear counting is more accurate for small cardinalities:
+    final int numZero = NUM_REGISTERS - numNonZero;
+    if (estimate <= 2.5 * NUM_REGISTERS && numZero != 0) {
+      return Math.round(NUM_REGISTERS * Math.log((double) NUM_REGISTERS / numZero));
+    }
+    return Math.round(estimate);
+  }
+
+  String encode() {
+    final ByteBuffer buffer;
+    if (numNonZero * SPARSE_ENTRY_SIZE < NUM_REGISTERS) {
+      buffer = ByteBuffer.allocate(1 + numNonZero * SPARSE_ENTRY_SIZE);
+      buffer.put(SPARSE);
+      for (int i = 0; i < NUM_REGISTERS; i++) {
+        if (registers[i] != 0) {
+          buffer.putShort((short) i);
+          buffer.put(registers[i]);
+        }
+      }
+    } else {
+      buffer = ByteBuffer.allocate(1 + NUM_REGISTERS);
+      buffer.put(DENSE);
+      buffer.put(registers);
+    }
+    return Base64.getEncoder().encodeToString(buffer.array());
+  }
+}
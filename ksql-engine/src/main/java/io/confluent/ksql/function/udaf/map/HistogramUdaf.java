@@ -15,55 +15,75 @@
 package io.confluent.ksql.function.udaf.map;
 
 import com.google.common.collect.Maps;
+import io.confluent.common.Configurable;
 import io.confluent.ksql.function.udaf.TableUdaf;
 import io.confluent.ksql.function.udaf.UdafDescription;
 import io.confluent.ksql.function.udaf.UdafFactory;
+import io.confluent.ksql.util.KsqlConfig;
 import java.util.Map;
+import org.apache.kafka.common.config.ConfigDef;
 
 @UdafDescription(name = "histogram",
     description = "Returns a map of each distinct String from the"
     + " input Stream or Table and how many times each occurs."
     + " \nThis version limits the size of the resultant Map to 1000 entries. Any entries added"
-    + " beyond this limit will be ignored.")
+    + " beyond this limit will be ignored. The limit can be changed via the setting:"
+    + "\n\t" + KsqlConfig.KSQL_FUNCTIONS_HISTOGRAM_LIMIT_CONFIG)
 public final class HistogramUdaf {
 
-  private static final int LIMIT = 1000;
-  
   private HistogramUdaf() {
   }
-  
+
   private static <T> TableUdaf<T, Map<T, Long>> histogram() {
-    return new TableUdaf<T, Map<T, Long>>() {
+    return new Histogram<>();
+  }
 
-      @Override
-      public Map<T, Long> initialize() {
-        return Maps.newHashMap();
-      }
+  private static final class Histogram<T> implements TableUdaf<T, Map<T, Long>>, Configurable {
 
-      @Override
-      public Map<T, Long> aggregate(final T current, final Map<T, Long> aggregate) {
-        if (aggregate.size() < LIMIT || aggregate.containsKey(current)) {
-          aggregate.merge(current, 1L, Long::sum);
-        }
-        return aggregate;
-      }
+    private int limit = KsqlConfig.KSQL_FUNCTIONS_HISTOGRAM_LIMIT_DEFAULT;
 
-      @Override
-      public Map<T, Long> merge(final Map<T, Long> agg1, final Map<T, Long> agg2) {
-        agg2.forEach((k, v) -> {
-          if (agg1.size() < LIMIT || agg1.containsKey(k)) {
-            agg1.merge(k, v, Long::sum);
-          }
-        });
-        return agg1;
+    @Override
+    public void configure(final Map<String, ?> props) {
+      // Parses the one setting, rather than building, and logging, a KsqlConfig per instance:
+      final String name = KsqlConfig.KSQL_FUNCTIONS_HISTOGRAM_LIMIT_CONFIG;
+      final Object value = props.get(name);
+      if (value == null) {
+        return;
       }
+      final int parsed = (Integer) ConfigDef.parseType(name, value, ConfigDef.Type.INT);
+      ConfigDef.Range.atLeast(1).ensureValid(name, parsed);
+      limit = parsed;
+    }
 
-      @Override
-      public Map<T, Long> undo(final T valueToUndo, final Map<T, Long> aggregate) {
-        aggregate.compute(valueToUndo, (k, v) -> (--v < 1) ? null : v);
-        return aggregate;
+    @Override
+    public Map<T, Long> initialize() {
+      return Maps.newHashMap();
+    }
+
+    @Override
+    public Map<T, Long> aggregate(final T current, final Map<T, Long> aggregate) {
+      if (aggregate.size() < limit || aggregate.containsKey(current)) {
+        aggregate.merge(current, 1L, Long::sum);
       }
-    };
+      return aggregate;
+    }
+
+    @Override
+    public Map<T, Long> merge(final Map<T, Long> agg1, final Map<T, Long> agg2) {
+      agg2.forEach((k, v) -> {
+        if (agg1.size() < limit || agg1.containsKey(k)) {
+          agg1.merge(k, v, Long::sum);
+        }
+      });
+      return agg1;
+    }
+
+    @Override
+    public Map<T, Long> undo(final T valueToUndo, final Map<T, Long> aggregate) {
+      // The value may not have been counted, if the limit had been reached:
+      aggregate.computeIfPresent(valueToUndo, (k, v) -> (--v < 1) ? null : v);
+      return aggregate;
+    }
   }
 
   @UdafFactory(description = "Build a value-to-count histogram of input Strings")
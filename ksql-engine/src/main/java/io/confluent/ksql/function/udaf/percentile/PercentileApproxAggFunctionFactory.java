@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf.percentile;
+
+import io.confluent.ksql.function.AggregateFunctionFactory;
+import io.confluent.ksql.function.KsqlAggregateFunction;
+import io.confluent.ksql.util.KsqlException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.kafka.connect.data.Schema;
+
+public class PercentileApproxAggFunctionFactory extends AggregateFunctionFactory {
+  private static final String NAME = "PERCENTILE_APPROX";
+
+  private static final PercentileApproxKudaf<Integer> INTEGER_FUNCTION =
+      new PercentileApproxKudaf<>(
+          NAME, -1, 0.5, Collections.singletonList(Schema.OPTIONAL_INT32_SCHEMA));
+
+  private static final PercentileApproxKudaf<Long> LONG_FUNCTION =
+      new PercentileApproxKudaf<>(
+          NAME, -1, 0.5, Collections.singletonList(Schema.OPTIONAL_INT64_SCHEMA));
+
+  private static final PercentileApproxKudaf<Double> DOUBLE_FUNCTION =
+      new PercentileApproxKudaf<>(
+          NAME, -1, 0.5, Collections.singletonList(Schema.OPTIONAL_FLOAT64_SCHEMA));
+
+  public PercentileApproxAggFunctionFactory() {
+    super(NAME, Arrays.asList(INTEGER_FUNCTION, LONG_FUNCTION, DOUBLE_FUNCTION));
+  }
+
+  @Override
+  public KsqlAggregateFunction getProperAggregateFunction(final List<Schema> argTypeList) {
+    if (argTypeList.isEmpty()) {
+      throw new KsqlException(NAME + " function should have two arguments.");
+    }
+    switch (argTypeList.get(0).type()) {
+      case INT32:
+        return INTEGER_FUNCTION;
+      case INT64:
+        return LONG_FUNCTION;
+      case FLOAT64:
+        return DOUBLE_FUNCTION;
+      default:
+        throw new KsqlException("No " + NAME + " aggregate function with " + argTypeList.get(0)
+            + " argument type exists!");
+    }
+  }
+}
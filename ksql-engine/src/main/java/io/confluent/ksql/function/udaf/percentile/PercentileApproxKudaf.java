@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf.percentile;
+
+import io.confluent.ksql.function.AggregateFunctionArguments;
+import io.confluent.ksql.function.BaseAggregateFunction;
+import io.confluent.ksql.function.KsqlAggregateFunction;
+import io.confluent.ksql.util.KsqlException;
+import java.util.List;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.streams.kstream.Merger;
+
+/**
+ * Estimates a percentile of the values of a column, per key.
+ *
+ * <p>The aggregate is the encoded {@link TDigestSketch} of the values, so it stays small however
+ * many values there are, and two aggregates can be merged.
+ */
+public class PercentileApproxKudaf<T extends Number> extends BaseAggregateFunction<T, String> {
+
+  private static final String EMPTY_SKETCH = TDigestSketch.empty().encode();
+
+  private final double percentile;
+  private final List<Schema> argumentTypes;
+
+  PercentileApproxKudaf(
+      final String functionName,
+      final int argIndexInValue,
+      final double percentile,
+      final List<Schema> argumentTypes
+  ) {
+    super(
+        functionName,
+        argIndexInValue,
+        () -> EMPTY_SKETCH,
+        Schema.OPTIONAL_FLOAT64_SCHEMA,
+        argumentTypes,
+        "Estimates a percentile, between 0.0 and 1.0, of the values of a column, per key."
+    );
+    this.percentile = percentile;
+    this.argumentTypes = argumentTypes;
+  }
+
+  @Override
+  public Schema getAggregateType() {
+    return Schema.OPTIONAL_STRING_SCHEMA;
+  }
+
+  @Override
+  public String aggregate(final T currentValue, final String aggregateValue) {
+    if (currentValue == null) {
+      return aggregateValue;
+    }
+
+    final TDigestSketch sketch = TDigestSketch.decode(aggregateValue);
+    sketch.add(currentValue.doubleValue());
+    return sketch.encode();
+  }
+
+  @Override
+  public Merger<String, String> getMerger() {
+    return (aggKey, aggOne, aggTwo) -> {
+      final TDigestSketch merged = TDigestSketch.decode(aggOne);
+      merged.merge(TDigestSketch.decode(aggTwo));
+      return merged.encode();
+    };
+  }
+
+  @Override
+  public Object getResult(final String aggregate) {
+    return TDigestSketch.decode(aggregate).estimate(percentile);
+  }
+
+  @Override
+  public KsqlAggregateFunction<T, String> getInstance(
+      final AggregateFunctionArguments aggregateFunctionArguments) {
+    aggregateFunctionArguments.ensureArgCount(2, functionName);
+    final String percentileArg = aggregateFunctionArguments.arg(1);
+    final double percentile;
+    try {
+      percentile = Double.parseDouble(percentileArg);
+    } catch (final NumberFormatException e) {
+      throw new KsqlException(functionName + " percentile must be a number between 0.0 and 1.0,"
+          + " got: " + percentileArg, e);
+    }
+    // NaN fails both comparisons, so it is rejected explicitly:
+    if (Double.isNaN(percentile) || percentile < 0 || percentile > 1) {
+      throw new KsqlException(functionName + " percentile must be between 0.0 and 1.0, got: "
+          + percentileArg);
+    }
+    return new PercentileApproxKudaf<>(
+        functionName, aggregateFunctionArguments.udafIndex(), percentile, argumentTypes);
+  }
+}
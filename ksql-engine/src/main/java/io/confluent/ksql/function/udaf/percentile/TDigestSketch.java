@@ -0,0 +1,244 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf.percentile;
+
+import io.confluent.ksql.util.KsqlException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * A t-digest of the values added to it, from which their quantiles can be estimated. Estimates
+ * are most accurate for extreme quantiles, e.g. the 1st or 99th percentile.
+ *
+ * <p>Values are summarized as centroids, i.e. a mean and a weight. Values are added as centroids
+ * of weight one, and once there are too many centroids, neighbouring centroids are merged as long
+ * as their combined weight is small enough for the quantile they are at.
+ *
+ * <p>Digests are encoded as Base64 strings, holding at most a few hundred centroids.
+ */
+final class TDigestSketch {
+
+  private static final double COMPRESSION = 100;
+  private static final int MAX_CENTROIDS = 2 * (int) COMPRESSION;
+
+  private static final byte FORMAT = 1;
+  private static final int HEADER_SIZE = Byte.BYTES + 2 * Double.BYTES + Integer.BYTES;
+  private static final int CENTROID_SIZE = Double.BYTES + Long.BYTES;
+
+  private double min;
+  private double max;
+  private int numCentroids;
+  private double[] means;
+  private long[] weights;
+
+  private TDigestSketch(
+      final double min,
+      final double max,
+      final int numCentroids,
+      final double[] means,
+      final long[] weights
+  ) {
+    this.min = min;
+    this.max = max;
+    this.numCentroids = numCentroids;
+    this.means = means;
+    this.weights = weights;
+  }
+
+  static TDigestSketch empty() {
+    return new TDigestSketch(
+        Double.POSITIVE_INFINITY,
+        Double.NEGATIVE_INFINITY,
+        0,
+        new double[MAX_CENTROIDS + 1],
+        new long[MAX_CENTROIDS + 1]);
+  }
+
+  static TDigestSketch decode(final String encoded) {
+    if (encoded == null || encoded.isEmpty()) {
+      return empty();
+    }
+
+    final ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+    final byte format = buffer.get();
+    if (format != FORMAT) {
+      throw new KsqlException("Unknown t-digest format: " + format);
+    }
+
+    final double min = buffer.getDouble();
+    final double max = buffer.getDouble();
+    final int numCentroids = buffer.getInt();
+    final int capacity = Math.max(numCentroids, MAX_CENTROIDS) + 1;
+    final double[] means = new double[capacity];
+    final long[] weights = new long[capacity];
+    for (int i = 0; i < numCentroids; i++) {
+      means[i] = buffer.getDouble();
+      weights[i] = buffer.getLong();
+    }
+    return new TDigestSketch(min, max, numCentroids, means, weights);
+  }
+
+  void add(final double value) {
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+    append(value, 1);
+    if (numCentroids > MAX_CENTROIDS) {
+      compress();
+    }
+  }
+
+  void merge(final TDigestSketch other) {
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+    for (int i = 0; i < other.numCentroids; i++) {
+      append(other.means[i], other.weights[i]);
+    }
+    compress();
+  }
+
+  private void append(final double mean, final long weight) {
+    if (numCentroids == means.length) {
+      means = Arrays.copyOf(means, numCentroids * 2);
+      weights = Arrays.copyOf(weights, numCentroids * 2);
+    }
+    means[numCentroids] = mean;
+    weights[numCentroids] = weight;
+    numCentroids++;
+  }
+
+  /**
+   * Sorts the centroids and merges neighbours whose combined weight spans at most one unit of the
+   * scale function {@code k(q) = COMPRESSION / (2 * PI) * asin(2q - 1)}, so centroids are smaller
+   * near the tails.
+   */
+  private void compress() {
+    if (numCentroids <= 1) {
+      return;
+    }
+    sort();
+
+    final double totalWeight = totalWeight();
+    double weightSoFar = 0;
+    double weightLimit = totalWeight * quantile(scale(0) + 1);
+
+    int merged = 0;
+    for (int i = 1; i < numCentroids; i++) {
+      final long proposedWeight = weights[merged] + weights[i];
+      if (weightSoFar + proposedWeight <= weightLimit) {
+        means[merged] += (means[i] - means[merged]) * weights[i] / proposedWeight;
+        weights[merged] = proposedWeight;
+      } else {
+        weightSoFar += weights[merged];
+        weightLimit = totalWeight * quantile(scale(weightSoFar / totalWeight) + 1);
+        merged++;
+        means[merged] = means[i];
+        weights[merged] = weights[i];
+      }
+    }
+    numCentroids = merged + 1;
+  }
+
+  private void sort() {
+    final Integer[] order = new Integer[numCentroids];
+    for (int i = 0; i < numCentroids; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingDouble(i -> means[i]));
+
+    final double[] sortedMeans = new double[means.length];
+    final long[] sortedWeights = new long[weights.length];
+    for (int i = 0; i < numCentroids; i++) {
+      sortedMeans[i] = means[order[i]];
+      sortedWeights[i] = weights[order[i]];
+    }
+    means = sortedMeans;
+    weights = sortedWeights;
+  }
+
+  private static double scale(final double quantile) {
+    return COMPRESSION / (2 * Math.PI) * Math.asin(2 * quantile - 1);
+  }
+
+  private static double quantile(final double scale) {
+    if (scale >= COMPRESSION / 4) {
+      return 1;
+    }
+    return (Math.sin(scale * 2 * Math.PI / COMPRESSION) + 1) / 2;
+  }
+
+  private double totalWeight() {
+    double total = 0;
+    for (int i = 0; i < numCentroids; i++) {
+      total += weights[i];
+    }
+    return total;
+  }
+
+  /**
+   * Estimates the value at {@code quantile}, interpolating between the means of the centroids
+   * either side of it, or the min or max value at the tails.
+   *
+   * @return the estimate, or {@code null} if no values have been added.
+   */
+  Double estimate(final double quantile) {
+    if (numCentroids == 0) {
+      return null;
+    }
+    compress();
+
+    final double target = quantile * totalWeight();
+    double weightSoFar = 0;
+    double previousCenter = 0;
+    double previousMean = min;
+    for (int i = 0; i < numCentroids; i++) {
+      final double center = weightSoFar + weights[i] / 2.0;
+      if (target <= center) {
+        return interpolate(target, previousCenter, previousMean, center, means[i]);
+      }
+      weightSoFar += weights[i];
+      previousCenter = center;
+      previousMean = means[i];
+    }
+    return interpolate(target, previousCenter, previousMean, weightSoFar, max);
+  }
+
+  private static double interpolate(
+      final double target,
+      final double left,
+      final double leftValue,
+      final double right,
+      final double rightValue
+  ) {
+    if (right <= left) {
+      return rightValue;
+    }
+    return leftValue + (rightValue - leftValue) * (target - left) / (right - left);
+  }
+
+  String encode() {
+    final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + numCentroids * CENTROID_SIZE);
+    buffer.put(FORMAT);
+    buffer.putDouble(min);
+    buffer.putDouble(max);
+    buffer.putInt(numCentroids);
+    for (int i = 0; i < numCentroids; i++) {
+      buffer.putDouble(means[i]);
+      buffer.putLong(weights[i]);
+    }
+    return Base64.getEncoder().encodeToString(buffer.array());
+  }
+}
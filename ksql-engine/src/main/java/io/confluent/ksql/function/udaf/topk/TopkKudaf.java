@@ -18,7 +18,6 @@ import io.confluent.ksql.function.AggregateFunctionArguments;
 import io.confluent.ksql.function.BaseAggregateFunction;
 import io.confluent.ksql.function.KsqlAggregateFunction;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.streams.kstream.Merger;
@@ -54,7 +53,6 @@ public class TopkKudaf<T extends Comparable<? super T>>
     this.clazz = clazz;
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   public List<T> aggregate(final T currentValue, final List<T> aggregateValue) {
     if (currentValue == null) {
@@ -62,21 +60,18 @@ public class TopkKudaf<T extends Comparable<? super T>>
     }
 
     final int currentSize = aggregateValue.size();
-    if (!aggregateValue.isEmpty()) {
-      final T last = aggregateValue.get(currentSize - 1);
-      if (currentValue.compareTo(last) <= 0
-          && currentSize == topKSize) {
-        return aggregateValue;
-      }
+    if (currentSize == topKSize
+        && currentValue.compareTo(aggregateValue.get(currentSize - 1)) <= 0) {
+      return aggregateValue;
     }
 
+    // The list is kept in descending order, so the new value can be inserted in place,
+    // rather than the whole list being sorted again:
+    final int index = TopkUtil.insertionIndex(aggregateValue, currentValue);
     if (currentSize == topKSize) {
-      aggregateValue.set(currentSize - 1, currentValue);
-    } else {
-      aggregateValue.add(currentValue);
+      aggregateValue.remove(currentSize - 1);
     }
-
-    aggregateValue.sort(Comparator.reverseOrder());
+    aggregateValue.add(index, currentValue);
     return aggregateValue;
   }
 
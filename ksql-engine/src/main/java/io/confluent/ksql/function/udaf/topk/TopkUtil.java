@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf.topk;
+
+import java.util.List;
+
+/**
+ * Helpers for the descending lists the TOPK and TOPKDISTINCT aggregates keep.
+ */
+public final class TopkUtil {
+
+  private TopkUtil() {
+  }
+
+  /**
+   * @return the index after the last value in the descending {@code values} that is greater than
+   *     or equal to {@code value}.
+   */
+  public static <T extends Comparable<? super T>> int insertionIndex(
+      final List<T> values,
+      final T value
+  ) {
+    int low = 0;
+    int high = values.size();
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (values.get(mid).compareTo(value) >= 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
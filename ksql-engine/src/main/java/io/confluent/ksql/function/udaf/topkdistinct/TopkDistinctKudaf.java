@@ -17,9 +17,9 @@ package io.confluent.ksql.function.udaf.topkdistinct;
 import io.confluent.ksql.function.AggregateFunctionArguments;
 import io.confluent.ksql.function.BaseAggregateFunction;
 import io.confluent.ksql.function.KsqlAggregateFunction;
+import io.confluent.ksql.function.udaf.topk.TopkUtil;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
@@ -65,17 +65,17 @@ public class TopkDistinctKudaf<T extends Comparable<? super T>>
       return aggregateValue;
     }
 
-    if (aggregateValue.contains(currentValue)) {
+    // The list is kept in descending order, so both finding an existing copy of the value and
+    // inserting it are binary searches, rather than a linear scan and a sort:
+    final int index = TopkUtil.insertionIndex(aggregateValue, currentValue);
+    if (index > 0 && aggregateValue.get(index - 1).compareTo(currentValue) == 0) {
       return aggregateValue;
     }
 
     if (currentSize == tkVal) {
-      aggregateValue.set(currentSize - 1, currentValue);
-    } else {
-      aggregateValue.add(currentValue);
+      aggregateValue.remove(currentSize - 1);
     }
-
-    aggregateValue.sort(Comparator.reverseOrder());
+    aggregateValue.add(index, currentValue);
     return aggregateValue;
   }
 
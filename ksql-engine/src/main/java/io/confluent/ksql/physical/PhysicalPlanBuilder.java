@@ -14,6 +14,7 @@
 
 package io.confluent.ksql.physical;
 
+import com.google.common.collect.ImmutableList;
 import io.confluent.common.logging.StructuredLogger;
 import io.confluent.ksql.errors.ProductionExceptionHandlerUtil;
 import io.confluent.ksql.function.FunctionRegistry;
@@ -32,6 +33,7 @@ import io.confluent.ksql.processing.log.ProcessingLogContext;
 import io.confluent.ksql.query.QueryId;
 import io.confluent.ksql.serde.DataSource;
 import io.confluent.ksql.services.ServiceContext;
+import io.confluent.ksql.streams.SharedMemoryRocksDBConfigSetter;
 import io.confluent.ksql.structured.QueuedSchemaKStream;
 import io.confluent.ksql.structured.SchemaKStream;
 import io.confluent.ksql.structured.SchemaKTable;
@@ -61,6 +63,13 @@ import org.apache.kafka.streams.Topology;
 
 public class PhysicalPlanBuilder {
 
+  // Streams properties a persistent query can set in the WITH clause of its statement:
+  private static final List<String> QUERY_STREAMS_PROPERTIES = ImmutableList.of(
+      StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG,
+      StreamsConfig.COMMIT_INTERVAL_MS_CONFIG,
+      StreamsConfig.NUM_STREAM_THREADS_CONFIG
+  );
+
   private final StreamsBuilder builder;
   private final KsqlConfig ksqlConfig;
   private final ServiceContext serviceContext;
@@ -112,7 +121,7 @@ public class PhysicalPlanBuilder {
         .getNode()
         .buildStream(
             builder,
-            ksqlConfig,
+            withQueryStreamsProperties(logicalPlanNode.getNode()),
             serviceContext,
             processingLogContext,
             functionRegistry,
@@ -173,6 +182,24 @@ public class PhysicalPlanBuilder {
     }
   }
 
+  /**
+   * @return the config with the streams properties set in the WITH clause of a persistent query's
+   *     statement, so the steps of the query that read them agree with its streams.
+   */
+  private KsqlConfig withQueryStreamsProperties(final PlanNode planNode) {
+    if (!(planNode instanceof KsqlStructuredDataOutputNode)) {
+      return ksqlConfig;
+    }
+
+    final Map<String, Object> outputProperties =
+        ((KsqlStructuredDataOutputNode) planNode).getOutputProperties();
+    final Map<String, Object> queryStreamsProperties = new HashMap<>();
+    QUERY_STREAMS_PROPERTIES.stream()
+        .filter(outputProperties::containsKey)
+        .forEach(name -> queryStreamsProperties.put(name, outputProperties.get(name)));
+    return ksqlConfig.cloneWithPropertyOverwrite(queryStreamsProperties);
+  }
+
   private QueryMetadata buildPlanForBareQuery(
       final QueuedSchemaKStream<?> schemaKStream,
       final KsqlBareOutputNode bareOutputNode,
@@ -270,6 +297,9 @@ public class PhysicalPlanBuilder {
         queryId,
         processingLogContext
     );
+    QUERY_STREAMS_PROPERTIES.stream()
+        .filter(outputNode.getOutputProperties()::containsKey)
+        .forEach(name -> streamsProperties.put(name, outputNode.getOutputProperties().get(name)));
     final KafkaStreams streams = kafkaStreamsBuilder.buildKafkaStreams(builder, streamsProperties);
 
     final Topology topology = builder.build();
@@ -387,9 +417,34 @@ public class PhysicalPlanBuilder {
         StreamsConfig.producerPrefix(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG),
         ProducerCollector.class.getCanonicalName()
     );
+
+    final long rocksDbSharedMemory =
+        ksqlConfig.getLong(KsqlConfig.KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG);
+    if (rocksDbSharedMemory > 0) {
+      setSharedMemoryRocksDbConfig(newStreamsProperties, rocksDbSharedMemory);
+    }
     return newStreamsProperties;
   }
 
+  private static void setSharedMemoryRocksDbConfig(
+      final Map<String, Object> streamsProperties,
+      final long maxBytes
+  ) {
+    final Object configSetter =
+        streamsProperties.get(StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG);
+    if (configSetter != null
+        && !configSetter.equals(SharedMemoryRocksDBConfigSetter.class)
+        && !configSetter.equals(SharedMemoryRocksDBConfigSetter.class.getName())) {
+      throw new KsqlException(KsqlConfig.KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG
+          + " cannot be used with " + StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG
+          + ": " + configSetter);
+    }
+    streamsProperties.put(
+        StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG,
+        SharedMemoryRocksDBConfigSetter.class);
+    streamsProperties.put(KsqlConfig.KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG, maxBytes);
+  }
+
   private static void enforceKeyEquivalence(final Field sinkKeyField, final Field resultKeyField) {
     if (sinkKeyField == null && resultKeyField == null) {
       return;
@@ -25,6 +25,7 @@ import io.confluent.ksql.metastore.StructuredDataSource;
 import io.confluent.ksql.parser.tree.Expression;
 import io.confluent.ksql.planner.plan.AggregateNode;
 import io.confluent.ksql.planner.plan.FilterNode;
+import io.confluent.ksql.planner.plan.JoinNode;
 import io.confluent.ksql.planner.plan.KsqlBareOutputNode;
 import io.confluent.ksql.planner.plan.KsqlStructuredDataOutputNode;
 import io.confluent.ksql.planner.plan.OutputNode;
@@ -39,6 +40,7 @@ import io.confluent.ksql.util.SchemaUtil;
 import io.confluent.ksql.util.timestamp.TimestampExtractionPolicy;
 import io.confluent.ksql.util.timestamp.TimestampExtractionPolicyFactory;
 import java.util.Map;
+import java.util.Optional;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
 
@@ -61,11 +63,13 @@ public class LogicalPlanner {
   }
 
   public PlanNode buildPlan() {
+    final RequiredColumnsExtractor requiredColumns = RequiredColumnsExtractor.extract(analysis);
+
     PlanNode currentNode;
     if (analysis.getJoin() != null) {
-      currentNode = analysis.getJoin();
+      currentNode = buildJoinNode(requiredColumns);
     } else {
-      currentNode = buildSourceNode();
+      currentNode = buildSourceNode(requiredColumns);
     }
     if (analysis.getWhereExpression() != null) {
       currentNode = buildFilterNode(currentNode);
@@ -187,7 +191,9 @@ public class LogicalPlanner {
     return new FilterNode(new PlanNodeId("Filter"), sourcePlanNode, filterExpression);
   }
 
-  private StructuredDataSourceNode buildSourceNode() {
+  private StructuredDataSourceNode buildSourceNode(
+      final RequiredColumnsExtractor requiredColumns
+  ) {
 
     final Pair<StructuredDataSource, String> dataSource = analysis.getFromDataSource(0);
     final Schema fromSchema = SchemaUtil.buildSchemaWithAlias(
@@ -196,9 +202,37 @@ public class LogicalPlanner {
     );
 
     if (dataSource.left instanceof KsqlStream || dataSource.left instanceof KsqlTable) {
-      return new StructuredDataSourceNode(new PlanNodeId("KsqlTopic"), dataSource.left, fromSchema);
+      return new StructuredDataSourceNode(
+          new PlanNodeId("KsqlTopic"),
+          dataSource.left,
+          fromSchema,
+          Optional.of(requiredColumns.getRequiredColumns(dataSource.right, fromSchema)));
     }
     throw new RuntimeException("Data source is not supported yet.");
   }
 
+  private JoinNode buildJoinNode(final RequiredColumnsExtractor requiredColumns) {
+    final JoinNode join = analysis.getJoin();
+    return join.withSources(
+        withRequiredColumns(join.getLeft(), join.getLeftAlias(), requiredColumns),
+        withRequiredColumns(join.getRight(), join.getRightAlias(), requiredColumns)
+    );
+  }
+
+  private static PlanNode withRequiredColumns(
+      final PlanNode node,
+      final String alias,
+      final RequiredColumnsExtractor requiredColumns
+  ) {
+    if (!(node instanceof StructuredDataSourceNode)) {
+      return node;
+    }
+    final StructuredDataSourceNode source = (StructuredDataSourceNode) node;
+    return new StructuredDataSourceNode(
+        source.getId(),
+        source.getStructuredDataSource(),
+        source.getSchema(),
+        Optional.of(requiredColumns.getRequiredColumns(alias, source.getSchema())));
+  }
+
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package io.confluent.ksql.planner;
+
+import io.confluent.ksql.analyzer.Analysis;
+import io.confluent.ksql.parser.DefaultTraversalVisitor;
+import io.confluent.ksql.parser.tree.DereferenceExpression;
+import io.confluent.ksql.parser.tree.Expression;
+import io.confluent.ksql.parser.tree.QualifiedNameReference;
+import io.confluent.ksql.planner.plan.JoinNode;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+
+/**
+ * Finds the columns of each source that a query references, so that the source's deserializer
+ * can skip all other columns.
+ */
+final class RequiredColumnsExtractor {
+
+  private final Set<String> qualifiedNames = new HashSet<>();
+  private final Set<String> unqualifiedNames = new HashSet<>();
+
+  private RequiredColumnsExtractor() {
+  }
+
+  static RequiredColumnsExtractor extract(final Analysis analysis) {
+    final RequiredColumnsExtractor extractor = new RequiredColumnsExtractor();
+    final Visitor visitor = extractor.new Visitor();
+
+    analysis.getSelectExpressions().forEach(e -> visitor.process(e, null));
+    analysis.getGroupByExpressions().forEach(e -> visitor.process(e, null));
+    if (analysis.getWhereExpression() != null) {
+      visitor.process(analysis.getWhereExpression(), null);
+    }
+    if (analysis.getHavingExpression() != null) {
+      visitor.process(analysis.getHavingExpression(), null);
+    }
+
+    final JoinNode join = analysis.getJoin();
+    if (join != null) {
+      extractor.addQualified(join.getLeftAlias(), join.getLeftKeyFieldName());
+      extractor.addQualified(join.getRightAlias(), join.getRightKeyFieldName());
+    }
+    return extractor;
+  }
+
+  /**
+   * @param alias the alias of the source in the query.
+   * @param sourceSchema the schema of the source, with or without the alias.
+   * @return the names, without the alias, of the source's columns that the query references.
+   */
+  Set<String> getRequiredColumns(final String alias, final Schema sourceSchema) {
+    final Set<String> required = new HashSet<>();
+    for (final Field field : sourceSchema.fields()) {
+      final String name = field.name().substring(field.name().indexOf('.') + 1);
+      if (qualifiedNames.contains(qualify(alias, name))
+          || unqualifiedNames.contains(name.toUpperCase())) {
+        required.add(name);
+      }
+    }
+    return required;
+  }
+
+  private void addQualified(final String alias, final String name) {
+    qualifiedNames.add(qualify(alias, name));
+  }
+
+  private static String qualify(final String alias, final String name) {
+    return (alias + "." + name).toUpperCase();
+  }
+
+  private final class Visitor extends DefaultTraversalVisitor<Object, Object> {
+
+    @Override
+    protected Object visitDereferenceExpression(
+        final DereferenceExpression node,
+        final Object context
+    ) {
+      final Expression base = node.getBase();
+      if (base instanceof QualifiedNameReference) {
+        final String baseName = ((QualifiedNameReference) base).getName().getSuffix();
+        addQualified(baseName, node.getFieldName());
+        // The base may itself be a column, e.g. a struct being dereferenced:
+        unqualifiedNames.add(baseName.toUpperCase());
+        return null;
+      }
+      return process(base, context);
+    }
+
+    @Override
+    protected Object visitQualifiedNameReference(
+        final QualifiedNameReference node,
+        final Object context
+    ) {
+      unqualifiedNames.add(node.getName().getSuffix().toUpperCase());
+      return null;
+    }
+  }
+}
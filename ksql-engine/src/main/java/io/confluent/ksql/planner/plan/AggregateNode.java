@@ -21,7 +21,9 @@ import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.function.AggregateFunctionArguments;
 import io.confluent.ksql.function.FunctionRegistry;
 import io.confluent.ksql.function.KsqlAggregateFunction;
+import io.confluent.ksql.function.udaf.KudafAggregator;
 import io.confluent.ksql.function.udaf.KudafInitializer;
+import io.confluent.ksql.function.udaf.KudafResultMapper;
 import io.confluent.ksql.parser.tree.DereferenceExpression;
 import io.confluent.ksql.parser.tree.Expression;
 import io.confluent.ksql.parser.tree.FunctionCall;
@@ -53,12 +55,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
 import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.KTable;
 
 
 public class AggregateNode extends PlanNode {
@@ -221,11 +225,6 @@ public class AggregateNode extends PlanNode {
     final List<Expression> internalGroupByColumns = internalSchema.getInternalExpressionList(
         getGroupByExpressions());
 
-    final SchemaKGroupedStream schemaKGroupedStream =
-        aggregateArgExpanded.groupBy(
-            genericRowSerde, internalGroupByColumns,
-            groupByContext);
-
     // Aggregate computations
     final SchemaBuilder aggregateSchema = SchemaBuilder.struct();
     final Map<Integer, Integer> aggValToValColumnMap = createAggregateValueToValueColumnMap(
@@ -236,8 +235,10 @@ public class AggregateNode extends PlanNode {
 
     final Schema aggStageSchema = buildAggregateSchema(
         aggregateArgExpanded.getSchema(),
+        ksqlConfig,
         functionRegistry,
-        internalSchema
+        internalSchema,
+        KsqlAggregateFunction::getAggregateType
     );
 
     final QueryContext.Stacker aggregationContext = contextStacker.push(AGGREGATION_OP_NAME);
@@ -255,7 +256,40 @@ public class AggregateNode extends PlanNode {
 
     final Map<Integer, KsqlAggregateFunction> aggValToFunctionMap = createAggValToFunctionMap(
         aggregateArgExpanded, aggregateSchema, initializer, aggValToValColumnMap.size(),
-        functionRegistry, internalSchema);
+        ksqlConfig, functionRegistry, internalSchema);
+
+    final boolean preAggregate = getWindowExpression() == null
+        && ksqlConfig.getInt(KsqlConfig.KSQL_PREAGGREGATE_MAX_ENTRIES_CONFIG) > 0;
+    final boolean binaryKey = getWindowExpression() == null
+        && internalGroupByColumns.size() > 1
+        && ksqlConfig.getBoolean(KsqlConfig.KSQL_GROUP_BY_BINARY_KEY_CONFIG);
+    if (preAggregate && binaryKey) {
+      throw new KsqlException(String.format(
+          "Partial aggregates are keyed by strings, so an aggregation can not be both "
+              + "pre-aggregated and grouped by a binary key. Set '%s' to 0 or '%s' to false.",
+          KsqlConfig.KSQL_PREAGGREGATE_MAX_ENTRIES_CONFIG,
+          KsqlConfig.KSQL_GROUP_BY_BINARY_KEY_CONFIG));
+    }
+
+    final SchemaKGroupedStream schemaKGroupedStream;
+    if (preAggregate) {
+      schemaKGroupedStream = aggregateArgExpanded.groupByWithPreAggregation(
+          builder,
+          genericRowSerde,
+          internalGroupByColumns,
+          initializer,
+          new KudafAggregator(aggValToFunctionMap, aggValToValColumnMap),
+          aggValueGenericRowSerde,
+          groupByContext);
+    } else if (binaryKey) {
+      schemaKGroupedStream = aggregateArgExpanded.groupByWithBinaryKey(
+          genericRowSerde, internalGroupByColumns,
+          groupByContext);
+    } else {
+      schemaKGroupedStream = aggregateArgExpanded.groupBy(
+          genericRowSerde, internalGroupByColumns,
+          groupByContext);
+    }
 
     final SchemaKTable schemaKTable = schemaKGroupedStream.aggregate(
         initializer,
@@ -265,9 +299,23 @@ public class AggregateNode extends PlanNode {
         aggValueGenericRowSerde,
         aggregationContext);
 
+    // Map aggregates that are not the results of their functions, e.g. sketches, to the results:
+    Schema aggregatedSchema = aggStageSchema;
+    KTable aggregated = schemaKTable.getKtable();
+    if (KudafResultMapper.isRequired(aggValToFunctionMap)) {
+      aggregatedSchema = buildAggregateSchema(
+          aggregateArgExpanded.getSchema(),
+          ksqlConfig,
+          functionRegistry,
+          internalSchema,
+          KsqlAggregateFunction::getReturnType
+      );
+      aggregated = aggregated.mapValues(new KudafResultMapper(aggValToFunctionMap));
+    }
+
     SchemaKTable<?> result = new SchemaKTable<>(
-        aggStageSchema,
-        schemaKTable.getKtable(),
+        aggregatedSchema,
+        aggregated,
         schemaKTable.getKeyField(),
         schemaKTable.getSourceSchemaKStreams(),
         schemaKTable.getKeySerde(),
@@ -319,6 +367,7 @@ public class AggregateNode extends PlanNode {
       final SchemaBuilder aggregateSchema,
       final KudafInitializer initializer,
       final int initialUdafIndex,
+      final KsqlConfig ksqlConfig,
       final FunctionRegistry functionRegistry,
       final InternalSchema internalSchema
   ) {
@@ -327,6 +376,7 @@ public class AggregateNode extends PlanNode {
       final Map<Integer, KsqlAggregateFunction> aggValToAggFunctionMap = new HashMap<>();
       for (final FunctionCall functionCall : getFunctionList()) {
         final KsqlAggregateFunction aggregateFunction = getAggregateFunction(
+            ksqlConfig,
             functionRegistry,
             internalSchema,
             functionCall, aggregateArgExpanded.getSchema());
@@ -335,7 +385,7 @@ public class AggregateNode extends PlanNode {
         initializer.addAggregateIntializer(aggregateFunction.getInitialValueSupplier());
 
         aggregateSchema.field("AGG_COL_"
-            + udafIndexInAggSchema, aggregateFunction.getReturnType());
+            + udafIndexInAggSchema, aggregateFunction.getAggregateType());
       }
       return aggValToAggFunctionMap;
     } catch (final Exception e) {
@@ -349,7 +399,8 @@ public class AggregateNode extends PlanNode {
     }
   }
 
-  private KsqlAggregateFunction getAggregateFunction(final FunctionRegistry functionRegistry,
+  private KsqlAggregateFunction getAggregateFunction(final KsqlConfig ksqlConfig,
+      final FunctionRegistry functionRegistry,
       final InternalSchema internalSchema,
       final FunctionCall functionCall,
       final Schema schema) {
@@ -367,13 +418,19 @@ public class AggregateNode extends PlanNode {
 
     final int udafIndex = internalSchema.internalNameToIndexMap.get(args.get(0));
 
-    return aggregateFunctionInfo.getInstance(new AggregateFunctionArguments(udafIndex, args));
+    final Map<String, Object> config =
+        ksqlConfig.getKsqlFunctionsConfigProps(functionCall.getName().toString());
+
+    return aggregateFunctionInfo.getInstance(
+        new AggregateFunctionArguments(udafIndex, args, config));
   }
 
   private Schema buildAggregateSchema(
       final Schema schema,
+      final KsqlConfig ksqlConfig,
       final FunctionRegistry functionRegistry,
-      final InternalSchema internalSchema
+      final InternalSchema internalSchema,
+      final Function<KsqlAggregateFunction, Schema> aggregateColumnType
   ) {
     final SchemaBuilder schemaBuilder = SchemaBuilder.struct();
     final List<Field> fields = schema.fields();
@@ -383,6 +440,7 @@ public class AggregateNode extends PlanNode {
     for (int aggFunctionVarSuffix = 0;
         aggFunctionVarSuffix < getFunctionList().size(); aggFunctionVarSuffix++) {
       final KsqlAggregateFunction aggregateFunction = getAggregateFunction(
+          ksqlConfig,
           functionRegistry,
           internalSchema,
           getFunctionList().get(aggFunctionVarSuffix),
@@ -390,7 +448,7 @@ public class AggregateNode extends PlanNode {
       schemaBuilder.field(
           AggregateExpressionRewriter.AGGREGATE_FUNCTION_VARIABLE_PREFIX
               + aggFunctionVarSuffix,
-          aggregateFunction.getReturnType()
+          aggregateColumnType.apply(aggregateFunction)
       );
     }
 
@@ -141,6 +141,25 @@ public class JoinNode extends PlanNode {
     return visitor.visitJoin(this, context);
   }
 
+  /**
+   * @return a copy of this join that reads from {@code left} and {@code right} instead.
+   */
+  public JoinNode withSources(final PlanNode left, final PlanNode right) {
+    return new JoinNode(
+        getId(),
+        joinType,
+        left,
+        right,
+        leftKeyFieldName,
+        rightKeyFieldName,
+        leftAlias,
+        rightAlias,
+        withinExpression,
+        leftType,
+        rightType
+    );
+  }
+
   public PlanNode getLeft() {
     return left;
   }
@@ -81,6 +81,10 @@ public class KsqlStructuredDataOutputNode extends OutputNode {
     return doCreateInto;
   }
 
+  public Map<String, Object> getOutputProperties() {
+    return Collections.unmodifiableMap(outputProperties);
+  }
+
   @Override
   public QueryId getQueryId(final QueryIdGenerator queryIdGenerator) {
     final String base = queryIdGenerator.getNextId();
@@ -106,6 +106,24 @@ public class ProjectNode
       final ProcessingLogContext processingLogContext,
       final FunctionRegistry functionRegistry,
       final QueryId queryId) {
+    if (source instanceof FilterNode
+        && ksqlConfig.getBoolean(KsqlConfig.KSQL_FUSE_FILTER_PROJECT_CONFIG)) {
+      final FilterNode filterNode = (FilterNode) source;
+      return filterNode.getSource().buildStream(
+          builder,
+          ksqlConfig,
+          serviceContext,
+          processingLogContext,
+          functionRegistry,
+          queryId
+      ).filterAndSelect(
+          filterNode.getPredicate(),
+          filterNode.buildNodeContext(queryId),
+          getProjectSelectExpressions(),
+          buildNodeContext(queryId),
+          processingLogContext);
+    }
+
     return getSource().buildStream(
         builder,
         ksqlConfig,
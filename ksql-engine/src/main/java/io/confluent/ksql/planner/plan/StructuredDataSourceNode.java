@@ -16,6 +16,7 @@ package io.confluent.ksql.planner.plan;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableSet;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.function.FunctionRegistry;
 import io.confluent.ksql.metastore.KsqlStream;
@@ -38,10 +39,12 @@ import io.confluent.ksql.util.QueryLoggerUtil;
 import io.confluent.ksql.util.SchemaUtil;
 import io.confluent.ksql.util.timestamp.TimestampExtractionPolicy;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import javax.annotation.concurrent.Immutable;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
@@ -92,6 +95,7 @@ public class StructuredDataSourceNode
   private final StructuredDataSource structuredDataSource;
   private final Schema schema;
   private final Function<KsqlConfig, MaterializedFactory> materializedFactorySupplier;
+  private final Optional<Set<String>> requiredColumns;
 
   // TODO: pass in the "assignments" and the "outputs" separately
   // TODO: (i.e., get rid if the symbol := symbol idiom)
@@ -101,7 +105,19 @@ public class StructuredDataSourceNode
       @JsonProperty("structuredDataSource") final StructuredDataSource structuredDataSource,
       @JsonProperty("schema") final Schema schema
   ) {
-    this(id, structuredDataSource, schema, MaterializedFactory::create);
+    this(id, structuredDataSource, schema, Optional.empty());
+  }
+
+  /**
+   * @param requiredColumns the names, without alias, of the only columns that the query reads
+   *                        from this source, if known. All other columns are left {@code null}.
+   */
+  public StructuredDataSourceNode(
+      final PlanNodeId id,
+      final StructuredDataSource structuredDataSource,
+      final Schema schema,
+      final Optional<Set<String>> requiredColumns) {
+    this(id, structuredDataSource, schema, MaterializedFactory::create, requiredColumns);
   }
 
   public StructuredDataSourceNode(
@@ -109,6 +125,15 @@ public class StructuredDataSourceNode
       final StructuredDataSource structuredDataSource,
       final Schema schema,
       final Function<KsqlConfig, MaterializedFactory> materializedFactorySupplier) {
+    this(id, structuredDataSource, schema, materializedFactorySupplier, Optional.empty());
+  }
+
+  private StructuredDataSourceNode(
+      final PlanNodeId id,
+      final StructuredDataSource structuredDataSource,
+      final Schema schema,
+      final Function<KsqlConfig, MaterializedFactory> materializedFactorySupplier,
+      final Optional<Set<String>> requiredColumns) {
     super(id, structuredDataSource.getDataSourceType());
     this.schema =
         Objects.requireNonNull(schema, "schema");
@@ -116,6 +141,8 @@ public class StructuredDataSourceNode
         Objects.requireNonNull(structuredDataSource, "structuredDataSource");
     this.materializedFactorySupplier =
         Objects.requireNonNull(materializedFactorySupplier, "materializedFactorySupplier");
+    this.requiredColumns = Objects.requireNonNull(requiredColumns, "requiredColumns")
+        .map(ImmutableSet::copyOf);
   }
 
   public String getTopicName() {
@@ -136,6 +163,10 @@ public class StructuredDataSourceNode
     return structuredDataSource;
   }
 
+  public Optional<Set<String>> getRequiredColumns() {
+    return requiredColumns;
+  }
+
   @Override
   public int getPartitions(final KafkaTopicClient kafkaTopicClient) {
     final String topicName = getStructuredDataSource().getKsqlTopic().getKafkaTopicName();
@@ -170,17 +201,12 @@ public class StructuredDataSourceNode
     final TimestampExtractor timestampExtractor = getTimestampExtractionPolicy()
         .create(timeStampColumnIndex);
 
-    final KsqlTopicSerDe ksqlTopicSerDe = getStructuredDataSource()
-        .getKsqlTopic().getKsqlTopicSerDe();
-    final Serde<GenericRow> genericRowSerde =
-        ksqlTopicSerDe.getGenericRowSerde(
-            SchemaUtil.removeImplicitRowTimeRowKeyFromSchema(getSchema()),
-            ksqlConfig,
-            false,
-            serviceContext.getSchemaRegistryClientFactory(), 
-            QueryLoggerUtil.queryLoggerName(contextStacker.push(SOURCE_OP_NAME).getQueryContext()),
-            processingLogContext
-        );
+    final Serde<GenericRow> genericRowSerde = getSourceSerde(
+        ksqlConfig,
+        serviceContext,
+        processingLogContext,
+        QueryLoggerUtil.queryLoggerName(contextStacker.push(SOURCE_OP_NAME).getQueryContext())
+    );
 
     if (getDataSourceType() == StructuredDataSource.DataSourceType.KTABLE) {
       final KsqlTable table = (KsqlTable) getStructuredDataSource();
@@ -230,6 +256,49 @@ public class StructuredDataSourceNode
     );
   }
 
+  private Serde<GenericRow> getSourceSerde(
+      final KsqlConfig ksqlConfig,
+      final ServiceContext serviceContext,
+      final ProcessingLogContext processingLogContext,
+      final String loggerNamePrefix
+  ) {
+    final KsqlTopicSerDe ksqlTopicSerDe = getStructuredDataSource()
+        .getKsqlTopic().getKsqlTopicSerDe();
+    final Schema schema = SchemaUtil.removeImplicitRowTimeRowKeyFromSchema(getSchema());
+
+    if (!requiredColumns.isPresent()) {
+      return ksqlTopicSerDe.getGenericRowSerde(
+          schema,
+          ksqlConfig,
+          false,
+          serviceContext.getSchemaRegistryClientFactory(),
+          loggerNamePrefix,
+          processingLogContext
+      );
+    }
+
+    // The source itself needs its key and timestamp columns, even if the query does not:
+    final Set<String> columns = new HashSet<>(requiredColumns.get());
+    final Field keyField = getKeyField();
+    if (keyField != null) {
+      columns.add(SchemaUtil.getFieldNameWithNoAlias(keyField));
+    }
+    final String timestampField = getTimestampExtractionPolicy().timestampField();
+    if (timestampField != null) {
+      columns.add(timestampField.substring(timestampField.indexOf('.') + 1));
+    }
+
+    return ksqlTopicSerDe.getGenericRowSerde(
+        schema,
+        ksqlConfig,
+        false,
+        serviceContext.getSchemaRegistryClientFactory(),
+        loggerNamePrefix,
+        processingLogContext,
+        columns
+    );
+  }
+
   private static Topology.AutoOffsetReset getAutoOffsetReset(final Map<String, Object> props) {
     if (props.containsKey(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG)) {
       final String offestReset = props.get(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG).toString();
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.streams;
+
+import io.confluent.ksql.util.KsqlConfig;
+import io.confluent.ksql.util.KsqlException;
+import java.util.Map;
+import org.apache.kafka.streams.state.RocksDBConfigSetter;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.Cache;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.WriteBufferManager;
+
+/**
+ * Makes the RocksDB state stores of all queries share one block cache, to which their memtables
+ * are also charged, so the off-heap memory of the stores of the server is bounded as a whole,
+ * rather than growing with the number of queries.
+ *
+ * <p>The cache is created by the first store to be opened, with the size set by
+ * {@link KsqlConfig#KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG}, and is kept for the lifetime of
+ * the server.
+ */
+public class SharedMemoryRocksDBConfigSetter implements RocksDBConfigSetter {
+
+  // Share of the cache memtables may take up before they are flushed:
+  private static final double WRITE_BUFFER_RATIO = 0.5;
+
+  private static Cache cache;
+  private static WriteBufferManager writeBufferManager;
+
+  @Override
+  public void setConfig(
+      final String storeName,
+      final Options options,
+      final Map<String, Object> configs
+  ) {
+    final Object maxBytes = configs.get(KsqlConfig.KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG);
+    if (maxBytes == null) {
+      throw new KsqlException("Missing config: "
+          + KsqlConfig.KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG);
+    }
+
+    final Cache sharedCache = getOrCreateCache(Long.parseLong(maxBytes.toString()));
+
+    final BlockBasedTableConfig tableConfig = (BlockBasedTableConfig) options.tableFormatConfig();
+    tableConfig.setBlockCache(sharedCache);
+    tableConfig.setCacheIndexAndFilterBlocks(true);
+    options.setWriteBufferManager(writeBufferManager);
+    options.setTableFormatConfig(tableConfig);
+  }
+
+  static synchronized Cache getOrCreateCache(final long maxBytes) {
+    if (cache == null) {
+      cache = new LRUCache(maxBytes);
+      writeBufferManager = new WriteBufferManager((long) (maxBytes * WRITE_BUFFER_RATIO), cache);
+    }
+    return cache;
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.structured;
+
+import io.confluent.ksql.GenericRow;
+import java.util.Collections;
+import java.util.Objects;
+import org.apache.kafka.streams.kstream.Predicate;
+import org.apache.kafka.streams.kstream.ValueMapperWithKey;
+
+/**
+ * Applies a WHERE predicate and a projection in a single processor.
+ *
+ * <p>Projections are only computed for rows that pass the predicate.
+ */
+class FilterSelectValueMapper<K>
+    implements ValueMapperWithKey<K, GenericRow, Iterable<GenericRow>> {
+
+  private final Predicate<K, GenericRow> predicate;
+  private final SelectValueMapper selectValueMapper;
+
+  FilterSelectValueMapper(
+      final Predicate<K, GenericRow> predicate,
+      final SelectValueMapper selectValueMapper
+  ) {
+    this.predicate = Objects.requireNonNull(predicate, "predicate");
+    this.selectValueMapper = Objects.requireNonNull(selectValueMapper, "selectValueMapper");
+  }
+
+  @Override
+  public Iterable<GenericRow> apply(final K key, final GenericRow row) {
+    if (!predicate.test(key, row)) {
+      return Collections.emptyList();
+    }
+    return Collections.singletonList(selectValueMapper.apply(row));
+  }
+}
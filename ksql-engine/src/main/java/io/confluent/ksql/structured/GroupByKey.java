@@ -0,0 +1,237 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.structured;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * The key of a group of rows grouped by several columns, encoded as the typed values of the
+ * columns, strings being prefixed by their length.
+ *
+ * <p>Unlike the string values of the columns joined by a separator, the encoding is unambiguous
+ * when values contain the separator, and numbers take fixed space. Keys are compared by their
+ * encoding, whose hash is computed once. {@link #toString()} gives the joined string key, which is
+ * what is written to sink topics.
+ */
+final class GroupByKey {
+
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte INT = 2;
+  private static final byte BIGINT = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte BOOLEAN = 5;
+
+  private final byte[] bytes;
+  private final int hash;
+
+  private GroupByKey(final byte[] bytes) {
+    this.bytes = Objects.requireNonNull(bytes, "bytes");
+    this.hash = Arrays.hashCode(bytes);
+  }
+
+  /**
+   * @param values the values of the group-by columns. Values of other types than those of the
+   *     primitive SQL types are encoded as their string values.
+   * @return the key.
+   */
+  static GroupByKey of(final Object... values) {
+    final byte[][] strings = new byte[values.length][];
+    int size = 0;
+    for (int i = 0; i < values.length; i++) {
+      final Object value = values[i];
+      size++;
+      if (value == null) {
+        continue;
+      }
+      if (value instanceof Integer) {
+        size += Integer.BYTES;
+      } else if (value instanceof Long) {
+        size += Long.BYTES;
+      } else if (value instanceof Double) {
+        size += Double.BYTES;
+      } else if (value instanceof Boolean) {
+        size++;
+      } else {
+        strings[i] = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        size += Integer.BYTES + strings[i].length;
+      }
+    }
+
+    final ByteBuffer buffer = ByteBuffer.allocate(size);
+    for (int i = 0; i < values.length; i++) {
+      final Object value = values[i];
+      if (value == null) {
+        buffer.put(NULL);
+      } else if (value instanceof Integer) {
+        buffer.put(INT).putInt((Integer) value);
+      } else if (value instanceof Long) {
+        buffer.put(BIGINT).putLong((Long) value);
+      } else if (value instanceof Double) {
+        buffer.put(DOUBLE).putDouble((Double) value);
+      } else if (value instanceof Boolean) {
+        buffer.put(BOOLEAN).put((byte) ((Boolean) value ? 1 : 0));
+      } else {
+        buffer.put(STRING).putInt(strings[i].length).put(strings[i]);
+      }
+    }
+    return new GroupByKey(buffer.array());
+  }
+
+  /**
+   * @return the serde of the binary encoding of keys, for repartition topics and state stores.
+   */
+  static Serde<GroupByKey> serde() {
+    return Serdes.serdeFrom(new BinarySerializer(), new BinaryDeserializer());
+  }
+
+  /**
+   * @return the serde of keys as their string values, which is how they are written to sink
+   *     topics. It serializes string keys as they are, so it can also be used by queries of the
+   *     sink topics, to which it deserializes keys as strings.
+   */
+  static Serde<Object> stringSerde() {
+    return Serdes.serdeFrom(new StringSerializer(), new StringDeserializer());
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final GroupByKey that = (GroupByKey) o;
+    return hash == that.hash && Arrays.equals(bytes, that.bytes);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder key = new StringBuilder();
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    boolean first = true;
+    while (buffer.hasRemaining()) {
+      if (!first) {
+        key.append(GroupByMapper.GROUP_BY_COLUMN_SEPARATOR);
+      }
+      first = false;
+
+      final byte type = buffer.get();
+      switch (type) {
+        case NULL:
+          key.append("null");
+          break;
+        case INT:
+          key.append(buffer.getInt());
+          break;
+        case BIGINT:
+          key.append(buffer.getLong());
+          break;
+        case DOUBLE:
+          key.append(buffer.getDouble());
+          break;
+        case BOOLEAN:
+          key.append(buffer.get() != 0);
+          break;
+        case STRING:
+          final int length = buffer.getInt();
+          key.append(new String(bytes, buffer.position(), length, StandardCharsets.UTF_8));
+          buffer.position(buffer.position() + length);
+          break;
+        default:
+          throw new IllegalStateException("Unknown type of group-by key value: " + type);
+      }
+    }
+    return key.toString();
+  }
+
+  private static final class BinarySerializer implements Serializer<GroupByKey> {
+
+    @Override
+    public void configure(final Map<String, ?> configs, final boolean isKey) {
+    }
+
+    @Override
+    public byte[] serialize(final String topic, final GroupByKey key) {
+      return key == null ? null : key.bytes;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static final class BinaryDeserializer implements Deserializer<GroupByKey> {
+
+    @Override
+    public void configure(final Map<String, ?> configs, final boolean isKey) {
+    }
+
+    @Override
+    public GroupByKey deserialize(final String topic, final byte[] bytes) {
+      return bytes == null ? null : new GroupByKey(bytes);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static final class StringSerializer implements Serializer<Object> {
+
+    @Override
+    public void configure(final Map<String, ?> configs, final boolean isKey) {
+    }
+
+    @Override
+    public byte[] serialize(final String topic, final Object key) {
+      return key == null ? null : key.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static final class StringDeserializer implements Deserializer<Object> {
+
+    @Override
+    public void configure(final Map<String, ?> configs, final boolean isKey) {
+    }
+
+    @Override
+    public Object deserialize(final String topic, final byte[] bytes) {
+      return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
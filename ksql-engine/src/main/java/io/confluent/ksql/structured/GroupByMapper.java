@@ -21,7 +21,6 @@ import io.confluent.ksql.util.ExpressionMetadata;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import org.apache.kafka.streams.kstream.KeyValueMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,7 +29,7 @@ class GroupByMapper<K> implements KeyValueMapper<K, GenericRow, String> {
 
   private static final Logger LOG = LoggerFactory.getLogger(GroupByMapper.class);
 
-  private static final String GROUP_BY_COLUMN_SEPARATOR = "|+|";
+  static final String GROUP_BY_COLUMN_SEPARATOR = "|+|";
 
   private final List<ExpressionMetadata> expressions;
 
@@ -43,9 +42,32 @@ class GroupByMapper<K> implements KeyValueMapper<K, GenericRow, String> {
 
   @Override
   public String apply(final K key, final GenericRow row) {
-    return IntStream.range(0, expressions.size())
-        .mapToObj(idx -> processColumn(idx, expressions.get(idx), row))
-        .collect(Collectors.joining(GROUP_BY_COLUMN_SEPARATOR));
+    if (expressions.size() == 1) {
+      return processColumn(0, expressions.get(0), row);
+    }
+
+    // Called for every record, so build the key with a single builder rather than a stream:
+    final StringBuilder groupByKey = new StringBuilder();
+    for (int idx = 0; idx < expressions.size(); idx++) {
+      if (idx > 0) {
+        groupByKey.append(GROUP_BY_COLUMN_SEPARATOR);
+      }
+      groupByKey.append(processColumn(idx, expressions.get(idx), row));
+    }
+    return groupByKey.toString();
+  }
+
+  /**
+   * @return a mapper from rows to the {@link GroupByKey} of their group-by columns.
+   */
+  KeyValueMapper<K, GenericRow, GroupByKey> binaryKeyMapper() {
+    return (key, row) -> {
+      final Object[] values = new Object[expressions.size()];
+      for (int idx = 0; idx < expressions.size(); idx++) {
+        values[idx] = evaluateColumn(idx, expressions.get(idx), row);
+      }
+      return GroupByKey.of(values);
+    };
   }
 
   static String keyNameFor(final List<Expression> groupByExpressions) {
@@ -58,12 +80,20 @@ class GroupByMapper<K> implements KeyValueMapper<K, GenericRow, String> {
       final int index,
       final ExpressionMetadata exp,
       final GenericRow row
+  ) {
+    return String.valueOf(evaluateColumn(index, exp, row));
+  }
+
+  private Object evaluateColumn(
+      final int index,
+      final ExpressionMetadata exp,
+      final GenericRow row
   ) {
     try {
-      return String.valueOf(exp.evaluate(row));
+      return exp.evaluate(row);
     } catch (final Exception e) {
       LOG.error("Error calculating group-by field with index {}", index, e);
-      return "null";
+      return null;
     }
   }
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.structured;
+
+import io.confluent.ksql.GenericRow;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Aggregator;
+import org.apache.kafka.streams.kstream.Initializer;
+import org.apache.kafka.streams.kstream.Transformer;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.kstream.internals.TimeWindow;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+
+/**
+ * Computes the results of the hopping windows that contain each updated pane, by merging the
+ * panes of each window.
+ *
+ * <p>Panes are the non-overlapping windows that a hopping window aggregation aggregates each
+ * record into. Their width divides both the size and the advance of the hopping windows, so each
+ * window spans a whole number of panes.
+ *
+ * <p>Each window containing the updated pane is split into the panes before it, and the panes
+ * from it onwards. Going back a window adds panes to the first part, and removes panes from the
+ * second, so both parts are built incrementally from those of the neighbouring window. All the
+ * windows of a pane are then computed in a number of merges linear in the number of panes they
+ * span, rather than in that number times the number of windows.
+ *
+ * <p>Parts are merged into new rows from {@code initializer}, so {@code merger} must only modify
+ * the aggregate it merges into, never the partial aggregate it merges from.
+ */
+class PaneWindowTransformer implements Transformer<
+    Windowed<String>, GenericRow, Iterable<KeyValue<Windowed<String>, GenericRow>>> {
+
+  private final String storeName;
+  private final long size;
+  private final long advance;
+  private final long paneSize;
+  private final Initializer<GenericRow> initializer;
+  private final Aggregator<String, GenericRow, GenericRow> merger;
+
+  private WindowStore<String, GenericRow> panes;
+
+  PaneWindowTransformer(
+      final String storeName,
+      final long size,
+      final long advance,
+      final long paneSize,
+      final Initializer<GenericRow> initializer,
+      final Aggregator<String, GenericRow, GenericRow> merger
+  ) {
+    this.storeName = Objects.requireNonNull(storeName, "storeName");
+    this.size = size;
+    this.advance = advance;
+    this.paneSize = paneSize;
+    this.initializer = Objects.requireNonNull(initializer, "initializer");
+    this.merger = Objects.requireNonNull(merger, "merger");
+    if (paneSize <= 0 || advance % paneSize != 0 || size % paneSize != 0) {
+      throw new IllegalArgumentException("paneSize must divide the size and advance: " + paneSize);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void init(final ProcessorContext context) {
+    this.panes = (WindowStore<String, GenericRow>) context.getStateStore(storeName);
+  }
+
+  @Override
+  public Iterable<KeyValue<Windowed<String>, GenericRow>> transform(
+      final Windowed<String> pane,
+      final GenericRow paneAggregate) {
+    if (paneAggregate == null) {
+      return null;
+    }
+
+    final String key = pane.key();
+    final long paneStart = pane.window().start();
+
+    // The windows containing the pane, latest first, as TimeWindows assigns them:
+    final long lastStart = paneStart - paneStart % advance;
+    final long firstStart = Math.max(0, paneStart - size + advance) / advance * advance;
+    final int numWindows = (int) ((lastStart - firstStart) / advance) + 1;
+
+    final GenericRow[] paneRows = fetchPanes(key, firstStart, lastStart + size);
+    paneRows[(int) ((paneStart - firstStart) / paneSize)] = paneAggregate;
+
+    // before[i] holds the panes of window i before the updated pane:
+    final GenericRow[] before = new GenericRow[numWindows];
+    for (int i = 0; i < numWindows; i++) {
+      final long start = lastStart - i * advance;
+      final long end = i == 0 ? paneStart : start + advance;
+      final GenericRow row = mergePanes(key, paneRows, firstStart, start, end, initializer.apply());
+      before[i] = i == 0 ? row : merger.apply(key, before[i - 1], row);
+    }
+
+    // from[i] holds the panes of window i from the updated pane onwards:
+    final GenericRow[] from = new GenericRow[numWindows];
+    for (int i = numWindows - 1; i >= 0; i--) {
+      final long end = lastStart - i * advance + size;
+      if (i == numWindows - 1) {
+        from[i] = mergePanes(key, paneRows, firstStart, paneStart, end, initializer.apply());
+      } else {
+        final GenericRow row = merger.apply(key, from[i + 1], initializer.apply());
+        from[i] = mergePanes(key, paneRows, firstStart, end - advance, end, row);
+      }
+    }
+
+    final List<KeyValue<Windowed<String>, GenericRow>> results = new ArrayList<>(numWindows);
+    for (int i = numWindows - 1; i >= 0; i--) {
+      final long start = lastStart - i * advance;
+      GenericRow row = merger.apply(key, before[i], initializer.apply());
+      row = merger.apply(key, from[i], row);
+      results.add(KeyValue.pair(new Windowed<>(key, new TimeWindow(start, start + size)), row));
+    }
+    return results;
+  }
+
+  private GenericRow[] fetchPanes(final String key, final long from, final long to) {
+    final GenericRow[] paneRows = new GenericRow[(int) ((to - from) / paneSize)];
+    try (WindowStoreIterator<GenericRow> it = panes.fetch(key, from, to - paneSize)) {
+      while (it.hasNext()) {
+        final KeyValue<Long, GenericRow> next = it.next();
+        paneRows[(int) ((next.key - from) / paneSize)] = next.value;
+      }
+    }
+    return paneRows;
+  }
+
+  private GenericRow mergePanes(
+      final String key,
+      final GenericRow[] paneRows,
+      final long firstPane,
+      final long from,
+      final long to,
+      final GenericRow into
+  ) {
+    GenericRow row = into;
+    for (long start = from; start < to; start += paneSize) {
+      final GenericRow paneRow = paneRows[(int) ((start - firstPane) / paneSize)];
+      if (paneRow != null) {
+        row = merger.apply(key, paneRow, row);
+      }
+    }
+    return row;
+  }
+
+  @Override
+  public void close() {
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.structured;
+
+import io.confluent.ksql.GenericRow;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Aggregator;
+import org.apache.kafka.streams.kstream.Initializer;
+import org.apache.kafka.streams.kstream.Transformer;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+/**
+ * Combines the rows of each group-by key into a partial aggregate, before they are repartitioned.
+ *
+ * <p>Partial aggregates are buffered in a logged key-value store, so that those not yet forwarded
+ * when the task commits are restored after a failure. They are forwarded, keyed by their group-by
+ * key, once {@code maxEntries} keys are buffered or {@code flushInterval} has elapsed.
+ */
+class PreAggregateTransformer<K>
+    implements Transformer<K, GenericRow, KeyValue<String, GenericRow>> {
+
+  private final String storeName;
+  private final GroupByMapper<K> mapper;
+  private final Initializer<GenericRow> initializer;
+  private final Aggregator<String, GenericRow, GenericRow> aggregator;
+  private final int maxEntries;
+  private final Duration flushInterval;
+
+  private ProcessorContext context;
+  private KeyValueStore<String, GenericRow> partials;
+  private int numEntries;
+
+  PreAggregateTransformer(
+      final String storeName,
+      final GroupByMapper<K> mapper,
+      final Initializer<GenericRow> initializer,
+      final Aggregator<String, GenericRow, GenericRow> aggregator,
+      final int maxEntries,
+      final Duration flushInterval
+  ) {
+    this.storeName = Objects.requireNonNull(storeName, "storeName");
+    this.mapper = Objects.requireNonNull(mapper, "mapper");
+    this.initializer = Objects.requireNonNull(initializer, "initializer");
+    this.aggregator = Objects.requireNonNull(aggregator, "aggregator");
+    this.maxEntries = maxEntries;
+    this.flushInterval = Objects.requireNonNull(flushInterval, "flushInterval");
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void init(final ProcessorContext context) {
+    this.context = context;
+    this.partials = (KeyValueStore<String, GenericRow>) context.getStateStore(storeName);
+
+    // The store may hold partial aggregates restored from its changelog:
+    numEntries = 0;
+    try (KeyValueIterator<String, GenericRow> it = partials.all()) {
+      while (it.hasNext()) {
+        it.next();
+        numEntries++;
+      }
+    }
+
+    context.schedule(flushInterval, PunctuationType.WALL_CLOCK_TIME, timestamp -> flush());
+  }
+
+  @Override
+  public KeyValue<String, GenericRow> transform(final K key, final GenericRow row) {
+    final String groupByKey = mapper.apply(key, row);
+
+    GenericRow partial = partials.get(groupByKey);
+    if (partial == null) {
+      partial = initializer.apply();
+      numEntries++;
+    }
+    partials.put(groupByKey, aggregator.apply(groupByKey, row, partial));
+
+    if (numEntries >= maxEntries) {
+      flush();
+    }
+    return null;
+  }
+
+  private void flush() {
+    if (numEntries == 0) {
+      return;
+    }
+
+    final List<KeyValue<String, GenericRow>> entries = new ArrayList<>(numEntries);
+    try (KeyValueIterator<String, GenericRow> it = partials.all()) {
+      it.forEachRemaining(entries::add);
+    }
+
+    for (final KeyValue<String, GenericRow> entry : entries) {
+      context.forward(entry.key, entry.value);
+      partials.delete(entry.key);
+    }
+    numEntries = 0;
+  }
+
+  @Override
+  public void close() {
+  }
+}
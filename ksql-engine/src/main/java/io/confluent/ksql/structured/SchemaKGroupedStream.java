@@ -14,36 +14,55 @@
 
 package io.confluent.ksql.structured;
 
+import com.google.common.math.LongMath;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.function.FunctionRegistry;
 import io.confluent.ksql.function.KsqlAggregateFunction;
-import io.confluent.ksql.function.UdafAggregator;
 import io.confluent.ksql.function.udaf.KudafAggregator;
 import io.confluent.ksql.function.udaf.window.WindowSelectMapper;
+import io.confluent.ksql.parser.tree.HoppingWindowExpression;
 import io.confluent.ksql.parser.tree.KsqlWindowExpression;
 import io.confluent.ksql.parser.tree.WindowExpression;
+import io.confluent.ksql.streams.GroupedFactory;
 import io.confluent.ksql.streams.MaterializedFactory;
 import io.confluent.ksql.streams.StreamsUtil;
 import io.confluent.ksql.util.KsqlConfig;
+import io.confluent.ksql.util.KsqlException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.streams.kstream.Aggregator;
 import org.apache.kafka.streams.kstream.Initializer;
 import org.apache.kafka.streams.kstream.KGroupedStream;
 import org.apache.kafka.streams.kstream.KTable;
 import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Suppressed;
+import org.apache.kafka.streams.kstream.Suppressed.BufferConfig;
+import org.apache.kafka.streams.kstream.Suppressed.StrictBufferConfig;
+import org.apache.kafka.streams.kstream.TimeWindows;
 import org.apache.kafka.streams.kstream.Windowed;
 import org.apache.kafka.streams.kstream.WindowedSerdes;
 import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
 import org.apache.kafka.streams.state.WindowStore;
 
 public class SchemaKGroupedStream {
 
+  private static final String PANES_OP_NAME = "Panes";
+  private static final String PANE_WINDOWS_OP_NAME = "PaneWindows";
+  private static final String PANE_WINDOW_RESULTS_OP_NAME = "PaneWindowResults";
+  private static final String EMIT_FINAL_OP_NAME = "EmitFinal";
+
+  // Window results are only held until they are forwarded, so few need to be kept:
+  private static final int PANE_WINDOW_RESULTS_MAX_ENTRIES = 1000;
+
   final Schema schema;
   final KGroupedStream kgroupedStream;
   final Field keyField;
@@ -51,6 +70,10 @@ public class SchemaKGroupedStream {
   final KsqlConfig ksqlConfig;
   final FunctionRegistry functionRegistry;
   final MaterializedFactory materializedFactory;
+  // Whether the values are partial aggregates, rather than the rows of the stream:
+  final boolean preAggregated;
+  // Whether the keys are GroupByKeys, rather than joined strings:
+  final boolean binaryKey;
 
   SchemaKGroupedStream(
       final Schema schema,
@@ -79,6 +102,30 @@ public class SchemaKGroupedStream {
       final KsqlConfig ksqlConfig,
       final FunctionRegistry functionRegistry,
       final MaterializedFactory materializedFactory
+  ) {
+    this(
+        schema,
+        kgroupedStream,
+        keyField,
+        sourceSchemaKStreams,
+        ksqlConfig,
+        functionRegistry,
+        false,
+        false,
+        materializedFactory
+    );
+  }
+
+  SchemaKGroupedStream(
+      final Schema schema,
+      final KGroupedStream kgroupedStream,
+      final Field keyField,
+      final List<SchemaKStream> sourceSchemaKStreams,
+      final KsqlConfig ksqlConfig,
+      final FunctionRegistry functionRegistry,
+      final boolean preAggregated,
+      final boolean binaryKey,
+      final MaterializedFactory materializedFactory
   ) {
     this.schema = schema;
     this.kgroupedStream = kgroupedStream;
@@ -87,6 +134,8 @@ public class SchemaKGroupedStream {
     this.ksqlConfig = Objects.requireNonNull(ksqlConfig, "ksqlConfig");
     this.functionRegistry = functionRegistry;
     this.materializedFactory = materializedFactory;
+    this.preAggregated = preAggregated;
+    this.binaryKey = binaryKey;
   }
 
   public Field getKeyField() {
@@ -102,6 +151,13 @@ public class SchemaKGroupedStream {
       final Serde<GenericRow> topicValueSerDe,
       final QueryContext.Stacker contextStacker) {
 
+    if (preAggregated && windowExpression != null) {
+      throw new KsqlException("Partial aggregates can not be assigned to windows.");
+    }
+    if (binaryKey && windowExpression != null) {
+      throw new KsqlException("Rows grouped by binary keys can not be assigned to windows.");
+    }
+
     final KTable table;
     final Serde<?> keySerde;
     if (windowExpression != null) {
@@ -114,7 +170,7 @@ public class SchemaKGroupedStream {
           topicValueSerDe,
           contextStacker);
     } else {
-      keySerde = Serdes.String();
+      keySerde = binaryKey ? GroupByKey.stringSerde() : Serdes.String();
 
       table = aggregateNonWindowed(
           initializer,
@@ -144,9 +200,25 @@ public class SchemaKGroupedStream {
       final Serde<GenericRow> topicValueSerDe,
       final QueryContext.Stacker contextStacker) {
 
-    final UdafAggregator aggregator = new KudafAggregator(
+    final KudafAggregator kudafAggregator = new KudafAggregator(
         indexToFunctionMap, indexToValueMap);
 
+    if (binaryKey) {
+      // KudafAggregator is typed for string keys, but does not use them:
+      final Aggregator<GroupByKey, GenericRow, GenericRow> aggregator =
+          (key, row, aggregate) -> kudafAggregator.apply(null, row, aggregate);
+      final Materialized<GroupByKey, GenericRow, KeyValueStore<Bytes, byte[]>> materialized
+          = materializedFactory.create(
+              GroupByKey.serde(),
+              topicValueSerDe,
+              StreamsUtil.buildOpName(contextStacker.getQueryContext()));
+      return kgroupedStream.aggregate(initializer, aggregator, materialized);
+    }
+
+    final Aggregator<String, GenericRow, GenericRow> aggregator = preAggregated
+        ? kudafAggregator.getPartialAggregator()
+        : kudafAggregator;
+
     final Materialized<String, GenericRow, KeyValueStore<Bytes, byte[]>> materialized
           = materializedFactory.create(
               Serdes.String(),
@@ -164,18 +236,35 @@ public class SchemaKGroupedStream {
       final Serde<GenericRow> topicValueSerDe,
       final QueryContext.Stacker contextStacker) {
 
-    final UdafAggregator aggregator = new KudafAggregator(
+    final KudafAggregator aggregator = new KudafAggregator(
         indexToFunctionMap, indexToValueMap);
 
     final KsqlWindowExpression ksqlWindowExpression = windowExpression.getKsqlWindowExpression();
 
-    final Materialized<String, GenericRow, WindowStore<Bytes, byte[]>> materialized
-          = materializedFactory.create(
-              Serdes.String(),
-              topicValueSerDe,
-              StreamsUtil.buildOpName(contextStacker.getQueryContext()));
-    final KTable aggKtable = ksqlWindowExpression.applyAggregate(
-        kgroupedStream, initializer, aggregator, materialized);
+    KTable aggKtable;
+    if (usePanes(windowExpression)) {
+      aggKtable = aggregateHoppingWithPanes(
+          initializer,
+          aggregator,
+          (HoppingWindowExpression) ksqlWindowExpression,
+          topicValueSerDe,
+          contextStacker);
+    } else {
+      final Materialized<String, GenericRow, WindowStore<Bytes, byte[]>> materialized
+            = materializedFactory.create(
+                Serdes.String(),
+                topicValueSerDe,
+                StreamsUtil.buildOpName(contextStacker.getQueryContext()));
+      aggKtable = ksqlWindowExpression.applyAggregate(
+          kgroupedStream, initializer, aggregator, materialized, gracePeriod(windowExpression));
+    }
+
+    if (windowExpression.isEmitFinal()) {
+      aggKtable = aggKtable.suppress(
+          Suppressed.untilWindowCloses(emitFinalBufferConfig())
+              .withName(StreamsUtil.buildOpName(
+                  contextStacker.push(EMIT_FINAL_OP_NAME).getQueryContext())));
+    }
 
     final WindowSelectMapper windowSelectMapper = new WindowSelectMapper(indexToFunctionMap);
     if (!windowSelectMapper.hasSelects()) {
@@ -186,6 +275,109 @@ public class SchemaKGroupedStream {
         windowSelectMapper.apply((Windowed<?>) readOnlyKey, (GenericRow) value));
   }
 
+  private boolean usePanes(final WindowExpression windowExpression) {
+    // Suppression needs the window close time of the windowed aggregation it follows:
+    if (windowExpression.isEmitFinal()) {
+      return false;
+    }
+    final KsqlWindowExpression ksqlWindowExpression = windowExpression.getKsqlWindowExpression();
+    if (!(ksqlWindowExpression instanceof HoppingWindowExpression)
+        || !ksqlConfig.getBoolean(KsqlConfig.KSQL_HOPPING_WINDOW_PANES_CONFIG)) {
+      return false;
+    }
+    final HoppingWindowExpression hopping = (HoppingWindowExpression) ksqlWindowExpression;
+    return hopping.getAdvanceByUnit().toMillis(hopping.getAdvanceBy())
+        < hopping.getSizeUnit().toMillis(hopping.getSize());
+  }
+
+  // Without an explicit grace period, windows would only close a day after they end:
+  private Optional<Duration> gracePeriod(final WindowExpression windowExpression) {
+    if (!windowExpression.isEmitFinal()) {
+      return Optional.empty();
+    }
+    return Optional.of(Duration.ofMillis(
+        ksqlConfig.getLong(KsqlConfig.KSQL_EMIT_FINAL_GRACE_PERIOD_MS_CONFIG)));
+  }
+
+  private StrictBufferConfig emitFinalBufferConfig() {
+    final long maxBytes = ksqlConfig.getLong(KsqlConfig.KSQL_EMIT_FINAL_BUFFER_MAX_BYTES_CONFIG);
+    if (maxBytes == 0) {
+      return BufferConfig.unbounded();
+    }
+    return BufferConfig.maxBytes(maxBytes).shutDownWhenFull();
+  }
+
+  /**
+   * Aggregates each record into one pane, i.e. a tumbling window whose width divides both the
+   * size and advance of the hopping windows, then computes the results of the hopping windows
+   * containing each updated pane with a {@link PaneWindowTransformer}.
+   *
+   * <p>Kafka Streams can only build a table from the window results through another
+   * aggregation, so they are repartitioned and reduced into a table. Only the latest result of
+   * each window is needed by then, so the reduction is held in a small, unlogged, in-memory store.
+   */
+  @SuppressWarnings("unchecked")
+  private KTable aggregateHoppingWithPanes(
+      final Initializer initializer,
+      final KudafAggregator aggregator,
+      final HoppingWindowExpression windowExpression,
+      final Serde<GenericRow> topicValueSerDe,
+      final QueryContext.Stacker contextStacker) {
+
+    final long size = windowExpression.getSizeUnit().toMillis(windowExpression.getSize());
+    final long advance =
+        windowExpression.getAdvanceByUnit().toMillis(windowExpression.getAdvanceBy());
+    final long paneSize = LongMath.gcd(size, advance);
+
+    // Panes accept late records for as long as the latest window containing them does:
+    final long windowGrace = TimeWindows.of(Duration.ofMillis(size))
+        .advanceBy(Duration.ofMillis(advance))
+        .gracePeriodMs();
+    final TimeWindows paneWindows = TimeWindows.of(Duration.ofMillis(paneSize))
+        .grace(Duration.ofMillis(windowGrace + size - paneSize));
+
+    // Panes must be retained for as long as the earliest window containing them accepts records:
+    final String paneStoreName = StreamsUtil.buildOpName(
+        contextStacker.push(PANES_OP_NAME).getQueryContext());
+    final Materialized<String, GenericRow, WindowStore<Bytes, byte[]>> paneMaterialized =
+        Materialized.<String, GenericRow, WindowStore<Bytes, byte[]>>as(paneStoreName)
+            .withKeySerde(Serdes.String())
+            .withValueSerde(topicValueSerDe)
+            .withRetention(Duration.ofMillis(windowGrace + 2 * size));
+
+    final KTable<Windowed<String>, GenericRow> panes = kgroupedStream
+        .windowedBy(paneWindows)
+        .aggregate(initializer, aggregator, paneMaterialized);
+
+    final String windowsOpName = StreamsUtil.buildOpName(
+        contextStacker.push(PANE_WINDOWS_OP_NAME).getQueryContext());
+    final String resultsStoreName = StreamsUtil.buildOpName(
+        contextStacker.push(PANE_WINDOW_RESULTS_OP_NAME).getQueryContext());
+    final Serde<Windowed<String>> windowedSerde =
+        WindowedSerdes.timeWindowedSerdeFrom(String.class, size);
+    final Materialized<Windowed<String>, GenericRow, KeyValueStore<Bytes, byte[]>> results =
+        Materialized.<Windowed<String>, GenericRow>as(
+            Stores.lruMap(resultsStoreName, PANE_WINDOW_RESULTS_MAX_ENTRIES))
+            .withKeySerde(windowedSerde)
+            .withValueSerde(topicValueSerDe)
+            .withLoggingDisabled();
+
+    return panes
+        .toStream()
+        .flatTransform(
+            () -> new PaneWindowTransformer(
+                paneStoreName,
+                size,
+                advance,
+                paneSize,
+                initializer,
+                aggregator.getPartialAggregator()),
+            paneStoreName)
+        .groupByKey(GroupedFactory.create(ksqlConfig)
+            .create(windowsOpName, windowedSerde, topicValueSerDe))
+        .reduce((previous, result) -> result, results);
+  }
+
   private Serde<Windowed<String>> getKeySerde(final WindowExpression windowExpression) {
     if (ksqlConfig.getBoolean(KsqlConfig.KSQL_WINDOWED_SESSION_KEY_LEGACY_CONFIG)) {
       return WindowedSerdes.timeWindowedSerdeFrom(String.class);
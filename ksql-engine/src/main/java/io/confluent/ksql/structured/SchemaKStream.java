@@ -19,18 +19,22 @@ import io.confluent.common.logging.StructuredLogger;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.codegen.CodeGenRunner;
 import io.confluent.ksql.function.FunctionRegistry;
+import io.confluent.ksql.function.udaf.KudafAggregator;
 import io.confluent.ksql.parser.tree.DereferenceExpression;
 import io.confluent.ksql.parser.tree.Expression;
 import io.confluent.ksql.parser.tree.QualifiedNameReference;
 import io.confluent.ksql.planner.plan.OutputNode;
 import io.confluent.ksql.processing.log.ProcessingLogContext;
+import io.confluent.ksql.streams.MaterializedFactory;
 import io.confluent.ksql.streams.StreamsFactories;
 import io.confluent.ksql.streams.StreamsUtil;
 import io.confluent.ksql.util.ExpressionMetadata;
 import io.confluent.ksql.util.KsqlConfig;
+import io.confluent.ksql.util.KsqlConstants;
 import io.confluent.ksql.util.QueryLoggerUtil;
 import io.confluent.ksql.util.SchemaUtil;
 import io.confluent.ksql.util.SelectExpression;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -44,19 +48,27 @@ import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.kstream.Initializer;
 import org.apache.kafka.streams.kstream.JoinWindows;
 import org.apache.kafka.streams.kstream.KGroupedStream;
 import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.TransformerSupplier;
 import org.apache.kafka.streams.kstream.ValueJoiner;
 import org.apache.kafka.streams.kstream.WindowedSerdes;
+import org.apache.kafka.streams.state.Stores;
 
 // CHECKSTYLE_RULES.OFF: ClassDataAbstractionCoupling
 @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
 public class SchemaKStream<K> {
   // CHECKSTYLE_RULES.ON: ClassDataAbstractionCoupling
 
-  public enum Type { SOURCE, PROJECT, FILTER, AGGREGATE, SINK, REKEY, JOIN }
+  public enum Type { SOURCE, PROJECT, FILTER, FILTER_PROJECT, AGGREGATE, SINK, REKEY, JOIN }
+
+  private static final String PRE_AGGREGATE_OP_NAME = "PreAggregate";
 
   final Schema schema;
   final KStream<K, GenericRow> kstream;
@@ -141,10 +153,11 @@ public class SchemaKStream<K> {
           if (row == null) {
             return null;
           }
-          final List<Object> columns = new ArrayList<>();
-          for (int i = 0; i < row.getColumns().size(); i++) {
+          final List<Object> rowColumns = row.getColumns();
+          final List<Object> columns = new ArrayList<>(rowColumns.size());
+          for (int i = 0; i < rowColumns.size(); i++) {
             if (!rowkeyIndexes.contains(i)) {
-              columns.add(row.getColumns().get(i));
+              columns.add(rowColumns.get(i));
             }
           }
           return new GenericRow(columns);
@@ -207,6 +220,62 @@ public class SchemaKStream<K> {
     );
   }
 
+  /**
+   * Filter and project in a single processor, rather than a filter followed by a mapValues.
+   * The returned projection step has a filter step as its source, so the lineage is the same
+   * as that of {@link #filter} followed by {@link #select}.
+   *
+   * @param filterExpression the WHERE predicate.
+   * @param filterContextStacker the context of the filter node, used for its processing log.
+   * @param selectExpressions the projection.
+   * @param contextStacker the context of the project node.
+   * @param processingLogContext the processing log context.
+   * @return the filtered and projected stream.
+   */
+  @SuppressWarnings("unchecked")
+  public SchemaKStream<K> filterAndSelect(
+      final Expression filterExpression,
+      final QueryContext.Stacker filterContextStacker,
+      final List<SelectExpression> selectExpressions,
+      final QueryContext.Stacker contextStacker,
+      final ProcessingLogContext processingLogContext) {
+    final SqlPredicate predicate = new SqlPredicate(
+        filterExpression,
+        schema,
+        hasWindowedKey(),
+        ksqlConfig,
+        functionRegistry,
+        processingLogContext.getLoggerFactory().getLogger(
+            QueryLoggerUtil.queryLoggerName(
+                filterContextStacker.push(Type.FILTER.name()).getQueryContext())
+        ),
+        processingLogContext
+    );
+
+    final Selection selection = new Selection(
+        selectExpressions,
+        processingLogContext.getLoggerFactory().getLogger(
+            QueryLoggerUtil.queryLoggerName(
+                contextStacker.push(Type.PROJECT.name()).getQueryContext())),
+        processingLogContext);
+
+    final FilterSelectValueMapper<K> mapper = new FilterSelectValueMapper<>(
+        predicate.getPredicate(),
+        selection.getSelectValueMapper());
+
+    return new SchemaKStream<>(
+        selection.getProjectedSchema(),
+        kstream.flatMapValues(mapper),
+        selection.getKey(),
+        Collections.singletonList(this),
+        keySerde,
+        Type.FILTER_PROJECT,
+        ksqlConfig,
+        functionRegistry,
+        contextStacker.getQueryContext()
+    );
+  }
+
   class Selection {
     private final Schema schema;
     private final Field key;
@@ -580,6 +649,119 @@ public class SchemaKStream<K> {
     );
   }
 
+  /**
+   * Groups the stream as {@link #groupBy} does, except that, when the stream must be repartitioned,
+   * the rows of each new key are first combined into partial aggregates by {@code aggregator}.
+   * The partial aggregates, serialized with {@code aggValueSerde}, are what is repartitioned.
+   *
+   * <p>The returned stream can only be aggregated without a window.
+   */
+  public SchemaKGroupedStream groupByWithPreAggregation(
+      final StreamsBuilder builder,
+      final Serde<GenericRow> valSerde,
+      final List<Expression> groupByExpressions,
+      final Initializer<GenericRow> initializer,
+      final KudafAggregator aggregator,
+      final Serde<GenericRow> aggValueSerde,
+      final QueryContext.Stacker contextStacker) {
+    if (!rekeyRequired(groupByExpressions)) {
+      return groupBy(valSerde, groupByExpressions, contextStacker);
+    }
+
+    final GroupBy groupBy = new GroupBy(groupByExpressions);
+
+    final String storeName = StreamsUtil.buildOpName(
+        contextStacker.push(PRE_AGGREGATE_OP_NAME).getQueryContext());
+    builder.addStateStore(
+        Stores.keyValueStoreBuilder(
+            Stores.inMemoryKeyValueStore(storeName),
+            Serdes.String(),
+            aggValueSerde
+        ).withCachingEnabled());
+
+    final int maxEntries = ksqlConfig.getInt(KsqlConfig.KSQL_PREAGGREGATE_MAX_ENTRIES_CONFIG);
+    final Duration flushInterval = getCommitInterval();
+
+    final TransformerSupplier<Object, GenericRow, KeyValue<String, GenericRow>> preAggregator =
+        () -> new PreAggregateTransformer<>(
+            storeName, groupBy.mapper, initializer, aggregator, maxEntries, flushInterval);
+
+    final KGroupedStream kgroupedStream = kstream
+        .filter((key, value) -> value != null)
+        .transform(preAggregator, storeName)
+        .groupByKey(
+            streamsFactories.getGroupedFactory().create(
+                StreamsUtil.buildOpName(contextStacker.getQueryContext()),
+                Serdes.String(),
+                aggValueSerde)
+        );
+
+    final Field newKeyField = new Field(
+        groupBy.aggregateKeyName, -1, Schema.OPTIONAL_STRING_SCHEMA);
+    return new SchemaKGroupedStream(
+        schema,
+        kgroupedStream,
+        newKeyField,
+        Collections.singletonList(this),
+        ksqlConfig,
+        functionRegistry,
+        true,
+        false,
+        MaterializedFactory.create(ksqlConfig)
+    );
+  }
+
+  /**
+   * Groups the stream as {@link #groupBy} does, except that, when the stream must be repartitioned,
+   * it is repartitioned, and its aggregate stored, under the {@link GroupByKey} of the group-by
+   * columns rather than their joined string values.
+   *
+   * <p>The returned stream can only be aggregated without a window.
+   */
+  public SchemaKGroupedStream groupByWithBinaryKey(
+      final Serde<GenericRow> valSerde,
+      final List<Expression> groupByExpressions,
+      final QueryContext.Stacker contextStacker) {
+    if (!rekeyRequired(groupByExpressions)) {
+      return groupBy(valSerde, groupByExpressions, contextStacker);
+    }
+
+    final GroupBy groupBy = new GroupBy(groupByExpressions);
+
+    final KGroupedStream kgroupedStream = kstream
+        .filter((key, value) -> value != null)
+        .groupBy(
+            groupBy.mapper.binaryKeyMapper(),
+            streamsFactories.getGroupedFactory().create(
+                StreamsUtil.buildOpName(contextStacker.getQueryContext()),
+                GroupByKey.serde(),
+                valSerde)
+        );
+
+    final Field newKeyField = new Field(
+        groupBy.aggregateKeyName, -1, Schema.OPTIONAL_STRING_SCHEMA);
+    return new SchemaKGroupedStream(
+        schema,
+        kgroupedStream,
+        newKeyField,
+        Collections.singletonList(this),
+        ksqlConfig,
+        functionRegistry,
+        false,
+        true,
+        MaterializedFactory.create(ksqlConfig)
+    );
+  }
+
+  // ksqlConfig is that of the query, with its property overrides and WITH clause applied:
+  private Duration getCommitInterval() {
+    final Object commitInterval = ksqlConfig.getKsqlStreamConfigProps()
+        .get(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG);
+    return Duration.ofMillis(commitInterval == null
+        ? KsqlConstants.defaultCommitIntervalMsConfig
+        : Long.parseLong(commitInterval.toString()));
+  }
+
   public Field getKeyField() {
     return keyField;
   }
@@ -655,7 +837,8 @@ public class SchemaKStream<K> {
 
     @Override
     public GenericRow apply(final GenericRow left, final GenericRow right) {
-      final List<Object> columns = new ArrayList<>();
+      final List<Object> columns =
+          new ArrayList<>(leftSchema.fields().size() + rightSchema.fields().size());
       if (left != null) {
         columns.addAll(left.getColumns());
       } else {
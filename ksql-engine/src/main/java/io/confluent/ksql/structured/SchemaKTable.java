@@ -17,6 +17,7 @@ package io.confluent.ksql.structured;
 import com.google.common.collect.ImmutableList;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.function.FunctionRegistry;
+import io.confluent.ksql.function.udaf.KudafAggregator;
 import io.confluent.ksql.parser.tree.Expression;
 import io.confluent.ksql.processing.log.ProcessingLogContext;
 import io.confluent.ksql.streams.StreamsFactories;
@@ -33,6 +34,8 @@ import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Initializer;
 import org.apache.kafka.streams.kstream.KGroupedTable;
 import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.KTable;
@@ -182,6 +185,19 @@ public class SchemaKTable<K> extends SchemaKStream<K> {
     );
   }
 
+  @Override
+  public SchemaKTable<K> filterAndSelect(
+      final Expression filterExpression,
+      final QueryContext.Stacker filterContextStacker,
+      final List<SelectExpression> selectExpressions,
+      final QueryContext.Stacker contextStacker,
+      final ProcessingLogContext processingLogContext) {
+    // A filtered table must forward tombstones for rows that no longer match, so keep the
+    // filter and projection as separate KTable operations.
+    return filter(filterExpression, filterContextStacker, processingLogContext)
+        .select(selectExpressions, contextStacker, processingLogContext);
+  }
+
   @SuppressWarnings("unchecked") // needs investigating
   @Override
   public KStream getKstream() {
@@ -220,6 +236,34 @@ public class SchemaKTable<K> extends SchemaKStream<K> {
         functionRegistry);
   }
 
+  /**
+   * Tables are never pre-aggregated, as their aggregations must also undo the old value of each
+   * updated row.
+   */
+  @Override
+  public SchemaKGroupedStream groupByWithPreAggregation(
+      final StreamsBuilder builder,
+      final Serde<GenericRow> valSerde,
+      final List<Expression> groupByExpressions,
+      final Initializer<GenericRow> initializer,
+      final KudafAggregator aggregator,
+      final Serde<GenericRow> aggValueSerde,
+      final QueryContext.Stacker contextStacker) {
+    return groupBy(valSerde, groupByExpressions, contextStacker);
+  }
+
+  /**
+   * Tables are grouped by the joined string values of their group-by columns, as the key of the
+   * old value of each updated row must be computed in the same way.
+   */
+  @Override
+  public SchemaKGroupedStream groupByWithBinaryKey(
+      final Serde<GenericRow> valSerde,
+      final List<Expression> groupByExpressions,
+      final QueryContext.Stacker contextStacker) {
+    return groupBy(valSerde, groupByExpressions, contextStacker);
+  }
+
   @SuppressWarnings("unchecked")
   public SchemaKTable<K> join(
       final SchemaKTable<K> schemaKTable,
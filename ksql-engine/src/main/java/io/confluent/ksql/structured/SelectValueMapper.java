@@ -22,6 +22,8 @@ import io.confluent.ksql.util.ExpressionMetadata;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.stream.IntStream;
 import org.apache.kafka.streams.kstream.ValueMapper;
 
 class SelectValueMapper implements ValueMapper<GenericRow, GenericRow> {
@@ -29,6 +31,8 @@ class SelectValueMapper implements ValueMapper<GenericRow, GenericRow> {
   private final List<ExpressionMetadata> expressionEvaluators;
   private final StructuredLogger processingLogger;
   private final ProcessingLogContext processingLogContext;
+  // Whether the projection selects every column of its input, in order, such as SELECT *:
+  private final boolean selectsInputColumns;
 
   SelectValueMapper(
       final List<String> selectFieldNames,
@@ -44,6 +48,9 @@ class SelectValueMapper implements ValueMapper<GenericRow, GenericRow> {
     if (selectFieldNames.size() != expressionEvaluators.size()) {
       throw new IllegalArgumentException("must have field names for all expressions");
     }
+
+    this.selectsInputColumns = IntStream.range(0, expressionEvaluators.size())
+        .allMatch(i -> expressionEvaluators.get(i).getReferencedColumn().equals(OptionalInt.of(i)));
   }
 
   @Override
@@ -52,13 +59,40 @@ class SelectValueMapper implements ValueMapper<GenericRow, GenericRow> {
       return null;
     }
 
-    final List<Object> newColumns = new ArrayList<>();
-    for (int i = 0; i < selectFieldNames.size(); i++) {
+    final int numColumns = selectFieldNames.size();
+    if (selectsInputColumns && row.getColumns().size() == numColumns) {
+      return selectInputColumns(row);
+    }
+
+    final List<Object> newColumns = new ArrayList<>(numColumns);
+    for (int i = 0; i < numColumns; i++) {
       newColumns.add(processColumn(i, row));
     }
     return new GenericRow(newColumns);
   }
 
+  /**
+   * Returns the row itself, rather than a copy, if every column evaluates to the value it already
+   * holds, i.e. its value is already of the column's type.
+   */
+  private GenericRow selectInputColumns(final GenericRow row) {
+    final List<Object> columns = row.getColumns();
+    final int numColumns = columns.size();
+    for (int i = 0; i < numColumns; i++) {
+      final Object value = processColumn(i, row);
+      if (value != columns.get(i)) {
+        final List<Object> newColumns = new ArrayList<>(numColumns);
+        newColumns.addAll(columns.subList(0, i));
+        newColumns.add(value);
+        for (int remaining = i + 1; remaining < numColumns; remaining++) {
+          newColumns.add(processColumn(remaining, row));
+        }
+        return new GenericRow(newColumns);
+      }
+    }
+    return row;
+  }
+
   private Object processColumn(final int column, final GenericRow row) {
     try {
       return expressionEvaluators
@@ -17,39 +17,35 @@ package io.confluent.ksql.structured;
 import io.confluent.common.logging.StructuredLogger;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.codegen.CodeGenRunner;
+import io.confluent.ksql.codegen.CompiledPredicate;
 import io.confluent.ksql.codegen.SqlToJavaVisitor;
 import io.confluent.ksql.function.FunctionRegistry;
 import io.confluent.ksql.function.udf.Kudf;
 import io.confluent.ksql.parser.tree.Expression;
 import io.confluent.ksql.processing.log.ProcessingLogContext;
 import io.confluent.ksql.util.EngineProcessingLogMessageFactory;
-import io.confluent.ksql.util.ExpressionMetadata;
 import io.confluent.ksql.util.GenericRowValueTypeEnforcer;
 import io.confluent.ksql.util.KsqlConfig;
 import io.confluent.ksql.util.KsqlException;
+import io.confluent.ksql.util.ParameterBinder;
 import io.confluent.ksql.util.SchemaUtil;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.streams.kstream.Predicate;
 import org.apache.kafka.streams.kstream.Windowed;
-import org.codehaus.commons.compiler.CompilerFactoryFactory;
-import org.codehaus.commons.compiler.IExpressionEvaluator;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 public class SqlPredicate {
-  private static final Logger log = LoggerFactory.getLogger(SqlPredicate.class);
 
   private final Expression filterExpression;
   private final Schema schema;
-  private final IExpressionEvaluator ee;
-  private final int[] columnIndexes;
+  private final CompiledPredicate compiledPredicate;
+  private final List<Integer> columnIndexes;
+  private final List<CodeGenRunner.ParameterType> parameters;
   private final boolean isWindowedKey;
-  private final KsqlConfig ksqlConfig;
-  private final FunctionRegistry functionRegistry;
-  private final GenericRowValueTypeEnforcer genericRowValueTypeEnforcer;
+  private final ParameterBinder parameterBinder;
   private final StructuredLogger processingLogger;
   private final ProcessingLogContext processingLogContext;
 
@@ -64,41 +60,40 @@ public class SqlPredicate {
   ) {
     this.filterExpression = filterExpression;
     this.schema = schema;
-    this.genericRowValueTypeEnforcer = new GenericRowValueTypeEnforcer(schema);
     this.isWindowedKey = isWindowedKey;
-    this.functionRegistry = functionRegistry;
-    this.ksqlConfig = Objects.requireNonNull(ksqlConfig, "ksqlConfig");
     this.processingLogger = Objects.requireNonNull(processingLogger);
     this.processingLogContext = Objects.requireNonNull(processingLogContext);
 
-    final CodeGenRunner codeGenRunner = new CodeGenRunner(schema, ksqlConfig, functionRegistry);
-    final Set<CodeGenRunner.ParameterType> parameters
-        = codeGenRunner.getParameterInfo(filterExpression);
+    final CodeGenRunner codeGenRunner = new CodeGenRunner(
+        schema,
+        Objects.requireNonNull(ksqlConfig, "ksqlConfig"),
+        functionRegistry);
+    this.parameters = new ArrayList<>(codeGenRunner.getParameterInfo(filterExpression));
 
     final String[] parameterNames = new String[parameters.size()];
     final Class[] parameterTypes = new Class[parameters.size()];
-    columnIndexes = new int[parameters.size()];
+    final List<Integer> columnIndexes = new ArrayList<>(parameters.size());
     int index = 0;
     for (final CodeGenRunner.ParameterType param : parameters) {
       parameterNames[index] = param.getName();
       parameterTypes[index] = param.getType();
-      columnIndexes[index] = SchemaUtil.getFieldIndexByName(schema, param.getName());
+      columnIndexes.add(SchemaUtil.getFieldIndexByName(schema, param.getName()));
       index++;
     }
+    this.columnIndexes = Collections.unmodifiableList(columnIndexes);
+    this.parameterBinder =
+        new ParameterBinder(columnIndexes, new GenericRowValueTypeEnforcer(schema));
 
     try {
-      ee = CompilerFactoryFactory.getDefaultCompilerFactory().newExpressionEvaluator();
-      ee.setDefaultImports(SqlToJavaVisitor.JAVA_IMPORTS.toArray(new String[0]));
-      ee.setParameters(parameterNames, parameterTypes);
-
-      ee.setExpressionType(boolean.class);
-
       final String expressionStr = new SqlToJavaVisitor(
           schema,
           functionRegistry
       ).process(filterExpression);
 
-      ee.cook(expressionStr);
+      compiledPredicate = CodeGenRunner.compilePredicate(
+          parameterNames,
+          parameterTypes,
+          expressionStr);
     } catch (final Exception e) {
       throw new KsqlException(
           "Failed to generate code for SqlPredicate."
@@ -114,71 +109,35 @@ public class SqlPredicate {
   }
 
   Predicate getPredicate() {
+    // Each predicate gets its own UDF instances, as UDFs may be stateful.
+    final List<Kudf> kudfs = createKudfs();
+    final ThreadLocal<Object[]> parameters =
+        ThreadLocal.withInitial(() -> parameterBinder.newParameters(kudfs));
     if (isWindowedKey) {
-      return getWindowedKeyPredicate();
+      return (Predicate<Windowed<String>, GenericRow>) (key, row) -> test(parameters, row);
     } else {
-      return getStringKeyPredicate();
+      return (Predicate<String, GenericRow>) (key, row) -> test(parameters, row);
     }
   }
 
-  private Predicate<String, GenericRow> getStringKeyPredicate() {
-    final ExpressionMetadata expressionEvaluator = createExpressionMetadata();
-
-    return (key, row) -> {
-      if (row == null) {
-        return false;
-      }
-      try {
-        final List<Kudf> kudfs = expressionEvaluator.getUdfs();
-        final Object[] values = new Object[columnIndexes.length];
-        for (int i = 0; i < values.length; i++) {
-          if (columnIndexes[i] < 0) {
-            values[i] = kudfs.get(i);
-          } else {
-            values[i] = genericRowValueTypeEnforcer.enforceFieldType(columnIndexes[i], row
-                .getColumns().get(columnIndexes[i]));
-          }
-        }
-        return (Boolean) ee.evaluate(values);
-      } catch (final Exception e) {
-        logProcessingError(e, row);
-      }
-      return false;
-    };
-  }
-
-  private ExpressionMetadata createExpressionMetadata() {
-    final CodeGenRunner codeGenRunner = new CodeGenRunner(schema, ksqlConfig, functionRegistry);
-    return codeGenRunner.buildCodeGenFromParseTree(filterExpression, "filter");
+  private List<Kudf> createKudfs() {
+    final List<Kudf> kudfs = new ArrayList<>(parameters.size());
+    for (final CodeGenRunner.ParameterType parameter : parameters) {
+      kudfs.add(parameter.getKudf());
+    }
+    return kudfs;
   }
 
-  private Predicate getWindowedKeyPredicate() {
-    final ExpressionMetadata expressionEvaluator = createExpressionMetadata();
-    return (Predicate<Windowed<String>, GenericRow>) (key, row) -> {
-      if (row == null) {
-        return false;
-      }
-      try {
-        final List<Kudf> kudfs = expressionEvaluator.getUdfs();
-        final Object[] values = new Object[columnIndexes.length];
-        for (int i = 0; i < values.length; i++) {
-          if (columnIndexes[i] < 0) {
-            values[i] = kudfs.get(i);
-          } else {
-            values[i] = genericRowValueTypeEnforcer
-                .enforceFieldType(
-                    columnIndexes[i],
-                    row.getColumns().get(columnIndexes[i]
-                    )
-                );
-          }
-        }
-        return (Boolean) ee.evaluate(values);
-      } catch (final Exception e) {
-        logProcessingError(e, row);
-      }
+  private boolean test(final ThreadLocal<Object[]> parameters, final GenericRow row) {
+    if (row == null) {
       return false;
-    };
+    }
+    try {
+      return compiledPredicate.test(parameterBinder.bind(row, parameters.get()));
+    } catch (final Exception e) {
+      logProcessingError(e, row);
+    }
+    return false;
   }
 
   private void logProcessingError(final Exception e, final GenericRow row) {
@@ -207,9 +166,7 @@ public class SqlPredicate {
   int[] getColumnIndexes() {
     // As this is only used for testing it is ok to do the array copy.
     // We need to revisit the tests for this class and remove this.
-    final int[] result = new int[columnIndexes.length];
-    System.arraycopy(columnIndexes, 0, result, 0, columnIndexes.length);
-    return result;
+    return columnIndexes.stream().mapToInt(Integer::intValue).toArray();
   }
 
 }
@@ -15,27 +15,29 @@
 package io.confluent.ksql.util;
 
 import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.codegen.CompiledExpression;
 import io.confluent.ksql.function.udf.Kudf;
+import io.confluent.ksql.parser.tree.DereferenceExpression;
 import io.confluent.ksql.parser.tree.Expression;
-import java.lang.reflect.InvocationTargetException;
+import io.confluent.ksql.parser.tree.QualifiedNameReference;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.OptionalInt;
 import org.apache.kafka.connect.data.Schema;
-import org.codehaus.commons.compiler.IExpressionEvaluator;
 
 public class ExpressionMetadata {
 
-  private final IExpressionEvaluator expressionEvaluator;
+  private final CompiledExpression expressionEvaluator;
   private final List<Integer> indexes;
   private final List<Kudf> udfs;
   private final Schema expressionType;
-  private final GenericRowValueTypeEnforcer typeEnforcer;
+  private final ParameterBinder parameterBinder;
   private final ThreadLocal<Object[]> threadLocalParameters;
   private final Expression expression;
 
   public ExpressionMetadata(
-      final IExpressionEvaluator expressionEvaluator,
+      final CompiledExpression expressionEvaluator,
       final List<Integer> indexes,
       final List<Kudf> udfs,
       final Schema expressionType,
@@ -45,9 +47,12 @@ public class ExpressionMetadata {
     this.indexes = Collections.unmodifiableList(Objects.requireNonNull(indexes, "indexes"));
     this.udfs = Collections.unmodifiableList(Objects.requireNonNull(udfs, "udfs"));
     this.expressionType = Objects.requireNonNull(expressionType, "expressionType");
-    this.typeEnforcer = Objects.requireNonNull(typeEnforcer, "typeEnforcer");
     this.expression = Objects.requireNonNull(expression, "expression");
-    this.threadLocalParameters = ThreadLocal.withInitial(() -> new Object[indexes.size()]);
+    this.parameterBinder = new ParameterBinder(
+        this.indexes,
+        Objects.requireNonNull(typeEnforcer, "typeEnforcer"));
+    this.threadLocalParameters =
+        ThreadLocal.withInitial(() -> parameterBinder.newParameters(this.udfs));
   }
 
   public List<Integer> getIndexes() {
@@ -66,25 +71,27 @@ public class ExpressionMetadata {
     return expression;
   }
 
-  public Object evaluate(final GenericRow row) {
-    try {
-      return expressionEvaluator.evaluate(getParameters(row));
-    } catch (InvocationTargetException e) {
-      throw new KsqlException(e.getCause().getMessage(), e.getCause());
+  /**
+   * @return the index of the column the expression refers to, if the expression is nothing but a
+   *     reference to one column, and so evaluates to the value of that column.
+   */
+  public OptionalInt getReferencedColumn() {
+    final boolean columnReference = expression instanceof QualifiedNameReference
+        || expression instanceof DereferenceExpression;
+    if (!columnReference || indexes.size() != 1 || indexes.get(0) < 0) {
+      return OptionalInt.empty();
     }
+    return OptionalInt.of(indexes.get(0));
   }
 
-  private Object[] getParameters(final GenericRow row) {
-    final Object[] parameters = this.threadLocalParameters.get();
-    for (int idx = 0; idx < indexes.size(); idx++) {
-      final int paramIndex = indexes.get(idx);
-      if (paramIndex < 0) {
-        parameters[idx] = udfs.get(idx);
-      } else {
-        parameters[idx] = typeEnforcer
-            .enforceFieldType(paramIndex, row.getColumns().get(paramIndex));
-      }
+  public Object evaluate(final GenericRow row) {
+    try {
+      return expressionEvaluator.evaluate(
+          parameterBinder.bind(row, threadLocalParameters.get()));
+    } catch (final KsqlException e) {
+      throw e;
+    } catch (final RuntimeException e) {
+      throw new KsqlException(e.getMessage(), e);
     }
-    return parameters;
   }
 }
@@ -16,6 +16,7 @@ package io.confluent.ksql.util;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.List;
+import java.util.function.UnaryOperator;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 
@@ -32,6 +33,36 @@ public class GenericRowValueTypeEnforcer {
     return enforceFieldType(field.schema(), value);
   }
 
+  /**
+   * Resolves the type enforcement for the field at {@code index} once, so that it can be applied
+   * to each row without looking up the field's schema and switching on its type.
+   *
+   * @return a function enforcing the type of the field at {@code index} on a value.
+   */
+  public UnaryOperator<Object> getFieldTypeEnforcer(final int index) {
+    final Schema schema = fields.get(index).schema();
+    switch (schema.type()) {
+      case INT32:
+        return GenericRowValueTypeEnforcer::enforceInteger;
+      case INT64:
+        return GenericRowValueTypeEnforcer::enforceLong;
+      case FLOAT64:
+        return GenericRowValueTypeEnforcer::enforceDouble;
+      case STRING:
+        return GenericRowValueTypeEnforcer::enforceString;
+      case BOOLEAN:
+        return GenericRowValueTypeEnforcer::enforceBoolean;
+      case ARRAY:
+      case MAP:
+      case STRUCT:
+        return UnaryOperator.identity();
+      default:
+        return value -> {
+          throw new KsqlException("Type is not supported: " + schema);
+        };
+    }
+  }
+
   private Object enforceFieldType(final Schema schema, final Object value) {
 
     switch (schema.type()) {
@@ -54,7 +85,7 @@ public class GenericRowValueTypeEnforcer {
     }
   }
 
-  private Double enforceDouble(final Object value) {
+  private static Double enforceDouble(final Object value) {
     if (value instanceof Double) {
       return (Double) value;
     } else if (value instanceof Integer) {
@@ -76,7 +107,7 @@ public class GenericRowValueTypeEnforcer {
     }
   }
 
-  private Long enforceLong(final Object value) {
+  private static Long enforceLong(final Object value) {
     if (value instanceof Long) {
       return (Long) value;
     } else if (value instanceof Integer) {
@@ -96,7 +127,7 @@ public class GenericRowValueTypeEnforcer {
     }
   }
 
-  private Integer enforceInteger(final Object value) {
+  private static Integer enforceInteger(final Object value) {
 
     if (value instanceof Integer) {
       return (Integer) value;
@@ -117,7 +148,7 @@ public class GenericRowValueTypeEnforcer {
     }
   }
 
-  private String enforceString(final Object value) {
+  private static String enforceString(final Object value) {
     if (value instanceof String || value instanceof CharSequence) {
       return value.toString();
     } else if (value == null) {
@@ -128,7 +159,7 @@ public class GenericRowValueTypeEnforcer {
   }
 
   @SuppressFBWarnings("NP_BOOLEAN_RETURN_NULL")
-  private Boolean enforceBoolean(final Object value) {
+  private static Boolean enforceBoolean(final Object value) {
     if (value instanceof Boolean) {
       return (Boolean) value;
     } else if (value instanceof String) {
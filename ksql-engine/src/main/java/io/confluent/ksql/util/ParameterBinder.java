@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.util;
+
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.function.udf.Kudf;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Binds the values of a row to the parameters of a compiled expression.
+ *
+ * <p>The binding is planned once, when the expression is compiled: which parameters are columns,
+ * which column each reads and how its type is enforced. UDF parameters are bound once, by
+ * {@link #newParameters}, so only the column parameters are written for each row.
+ */
+public final class ParameterBinder {
+
+  private final int parameterCount;
+  private final int[] udfSlots;
+  private final int[] columnSlots;
+  private final int[] columnIndexes;
+  private final UnaryOperator<Object>[] typeEnforcers;
+
+  /**
+   * @param indexes the index of the column bound to each parameter, or a negative value for
+   *                parameters bound to a UDF.
+   * @param typeEnforcer the type enforcer for the schema the indexes refer to.
+   */
+  @SuppressWarnings("unchecked")
+  public ParameterBinder(
+      final List<Integer> indexes,
+      final GenericRowValueTypeEnforcer typeEnforcer) {
+    this.parameterCount = indexes.size();
+
+    int udfCount = 0;
+    for (final int index : indexes) {
+      if (index < 0) {
+        udfCount++;
+      }
+    }
+
+    this.udfSlots = new int[udfCount];
+    this.columnSlots = new int[parameterCount - udfCount];
+    this.columnIndexes = new int[parameterCount - udfCount];
+    this.typeEnforcers = new UnaryOperator[parameterCount - udfCount];
+
+    int udf = 0;
+    int column = 0;
+    for (int slot = 0; slot < parameterCount; slot++) {
+      final int index = indexes.get(slot);
+      if (index < 0) {
+        udfSlots[udf++] = slot;
+      } else {
+        columnSlots[column] = slot;
+        columnIndexes[column] = index;
+        typeEnforcers[column] = typeEnforcer.getFieldTypeEnforcer(index);
+        column++;
+      }
+    }
+  }
+
+  /**
+   * @param udfs the UDF for each parameter. Only the entries of UDF parameters are read.
+   * @return a new parameter array, with the UDF parameters bound.
+   */
+  public Object[] newParameters(final List<? extends Kudf> udfs) {
+    final Object[] parameters = new Object[parameterCount];
+    for (final int slot : udfSlots) {
+      parameters[slot] = udfs.get(slot);
+    }
+    return parameters;
+  }
+
+  /**
+   * Binds the column parameters in {@code parameters} to the values in {@code row}.
+   *
+   * @return {@code parameters}.
+   */
+  public Object[] bind(final GenericRow row, final Object[] parameters) {
+    final List<Object> columns = row.getColumns();
+    for (int i = 0; i < columnSlots.length; i++) {
+      parameters[columnSlots[i]] = typeEnforcers[i].apply(columns.get(columnIndexes[i]));
+    }
+    return parameters;
+  }
+}
@@ -32,6 +32,21 @@ public class QueryIdGenerator {
     return String.valueOf(queryIdCounter.getAndIncrement());
   }
 
+  /**
+   * @return the number the next id will be built from, without using it up.
+   */
+  public long peekNext() {
+    return queryIdCounter.get();
+  }
+
+  /**
+   * Sets the number the next id will be built from, so queries restored from a snapshot of the
+   * command topic get the same ids as when they were first started.
+   */
+  public void setNext(final long next) {
+    queryIdCounter.set(next);
+  }
+
   public QueryIdGenerator copy() {
     return new QueryIdGenerator(queryIdCounter.get());
   }
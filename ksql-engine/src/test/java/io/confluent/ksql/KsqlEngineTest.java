@@ -166,6 +166,130 @@ public class KsqlEngineTest {
         ksqlEngine, "TERMINATE " + query.getQueryId() + ";", KSQL_CONFIG, Collections.emptyMap());
   }
 
+  @Test
+  public void shouldGivePersistentQueriesEqualSharesOfTotalCacheSize() {
+    // Given:
+    final KsqlConfig config = KSQL_CONFIG.cloneWithPropertyOverwrite(ImmutableMap.of(
+        KsqlConfig.KSQL_PERSISTENT_QUERY_CACHE_MAX_BYTES_TOTAL_CONFIG, 1200L,
+        KsqlConfig.KSQL_ACTIVE_PERSISTENT_QUERY_LIMIT_CONFIG, 3));
+
+    // When:
+    final List<QueryMetadata> queries = KsqlEngineTestUtil.execute(
+        ksqlEngine,
+        "create stream foo as select * from orders;"
+            + "create stream bar as select * from orders;"
+            + "create stream baz as select * from orders;",
+        config,
+        Collections.emptyMap());
+
+    // Then:
+    final List<Object> cacheSizes = queries.stream()
+        .map(query -> query.getStreamsProperties()
+            .get(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG))
+        .collect(Collectors.toList());
+    assertThat(cacheSizes, contains(400L, 400L, 400L));
+  }
+
+  @Test
+  public void shouldNotOverrideQueryCacheSizeWithShareOfTotal() {
+    // Given:
+    final KsqlConfig config = KSQL_CONFIG.cloneWithPropertyOverwrite(ImmutableMap.of(
+        KsqlConfig.KSQL_PERSISTENT_QUERY_CACHE_MAX_BYTES_TOTAL_CONFIG, 1200L,
+        KsqlConfig.KSQL_ACTIVE_PERSISTENT_QUERY_LIMIT_CONFIG, 3));
+
+    // When:
+    final QueryMetadata query = KsqlEngineTestUtil.execute(
+        ksqlEngine,
+        "create stream foo as select * from orders;",
+        config,
+        ImmutableMap.of(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG, 100L)).get(0);
+
+    // Then:
+    assertThat(query.getStreamsProperties().get(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG),
+        is(100L));
+  }
+
+  @Test
+  public void shouldThrowIfTotalCacheSizeSetWithoutPersistentQueryLimit() {
+    // Given:
+    final KsqlConfig config = KSQL_CONFIG.cloneWithPropertyOverwrite(ImmutableMap.of(
+        KsqlConfig.KSQL_PERSISTENT_QUERY_CACHE_MAX_BYTES_TOTAL_CONFIG, 1200L));
+
+    expectedException.expect(KsqlStatementException.class);
+    expectedException.expect(rawMessage(containsString(
+        KsqlConfig.KSQL_PERSISTENT_QUERY_CACHE_MAX_BYTES_TOTAL_CONFIG
+            + " can only be used if "
+            + KsqlConfig.KSQL_ACTIVE_PERSISTENT_QUERY_LIMIT_CONFIG)));
+
+    // When:
+    KsqlEngineTestUtil.execute(
+        ksqlEngine, "create stream foo as select * from orders;", config, Collections.emptyMap());
+  }
+
+  @Test
+  public void shouldStartPersistentQueriesWithinStreamThreadsTotal() {
+    // Given:
+    final KsqlConfig config = KSQL_CONFIG.cloneWithPropertyOverwrite(ImmutableMap.of(
+        KsqlConfig.KSQL_PERSISTENT_QUERY_STREAM_THREADS_TOTAL_CONFIG, 4));
+
+    // When:
+    final List<QueryMetadata> queries = KsqlEngineTestUtil.execute(
+        ksqlEngine,
+        "create stream foo as select * from orders;"
+            + "create stream bar as select * from orders;",
+        config,
+        ImmutableMap.of(StreamsConfig.NUM_STREAM_THREADS_CONFIG, 2));
+
+    // Then:
+    assertThat(queries, hasSize(2));
+  }
+
+  @Test
+  public void shouldThrowIfPersistentQueryTakesStreamThreadsOverTotal() {
+    // Given:
+    final KsqlConfig config = KSQL_CONFIG.cloneWithPropertyOverwrite(ImmutableMap.of(
+        KsqlConfig.KSQL_PERSISTENT_QUERY_STREAM_THREADS_TOTAL_CONFIG, 3));
+    KsqlEngineTestUtil.execute(
+        ksqlEngine,
+        "create stream foo as select * from orders;"
+            + "create stream bar as select * from orders;",
+        config,
+        Collections.emptyMap());
+
+    expectedException.expect(KsqlStatementException.class);
+    expectedException.expect(rawMessage(containsString(
+        "Not starting the query as its 2 stream thread(s) would take the persistent queries "
+            + "over the '" + KsqlConfig.KSQL_PERSISTENT_QUERY_STREAM_THREADS_TOTAL_CONFIG
+            + "' of 3. They already use 2.")));
+
+    // When:
+    KsqlEngineTestUtil.execute(
+        ksqlEngine,
+        "create stream baz as select * from orders;",
+        config,
+        ImmutableMap.of(StreamsConfig.NUM_STREAM_THREADS_CONFIG, 2));
+  }
+
+  @Test
+  public void shouldThrowIfStreamThreadsInWithClauseTakePersistentQueriesOverTotal() {
+    // Given:
+    final KsqlConfig config = KSQL_CONFIG.cloneWithPropertyOverwrite(ImmutableMap.of(
+        KsqlConfig.KSQL_PERSISTENT_QUERY_STREAM_THREADS_TOTAL_CONFIG, 3));
+
+    expectedException.expect(KsqlStatementException.class);
+    expectedException.expect(rawMessage(containsString(
+        "Not starting the query as its 4 stream thread(s) would take the persistent queries "
+            + "over the '" + KsqlConfig.KSQL_PERSISTENT_QUERY_STREAM_THREADS_TOTAL_CONFIG
+            + "' of 3. They already use 0.")));
+
+    // When:
+    KsqlEngineTestUtil.execute(
+        ksqlEngine,
+        "create stream foo with (NUM_STREAM_THREADS=4) as select * from orders;",
+        config,
+        Collections.emptyMap());
+  }
+
   @Test
   public void shouldExecuteInsertIntoStreamOnSandBox() {
     // Given:
@@ -44,6 +44,7 @@ import java.util.stream.Collectors;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.streams.StreamsConfig;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
@@ -467,6 +468,76 @@ public class AnalyzerTest {
     analyzer.visitQuerySpecification(newQuerySpecification, new AnalysisContext(null));
   }
 
+  @Test
+  public void shouldSetStreamsPropertiesFromWithClause() {
+    // Given:
+    final String simpleQuery = "CREATE STREAM FOO WITH (CACHE_MAX_BYTES=1000, "
+        + "COMMIT_INTERVAL_MS=100, NUM_STREAM_THREADS=2) AS SELECT col0 FROM test1;";
+
+    // When:
+    final Analysis analysis = analyzeCreateAsSelect(simpleQuery);
+
+    // Then:
+    assertThat(analysis.getIntoProperties().get(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG),
+        equalTo(1000L));
+    assertThat(analysis.getIntoProperties().get(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG),
+        equalTo(100L));
+    assertThat(analysis.getIntoProperties().get(StreamsConfig.NUM_STREAM_THREADS_CONFIG),
+        equalTo(2));
+  }
+
+  @Test
+  public void shouldFailIfNumStreamThreadsInWithClauseIsLessThanOne() {
+    // Given:
+    final String simpleQuery =
+        "CREATE STREAM FOO WITH (NUM_STREAM_THREADS=0) AS SELECT col0 FROM test1;";
+
+    // Then:
+    expectedException.expect(KsqlException.class);
+    expectedException.expectMessage("NUM_STREAM_THREADS in WITH clause must be at least 1");
+
+    // When:
+    analyzeCreateAsSelect(simpleQuery);
+  }
+
+  @Test
+  public void shouldFailIfCacheMaxBytesInWithClauseIsNotANumber() {
+    // Given:
+    final String simpleQuery =
+        "CREATE STREAM FOO WITH (CACHE_MAX_BYTES='lots') AS SELECT col0 FROM test1;";
+
+    // Then:
+    expectedException.expect(KsqlException.class);
+    expectedException.expectMessage("Invalid CACHE_MAX_BYTES in WITH clause: 'lots'");
+
+    // When:
+    analyzeCreateAsSelect(simpleQuery);
+  }
+
+  private Analysis analyzeCreateAsSelect(final String simpleQuery) {
+    final List<Statement> statements = parse(simpleQuery, jsonMetaStore);
+    final CreateStreamAsSelect createStreamAsSelect = (CreateStreamAsSelect) statements.get(0);
+    final Table intoTable = new Table(QualifiedName.of(createStreamAsSelect.getName().toString()));
+    intoTable.setProperties(createStreamAsSelect.getProperties());
+    final QuerySpecification querySpecification =
+        (QuerySpecification) createStreamAsSelect.getQuery().getQueryBody();
+    final QuerySpecification newQuerySpecification = new QuerySpecification(
+        querySpecification.getSelect(),
+        intoTable,
+        true,
+        querySpecification.getFrom(),
+        querySpecification.getWindowExpression(),
+        querySpecification.getWhere(),
+        querySpecification.getGroupBy(),
+        querySpecification.getHaving(),
+        querySpecification.getLimit()
+    );
+    final Analysis analysis = new Analysis();
+    final Analyzer analyzer = new Analyzer("sqlExpression", analysis, jsonMetaStore, "");
+    analyzer.visitQuerySpecification(newQuerySpecification, new AnalysisContext(null));
+    return analysis;
+  }
+
   private static List<Statement> parse(final String simpleQuery, final MetaStore metaStore) {
     return KsqlParserTestUtil.buildAst(simpleQuery, metaStore)
         .stream()
@@ -25,7 +25,9 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.internal.matchers.ThrowableMessageMatcher.hasMessage;
 
 import com.google.common.collect.ImmutableList;
@@ -502,6 +504,39 @@ public class CodeGenRunnerTest {
         evalNotBetweenClauseObject(BOOLEAN_INDEX1, true, "'a'", "'c'");
     }
 
+    @Test
+    public void shouldReuseGeneratedClassForIdenticalCode() throws Exception {
+        // When:
+        final CompiledExpression first = CodeGenRunner.compileExpression(
+            new String[]{"COL0"}, new Class[]{Long.class}, Long.class, "(COL0 + 1)");
+        final CompiledExpression second = CodeGenRunner.compileExpression(
+            new String[]{"COL0"}, new Class[]{Long.class}, Long.class, "(COL0 + 1)");
+
+        // Then:
+        assertThat(first, is(not(sameInstance(second))));
+        assertThat(first.getClass(), is(sameInstance(second.getClass())));
+        assertThat(second.evaluate(new Object[]{41L}), is(42L));
+    }
+
+    @Test
+    public void shouldNotShareUdfInstancesBetweenCompilationsOfSameExpression() {
+        // Given:
+        final Analysis analysis =
+            analyzeQuery("SELECT LCASE(col1) FROM codegen_test;", metaStore);
+        final Expression expression = analysis.getSelectExpressions().get(0);
+
+        // When:
+        final ExpressionMetadata first =
+            codeGenRunner.buildCodeGenFromParseTree(expression, "Select");
+        final ExpressionMetadata second =
+            codeGenRunner.buildCodeGenFromParseTree(expression, "Select");
+
+        // Then:
+        assertThat(first.getUdfs(), hasSize(1));
+        assertThat(first.getUdfs().get(0), is(not(sameInstance(second.getUdfs().get(0)))));
+        assertThat(second.evaluate(genericRow(ONE_ROW)), is("s1"));
+    }
+
     @Test
     public void shouldHandleArithmeticExpr() {
         // Given:
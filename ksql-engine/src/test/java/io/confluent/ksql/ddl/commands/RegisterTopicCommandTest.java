@@ -62,6 +62,33 @@ public class RegisterTopicCommandTest {
         cmd.run(metaStore);
     }
 
+    @Test
+    public void shouldThrowOnDelimiterForNonDelimitedTopic() {
+        // Given:
+        givenProperties(propsWith(ImmutableMap.of(
+            DdlConfig.VALUE_DELIMITER_PROPERTY, new StringLiteral("|"))));
+
+        // Then:
+        expectedException.expectMessage("VALUE_DELIMITER is only valid for DELIMITED topics.");
+
+        // When:
+        createCmd();
+    }
+
+    @Test
+    public void shouldThrowOnInvalidDelimiter() {
+        // Given:
+        givenProperties(propsWith(ImmutableMap.of(
+            DdlConfig.VALUE_FORMAT_PROPERTY, new StringLiteral("Delimited"),
+            DdlConfig.VALUE_DELIMITER_PROPERTY, new StringLiteral("<>"))));
+
+        // Then:
+        expectedException.expectMessage("Invalid delimiter: '<>'.");
+
+        // When:
+        createCmd();
+    }
+
     private RegisterTopicCommand createCmd() {
         return new RegisterTopicCommand(registerTopicStatement);
     }
@@ -369,7 +369,8 @@ public class InternalFunctionRegistryTest {
   @Test
   public void shouldHaveBuiltInUDAFRegistered() {
     Collection<String> builtInUDAF = Arrays.asList(
-        "COUNT", "SUM", "MAX", "MIN", "TOPK", "TOPKDISTINCT"
+        "COUNT", "SUM", "AVG", "MAX", "MIN", "TOPK", "TOPKDISTINCT", "COUNT_DISTINCT_APPROX",
+        "PERCENTILE_APPROX"
     );
 
     Collection<String> names = Collections2.transform(functionRegistry.listAggregateFunctions(),
@@ -97,6 +97,26 @@ public class UdfLoaderTest {
     assertThat(instance.getMerger().apply("k", 2L, 3L), equalTo(5L));
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void shouldConfigureConfigurableUdafsOnInstantiation() {
+    // Given:
+    final KsqlAggregateFunction aggregate
+        = functionRegistry.getAggregate("collect_set", Schema.OPTIONAL_INT32_SCHEMA);
+
+    // When:
+    final KsqlAggregateFunction<Integer, List<Integer>> instance = aggregate.getInstance(
+        new AggregateFunctionArguments(0, Collections.singletonList("udfIndex"),
+            ImmutableMap.of(KsqlConfig.KSQL_FUNCTIONS_COLLECT_SET_LIMIT_CONFIG, 2)));
+
+    // Then:
+    List<Integer> agg = instance.getInitialValueSupplier().get();
+    for (int i = 0; i < 3; i++) {
+      agg = instance.aggregate(i, agg);
+    }
+    assertThat(agg, equalTo(Arrays.asList(0, 1)));
+  }
+
   @Test
   public void shouldLoadFunctionsFromJarsInPluginDir() {
     final UdfFactory toString = functionRegistry.getUdfFactory("tostring");
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.function.KsqlAggregateFunction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.apache.kafka.streams.kstream.Merger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+public class KudafAggregatorTest {
+
+  @Rule
+  public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+  @Mock
+  private KsqlAggregateFunction<Object, Object> sum;
+  @Mock
+  private KsqlAggregateFunction<Object, Object> count;
+
+  private KudafAggregator aggregator;
+
+  @Before
+  public void setUp() {
+    when(sum.getArgIndexInValue()).thenReturn(1);
+    when(count.getArgIndexInValue()).thenReturn(2);
+
+    aggregator = new KudafAggregator(
+        ImmutableMap.of(1, sum, 2, count),
+        ImmutableMap.of(0, 0));
+  }
+
+  @Test
+  public void shouldCopyColumnsAndAggregateIntoAggregateRow() {
+    // Given:
+    when(sum.aggregate(5L, 10L)).thenReturn(15L);
+    when(count.aggregate("x", 3L)).thenReturn(4L);
+    final GenericRow row = new GenericRow(new ArrayList<>(Arrays.asList("key", 5L, "x")));
+    final GenericRow aggRow = new GenericRow(new ArrayList<>(Arrays.asList(null, 10L, 3L)));
+
+    // When:
+    final GenericRow result = aggregator.apply("key", row, aggRow);
+
+    // Then:
+    assertThat(result, is(sameInstance(aggRow)));
+    assertThat(result.getColumns(), is(Arrays.asList("key", 15L, 4L)));
+  }
+
+  @Test
+  public void shouldMergeAggregateRows() {
+    // Given:
+    final Merger<String, Object> sumMerger = (key, one, two) -> (Long) one + (Long) two;
+    final Merger<String, Object> countMerger = (key, one, two) -> (Long) one + (Long) two;
+    when(sum.getMerger()).thenReturn(sumMerger);
+    when(count.getMerger()).thenReturn(countMerger);
+    final GenericRow aggRowOne = new GenericRow(new ArrayList<>(Arrays.asList(null, 10L, 3L)));
+    final GenericRow aggRowTwo = new GenericRow(new ArrayList<>(Arrays.asList("key", 5L, 1L)));
+
+    // When:
+    final GenericRow result = aggregator.getMerger().apply("key", aggRowOne, aggRowTwo);
+
+    // Then:
+    assertThat(result.getColumns(), is(Arrays.asList("key", 15L, 4L)));
+  }
+
+  @Test
+  public void shouldMergePartialAggregateIntoAggregateRow() {
+    // Given:
+    final Merger<String, Object> sumMerger = (key, one, two) -> (Long) one + (Long) two;
+    final Merger<String, Object> countMerger = (key, one, two) -> (Long) one + (Long) two;
+    when(sum.getMerger()).thenReturn(sumMerger);
+    when(count.getMerger()).thenReturn(countMerger);
+    final GenericRow partialRow = new GenericRow(new ArrayList<>(Arrays.asList("key", 5L, 1L)));
+    final GenericRow aggRow = new GenericRow(new ArrayList<>(Arrays.asList(null, 10L, 3L)));
+
+    // When:
+    final GenericRow result = aggregator.getPartialAggregator().apply("key", partialRow, aggRow);
+
+    // Then:
+    assertThat(result, is(sameInstance(aggRow)));
+    assertThat(result.getColumns(), is(Arrays.asList("key", 15L, 4L)));
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.function.KsqlAggregateFunction;
+import java.util.Arrays;
+import java.util.Map;
+import org.apache.kafka.connect.data.Schema;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+public class KudafResultMapperTest {
+
+  @Rule
+  public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+  @Mock
+  private KsqlAggregateFunction sum;
+  @Mock
+  private KsqlAggregateFunction sketch;
+
+  private Map<Integer, KsqlAggregateFunction> functions;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setUp() {
+    when(sum.getReturnType()).thenReturn(Schema.OPTIONAL_INT64_SCHEMA);
+    when(sum.getAggregateType()).thenReturn(Schema.OPTIONAL_INT64_SCHEMA);
+    when(sum.getResult(10L)).thenReturn(10L);
+    when(sketch.getReturnType()).thenReturn(Schema.OPTIONAL_INT64_SCHEMA);
+    when(sketch.getAggregateType()).thenReturn(Schema.OPTIONAL_STRING_SCHEMA);
+    when(sketch.getResult("sketch")).thenReturn(3L);
+
+    functions = ImmutableMap.of(1, sum, 2, sketch);
+  }
+
+  @Test
+  public void shouldMapAggregatesToResults() {
+    // Given:
+    final GenericRow aggRow = new GenericRow(Arrays.asList("key", 10L, "sketch"));
+
+    // When:
+    final GenericRow result = new KudafResultMapper(functions).apply(aggRow);
+
+    // Then:
+    assertThat(result, is(new GenericRow(Arrays.asList("key", 10L, 3L))));
+    assertThat("aggregate row unchanged", aggRow.getColumns().get(2), is("sketch"));
+  }
+
+  @Test
+  public void shouldOnlyBeRequiredIfAnAggregateIsNotItsResult() {
+    assertThat(KudafResultMapper.isRequired(functions), is(true));
+    assertThat(KudafResultMapper.isRequired(ImmutableMap.of(1, sum)), is(false));
+  }
+}
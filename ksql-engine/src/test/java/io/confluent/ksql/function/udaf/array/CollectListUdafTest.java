@@ -19,6 +19,7 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
+import io.confluent.ksql.function.udaf.TableUdaf;
 import io.confluent.ksql.function.udaf.Udaf;
 import java.util.List;
 import org.junit.Test;
@@ -71,4 +72,28 @@ public class CollectListUdafTest {
     assertThat(runningList, not(hasItem(1001)));
   }
 
+  @Test
+  public void shouldUndoCollectedValues() {
+    final TableUdaf<Integer, List<Integer>> udaf = CollectListUdaf.createCollectListInt();
+    List<Integer> runningList = udaf.initialize();
+    for (final Integer i : new Integer[] {3, 4, 5, 3}) {
+      runningList = udaf.aggregate(i, runningList);
+    }
+
+    runningList = udaf.undo(3, runningList);
+    assertThat(runningList, contains(3, 4, 5));
+  }
+
+  @Test
+  public void shouldIgnoreUndoOfValueNotCollected() {
+    final TableUdaf<Integer, List<Integer>> udaf = CollectListUdaf.createCollectListInt();
+    List<Integer> runningList = udaf.initialize();
+    for (int i = 1; i < 2500; i++) {
+      runningList = udaf.aggregate(i, runningList);
+    }
+
+    runningList = udaf.undo(2000, runningList);
+    assertThat(runningList, hasSize(1000));
+  }
+
 }
@@ -19,8 +19,13 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import io.confluent.common.Configurable;
 import io.confluent.ksql.function.udaf.Udaf;
+import io.confluent.ksql.util.KsqlConfig;
 import java.util.List;
+import org.apache.kafka.common.config.ConfigException;
 import org.junit.Test;
 
 public class CollectSetUdafTest {
@@ -71,4 +76,65 @@ public class CollectSetUdafTest {
     assertThat(runningList, not(hasItem(1001)));
   }
 
+  @Test
+  public void shouldRespectConfiguredSizeLimit() {
+    // Given:
+    final Udaf<Integer, List<Integer>> udaf = CollectSetUdaf.createCollectSetInt();
+    ((Configurable) udaf).configure(ImmutableMap.of(
+        KsqlConfig.KSQL_FUNCTIONS_COLLECT_SET_LIMIT_CONFIG, 1500));
+
+    // When:
+    List<Integer> runningList = udaf.initialize();
+    for (int i = 1; i < 2500; i++) {
+      runningList = udaf.aggregate(i, runningList);
+    }
+
+    // Then:
+    assertThat(runningList, hasSize(1500));
+    assertThat(runningList, hasItem(1500));
+    assertThat(runningList, not(hasItem(1501)));
+  }
+
+  @Test
+  public void shouldRespectSizeLimitOnMerge() {
+    // Given:
+    final Udaf<Integer, List<Integer>> udaf = CollectSetUdaf.createCollectSetInt();
+    ((Configurable) udaf).configure(ImmutableMap.of(
+        KsqlConfig.KSQL_FUNCTIONS_COLLECT_SET_LIMIT_CONFIG, "3"));
+
+    // When:
+    final List<Integer> merged = udaf.merge(
+        udaf.aggregate(2, udaf.aggregate(1, udaf.initialize())),
+        udaf.aggregate(4, udaf.aggregate(3, udaf.aggregate(2, udaf.initialize()))));
+
+    // Then:
+    assertThat(merged, contains(1, 2, 3));
+  }
+
+  @Test
+  public void shouldKeepDefaultSizeLimitIfNotConfigured() {
+    // Given:
+    final Udaf<Integer, List<Integer>> udaf = CollectSetUdaf.createCollectSetInt();
+    ((Configurable) udaf).configure(ImmutableMap.of());
+
+    // When:
+    List<Integer> runningList = udaf.initialize();
+    for (int i = 1; i < 2500; i++) {
+      runningList = udaf.aggregate(i, runningList);
+    }
+
+    // Then:
+    assertThat(runningList, hasSize(KsqlConfig.KSQL_FUNCTIONS_COLLECT_SET_LIMIT_DEFAULT));
+  }
+
+  @Test(expected = ConfigException.class)
+  public void shouldThrowOnInvalidSizeLimit() {
+    // Given:
+    final Udaf<Integer, List<Integer>> udaf = CollectSetUdaf.createCollectSetInt();
+
+    // When:
+    ((Configurable) udaf).configure(ImmutableMap.of(
+        KsqlConfig.KSQL_FUNCTIONS_COLLECT_SET_LIMIT_CONFIG, 0));
+  }
+
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf.average;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import io.confluent.ksql.function.AggregateFunctionArguments;
+import io.confluent.ksql.function.KsqlAggregateFunction;
+import io.confluent.ksql.function.TableAggregationFunction;
+import io.confluent.ksql.util.KsqlException;
+import java.util.Arrays;
+import java.util.Collections;
+import org.apache.kafka.connect.data.Schema;
+import org.junit.Test;
+
+@SuppressWarnings("unchecked")
+public class AverageKudafTest {
+
+  private final AverageAggFunctionFactory factory = new AverageAggFunctionFactory();
+
+  @Test
+  public void shouldAverageValuesIgnoringNulls() {
+    // Given:
+    final KsqlAggregateFunction<Long, String> function =
+        function(Schema.OPTIONAL_INT64_SCHEMA);
+    String aggregate = function.getInitialValueSupplier().get();
+
+    // When:
+    for (final Long value : Arrays.asList(1L, 2L, null, 6L)) {
+      aggregate = function.aggregate(value, aggregate);
+    }
+
+    // Then:
+    assertThat(function.getResult(aggregate), is(3.0));
+  }
+
+  @Test
+  public void shouldUndoValues() {
+    // Given:
+    final TableAggregationFunction<Integer, String> function =
+        (TableAggregationFunction<Integer, String>) function(Schema.OPTIONAL_INT32_SCHEMA);
+    String aggregate = function.getInitialValueSupplier().get();
+    for (final Integer value : Arrays.asList(1, 2, 6)) {
+      aggregate = function.aggregate(value, aggregate);
+    }
+
+    // When:
+    aggregate = function.undo(6, aggregate);
+    aggregate = function.undo(null, aggregate);
+
+    // Then:
+    assertThat(function.getResult(aggregate), is(1.5));
+  }
+
+  @Test
+  public void shouldReturnNullAverageOfNoValues() {
+    // Given:
+    final KsqlAggregateFunction<Double, String> function =
+        function(Schema.OPTIONAL_FLOAT64_SCHEMA);
+
+    // Then:
+    assertThat(function.getResult(function.getInitialValueSupplier().get()), is(nullValue()));
+  }
+
+  @Test
+  public void shouldMergeAggregates() {
+    // Given:
+    final KsqlAggregateFunction<Double, String> function =
+        function(Schema.OPTIONAL_FLOAT64_SCHEMA);
+    final String aggOne = function.aggregate(1.0, function.getInitialValueSupplier().get());
+    final String aggTwo = function.aggregate(4.0,
+        function.aggregate(7.0, function.getInitialValueSupplier().get()));
+
+    // When:
+    final String merged = function.getMerger().apply("key", aggOne, aggTwo);
+
+    // Then:
+    assertThat(function.getResult(merged), is(4.0));
+  }
+
+  @Test
+  public void shouldBeTableAggregationFunction() {
+    assertThat(function(Schema.OPTIONAL_INT64_SCHEMA),
+        is(instanceOf(TableAggregationFunction.class)));
+  }
+
+  @Test(expected = KsqlException.class)
+  public void shouldThrowOnUnsupportedArgumentType() {
+    factory.getProperAggregateFunction(Collections.singletonList(Schema.OPTIONAL_STRING_SCHEMA));
+  }
+
+  @Test(expected = KsqlException.class)
+  public void shouldThrowOnWrongNumberOfArguments() {
+    factory.getProperAggregateFunction(Collections.singletonList(Schema.OPTIONAL_INT64_SCHEMA))
+        .getInstance(new AggregateFunctionArguments(0, Arrays.asList("COL0", "COL1")));
+  }
+
+  @Test
+  public void shouldStoreAggregateAsString() {
+    assertThat(function(Schema.OPTIONAL_INT64_SCHEMA).getAggregateType(),
+        is(Schema.OPTIONAL_STRING_SCHEMA));
+  }
+
+  private <T> KsqlAggregateFunction<T, String> function(final Schema argumentType) {
+    return factory.getProperAggregateFunction(Collections.singletonList(argumentType))
+        .getInstance(new AggregateFunctionArguments(0, Collections.singletonList("COL0")));
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf.countdistinct;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import io.confluent.ksql.function.AggregateFunctionArguments;
+import io.confluent.ksql.function.KsqlAggregateFunction;
+import io.confluent.ksql.util.KsqlException;
+import java.util.Collections;
+import org.apache.kafka.connect.data.Schema;
+import org.junit.Test;
+
+@SuppressWarnings("unchecked")
+public class CountDistinctApproxKudafTest {
+
+  private final CountDistinctApproxAggFunctionFactory factory =
+      new CountDistinctApproxAggFunctionFactory();
+
+  @Test
+  public void shouldCountDistinctValuesExactlyWhileFew() {
+    // Given:
+    final KsqlAggregateFunction<String, String> function = function(Schema.OPTIONAL_STRING_SCHEMA);
+    String aggregate = function.getInitialValueSupplier().get();
+
+    // When:
+    for (final String value : ImmutableList.of("a", "b", "a", "c", "b", "a")) {
+      aggregate = function.aggregate(value, aggregate);
+    }
+
+    // Then:
+    assertThat(function.getResult(aggregate), is(3L));
+  }
+
+  @Test
+  public void shouldEstimateManyDistinctValues() {
+    // Given:
+    final KsqlAggregateFunction<Long, String> function = function(Schema.OPTIONAL_INT64_SCHEMA);
+    String aggregate = function.getInitialValueSupplier().get();
+
+    // When:
+    for (long value = 0; value < 100_000; value++) {
+      aggregate = function.aggregate(value % 50_000, aggregate);
+    }
+
+    // Then:
+    assertThat((Long) function.getResult(aggregate), is(allOf(greaterThan(48_000L),
+        lessThan(52_000L))));
+    assertThat("compact aggregate", aggregate.length(), is(lessThan(6_000)));
+  }
+
+  @Test
+  public void shouldNotChangeAggregateOnDuplicateOrNullValue() {
+    // Given:
+    final KsqlAggregateFunction<Integer, String> function = function(Schema.OPTIONAL_INT32_SCHEMA);
+    final String aggregate = function.aggregate(1, function.getInitialValueSupplier().get());
+
+    // Then:
+    assertThat(function.aggregate(1, aggregate), is(sameInstance(aggregate)));
+    assertThat(function.aggregate(null, aggregate), is(sameInstance(aggregate)));
+  }
+
+  @Test
+  public void shouldCountEmptyAggregateAsZero() {
+    // Given:
+    final KsqlAggregateFunction<Double, String> function = function(Schema.OPTIONAL_FLOAT64_SCHEMA);
+
+    // Then:
+    assertThat(function.getResult(function.getInitialValueSupplier().get()), is(0L));
+  }
+
+  @Test
+  public void shouldMergeAggregates() {
+    // Given:
+    final KsqlAggregateFunction<Long, String> function = function(Schema.OPTIONAL_INT64_SCHEMA);
+    String aggOne = function.getInitialValueSupplier().get();
+    String aggTwo = function.getInitialValueSupplier().get();
+    for (long value = 0; value < 10; value++) {
+      aggOne = function.aggregate(value, aggOne);
+      aggTwo = function.aggregate(value + 5, aggTwo);
+    }
+
+    // When:
+    final String merged = function.getMerger().apply("key", aggOne, aggTwo);
+
+    // Then:
+    assertThat(function.getResult(merged), is(15L));
+  }
+
+  @Test
+  public void shouldKeepStringAggregateAndReturnBigint() {
+    // Given:
+    final KsqlAggregateFunction<Long, String> function = function(Schema.OPTIONAL_INT64_SCHEMA);
+
+    // Then:
+    assertThat(function.getAggregateType(), is(Schema.OPTIONAL_STRING_SCHEMA));
+    assertThat(function.getReturnType(), is(Schema.OPTIONAL_INT64_SCHEMA));
+  }
+
+  @Test(expected = KsqlException.class)
+  public void shouldThrowOnUnsupportedArgumentType() {
+    factory.getProperAggregateFunction(Collections.singletonList(Schema.OPTIONAL_BOOLEAN_SCHEMA));
+  }
+
+  private <T> KsqlAggregateFunction<T, String> function(final Schema argumentType) {
+    return factory.getProperAggregateFunction(Collections.singletonList(argumentType))
+        .getInstance(new AggregateFunctionArguments(0, Collections.singletonList("COL0")));
+  }
+}
@@ -18,7 +18,11 @@ import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import io.confluent.common.Configurable;
 import io.confluent.ksql.function.udaf.TableUdaf;
+import io.confluent.ksql.util.KsqlConfig;
 import java.util.Map;
 import org.junit.Test;
 
@@ -95,6 +99,17 @@ public class HistogramUdafTest {
     assertThat(agg, hasEntry("null", 1L));
   }
 
+  @Test
+  public void shouldIgnoreUndoOfValueNotCounted() {
+    final TableUdaf<String, Map<String, Long>> udaf = HistogramUdaf.histogramString();
+    Map<String, Long> agg = udaf.initialize();
+    agg = udaf.aggregate("foo", agg);
+
+    agg = udaf.undo("bar", agg);
+    assertThat(agg.entrySet(), hasSize(1));
+    assertThat(agg, hasEntry("foo", 1L));
+  }
+
   @Test
   public void shouldNotExceedSizeLimit() {
     final TableUdaf<String, Map<String, Long>> udaf = HistogramUdaf.histogramString();
@@ -108,4 +123,23 @@ public class HistogramUdafTest {
     assertThat(agg, not(hasEntry("1001", 1L)));
   }
 
+  @Test
+  public void shouldRespectConfiguredSizeLimit() {
+    // Given:
+    final TableUdaf<String, Map<String, Long>> udaf = HistogramUdaf.histogramString();
+    ((Configurable) udaf).configure(ImmutableMap.of(
+        KsqlConfig.KSQL_FUNCTIONS_HISTOGRAM_LIMIT_CONFIG, 2));
+
+    // When:
+    Map<String, Long> agg = udaf.initialize();
+    for (final String thisValue : new String[] {"foo", "bar", "baz", "foo"}) {
+      agg = udaf.aggregate(thisValue, agg);
+    }
+
+    // Then:
+    assertThat(agg.entrySet(), hasSize(2));
+    assertThat(agg, hasEntry("foo", 2L));
+    assertThat(agg, hasEntry("bar", 1L));
+  }
+
 }
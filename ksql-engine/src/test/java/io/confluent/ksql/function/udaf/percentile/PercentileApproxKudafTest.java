@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf.percentile;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import io.confluent.ksql.function.AggregateFunctionArguments;
+import io.confluent.ksql.function.KsqlAggregateFunction;
+import io.confluent.ksql.util.KsqlException;
+import java.util.Collections;
+import org.apache.kafka.connect.data.Schema;
+import org.junit.Test;
+
+@SuppressWarnings("unchecked")
+public class PercentileApproxKudafTest {
+
+  private final PercentileApproxAggFunctionFactory factory =
+      new PercentileApproxAggFunctionFactory();
+
+  @Test
+  public void shouldEstimatePercentile() {
+    // Given:
+    final KsqlAggregateFunction<Long, String> function =
+        function(Schema.OPTIONAL_INT64_SCHEMA, "0.99");
+    String aggregate = function.getInitialValueSupplier().get();
+
+    // When:
+    for (long value = 1; value <= 100_000; value++) {
+      aggregate = function.aggregate((value * 7919) % 100_000, aggregate);
+    }
+
+    // Then:
+    assertThat((Double) function.getResult(aggregate), is(closeTo(99_000, 100)));
+    assertThat("compact aggregate", aggregate.length(), is(lessThan(6_000)));
+  }
+
+  @Test
+  public void shouldReturnMinAndMaxForExtremePercentiles() {
+    // Given:
+    final KsqlAggregateFunction<Integer, String> min =
+        function(Schema.OPTIONAL_INT32_SCHEMA, "0.0");
+    final KsqlAggregateFunction<Integer, String> max =
+        function(Schema.OPTIONAL_INT32_SCHEMA, "1.0");
+    String aggregate = min.getInitialValueSupplier().get();
+
+    // When:
+    for (final Integer value : ImmutableList.of(5, -3, 12, 7)) {
+      aggregate = min.aggregate(value, aggregate);
+    }
+
+    // Then:
+    assertThat(min.getResult(aggregate), is(-3.0));
+    assertThat(max.getResult(aggregate), is(12.0));
+  }
+
+  @Test
+  public void shouldReturnNullForEmptyAggregate() {
+    // Given:
+    final KsqlAggregateFunction<Double, String> function =
+        function(Schema.OPTIONAL_FLOAT64_SCHEMA, "0.5");
+
+    // When:
+    final String aggregate = function.aggregate(null, function.getInitialValueSupplier().get());
+
+    // Then:
+    assertThat(function.getResult(aggregate), is(nullValue()));
+  }
+
+  @Test
+  public void shouldMergeAggregates() {
+    // Given:
+    final KsqlAggregateFunction<Double, String> function =
+        function(Schema.OPTIONAL_FLOAT64_SCHEMA, "0.5");
+    String aggOne = function.getInitialValueSupplier().get();
+    String aggTwo = function.getInitialValueSupplier().get();
+    for (int i = 0; i < 10_000; i++) {
+      aggOne = function.aggregate((double) i, aggOne);
+      aggTwo = function.aggregate((double) i + 10_000, aggTwo);
+    }
+
+    // When:
+    final String merged = function.getMerger().apply("key", aggOne, aggTwo);
+
+    // Then:
+    assertThat((Double) function.getResult(merged), is(closeTo(10_000, 50)));
+  }
+
+  @Test(expected = KsqlException.class)
+  public void shouldThrowOnPercentileOutOfRange() {
+    function(Schema.OPTIONAL_FLOAT64_SCHEMA, "95");
+  }
+
+  @Test(expected = KsqlException.class)
+  public void shouldThrowOnPercentileThatIsNotANumber() {
+    function(Schema.OPTIONAL_FLOAT64_SCHEMA, "'high'");
+  }
+
+  @Test(expected = KsqlException.class)
+  public void shouldThrowOnNaNPercentile() {
+    function(Schema.OPTIONAL_FLOAT64_SCHEMA, "NaN");
+  }
+
+  @Test(expected = KsqlException.class)
+  public void shouldThrowOnUnsupportedArgumentType() {
+    factory.getProperAggregateFunction(Collections.singletonList(Schema.OPTIONAL_STRING_SCHEMA));
+  }
+
+  private <T> KsqlAggregateFunction<T, String> function(
+      final Schema argumentType,
+      final String percentile
+  ) {
+    return factory.getProperAggregateFunction(Collections.singletonList(argumentType))
+        .getInstance(new AggregateFunctionArguments(0, ImmutableList.of("COL0", percentile)));
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf.topk;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class TopkUtilTest {
+
+  private static final List<Integer> VALUES = ImmutableList.of(9, 7, 7, 5, 3);
+
+  @Test
+  public void shouldInsertIntoEmptyListAtStart() {
+    assertThat(TopkUtil.insertionIndex(Collections.<Integer>emptyList(), 1), is(0));
+  }
+
+  @Test
+  public void shouldInsertGreatestValueAtStart() {
+    assertThat(TopkUtil.insertionIndex(VALUES, 10), is(0));
+  }
+
+  @Test
+  public void shouldInsertSmallestValueAtEnd() {
+    assertThat(TopkUtil.insertionIndex(VALUES, 1), is(5));
+  }
+
+  @Test
+  public void shouldInsertAfterEqualValues() {
+    assertThat(TopkUtil.insertionIndex(VALUES, 7), is(3));
+  }
+
+  @Test
+  public void shouldInsertBetweenValues() {
+    assertThat(TopkUtil.insertionIndex(VALUES, 4), is(4));
+  }
+}
@@ -52,9 +52,11 @@ import io.confluent.ksql.services.FakeKafkaTopicClient;
 import io.confluent.ksql.services.KafkaTopicClient;
 import io.confluent.ksql.services.ServiceContext;
 import io.confluent.ksql.services.TestServiceContext;
+import io.confluent.ksql.streams.SharedMemoryRocksDBConfigSetter;
 import io.confluent.ksql.structured.LogicalPlanBuilderTestUtil;
 import io.confluent.ksql.util.KsqlConfig;
 import io.confluent.ksql.util.KsqlConstants;
+import io.confluent.ksql.util.KsqlException;
 import io.confluent.ksql.util.KsqlStatementException;
 import io.confluent.ksql.util.MetaStoreFixture;
 import io.confluent.ksql.util.QueryIdGenerator;
@@ -688,6 +690,88 @@ public class PhysicalPlanBuilderTest {
   }
 
 
+  @Test
+  public void shouldSetStreamsPropertiesOfPersistentQueryFromWithClause() {
+    // Given:
+    final String csasQuery = "CREATE STREAM s1 WITH (CACHE_MAX_BYTES=1000, "
+        + "COMMIT_INTERVAL_MS=100, NUM_STREAM_THREADS=2) AS SELECT col0 FROM test1;";
+    kafkaTopicClient.createTopic("test1", 1, (short) 1, Collections.emptyMap());
+
+    // When:
+    final List<QueryMetadata> queryMetadataList = KsqlEngineTestUtil.execute(
+        ksqlEngine,
+        createStream + "\n " + csasQuery,
+        ksqlConfig,
+        Collections.emptyMap());
+
+    // Then:
+    final Map<String, Object> streamsProperties =
+        queryMetadataList.get(0).getStreamsProperties();
+    assertThat(streamsProperties.get(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG),
+        equalTo(1000L));
+    assertThat(streamsProperties.get(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG), equalTo(100L));
+    assertThat(streamsProperties.get(StreamsConfig.NUM_STREAM_THREADS_CONFIG), equalTo(2));
+    closeQueries(queryMetadataList);
+  }
+
+  @Test
+  public void shouldGivePersistentQueriesShareOfTotalCacheSize() {
+    // Given:
+    final String csasQuery = "CREATE STREAM s1 AS SELECT col0 FROM test1;";
+    final String ctasQuery = "CREATE TABLE t1 AS SELECT col0, COUNT(*) FROM test1 GROUP BY col0;";
+    kafkaTopicClient.createTopic("test1", 1, (short) 1, Collections.emptyMap());
+    final KsqlConfig config = ksqlConfig.cloneWithPropertyOverwrite(ImmutableMap.<String, Object>of(
+        KsqlConfig.KSQL_PERSISTENT_QUERY_CACHE_MAX_BYTES_TOTAL_CONFIG, 1000L,
+        KsqlConfig.KSQL_ACTIVE_PERSISTENT_QUERY_LIMIT_CONFIG, 4));
+
+    // When:
+    final List<QueryMetadata> queryMetadataList = KsqlEngineTestUtil.execute(
+        ksqlEngine,
+        createStream + "\n " + csasQuery + "\n " + ctasQuery,
+        config,
+        Collections.emptyMap());
+
+    // Then:
+    assertThat(queryMetadataList.get(0).getStreamsProperties()
+        .get(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG), equalTo(250L));
+    assertThat(queryMetadataList.get(1).getStreamsProperties()
+        .get(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG), equalTo(250L));
+    closeQueries(queryMetadataList);
+  }
+
+  @Test
+  public void shouldShareRocksDbMemoryIfConfigured() {
+    // Given:
+    physicalPlanBuilder = buildPhysicalPlanBuilder(ImmutableMap.of(
+        KsqlConfig.KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG, 1000L));
+
+    // When:
+    buildPhysicalPlan(simpleSelectFilter);
+
+    // Then:
+    final Properties props = testKafkaStreamsBuilder.getCalls().get(0).props;
+    assertThat(props.get(StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG),
+        equalTo(SharedMemoryRocksDBConfigSetter.class));
+    assertThat(props.get(KsqlConfig.KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG),
+        equalTo(1000L));
+  }
+
+  @Test
+  public void shouldFailToShareRocksDbMemoryWithCustomConfigSetter() {
+    // Given:
+    physicalPlanBuilder = buildPhysicalPlanBuilder(ImmutableMap.of(
+        KsqlConfig.KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG, 1000L,
+        StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG, "com.example.ConfigSetter"));
+
+    // Then:
+    expectedException.expect(KsqlException.class);
+    expectedException.expectMessage(KsqlConfig.KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG
+        + " cannot be used with " + StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG);
+
+    // When:
+    buildPhysicalPlan(simpleSelectFilter);
+  }
+
   private static void closeQueries(final List<QueryMetadata> queryMetadataList) {
     queryMetadataList.forEach(QueryMetadata::close);
   }
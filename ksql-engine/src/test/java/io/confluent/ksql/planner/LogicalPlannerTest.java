@@ -16,8 +16,11 @@ package io.confluent.ksql.planner;
 
 import static io.confluent.ksql.testutils.AnalysisTestUtil.analyzeQuery;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
 import io.confluent.ksql.analyzer.AggregateAnalysis;
 import io.confluent.ksql.analyzer.AggregateAnalyzer;
 import io.confluent.ksql.analyzer.Analysis;
@@ -35,6 +38,7 @@ import io.confluent.ksql.planner.plan.StructuredDataSourceNode;
 import io.confluent.ksql.serde.DataSource;
 import io.confluent.ksql.serde.DataSource.DataSourceType;
 import io.confluent.ksql.util.MetaStoreFixture;
+import java.util.Optional;
 import org.apache.kafka.connect.data.Schema;
 import org.junit.Assert;
 import org.junit.Before;
@@ -243,4 +247,42 @@ public class LogicalPlannerTest {
     assertThat(logicalPlan.getNodeOutputType(), equalTo(DataSourceType.KTABLE));
   }
 
+  @Test
+  public void shouldOnlyRequireReferencedColumnsFromSource() {
+    // When:
+    final PlanNode logicalPlan = buildLogicalPlan(
+        "SELECT col0, col2 FROM test1 WHERE col3 > 100;");
+
+    // Then:
+    final StructuredDataSourceNode sourceNode = (StructuredDataSourceNode) logicalPlan
+        .getSources().get(0).getSources().get(0).getSources().get(0);
+    assertThat(sourceNode.getRequiredColumns(),
+        equalTo(Optional.of(ImmutableSet.of("COL0", "COL2", "COL3"))));
+  }
+
+  @Test
+  public void shouldRequireAllColumnsForSelectStar() {
+    // When:
+    final PlanNode logicalPlan = buildLogicalPlan("SELECT * FROM test1;");
+
+    // Then:
+    final StructuredDataSourceNode sourceNode = (StructuredDataSourceNode) logicalPlan
+        .getSources().get(0).getSources().get(0);
+    assertThat(sourceNode.getRequiredColumns().get(),
+        hasItems("COL0", "COL1", "COL2", "COL3", "COL4", "COL5"));
+  }
+
+  @Test
+  public void shouldRequireJoinKeysAndReferencedColumnsFromJoinSources() {
+    // When:
+    final PlanNode logicalPlan = buildLogicalPlan(
+        "SELECT t1.col4, t2.col2 FROM test1 t1 LEFT JOIN test2 t2 ON t1.col1 = t2.col1;");
+
+    // Then:
+    final JoinNode joinNode = (JoinNode) logicalPlan.getSources().get(0).getSources().get(0);
+    assertThat(((StructuredDataSourceNode) joinNode.getLeft()).getRequiredColumns(),
+        equalTo(Optional.of(ImmutableSet.of("COL1", "COL4"))));
+    assertThat(((StructuredDataSourceNode) joinNode.getRight()).getRequiredColumns(),
+        equalTo(Optional.of(ImmutableSet.of("COL1", "COL2"))));
+  }
 }
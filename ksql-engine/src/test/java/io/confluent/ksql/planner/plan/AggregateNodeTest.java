@@ -43,19 +43,23 @@ import io.confluent.ksql.structured.QueryContext;
 import io.confluent.ksql.structured.SchemaKStream;
 import io.confluent.ksql.structured.SchemaKTable;
 import io.confluent.ksql.util.KsqlConfig;
+import io.confluent.ksql.util.KsqlException;
 import io.confluent.ksql.util.MetaStoreFixture;
 import io.confluent.ksql.util.QueryLoggerUtil;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.TopologyDescription;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -69,6 +73,9 @@ public class AggregateNodeTest {
     UdfLoaderUtil.load(functionRegistry);
   }
 
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
   @Mock
   private ServiceContext serviceContext;
   private final KsqlConfig ksqlConfig =  new KsqlConfig(new HashMap<>());
@@ -222,6 +229,19 @@ public class AggregateNodeTest {
         new Field("KSQL_COL_2", 2, Schema.OPTIONAL_INT64_SCHEMA)));
   }
 
+  @Test
+  public void shouldBuildAggregateSchemaFromResultsOfSketchFunctions() {
+    // When:
+    final SchemaKStream stream = buildQuery("SELECT col0, count_distinct_approx(col3), "
+        + "percentile_approx(col3, 0.5) FROM test1 GROUP BY col0;");
+
+    // Then:
+    assertThat(stream.getSchema().fields(), contains(
+        new Field("COL0", 0, Schema.OPTIONAL_INT64_SCHEMA),
+        new Field("KSQL_COL_1", 1, Schema.OPTIONAL_INT64_SCHEMA),
+        new Field("KSQL_COL_2", 2, Schema.OPTIONAL_FLOAT64_SCHEMA)));
+  }
+
   @Test
   public void shouldBeSchemaKTableResult() {
     final SchemaKStream stream = build();
@@ -234,6 +254,70 @@ public class AggregateNodeTest {
     assertThat(stream.getKeySerde(), is(not(Optional.empty())));
   }
 
+  @Test
+  public void shouldPreAggregateBeforeRepartitionIfEnabled() {
+    // When:
+    buildQuery("SELECT col1, sum(col3), count(col3) FROM test1 GROUP BY col1;",
+        new KsqlConfig(ImmutableMap.of(KsqlConfig.KSQL_PREAGGREGATE_MAX_ENTRIES_CONFIG, 100)));
+
+    // Then:
+    assertThat(getStoreNames(), hasItem("Aggregate-groupby-PreAggregate"));
+  }
+
+  @Test
+  public void shouldNotPreAggregateByDefault() {
+    // When:
+    buildQuery("SELECT col1, sum(col3), count(col3) FROM test1 GROUP BY col1;");
+
+    // Then:
+    assertThat(getStoreNames(), not(hasItem("Aggregate-groupby-PreAggregate")));
+  }
+
+  @Test
+  public void shouldNotPreAggregateWindowedAggregation() {
+    // When:
+    buildRequireRekey(
+        new KsqlConfig(ImmutableMap.of(KsqlConfig.KSQL_PREAGGREGATE_MAX_ENTRIES_CONFIG, 100)));
+
+    // Then:
+    assertThat(getStoreNames(), not(hasItem("Aggregate-groupby-PreAggregate")));
+  }
+
+  @Test
+  public void shouldThrowIfPreAggregatingAndGroupingByBinaryKey() {
+    // Given:
+    final KsqlConfig config = new KsqlConfig(ImmutableMap.of(
+        KsqlConfig.KSQL_PREAGGREGATE_MAX_ENTRIES_CONFIG, 100,
+        KsqlConfig.KSQL_GROUP_BY_BINARY_KEY_CONFIG, true));
+
+    expectedException.expect(KsqlException.class);
+    expectedException.expectMessage(
+        "an aggregation can not be both pre-aggregated and grouped by a binary key");
+
+    // When:
+    buildQuery("SELECT col1, col2, sum(col3) FROM test1 GROUP BY col1, col2;", config);
+  }
+
+  @Test
+  public void shouldPreAggregateSingleColumnGroupByIfBinaryKeyEnabled() {
+    // When:
+    buildQuery("SELECT col1, sum(col3), count(col3) FROM test1 GROUP BY col1;",
+        new KsqlConfig(ImmutableMap.of(
+            KsqlConfig.KSQL_PREAGGREGATE_MAX_ENTRIES_CONFIG, 100,
+            KsqlConfig.KSQL_GROUP_BY_BINARY_KEY_CONFIG, true)));
+
+    // Then:
+    assertThat(getStoreNames(), hasItem("Aggregate-groupby-PreAggregate"));
+  }
+
+  private Set<String> getStoreNames() {
+    return builder.build().describe().subtopologies().stream()
+        .flatMap(subtopology -> subtopology.nodes().stream())
+        .filter(node -> node instanceof TopologyDescription.Processor)
+        .flatMap(node -> ((TopologyDescription.Processor) node).stores().stream())
+        .collect(Collectors.toSet());
+  }
+
   private SchemaKStream build() {
     return build(ksqlConfig);
   }
@@ -18,6 +18,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -139,6 +140,47 @@ public class ProjectNodeTest {
     );
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void shouldFuseFilterAndProjectionIfEnabled() {
+    // Given:
+    final BooleanLiteral trueExpression = new BooleanLiteral("true");
+    final BooleanLiteral falseExpression = new BooleanLiteral("false");
+    final FilterNode filterNode = new FilterNode(new PlanNodeId("0"), source, trueExpression);
+    final ProjectNode node = new ProjectNode(
+        new PlanNodeId("1"),
+        filterNode,
+        SchemaBuilder.struct()
+            .field("field1", Schema.OPTIONAL_STRING_SCHEMA)
+            .field("field2", Schema.OPTIONAL_STRING_SCHEMA)
+            .build(),
+        Arrays.asList(trueExpression, falseExpression));
+    final KsqlConfig fusingConfig = new KsqlConfig(
+        Collections.singletonMap(KsqlConfig.KSQL_FUSE_FILTER_PROJECT_CONFIG, true));
+    when(stream.filterAndSelect(any(), any(), anyList(), any(), any())).thenReturn(stream);
+
+    // When:
+    node.buildStream(
+        builder,
+        fusingConfig,
+        serviceContext,
+        processingLogContext,
+        functionRegistry,
+        queryId);
+
+    // Then:
+    verify(stream).filterAndSelect(
+        same(trueExpression),
+        eq(filterNode.buildNodeContext(queryId)),
+        eq(Arrays.asList(
+            SelectExpression.of("field1", trueExpression),
+            SelectExpression.of("field2", falseExpression))),
+        eq(node.buildNodeContext(queryId)),
+        same(processingLogContext)
+    );
+    verify(stream, never()).filter(any(), any(), any());
+  }
+
   @SuppressWarnings("unchecked")
   private void mockSourceNode() {
     when(source.getKeyField())
@@ -25,6 +25,7 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -56,6 +57,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -216,6 +218,36 @@ public class StructuredDataSourceNodeTest {
     verify(kGroupedStream).aggregate(any(), any(), same(materialized));
   }
 
+  @Test
+  public void shouldOnlyDeserializeRequiredAndTimestampColumns() {
+    // Given:
+    final StructuredDataSourceNode node = new StructuredDataSourceNode(
+        realNodeId,
+        tableSource,
+        realSchema,
+        Optional.of(ImmutableSet.of("field1")));
+
+    // When:
+    node.buildStream(
+        streamsBuilder,
+        realConfig,
+        serviceContext,
+        processingLogContext,
+        functionRegistry,
+        queryId
+    );
+
+    // Then:
+    verify(topicSerDe).getGenericRowSerde(
+        any(Schema.class),
+        same(realConfig),
+        eq(false),
+        any(Supplier.class),
+        anyString(),
+        same(processingLogContext),
+        eq(ImmutableSet.of("field1", TIMESTAMP_FIELD)));
+  }
+
   @Test
   public void shouldCreateLoggerForSourceSerde() {
     assertThat(
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.streams;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.util.KsqlConfig;
+import io.confluent.ksql.util.KsqlException;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.Cache;
+import org.rocksdb.Options;
+
+public class SharedMemoryRocksDBConfigSetterTest {
+
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
+  private final SharedMemoryRocksDBConfigSetter configSetter =
+      new SharedMemoryRocksDBConfigSetter();
+  private Options options;
+
+  @Before
+  public void setUp() {
+    options = new Options();
+    options.setTableFormatConfig(new BlockBasedTableConfig());
+  }
+
+  @After
+  public void tearDown() {
+    options.close();
+  }
+
+  @Test
+  public void shouldCacheIndexAndFilterBlocksInSharedCache() {
+    // When:
+    configSetter.setConfig("store", options, ImmutableMap.of(
+        KsqlConfig.KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG, 1000L));
+
+    // Then:
+    assertThat(options.tableFormatConfig(), instanceOf(BlockBasedTableConfig.class));
+    assertThat(
+        ((BlockBasedTableConfig) options.tableFormatConfig()).cacheIndexAndFilterBlocks(),
+        is(true));
+  }
+
+  @Test
+  public void shouldShareOneCacheBetweenStores() {
+    // Given:
+    configSetter.setConfig("store", options, ImmutableMap.of(
+        KsqlConfig.KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG, 1000L));
+    final Cache cache = SharedMemoryRocksDBConfigSetter.getOrCreateCache(1000L);
+
+    try (Options otherOptions = new Options()) {
+      otherOptions.setTableFormatConfig(new BlockBasedTableConfig());
+
+      // When:
+      configSetter.setConfig("other-store", otherOptions, ImmutableMap.of(
+          KsqlConfig.KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG, 2000L));
+    }
+
+    // Then:
+    assertThat(SharedMemoryRocksDBConfigSetter.getOrCreateCache(2000L), is(sameInstance(cache)));
+  }
+
+  @Test
+  public void shouldThrowIfMaxBytesNotConfigured() {
+    // Then:
+    expectedException.expect(KsqlException.class);
+    expectedException.expectMessage(
+        "Missing config: " + KsqlConfig.KSQL_ROCKSDB_SHARED_MEMORY_MAX_BYTES_CONFIG);
+
+    // When:
+    configSetter.setConfig("store", options, Collections.emptyMap());
+  }
+}
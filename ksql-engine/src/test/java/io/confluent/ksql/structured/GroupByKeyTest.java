@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.structured;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.nio.charset.StandardCharsets;
+import org.apache.kafka.common.serialization.Serde;
+import org.junit.Test;
+
+public class GroupByKeyTest {
+
+  @Test
+  public void shouldJoinValuesInToString() {
+    // When:
+    final GroupByKey key = GroupByKey.of("a", 1, 2L, 3.5, true, null);
+
+    // Then:
+    assertThat(key.toString(), is("a|+|1|+|2|+|3.5|+|true|+|null"));
+  }
+
+  @Test
+  public void shouldKeepApartValuesContainingSeparator() {
+    // When:
+    final GroupByKey key0 = GroupByKey.of("a|+|b", "c");
+    final GroupByKey key1 = GroupByKey.of("a", "b|+|c");
+
+    // Then:
+    assertThat(key0, is(not(key1)));
+    assertThat(key0.toString(), is(key1.toString()));
+  }
+
+  @Test
+  public void shouldKeepApartValuesOfDifferentTypes() {
+    assertThat(GroupByKey.of(1, "a"), is(not(GroupByKey.of(1L, "a"))));
+    assertThat(GroupByKey.of("1", "a"), is(not(GroupByKey.of(1, "a"))));
+  }
+
+  @Test
+  public void shouldImplementEqualsAndHashCode() {
+    // When:
+    final GroupByKey key0 = GroupByKey.of("a", 1, null);
+    final GroupByKey key1 = GroupByKey.of("a", 1, null);
+
+    // Then:
+    assertThat(key0, is(key1));
+    assertThat(key0.hashCode(), is(key1.hashCode()));
+  }
+
+  @Test
+  public void shouldRoundTripBinarySerde() {
+    // Given:
+    final Serde<GroupByKey> serde = GroupByKey.serde();
+    final GroupByKey key = GroupByKey.of("a", 1, 2L, null);
+
+    // When:
+    final GroupByKey result = serde.deserializer().deserialize("t",
+        serde.serializer().serialize("t", key));
+
+    // Then:
+    assertThat(result, is(key));
+    assertThat(result.toString(), is("a|+|1|+|2|+|null"));
+  }
+
+  @Test
+  public void shouldSerializeKeysAndStringsAsStrings() {
+    // Given:
+    final Serde<Object> serde = GroupByKey.stringSerde();
+
+    // When:
+    final byte[] keyBytes = serde.serializer().serialize("t", GroupByKey.of("a", 1));
+    final byte[] stringBytes = serde.serializer().serialize("t", "a|+|1");
+
+    // Then:
+    assertThat(keyBytes, is("a|+|1".getBytes(StandardCharsets.UTF_8)));
+    assertThat(stringBytes, is(keyBytes));
+    assertThat(serde.deserializer().deserialize("t", keyBytes), is("a|+|1"));
+  }
+}
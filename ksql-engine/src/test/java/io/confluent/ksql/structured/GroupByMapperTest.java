@@ -104,6 +104,35 @@ public class GroupByMapperTest {
     assertThat(result, is("null|+|result1"));
   }
 
+  @Test
+  public void shouldNotAddSeparatorToSingleColumnGroupByKey() {
+    // Given:
+    mapper = new GroupByMapper<>(ImmutableList.of(groupBy0));
+    EasyMock.expect(groupBy0.evaluate(row)).andReturn(10L);
+    EasyMock.replay(groupBy0);
+
+    // When:
+    final String result = mapper.apply("key", row);
+
+    // Then:
+    assertThat(result, is("10"));
+  }
+
+  @Test
+  public void shouldGenerateBinaryGroupByKey() {
+    // Given:
+    EasyMock.expect(groupBy0.evaluate(row)).andReturn("result0");
+    EasyMock.expect(groupBy1.evaluate(row)).andReturn(10L);
+    EasyMock.replay(groupBy0, groupBy1);
+
+    // When:
+    final GroupByKey result = mapper.binaryKeyMapper().apply("key", row);
+
+    // Then:
+    assertThat(result, is(GroupByKey.of("result0", 10L)));
+    assertThat(result.toString(), is("result0|+|10"));
+  }
+
   @Test
   public void shouldGetKeyName() {
     // Given:
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.structured;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import io.confluent.ksql.GenericRow;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Aggregator;
+import org.apache.kafka.streams.kstream.Initializer;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.kstream.internals.TimeWindow;
+import org.apache.kafka.streams.processor.MockProcessorContext;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+public class PaneWindowTransformerTest {
+
+  private static final String STORE_NAME = "Panes";
+  private static final String KEY = "k";
+
+  private static final Initializer<GenericRow> COLLECT_INITIALIZER =
+      () -> new GenericRow(new ArrayList<>(Arrays.asList(null, new ArrayList<>())));
+
+  @SuppressWarnings("unchecked")
+  private static final Aggregator<String, GenericRow, GenericRow> COLLECT_MERGER =
+      (key, partialRow, aggRow) -> {
+        aggRow.getColumns().set(0, partialRow.getColumns().get(0));
+        ((List<Object>) aggRow.getColumns().get(1))
+            .addAll((List<Object>) partialRow.getColumns().get(1));
+        return aggRow;
+      };
+
+  @Rule
+  public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+  @Mock
+  private WindowStore<String, GenericRow> store;
+
+  private final NavigableMap<Long, GenericRow> panes = new TreeMap<>();
+  private final MockProcessorContext context = new MockProcessorContext();
+
+  @Before
+  public void setUp() {
+    when(store.name()).thenReturn(STORE_NAME);
+    when(store.fetch(eq(KEY), anyLong(), anyLong())).thenAnswer(inv -> iterator(
+        panes.subMap(inv.<Long>getArgument(1), true, inv.<Long>getArgument(2), true)));
+
+    context.register(store, null);
+  }
+
+  @Test
+  public void shouldComputeEachWindowContainingThePane() {
+    // Given:
+    final PaneWindowTransformer transformer = givenTransformer(30, 10, 10);
+    givenPane(0, 1);
+    givenPane(10, 2);
+    givenPane(20, 3);
+    givenPane(30, 4);
+
+    // When:
+    final Iterable<KeyValue<Windowed<String>, GenericRow>> results =
+        transformer.transform(pane(20), panes.get(20L));
+
+    // Then:
+    assertThat(results, contains(
+        result(0, 30, 1, 2, 3),
+        result(10, 40, 2, 3, 4),
+        result(20, 50, 3, 4)));
+  }
+
+  @Test
+  public void shouldNotComputeWindowsStartingBeforeZero() {
+    // Given:
+    final PaneWindowTransformer transformer = givenTransformer(30, 10, 10);
+    givenPane(0, 1);
+    givenPane(10, 2);
+
+    // When:
+    final Iterable<KeyValue<Windowed<String>, GenericRow>> results =
+        transformer.transform(pane(10), panes.get(10L));
+
+    // Then:
+    assertThat(results, contains(
+        result(0, 30, 1, 2),
+        result(10, 40, 2)));
+  }
+
+  @Test
+  public void shouldMergePanesNarrowerThanTheAdvance() {
+    // Given:
+    final PaneWindowTransformer transformer = givenTransformer(6, 4, 2);
+    givenPane(2, 1);
+    givenPane(4, 2);
+    givenPane(6, 3);
+    givenPane(8, 4);
+    givenPane(10, 5);
+
+    // When:
+    final Iterable<KeyValue<Windowed<String>, GenericRow>> results =
+        transformer.transform(pane(8), panes.get(8L));
+
+    // Then:
+    assertThat(results, contains(
+        result(4, 10, 2, 3, 4),
+        result(8, 14, 4, 5)));
+  }
+
+  @Test
+  public void shouldUseThePaneAggregateOverTheStoredPane() {
+    // Given:
+    final PaneWindowTransformer transformer = givenTransformer(20, 10, 10);
+    givenPane(0, 1);
+
+    // When:
+    final Iterable<KeyValue<Windowed<String>, GenericRow>> results =
+        transformer.transform(pane(10), paneRow(2));
+
+    // Then:
+    assertThat(results, contains(
+        result(0, 20, 1, 2),
+        result(10, 30, 2)));
+  }
+
+  @Test
+  public void shouldNotModifyTheStoredPanes() {
+    // Given:
+    final PaneWindowTransformer transformer = givenTransformer(30, 10, 10);
+    givenPane(0, 1);
+    givenPane(10, 2);
+    givenPane(20, 3);
+
+    // When:
+    transformer.transform(pane(10), panes.get(10L));
+
+    // Then:
+    assertThat(panes.get(0L), is(paneRow(1)));
+    assertThat(panes.get(10L), is(paneRow(2)));
+    assertThat(panes.get(20L), is(paneRow(3)));
+  }
+
+  @Test
+  public void shouldReturnNullForNullPane() {
+    // Given:
+    final PaneWindowTransformer transformer = givenTransformer(30, 10, 10);
+
+    // When:
+    final Iterable<KeyValue<Windowed<String>, GenericRow>> results =
+        transformer.transform(pane(10), null);
+
+    // Then:
+    assertThat(results, is(nullValue()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldThrowIfPaneSizeDoesNotDivideAdvance() {
+    new PaneWindowTransformer(STORE_NAME, 30, 10, 4, COLLECT_INITIALIZER, COLLECT_MERGER);
+  }
+
+  private PaneWindowTransformer givenTransformer(
+      final long size,
+      final long advance,
+      final long paneSize) {
+    final PaneWindowTransformer transformer = new PaneWindowTransformer(
+        STORE_NAME, size, advance, paneSize, COLLECT_INITIALIZER, COLLECT_MERGER);
+    transformer.init(context);
+    return transformer;
+  }
+
+  private void givenPane(final long start, final Integer... values) {
+    panes.put(start, paneRow(values));
+  }
+
+  private static Windowed<String> pane(final long start) {
+    return new Windowed<>(KEY, new TimeWindow(start, start + 1));
+  }
+
+  private static GenericRow paneRow(final Integer... values) {
+    final List<Object> collected = new ArrayList<>(Arrays.asList(values));
+    return new GenericRow(new ArrayList<>(Arrays.asList(KEY, collected)));
+  }
+
+  private static KeyValue<Windowed<String>, GenericRow> result(
+      final long start,
+      final long end,
+      final Integer... values) {
+    return KeyValue.pair(new Windowed<>(KEY, new TimeWindow(start, end)), paneRow(values));
+  }
+
+  private static WindowStoreIterator<GenericRow> iterator(final Map<Long, GenericRow> entries) {
+    final Iterator<Map.Entry<Long, GenericRow>> it = entries.entrySet().iterator();
+    return new WindowStoreIterator<GenericRow>() {
+      @Override
+      public void close() {
+      }
+
+      @Override
+      public Long peekNextKey() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean hasNext() {
+        return it.hasNext();
+      }
+
+      @Override
+      public KeyValue<Long, GenericRow> next() {
+        final Map.Entry<Long, GenericRow> next = it.next();
+        return KeyValue.pair(next.getKey(), next.getValue());
+      }
+    };
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.structured;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import io.confluent.ksql.GenericRow;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Aggregator;
+import org.apache.kafka.streams.kstream.Initializer;
+import org.apache.kafka.streams.processor.MockProcessorContext;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+public class PreAggregateTransformerTest {
+
+  private static final String STORE_NAME = "PreAggregate";
+
+  private static final Initializer<GenericRow> COUNT_INITIALIZER =
+      () -> new GenericRow(new ArrayList<>(Arrays.asList(null, 0L)));
+
+  private static final Aggregator<String, GenericRow, GenericRow> COUNT_AGGREGATOR =
+      (key, row, aggRow) -> {
+        aggRow.getColumns().set(0, key);
+        aggRow.getColumns().set(1, (Long) aggRow.getColumns().get(1) + 1);
+        return aggRow;
+      };
+
+  @Rule
+  public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+  @Mock
+  private GroupByMapper<Object> mapper;
+  @Mock
+  private KeyValueStore<String, GenericRow> store;
+
+  private final Map<String, GenericRow> storeContents = new LinkedHashMap<>();
+  private final MockProcessorContext context = new MockProcessorContext();
+
+  @Before
+  public void setUp() {
+    when(mapper.apply(any(), any()))
+        .thenAnswer(inv -> ((GenericRow) inv.getArgument(1)).getColumns().get(0));
+
+    when(store.name()).thenReturn(STORE_NAME);
+    when(store.get(any())).thenAnswer(inv -> storeContents.get(inv.<String>getArgument(0)));
+    doAnswer(inv -> storeContents.put(inv.getArgument(0), inv.getArgument(1)))
+        .when(store).put(any(), any());
+    doAnswer(inv -> storeContents.remove(inv.<String>getArgument(0)))
+        .when(store).delete(any());
+    when(store.all()).thenAnswer(inv -> iterator(new ArrayList<>(storeContents.entrySet())));
+
+    context.register(store, null);
+  }
+
+  @Test
+  public void shouldCombineRowsOfEachKeyUntilMaxEntries() {
+    // Given:
+    final PreAggregateTransformer<Object> transformer = givenTransformer(2);
+
+    // When:
+    transformer.transform("k", row("a"));
+    transformer.transform("k", row("a"));
+    final List<KeyValue<String, GenericRow>> forwardedBeforeMax = forwarded();
+    transformer.transform("k", row("b"));
+
+    // Then:
+    assertThat(forwardedBeforeMax, is(empty()));
+    assertThat(forwarded(), contains(
+        KeyValue.pair("a", partial("a", 2L)),
+        KeyValue.pair("b", partial("b", 1L))));
+    assertThat(storeContents.isEmpty(), is(true));
+  }
+
+  @Test
+  public void shouldReturnNullFromTransform() {
+    // Given:
+    final PreAggregateTransformer<Object> transformer = givenTransformer(10);
+
+    // When:
+    final KeyValue<String, GenericRow> result = transformer.transform("k", row("a"));
+
+    // Then:
+    assertThat(result, is(nullValue()));
+  }
+
+  @Test
+  public void shouldForwardPartialAggregatesOnPunctuation() {
+    // Given:
+    final PreAggregateTransformer<Object> transformer = givenTransformer(10);
+    transformer.transform("k", row("a"));
+
+    // When:
+    context.scheduledPunctuators().get(0).getPunctuator().punctuate(0L);
+
+    // Then:
+    assertThat(forwarded(), contains(KeyValue.pair("a", partial("a", 1L))));
+    assertThat(storeContents.isEmpty(), is(true));
+  }
+
+  @Test
+  public void shouldCountPartialAggregatesRestoredIntoStore() {
+    // Given:
+    storeContents.put("a", partial("a", 5L));
+    final PreAggregateTransformer<Object> transformer = givenTransformer(2);
+
+    // When:
+    transformer.transform("k", row("b"));
+
+    // Then:
+    assertThat(forwarded(), contains(
+        KeyValue.pair("a", partial("a", 5L)),
+        KeyValue.pair("b", partial("b", 1L))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldThrowIfMaxEntriesNotPositive() {
+    givenTransformer(0);
+  }
+
+  private PreAggregateTransformer<Object> givenTransformer(final int maxEntries) {
+    final PreAggregateTransformer<Object> transformer = new PreAggregateTransformer<>(
+        STORE_NAME,
+        mapper,
+        COUNT_INITIALIZER,
+        COUNT_AGGREGATOR,
+        maxEntries,
+        Duration.ofSeconds(1));
+    transformer.init(context);
+    return transformer;
+  }
+
+  private List<KeyValue<String, GenericRow>> forwarded() {
+    return context.forwarded().stream()
+        .map(MockProcessorContext.CapturedForward::keyValue)
+        .map(kv -> KeyValue.pair((String) kv.key, (GenericRow) kv.value))
+        .collect(Collectors.toList());
+  }
+
+  private static GenericRow row(final String groupByKey) {
+    return new GenericRow(new ArrayList<>(Arrays.asList(groupByKey, 1)));
+  }
+
+  private static GenericRow partial(final String groupByKey, final long count) {
+    return new GenericRow(new ArrayList<>(Arrays.asList(groupByKey, count)));
+  }
+
+  private static KeyValueIterator<String, GenericRow> iterator(
+      final List<Map.Entry<String, GenericRow>> entries
+  ) {
+    final Iterator<Map.Entry<String, GenericRow>> it = entries.iterator();
+    return new KeyValueIterator<String, GenericRow>() {
+      @Override
+      public void close() {
+      }
+
+      @Override
+      public String peekNextKey() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean hasNext() {
+        return it.hasNext();
+      }
+
+      @Override
+      public KeyValue<String, GenericRow> next() {
+        final Map.Entry<String, GenericRow> entry = it.next();
+        return KeyValue.pair(entry.getKey(), entry.getValue());
+      }
+    };
+  }
+}
@@ -31,23 +31,32 @@ import com.google.common.collect.ImmutableMap;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.function.FunctionRegistry;
 import io.confluent.ksql.function.KsqlAggregateFunction;
+import io.confluent.ksql.parser.tree.HoppingWindowExpression;
 import io.confluent.ksql.parser.tree.KsqlWindowExpression;
 import io.confluent.ksql.parser.tree.WindowExpression;
 import io.confluent.ksql.query.QueryId;
 import io.confluent.ksql.streams.MaterializedFactory;
 import io.confluent.ksql.streams.StreamsUtil;
 import io.confluent.ksql.util.KsqlConfig;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.streams.kstream.Grouped;
 import org.apache.kafka.streams.kstream.Initializer;
 import org.apache.kafka.streams.kstream.KGroupedStream;
+import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.KTable;
 import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Suppressed;
+import org.apache.kafka.streams.kstream.TimeWindowedKStream;
+import org.apache.kafka.streams.kstream.TimeWindows;
 import org.apache.kafka.streams.kstream.ValueMapper;
 import org.apache.kafka.streams.kstream.ValueMapperWithKey;
 import org.apache.kafka.streams.kstream.Windowed;
@@ -55,6 +64,7 @@ import org.apache.kafka.streams.kstream.WindowedSerdes;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
@@ -202,7 +212,7 @@ public class SchemaKGroupedStreamTest {
 
     // Given:
     if (windowExp != null) {
-      when(ksqlWindowExp.applyAggregate(any(), any(), any(), any()))
+      when(ksqlWindowExp.applyAggregate(any(), any(), any(), any(), any()))
           .thenReturn(table);
     } else {
       when(groupedStream.aggregate(any(), any(), any()))
@@ -225,7 +235,7 @@ public class SchemaKGroupedStreamTest {
   private void assertDoesInstallWindowSelectMapper(
       final Map<Integer, KsqlAggregateFunction> funcMap) {
     // Given:
-    when(ksqlWindowExp.applyAggregate(any(), any(), any(), any()))
+    when(ksqlWindowExp.applyAggregate(any(), any(), any(), any(), any()))
         .thenReturn(table);
 
     when(table.mapValues(any(ValueMapperWithKey.class)))
@@ -286,7 +296,7 @@ public class SchemaKGroupedStreamTest {
     // Given:
     final Materialized materialized = whenMaterializedFactoryCreates();
     when(ksqlWindowExp.getKeySerde(String.class)).thenReturn(windowedKeySerde);
-    when(ksqlWindowExp.applyAggregate(any(), any(), any(), same(materialized)))
+    when(ksqlWindowExp.applyAggregate(any(), any(), any(), same(materialized), any()))
         .thenReturn(table);
 
     // When:
@@ -304,6 +314,84 @@ public class SchemaKGroupedStreamTest {
             any(Serdes.String().getClass()),
             same(topicValueSerDe),
             eq(StreamsUtil.buildOpName(queryContext.getQueryContext())));
-    verify(ksqlWindowExp, times(1)).applyAggregate(any(), any(), any(), same(materialized));
+    verify(ksqlWindowExp, times(1)).applyAggregate(any(), any(), any(), same(materialized), any());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void shouldAggregateHoppingWindowsIntoPanesIfEnabled() {
+    // Given:
+    when(config.getBoolean(KsqlConfig.KSQL_HOPPING_WINDOW_PANES_CONFIG)).thenReturn(true);
+    when(windowExp.getKsqlWindowExpression()).thenReturn(
+        new HoppingWindowExpression(30, TimeUnit.SECONDS, 20, TimeUnit.SECONDS));
+
+    final TimeWindowedKStream paneStream = mock(TimeWindowedKStream.class);
+    final KTable paneTable = mock(KTable.class);
+    final KStream paneChanges = mock(KStream.class);
+    final KStream windowChanges = mock(KStream.class);
+    final KGroupedStream windowGroups = mock(KGroupedStream.class);
+    when(groupedStream.windowedBy(any(TimeWindows.class))).thenReturn(paneStream);
+    when(paneStream.aggregate(any(), any(), any(Materialized.class))).thenReturn(paneTable);
+    when(paneTable.toStream()).thenReturn(paneChanges);
+    when(paneChanges.flatTransform(any(), any())).thenReturn(windowChanges);
+    when(windowChanges.groupByKey(any(Grouped.class))).thenReturn(windowGroups);
+    when(windowGroups.reduce(any(), any(Materialized.class))).thenReturn(table);
+
+    // When:
+    final SchemaKTable result = schemaGroupedStream
+        .aggregate(initializer, emptyMap(), emptyMap(), windowExp, topicValueSerDe, queryContext);
+
+    // Then:
+    final ArgumentCaptor<TimeWindows> panes = ArgumentCaptor.forClass(TimeWindows.class);
+    verify(groupedStream).windowedBy(panes.capture());
+    assertThat(panes.getValue().size(), is(10000L));
+    assertThat(panes.getValue().advanceMs, is(10000L));
+    assertThat(result.getKtable(), is(sameInstance(table)));
+  }
+
+  @Test
+  public void shouldSuppressWindowResultsUntilWindowClosesIfEmitFinal() {
+    // Given:
+    when(windowExp.isEmitFinal()).thenReturn(true);
+    when(ksqlWindowExp.applyAggregate(any(), any(), any(), any(), any())).thenReturn(table);
+    when(table.suppress(any())).thenReturn(table2);
+
+    // When:
+    final SchemaKTable result = schemaGroupedStream
+        .aggregate(initializer, emptyMap(), emptyMap(), windowExp, topicValueSerDe, queryContext);
+
+    // Then:
+    verify(table).suppress(any(Suppressed.class));
+    assertThat(result.getKtable(), is(sameInstance(table2)));
+  }
+
+  @Test
+  public void shouldCloseWindowsAfterConfiguredGracePeriodIfEmitFinal() {
+    // Given:
+    when(windowExp.isEmitFinal()).thenReturn(true);
+    when(config.getLong(KsqlConfig.KSQL_EMIT_FINAL_GRACE_PERIOD_MS_CONFIG)).thenReturn(5000L);
+    when(ksqlWindowExp.applyAggregate(any(), any(), any(), any(), any())).thenReturn(table);
+    when(table.suppress(any())).thenReturn(table2);
+
+    // When:
+    schemaGroupedStream
+        .aggregate(initializer, emptyMap(), emptyMap(), windowExp, topicValueSerDe, queryContext);
+
+    // Then:
+    verify(ksqlWindowExp).applyAggregate(
+        any(), any(), any(), any(), eq(Optional.of(Duration.ofMillis(5000L))));
+  }
+
+  @Test
+  public void shouldUseDefaultGracePeriodIfNotEmitFinal() {
+    // Given:
+    when(ksqlWindowExp.applyAggregate(any(), any(), any(), any(), any())).thenReturn(table);
+
+    // When:
+    schemaGroupedStream
+        .aggregate(initializer, emptyMap(), emptyMap(), windowExp, topicValueSerDe, queryContext);
+
+    // Then:
+    verify(ksqlWindowExp).applyAggregate(any(), any(), any(), any(), eq(Optional.empty()));
   }
 }
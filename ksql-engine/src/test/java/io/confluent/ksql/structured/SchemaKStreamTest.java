@@ -14,10 +14,12 @@
 
 package io.confluent.ksql.structured;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -28,9 +30,11 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.function.InternalFunctionRegistry;
+import io.confluent.ksql.function.udaf.KudafAggregator;
 import io.confluent.ksql.metastore.KsqlStream;
 import io.confluent.ksql.metastore.KsqlTable;
 import io.confluent.ksql.metastore.KsqlTopic;
@@ -68,8 +72,10 @@ import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
 import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.kstream.Consumed;
 import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.Initializer;
 import org.apache.kafka.streams.kstream.JoinWindows;
 import org.apache.kafka.streams.kstream.Joined;
 import org.apache.kafka.streams.kstream.KGroupedStream;
@@ -77,10 +83,16 @@ import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.KTable;
 import org.apache.kafka.streams.kstream.KeyValueMapper;
 import org.apache.kafka.streams.kstream.Predicate;
+import org.apache.kafka.streams.kstream.TransformerSupplier;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -337,6 +349,35 @@ public class SchemaKStreamTest {
     Assert.assertSame(filteredSchemaKStream.getSourceSchemaKStreams().get(0), initialSchemaKStream);
   }
 
+  @Test
+  public void shouldFilterAndSelectInOneStep() {
+    // Given:
+    final String selectQuery = "SELECT col0, col2, col3 FROM test1 WHERE col0 > 100;";
+    final PlanNode logicalPlan = buildLogicalPlan(selectQuery);
+    final ProjectNode projectNode = (ProjectNode) logicalPlan.getSources().get(0);
+    final FilterNode filterNode = (FilterNode) projectNode.getSources().get(0);
+    initialSchemaKStream = buildSchemaKStream(logicalPlan.getTheSourceNode().getSchema());
+
+    // When:
+    final SchemaKStream projectedSchemaKStream = initialSchemaKStream.filterAndSelect(
+        filterNode.getPredicate(),
+        childContextStacker,
+        projectNode.getProjectSelectExpressions(),
+        childContextStacker,
+        processingLogContext);
+
+    // Then:
+    assertThat(projectedSchemaKStream.getSchema().fields().size(), equalTo(3));
+    assertThat(projectedSchemaKStream.getSchema().fields().get(0).name(), equalTo("COL0"));
+    assertThat(projectedSchemaKStream.getSchema().fields().get(1).name(), equalTo("COL2"));
+    assertThat(projectedSchemaKStream.getSchema().fields().get(2).name(), equalTo("COL3"));
+    assertThat(projectedSchemaKStream.getType(), equalTo(SchemaKStream.Type.FILTER_PROJECT));
+    assertThat(projectedSchemaKStream.getSourceSchemaKStreams().get(0),
+        sameInstance(initialSchemaKStream));
+    assertThat(projectedSchemaKStream.getExecutionPlan(""),
+        containsString("[ FILTER_PROJECT ]"));
+  }
+
   @Test
   public void testSelectKey() {
     final String selectQuery = "SELECT col0, col2, col3 FROM test1 WHERE col0 > 100;";
@@ -460,6 +501,57 @@ public class SchemaKStreamTest {
     verify(mockKStream).groupBy(any(KeyValueMapper.class), same(grouped));
   }
 
+  @Test
+  public void shouldFlushPreAggregatesAtCommitIntervalOfQuery() {
+    // Given:
+    final KsqlConfig queryConfig = ksqlConfig.cloneWithPropertyOverwrite(
+        ImmutableMap.of(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, 250L));
+    when(mockGroupedFactory.create(anyString(), any(StringSerde.class), any(Serde.class)))
+        .thenReturn(grouped);
+    when(mockKStream.filter(any(Predicate.class))).thenReturn(mockKStream);
+    when(mockKStream.transform(any(TransformerSupplier.class), anyString()))
+        .thenReturn(mockKStream);
+    when(mockKStream.groupByKey(any(Grouped.class))).thenReturn(mock(KGroupedStream.class));
+    final Expression col1Expression = new DereferenceExpression(
+        new QualifiedNameReference(QualifiedName.of(ksqlStream.getName())), "COL1");
+    final SchemaKStream initialSchemaKStream = new SchemaKStream(
+        SchemaUtil.buildSchemaWithAlias(ksqlStream.getSchema(), ksqlStream.getName()),
+        mockKStream,
+        ksqlStream.getKeyField(),
+        new ArrayList<>(),
+        Serdes.String(),
+        Type.SOURCE,
+        queryConfig,
+        functionRegistry,
+        new StreamsFactories(
+            mockGroupedFactory, mockJoinedFactory, mock(MaterializedFactory.class)),
+        parentContext);
+
+    // When:
+    initialSchemaKStream.groupByWithPreAggregation(
+        new StreamsBuilder(),
+        leftSerde,
+        Collections.singletonList(col1Expression),
+        mock(Initializer.class),
+        mock(KudafAggregator.class),
+        leftSerde,
+        childContextStacker);
+
+    // Then:
+    final ArgumentCaptor<TransformerSupplier> preAggregator =
+        ArgumentCaptor.forClass(TransformerSupplier.class);
+    verify(mockKStream).transform(preAggregator.capture(), anyString());
+
+    final KeyValueStore store = mock(KeyValueStore.class);
+    when(store.all()).thenReturn(mock(KeyValueIterator.class));
+    final ProcessorContext context = mock(ProcessorContext.class);
+    when(context.getStateStore(anyString())).thenReturn(store);
+    preAggregator.getValue().get().init(context);
+
+    verify(context).schedule(
+        eq(Duration.ofMillis(250L)), eq(PunctuationType.WALL_CLOCK_TIME), any());
+  }
+
   private void whenCreateJoined() {
     when(
         mockJoinedFactory.create(
@@ -16,7 +16,9 @@ package io.confluent.ksql.structured;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.verify;
 
@@ -91,6 +93,39 @@ public class SelectValueMapperTest {
     assertThat(row, is(genericRow(2L, "foo", "whatever", 7.0F)));
   }
 
+  @Test
+  public void shouldReturnRowItselfIfAllColumnsSelectedUnchanged() {
+    // Given:
+    final SelectValueMapper selectMapper = givenSelectMapperFor("SELECT * FROM test1;");
+    final GenericRow row = genericRow(
+        1521834663L, 1L, 2L, "foo", "whatever", 6.9, Collections.emptyList(),
+        Collections.emptyMap());
+
+    // When:
+    final GenericRow transformed = selectMapper.apply(row);
+
+    // Then:
+    assertThat(transformed, is(sameInstance(row)));
+  }
+
+  @Test
+  public void shouldCopyRowIfSelectingAllColumnsChangesTheirTypes() {
+    // Given:
+    final SelectValueMapper selectMapper = givenSelectMapperFor("SELECT * FROM test1;");
+    final GenericRow row = genericRow(
+        1521834663L, 1L, 2L, "foo", "whatever", 6.9F, Collections.emptyList(),
+        Collections.emptyMap());
+
+    // When:
+    final GenericRow transformed = selectMapper.apply(row);
+
+    // Then:
+    assertThat(transformed, is(not(sameInstance(row))));
+    assertThat(transformed, is(genericRow(
+        1521834663L, 1L, 2L, "foo", "whatever", (double) 6.9F, Collections.emptyList(),
+        Collections.emptyMap())));
+  }
+
   @Test
   public void shouldHandleNullRows() {
     // Given:
@@ -2,6 +2,7 @@ package io.confluent.ksql.util;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -12,18 +13,19 @@ import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
 import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.codegen.CompiledExpression;
 import io.confluent.ksql.function.udf.Kudf;
 import io.confluent.ksql.parser.tree.Expression;
-import java.lang.reflect.InvocationTargetException;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
 import org.apache.kafka.connect.data.Schema;
-import org.codehaus.commons.compiler.IExpressionEvaluator;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
@@ -32,7 +34,7 @@ public class ExpressionMetadataTest {
   private static final Long RETURN_VALUE = 12345L;
 
   @Mock
-  private IExpressionEvaluator expressionEvaluator;
+  private CompiledExpression expressionEvaluator;
   private List<Kudf> udfs;
   @Mock
   private Kudf udf;
@@ -50,8 +52,12 @@ public class ExpressionMetadataTest {
   @Rule
   public final MockitoRule mockitoRule = MockitoJUnit.rule();
 
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
   @Before
-  public void setup() throws InvocationTargetException {
+  public void setup() {
+    givenTypeEnforcerBindsPerField();
     when(typeEnforcer.enforceFieldType(anyInt(), any()))
         .thenReturn(parameter1)
         .thenReturn(parameter2);
@@ -60,7 +66,7 @@ public class ExpressionMetadataTest {
   }
 
   @Test
-  public void shouldEvaluateExpressionWithNoUdfsCorrectly() throws InvocationTargetException {
+  public void shouldEvaluateExpressionWithNoUdfsCorrectly() {
     // Given:
     expressionMetadata = new ExpressionMetadata(
         expressionEvaluator,
@@ -82,7 +88,7 @@ public class ExpressionMetadataTest {
   }
 
   @Test
-  public void shouldEvaluateExpressionWithUdfsCorrectly() throws InvocationTargetException {
+  public void shouldEvaluateExpressionWithUdfsCorrectly() {
     // Given:
     expressionMetadata = new ExpressionMetadata(
         expressionEvaluator,
@@ -102,9 +108,53 @@ public class ExpressionMetadataTest {
     verify(expressionEvaluator).evaluate(new Object[]{udf, parameter1});
   }
 
+  @Test
+  public void shouldWrapEvaluationErrorsInKsqlException() {
+    // Given:
+    final ArithmeticException cause = new ArithmeticException("/ by zero");
+    when(expressionEvaluator.evaluate(any())).thenThrow(cause);
+    expressionMetadata = new ExpressionMetadata(
+        expressionEvaluator,
+        ImmutableList.of(0),
+        Collections.emptyList(),
+        expressionType,
+        typeEnforcer,
+        expression
+    );
+
+    // Then:
+    expectedException.expect(KsqlException.class);
+    expectedException.expectMessage("/ by zero");
+    expectedException.expectCause(is(cause));
+
+    // When:
+    expressionMetadata.evaluate(new GenericRow(123));
+  }
+
+  @Test
+  public void shouldNotWrapKsqlExceptionsThrownByEvaluation() {
+    // Given:
+    final KsqlException cause = new KsqlException("udf failed");
+    when(expressionEvaluator.evaluate(any())).thenThrow(cause);
+    expressionMetadata = new ExpressionMetadata(
+        expressionEvaluator,
+        ImmutableList.of(0),
+        Collections.emptyList(),
+        expressionType,
+        typeEnforcer,
+        expression
+    );
+
+    // Then:
+    expectedException.expect(sameInstance(cause));
+
+    // When:
+    expressionMetadata.evaluate(new GenericRow(123));
+  }
+
   @Test
   public void shouldPerformThreadSafeParameterEvaluation()
-      throws InterruptedException, InvocationTargetException {
+      throws InterruptedException {
     // Given:
     final CountDownLatch threadLatch = new CountDownLatch(1);
     final CountDownLatch mainLatch = new CountDownLatch(1);
@@ -113,6 +163,7 @@ public class ExpressionMetadataTest {
     final Object thread2Param1 = 3;
     final Object thread2Param2 = 4;
     reset(typeEnforcer);
+    givenTypeEnforcerBindsPerField();
     when(typeEnforcer.enforceFieldType(0, 123))
         .thenReturn(thread1Param1);
     when(typeEnforcer.enforceFieldType(1, 456))
@@ -151,4 +202,34 @@ public class ExpressionMetadataTest {
     verify(expressionEvaluator, times(1))
         .evaluate(new Object[]{thread2Param1, thread2Param2});
   }
-}
\ No newline at end of file
+
+  @Test
+  public void shouldResolveTypeEnforcementOnceForEachColumn() {
+    // Given:
+    expressionMetadata = new ExpressionMetadata(
+        expressionEvaluator,
+        ImmutableList.of(1, -1, 0),
+        ImmutableList.of(udf, udf, udf),
+        expressionType,
+        typeEnforcer,
+        expression
+    );
+
+    // When:
+    expressionMetadata.evaluate(new GenericRow(123, 456));
+    expressionMetadata.evaluate(new GenericRow(123, 456));
+
+    // Then:
+    verify(typeEnforcer, times(1)).getFieldTypeEnforcer(0);
+    verify(typeEnforcer, times(1)).getFieldTypeEnforcer(1);
+    verify(typeEnforcer, times(2)).enforceFieldType(1, 456);
+    verify(typeEnforcer, times(2)).enforceFieldType(0, 123);
+  }
+
+  private void givenTypeEnforcerBindsPerField() {
+    when(typeEnforcer.getFieldTypeEnforcer(anyInt())).thenAnswer(invocation -> {
+      final int index = invocation.getArgument(0);
+      return (UnaryOperator<Object>) value -> typeEnforcer.enforceFieldType(index, value);
+    });
+  }
+}
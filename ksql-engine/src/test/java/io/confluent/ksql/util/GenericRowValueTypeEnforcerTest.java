@@ -18,6 +18,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
+import java.util.function.UnaryOperator;
 import org.apache.kafka.connect.data.SchemaBuilder;
 import org.junit.Test;
 
@@ -393,4 +394,27 @@ public class GenericRowValueTypeEnforcerTest {
 
     assertNull(genericRowValueTypeEnforcer.enforceFieldType(0, null));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void shouldResolveFieldTypeEnforcerForFieldAtIndex() {
+    final SchemaBuilder schemaBuilder = SchemaBuilder.struct()
+        .field("string", SchemaBuilder.string())
+        .field("double", SchemaBuilder.float64());
+    final GenericRowValueTypeEnforcer genericRowValueTypeEnforcer =
+        new GenericRowValueTypeEnforcer(schemaBuilder);
+
+    final UnaryOperator<Object> enforcer = genericRowValueTypeEnforcer.getFieldTypeEnforcer(1);
+
+    assertEquals(366.0, enforcer.apply(366L));
+    assertNull(enforcer.apply(null));
+  }
+
+  @Test(expected = KsqlException.class)
+  public void shouldThrowFromFieldTypeEnforcerOnIncompatibleValue() {
+    final SchemaBuilder schemaBuilder = SchemaBuilder.struct().field("int", SchemaBuilder.int32());
+    final GenericRowValueTypeEnforcer genericRowValueTypeEnforcer =
+        new GenericRowValueTypeEnforcer(schemaBuilder);
+
+    genericRowValueTypeEnforcer.getFieldTypeEnforcer(0).apply(schemaBuilder);
+  }
+}
@@ -41,6 +41,26 @@ public class QueryIdGeneratorTest {
     assertThat(generator.getNextId(), is("2"));
   }
 
+  @Test
+  public void shouldPeekNextWithoutUsingItUp() {
+    // Given:
+    generator.getNextId();
+
+    // Then:
+    assertThat(generator.peekNext(), is(1L));
+    assertThat(generator.getNextId(), is("1"));
+  }
+
+  @Test
+  public void shouldSetNext() {
+    // When:
+    generator.setNext(42);
+
+    // Then:
+    assertThat(generator.getNextId(), is("42"));
+    assertThat(generator.getNextId(), is("43"));
+  }
+
   @Test
   public void shouldCopy() {
     // When:
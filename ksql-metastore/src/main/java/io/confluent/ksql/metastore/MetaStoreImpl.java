@@ -21,12 +21,13 @@ import io.confluent.ksql.function.UdfFactory;
 import io.confluent.ksql.util.KsqlException;
 import io.confluent.ksql.util.KsqlReferentialIntegrityException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.concurrent.ThreadSafe;
@@ -35,43 +36,42 @@ import org.apache.kafka.connect.data.Schema;
 @ThreadSafe
 public final class MetaStoreImpl implements MutableMetaStore {
 
-  private final Map<String, KsqlTopic> topics = new ConcurrentHashMap<>();
-  private final Map<String, SourceInfo> dataSources = new ConcurrentHashMap<>();
-  private final Object referentialIntegrityLock = new Object();
+  // Writes replace the state rather than modify it, so copies can share it:
+  private volatile State state;
+  private final Object writeLock = new Object();
   private final FunctionRegistry functionRegistry;
 
   public MetaStoreImpl(final FunctionRegistry functionRegistry) {
-    this.functionRegistry = Objects.requireNonNull(functionRegistry, "functionRegistry");
+    this(State.EMPTY, functionRegistry);
   }
 
   private MetaStoreImpl(
-      final Map<String, KsqlTopic> topics,
-      final Map<String, SourceInfo> dataSources,
+      final State state,
       final FunctionRegistry functionRegistry
   ) {
-    this.topics.putAll(topics);
+    this.state = Objects.requireNonNull(state, "state");
     this.functionRegistry = Objects.requireNonNull(functionRegistry, "functionRegistry");
-
-    dataSources.forEach((name, info) -> this.dataSources.put(name, info.copy()));
   }
 
   @Override
   public KsqlTopic getTopic(final String topicName) {
-    return topics.get(topicName);
+    return state.topics.get(topicName);
   }
 
   @Override
   public void putTopic(final KsqlTopic topic) {
-    if (topics.putIfAbsent(topic.getName(), topic) != null) {
-      throw new KsqlException(
-          "Cannot add the new topic. Another topic with the same name already exists: "
-          + topic.getName());
-    }
+    updateTopics(topics -> {
+      if (topics.putIfAbsent(topic.getName(), topic) != null) {
+        throw new KsqlException(
+            "Cannot add the new topic. Another topic with the same name already exists: "
+            + topic.getName());
+      }
+    });
   }
 
   @Override
   public StructuredDataSource getSource(final String sourceName) {
-    final SourceInfo source = dataSources.get(sourceName);
+    final SourceInfo source = state.dataSources.get(sourceName);
     if (source == null) {
       return null;
     }
@@ -80,7 +80,7 @@ public final class MetaStoreImpl implements MutableMetaStore {
 
   @Override
   public Optional<StructuredDataSource> getSourceForTopic(final String ksqlTopicName) {
-    return dataSources.values()
+    return state.dataSources.values()
         .stream()
         .filter(p -> p.source.getKsqlTopic().getName() != null
             && p.source.getKsqlTopic().getName().equals(ksqlTopicName))
@@ -90,55 +90,58 @@ public final class MetaStoreImpl implements MutableMetaStore {
 
   @Override
   public void putSource(final StructuredDataSource dataSource) {
-    if (dataSources.putIfAbsent(dataSource.getName(), new SourceInfo(dataSource)) != null) {
-      throw new KsqlException(
-          "Cannot add the new data source. Another data source with the same name already exists: "
-              + dataSource.toString());
-    }
+    updateDataSources(dataSources -> {
+      if (dataSources.putIfAbsent(dataSource.getName(), new SourceInfo(dataSource)) != null) {
+        throw new KsqlException(
+            "Cannot add the new data source. Another data source with the same name already "
+                + "exists: " + dataSource.toString());
+      }
+    });
   }
 
   @Override
   public void deleteTopic(final String topicName) {
-    if (topics.remove(topicName) == null) {
-      throw new KsqlException(String.format("No topic with name %s was registered.", topicName));
-    }
+    updateTopics(topics -> {
+      if (topics.remove(topicName) == null) {
+        throw new KsqlException(String.format("No topic with name %s was registered.", topicName));
+      }
+    });
   }
 
   @Override
   public void deleteSource(final String sourceName) {
-    synchronized (referentialIntegrityLock) {
-      dataSources.compute(sourceName, (ignored, source) -> {
-        if (source == null) {
-          throw new KsqlException(String.format("No data source with name %s exists.", sourceName));
-        }
-
-        final String sourceForQueriesMessage = source.referentialIntegrity
-            .getSourceForQueries()
-            .stream()
-            .collect(Collectors.joining(", "));
-
-        final String sinkForQueriesMessage = source.referentialIntegrity
-            .getSinkForQueries()
-            .stream()
-            .collect(Collectors.joining(", "));
-
-        if (!sourceForQueriesMessage.isEmpty() || !sinkForQueriesMessage.isEmpty()) {
-          throw new KsqlReferentialIntegrityException(
-              String.format("Cannot drop %s.%n"
-                      + "The following queries read from this source: [%s].%n"
-                      + "The following queries write into this source: [%s].%n"
-                      + "You need to terminate them before dropping %s.",
-                  sourceName, sourceForQueriesMessage, sinkForQueriesMessage, sourceName));
-        }
-
-        return null;
-      });
-    }
+    updateDataSources(dataSources -> {
+      final SourceInfo source = dataSources.get(sourceName);
+      if (source == null) {
+        throw new KsqlException(String.format("No data source with name %s exists.", sourceName));
+      }
+
+      final String sourceForQueriesMessage = source.referentialIntegrity
+          .getSourceForQueries()
+          .stream()
+          .collect(Collectors.joining(", "));
+
+      final String sinkForQueriesMessage = source.referentialIntegrity
+          .getSinkForQueries()
+          .stream()
+          .collect(Collectors.joining(", "));
+
+      if (!sourceForQueriesMessage.isEmpty() || !sinkForQueriesMessage.isEmpty()) {
+        throw new KsqlReferentialIntegrityException(
+            String.format("Cannot drop %s.%n"
+                    + "The following queries read from this source: [%s].%n"
+                    + "The following queries write into this source: [%s].%n"
+                    + "You need to terminate them before dropping %s.",
+                sourceName, sourceForQueriesMessage, sinkForQueriesMessage, sourceName));
+      }
+
+      dataSources.remove(sourceName);
+    });
   }
 
   @Override
   public Map<String, StructuredDataSource> getAllStructuredDataSources() {
-    return dataSources
+    return state.dataSources
         .entrySet()
         .stream()
         .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().source));
@@ -146,7 +149,7 @@ public final class MetaStoreImpl implements MutableMetaStore {
 
   @Override
   public Map<String, KsqlTopic> getAllKsqlTopics() {
-    return Collections.unmodifiableMap(topics);
+    return state.topics;
   }
 
   @Override
@@ -155,13 +158,13 @@ public final class MetaStoreImpl implements MutableMetaStore {
       final Set<String> sourceNames,
       final Set<String> sinkNames
   ) {
-    synchronized (referentialIntegrityLock) {
-      final String sourceAlreadyRegistered = streamSources(sourceNames)
+    updateDataSources(dataSources -> {
+      final String sourceAlreadyRegistered = streamSources(dataSources, sourceNames)
           .filter(source -> source.referentialIntegrity.getSourceForQueries().contains(queryId))
           .map(source -> source.source.getName())
           .collect(Collectors.joining(","));
 
-      final String sinkAlreadyRegistered = streamSources(sinkNames)
+      final String sinkAlreadyRegistered = streamSources(dataSources, sinkNames)
           .filter(source -> source.referentialIntegrity.getSinkForQueries().contains(queryId))
           .map(source -> source.source.getName())
           .collect(Collectors.joining(","));
@@ -173,25 +176,22 @@ public final class MetaStoreImpl implements MutableMetaStore {
             + ", registeredAgainstSink: " + sinkAlreadyRegistered);
       }
 
-      streamSources(sourceNames)
-          .forEach(source -> source.referentialIntegrity.addSourceForQueries(queryId));
-      streamSources(sinkNames)
-          .forEach(source -> source.referentialIntegrity.addSinkForQueries(queryId));
-    }
+      sourceNames.forEach(sourceName -> dataSources.put(
+          sourceName, dataSources.get(sourceName).withSourceForQuery(queryId)));
+      sinkNames.forEach(sinkName -> dataSources.put(
+          sinkName, dataSources.get(sinkName).withSinkForQuery(queryId)));
+    });
   }
 
   @Override
   public void removePersistentQuery(final String queryId) {
-    synchronized (referentialIntegrityLock) {
-      for (final SourceInfo sourceInfo : dataSources.values()) {
-        sourceInfo.referentialIntegrity.removeQuery(queryId);
-      }
-    }
+    updateDataSources(dataSources -> dataSources.replaceAll((name, sourceInfo) ->
+        sourceInfo.isUsedByQuery(queryId) ? sourceInfo.withoutQuery(queryId) : sourceInfo));
   }
 
   @Override
   public Set<String> getQueriesWithSource(final String sourceName) {
-    final SourceInfo sourceInfo = dataSources.get(sourceName);
+    final SourceInfo sourceInfo = state.dataSources.get(sourceName);
     if (sourceInfo == null) {
       return Collections.emptySet();
     }
@@ -200,18 +200,20 @@ public final class MetaStoreImpl implements MutableMetaStore {
 
   @Override
   public Set<String> getQueriesWithSink(final String sourceName) {
-    final SourceInfo sourceInfo = dataSources.get(sourceName);
+    final SourceInfo sourceInfo = state.dataSources.get(sourceName);
     if (sourceInfo == null) {
       return Collections.emptySet();
     }
     return sourceInfo.referentialIntegrity.getSinkForQueries();
   }
 
+  /**
+   * Copies the metastore in constant time, as the copy shares the current state, which is never
+   * modified.
+   */
   @Override
   public MutableMetaStore copy() {
-    synchronized (referentialIntegrityLock) {
-      return new MetaStoreImpl(topics, dataSources, functionRegistry);
-    }
+    return new MetaStoreImpl(state, functionRegistry);
   }
 
   @Override
@@ -243,7 +245,26 @@ public final class MetaStoreImpl implements MutableMetaStore {
     return functionRegistry.listAggregateFunctions();
   }
 
-  private Stream<SourceInfo> streamSources(final Set<String> sourceNames) {
+  private void updateTopics(final Consumer<Map<String, KsqlTopic>> update) {
+    synchronized (writeLock) {
+      final Map<String, KsqlTopic> topics = new HashMap<>(state.topics);
+      update.accept(topics);
+      state = new State(Collections.unmodifiableMap(topics), state.dataSources);
+    }
+  }
+
+  private void updateDataSources(final Consumer<Map<String, SourceInfo>> update) {
+    synchronized (writeLock) {
+      final Map<String, SourceInfo> dataSources = new HashMap<>(state.dataSources);
+      update.accept(dataSources);
+      state = new State(state.topics, Collections.unmodifiableMap(dataSources));
+    }
+  }
+
+  private static Stream<SourceInfo> streamSources(
+      final Map<String, SourceInfo> dataSources,
+      final Set<String> sourceNames
+  ) {
     return sourceNames.stream()
         .map(sourceName -> {
           final SourceInfo sourceInfo = dataSources.get(sourceName);
@@ -255,6 +276,22 @@ public final class MetaStoreImpl implements MutableMetaStore {
         });
   }
 
+  private static final class State {
+
+    private static final State EMPTY = new State(Collections.emptyMap(), Collections.emptyMap());
+
+    private final Map<String, KsqlTopic> topics;
+    private final Map<String, SourceInfo> dataSources;
+
+    private State(
+        final Map<String, KsqlTopic> topics,
+        final Map<String, SourceInfo> dataSources
+    ) {
+      this.topics = topics;
+      this.dataSources = dataSources;
+    }
+  }
+
   private static final class SourceInfo {
 
     private final StructuredDataSource source;
@@ -263,8 +300,7 @@ public final class MetaStoreImpl implements MutableMetaStore {
     private SourceInfo(
         final StructuredDataSource source
     ) {
-      this.source = Objects.requireNonNull(source, "source");
-      this.referentialIntegrity = new ReferentialIntegrityTableEntry();
+      this(source, new ReferentialIntegrityTableEntry());
     }
 
     private SourceInfo(
@@ -272,11 +308,30 @@ public final class MetaStoreImpl implements MutableMetaStore {
         final ReferentialIntegrityTableEntry referentialIntegrity
     ) {
       this.source = Objects.requireNonNull(source, "source");
-      this.referentialIntegrity = referentialIntegrity.copy();
+      this.referentialIntegrity = referentialIntegrity;
+    }
+
+    private boolean isUsedByQuery(final String queryId) {
+      return referentialIntegrity.getSourceForQueries().contains(queryId)
+          || referentialIntegrity.getSinkForQueries().contains(queryId);
+    }
+
+    private SourceInfo withSourceForQuery(final String queryId) {
+      final ReferentialIntegrityTableEntry updated = referentialIntegrity.copy();
+      updated.addSourceForQueries(queryId);
+      return new SourceInfo(source, updated);
+    }
+
+    private SourceInfo withSinkForQuery(final String queryId) {
+      final ReferentialIntegrityTableEntry updated = referentialIntegrity.copy();
+      updated.addSinkForQueries(queryId);
+      return new SourceInfo(source, updated);
     }
 
-    public SourceInfo copy() {
-      return new SourceInfo(source, referentialIntegrity);
+    private SourceInfo withoutQuery(final String queryId) {
+      final ReferentialIntegrityTableEntry updated = referentialIntegrity.copy();
+      updated.removeQuery(queryId);
+      return new SourceInfo(source, updated);
     }
   }
 }
@@ -134,6 +134,26 @@ public class MetaStoreImplTest {
     assertThat(metaStore.getQueriesWithSink(dataSource.getName()), is(empty()));
   }
 
+  @Test
+  public void shouldNotAffectOriginalWhenCopyIsModified() {
+    // Given:
+    metaStore.putTopic(topic);
+    metaStore.putSource(dataSource);
+    final MutableMetaStore copy = metaStore.copy();
+
+    // When:
+    copy.updateForPersistentQuery(
+        "source query",
+        ImmutableSet.of(dataSource.getName()),
+        ImmutableSet.of());
+    copy.deleteTopic(topic.getName());
+
+    // Then:
+    assertThat(copy.getQueriesWithSource(dataSource.getName()), contains("source query"));
+    assertThat(metaStore.getQueriesWithSource(dataSource.getName()), is(empty()));
+    assertThat(metaStore.getTopic(topic.getName()), is(topic));
+  }
+
   @Test
   public void shouldNotAllowModificationViaGetAllStructuredDataSources() {
     // Given:
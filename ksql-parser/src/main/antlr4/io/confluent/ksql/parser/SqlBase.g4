@@ -123,6 +123,7 @@ querySpecification
       (WHERE where=booleanExpression)?
       (GROUP BY groupBy)?
       (HAVING having=booleanExpression)?
+      (EMIT FINAL)?
     ;
 
 windowExpression
@@ -337,6 +338,7 @@ nonReserved
     | EXPLAIN | ANALYZE | TYPE
     | SET | RESET
     | IF
+    | EMIT | FINAL
     ;
 
 SELECT: 'SELECT';
@@ -386,6 +388,8 @@ TUMBLING: 'TUMBLING';
 HOPPING: 'HOPPING';
 SIZE: 'SIZE';
 ADVANCE: 'ADVANCE';
+EMIT: 'EMIT';
+FINAL: 'FINAL';
 CASE: 'CASE';
 WHEN: 'WHEN';
 THEN: 'THEN';
@@ -390,13 +390,22 @@ public class AstBuilder extends SqlBaseBaseVisitor<Node> {
     );
     getResultDatasource(select, into);
 
+    Optional<WindowExpression> windowExpression =
+        visitIfPresent(context.windowExpression(), WindowExpression.class);
+    if (context.EMIT() != null) {
+      if (!windowExpression.isPresent()) {
+        throw new KsqlException("EMIT FINAL is only supported for windowed aggregations.");
+      }
+      windowExpression = windowExpression.map(WindowExpression::withEmitFinal);
+    }
+
     return new QuerySpecification(
         getLocation(context),
         select,
         into,
         true,
         from,
-        visitIfPresent(context.windowExpression(), WindowExpression.class),
+        windowExpression,
         visitIfPresent(context.where, Expression.class),
         visitIfPresent(context.groupBy(), GroupBy.class),
         visitIfPresent(context.having, Expression.class),
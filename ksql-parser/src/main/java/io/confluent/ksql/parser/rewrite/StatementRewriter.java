@@ -842,18 +842,11 @@ public class StatementRewriter extends DefaultAstVisitor<Node, Object> {
   }
 
   protected Node visitWindowExpression(final WindowExpression node, final Object context) {
-    // use an if/else block here (instead of isPresent.map(...).orElse(...)) so only one object
-    // gets instantiated (issue #1784)
-    if (node.getLocation().isPresent()) {
-      return new WindowExpression(
-          node.getLocation(),
-          node.getWindowName(),
-          (KsqlWindowExpression) process(node.getKsqlWindowExpression(), context));
-    } else {
-      return new WindowExpression(
-          node.getWindowName(),
-          (KsqlWindowExpression) process(node.getKsqlWindowExpression(), context));
-    }
+    return new WindowExpression(
+        node.getLocation(),
+        node.getWindowName(),
+        (KsqlWindowExpression) process(node.getKsqlWindowExpression(), context),
+        node.isEmitFinal());
   }
 
   protected Node visitTumblingWindowExpression(
@@ -111,11 +111,13 @@ public class HoppingWindowExpression extends KsqlWindowExpression {
       final KGroupedStream groupedStream,
       final Initializer initializer,
       final UdafAggregator aggregator,
-      final Materialized<String, GenericRow, ?> materialized
+      final Materialized<String, GenericRow, ?> materialized,
+      final Optional<Duration> gracePeriod
   ) {
-    final TimeWindows windows = TimeWindows
+    final TimeWindows hopping = TimeWindows
         .of(Duration.ofMillis(sizeUnit.toMillis(size)))
         .advanceBy(Duration.ofMillis(advanceByUnit.toMillis(advanceBy)));
+    final TimeWindows windows = gracePeriod.map(hopping::grace).orElse(hopping);
 
     return groupedStream
         .windowedBy(windows)
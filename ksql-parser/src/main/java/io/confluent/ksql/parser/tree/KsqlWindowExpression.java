@@ -16,6 +16,7 @@ package io.confluent.ksql.parser.tree;
 
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.function.UdafAggregator;
+import java.time.Duration;
 import java.util.Optional;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.streams.kstream.Initializer;
@@ -30,10 +31,15 @@ public abstract class KsqlWindowExpression extends Node {
     super(location);
   }
 
+  /**
+   * @param gracePeriod how long the windows accept out-of-order records after they end, or
+   *                    empty for the Kafka Streams default of one day less the window size.
+   */
   public abstract KTable applyAggregate(KGroupedStream groupedStream,
                                         Initializer initializer,
                                         UdafAggregator aggregator,
-                                        Materialized<String, GenericRow, ?> materialized);
+                                        Materialized<String, GenericRow, ?> materialized,
+                                        Optional<Duration> gracePeriod);
 
   public abstract <K> Serde<Windowed<K>> getKeySerde(Class<K> innerType);
 }
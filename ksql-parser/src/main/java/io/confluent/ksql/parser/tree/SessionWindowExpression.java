@@ -86,9 +86,11 @@ public class SessionWindowExpression extends KsqlWindowExpression {
   public KTable applyAggregate(final KGroupedStream groupedStream,
                                final Initializer initializer,
                                final UdafAggregator aggregator,
-                               final Materialized<String, GenericRow, ?> materialized) {
+                               final Materialized<String, GenericRow, ?> materialized,
+                               final Optional<Duration> gracePeriod) {
 
-    final SessionWindows windows = SessionWindows.with(Duration.ofMillis(sizeUnit.toMillis(gap)));
+    final SessionWindows session = SessionWindows.with(Duration.ofMillis(sizeUnit.toMillis(gap)));
+    final SessionWindows windows = gracePeriod.map(session::grace).orElse(session);
 
     return groupedStream
         .windowedBy(windows)
@@ -85,9 +85,11 @@ public class TumblingWindowExpression extends KsqlWindowExpression {
   public KTable applyAggregate(final KGroupedStream groupedStream,
                                final Initializer initializer,
                                final UdafAggregator aggregator,
-                               final Materialized<String, GenericRow, ?> materialized) {
+                               final Materialized<String, GenericRow, ?> materialized,
+                               final Optional<Duration> gracePeriod) {
 
-    final TimeWindows windows = TimeWindows.of(Duration.ofMillis(sizeUnit.toMillis(size)));
+    final TimeWindows sized = TimeWindows.of(Duration.ofMillis(sizeUnit.toMillis(size)));
+    final TimeWindows windows = gracePeriod.map(sized::grace).orElse(sized);
 
     return groupedStream
         .windowedBy(windows)
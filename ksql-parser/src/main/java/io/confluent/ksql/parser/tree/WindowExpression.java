@@ -22,6 +22,8 @@ public class WindowExpression extends Node {
 
   private final String windowName;
   private  final KsqlWindowExpression ksqlWindowExpression;
+  // Whether only the final result of each window is emitted, once the window closes:
+  private final boolean emitFinal;
 
   public WindowExpression(
       final String windowName, final KsqlWindowExpression ksqlWindowExpression) {
@@ -32,9 +34,18 @@ public class WindowExpression extends Node {
       final Optional<NodeLocation> location,
       final String windowName,
       final KsqlWindowExpression ksqlWindowExpression) {
+    this(location, windowName, ksqlWindowExpression, false);
+  }
+
+  public WindowExpression(
+      final Optional<NodeLocation> location,
+      final String windowName,
+      final KsqlWindowExpression ksqlWindowExpression,
+      final boolean emitFinal) {
     super(location);
     this.windowName = windowName;
     this.ksqlWindowExpression = ksqlWindowExpression;
+    this.emitFinal = emitFinal;
   }
 
   public KsqlWindowExpression getKsqlWindowExpression() {
@@ -45,6 +56,14 @@ public class WindowExpression extends Node {
     return windowName;
   }
 
+  public boolean isEmitFinal() {
+    return emitFinal;
+  }
+
+  public WindowExpression withEmitFinal() {
+    return new WindowExpression(getLocation(), windowName, ksqlWindowExpression, true);
+  }
+
   @Override
   public boolean equals(final Object obj) {
     if (this == obj) {
@@ -54,17 +73,19 @@ public class WindowExpression extends Node {
       return false;
     }
     final WindowExpression o = (WindowExpression) obj;
-    return Objects.equals(ksqlWindowExpression, o.ksqlWindowExpression);
+    return Objects.equals(ksqlWindowExpression, o.ksqlWindowExpression)
+        && emitFinal == o.emitFinal;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(windowName, ksqlWindowExpression);
+    return Objects.hash(windowName, ksqlWindowExpression, emitFinal);
   }
 
   @Override
   public String toString() {
-    return " WINDOW " + windowName + " " + ksqlWindowExpression.toString();
+    return " WINDOW " + windowName + " " + ksqlWindowExpression.toString()
+        + (emitFinal ? " EMIT FINAL " : "");
   }
 
   @Override
@@ -721,6 +721,55 @@ public class KsqlParserTest {
                                                                  + "( 30 SECONDS ) "));
   }
 
+  @Test
+  public void shouldParseEmitFinalOfWindowedAggregation() {
+    // Given:
+    final String queryStr =
+        "select itemid, sum(orderunits) from orders window TUMBLING ( size 30 second) "
+        + "group by itemid emit final;";
+
+    // When:
+    final Statement statement =
+        KsqlParserTestUtil.buildSingleAst(queryStr, metaStore).getStatement();
+
+    // Then:
+    final QuerySpecification querySpecification =
+        (QuerySpecification) ((Query) statement).getQueryBody();
+    assertThat(querySpecification.getWindowExpression().get().isEmitFinal(), is(true));
+  }
+
+  @Test
+  public void shouldNotEmitFinalByDefault() {
+    // Given:
+    final String queryStr =
+        "select itemid, sum(orderunits) from orders window TUMBLING ( size 30 second) "
+        + "group by itemid;";
+
+    // When:
+    final Statement statement =
+        KsqlParserTestUtil.buildSingleAst(queryStr, metaStore).getStatement();
+
+    // Then:
+    final QuerySpecification querySpecification =
+        (QuerySpecification) ((Query) statement).getQueryBody();
+    assertThat(querySpecification.getWindowExpression().get().isEmitFinal(), is(false));
+  }
+
+  @Test
+  public void shouldFailEmitFinalWithoutWindow() {
+    // Given:
+    final String queryStr =
+        "select itemid, sum(orderunits) from orders group by itemid emit final;";
+
+    // Then:
+    expectedException.expect(KsqlException.class);
+    expectedException.expectMessage(
+        "EMIT FINAL is only supported for windowed aggregations.");
+
+    // When:
+    KsqlParserTestUtil.buildSingleAst(queryStr, metaStore);
+  }
+
   @Test
   public void testShowTopics() {
     final String simpleQuery = "SHOW TOPICS;";
@@ -19,6 +19,7 @@ import static org.easymock.EasyMock.same;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.function.UdafAggregator;
 import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.streams.kstream.Initializer;
@@ -46,7 +47,7 @@ public class HoppingWindowExpressionTest {
     EasyMock.expect(windowedKStream.aggregate(same(initializer), same(aggregator), same(store))).andReturn(null);
     EasyMock.replay(stream, windowedKStream);
 
-    windowExpression.applyAggregate(stream, initializer, aggregator, store);
+    windowExpression.applyAggregate(stream, initializer, aggregator, store, Optional.empty());
     EasyMock.verify(stream, windowedKStream);
   }
 
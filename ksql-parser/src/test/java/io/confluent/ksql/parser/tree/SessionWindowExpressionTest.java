@@ -21,6 +21,8 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.function.UdafAggregator;
+import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.streams.kstream.Initializer;
@@ -55,7 +57,8 @@ public class SessionWindowExpressionTest {
         same(materialized))).andReturn(null);
     EasyMock.replay(groupedStreamMock, aggregator, sessionWindowed);
 
-    expression.applyAggregate(groupedStreamMock, initializer, aggregator, materialized);
+    expression.applyAggregate(
+        groupedStreamMock, initializer, aggregator, materialized, Optional.empty());
 
     assertThat(sessionWindows.getValue().inactivityGap(), equalTo(5000L));
     EasyMock.verify(groupedStreamMock);
@@ -72,10 +75,27 @@ public class SessionWindowExpressionTest {
     EasyMock.expect(aggregator.getMerger()).andReturn(merger);
     EasyMock.replay(groupedStreamMock, aggregator, sessionWindowed);
 
-    expression.applyAggregate(groupedStreamMock, initializer, aggregator, materialized);
+    expression.applyAggregate(
+        groupedStreamMock, initializer, aggregator, materialized, Optional.empty());
 
     EasyMock.verify(aggregator);
 
   }
 
-}
\ No newline at end of file
+  @SuppressWarnings("unchecked")
+  @Test
+  public void shouldCreateSessionWindowedStreamWithGracePeriod() {
+    EasyMock.expect(groupedStreamMock.windowedBy(EasyMock.capture(sessionWindows))).andReturn(sessionWindowed);
+    EasyMock.expect(sessionWindowed.aggregate(same(initializer),
+        same(aggregator),
+        anyObject(Merger.class),
+        same(materialized))).andReturn(null);
+    EasyMock.replay(groupedStreamMock, aggregator, sessionWindowed);
+
+    expression.applyAggregate(groupedStreamMock, initializer, aggregator, materialized,
+        Optional.of(Duration.ofMillis(1000L)));
+
+    assertThat(sessionWindows.getValue().gracePeriodMs(), equalTo(1000L));
+  }
+
+}
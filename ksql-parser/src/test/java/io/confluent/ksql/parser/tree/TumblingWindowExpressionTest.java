@@ -19,6 +19,7 @@ import static org.easymock.EasyMock.same;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.function.UdafAggregator;
 import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.streams.kstream.Initializer;
@@ -46,8 +47,27 @@ public class TumblingWindowExpressionTest {
     EasyMock.expect(windowedKStream.aggregate(same(initializer), same(aggregator), same(store))).andReturn(null);
     EasyMock.replay(stream, windowedKStream);
 
-    windowExpression.applyAggregate(stream, initializer, aggregator, store);
+    windowExpression.applyAggregate(stream, initializer, aggregator, store, Optional.empty());
     EasyMock.verify(stream, windowedKStream);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void shouldCreateTumblingWindowAggregateWithGracePeriod() {
+    final KGroupedStream stream = EasyMock.createNiceMock(KGroupedStream.class);
+    final TimeWindowedKStream windowedKStream = EasyMock.createNiceMock(TimeWindowedKStream.class);
+    final UdafAggregator aggregator = EasyMock.createNiceMock(UdafAggregator.class);
+    final TumblingWindowExpression windowExpression = new TumblingWindowExpression(10, TimeUnit.SECONDS);
+    final Initializer initializer = () -> 0;
+    final Materialized<String, GenericRow, WindowStore<Bytes, byte[]>> store = Materialized.as("store");
+
+    EasyMock.expect(stream.windowedBy(
+        TimeWindows.of(Duration.ofMillis(10000L)).grace(Duration.ofMillis(2000L))))
+        .andReturn(windowedKStream);
+    EasyMock.expect(windowedKStream.aggregate(same(initializer), same(aggregator), same(store))).andReturn(null);
+    EasyMock.replay(stream, windowedKStream);
+
+    windowExpression.applyAggregate(
+        stream, initializer, aggregator, store, Optional.of(Duration.ofMillis(2000L)));
+    EasyMock.verify(stream, windowedKStream);
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server;
+
+import io.confluent.ksql.rest.server.computation.CommandSnapshot;
+import io.confluent.ksql.rest.server.computation.CommandSnapshotStore;
+import io.confluent.ksql.rest.util.InternalTopicJsonSerdeUtil;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps snapshots of the command topic in a compacted topic.
+ *
+ * <p>A snapshot can be far larger than the largest record a topic accepts, so each is split into
+ * chunks, written as separate records under their own keys. The chunks of a snapshot carry its
+ * id, offset and number of chunks as headers, so a reader can tell which snapshots are complete.
+ * Once a snapshot has been written, the chunks of the snapshots before it are deleted with
+ * tombstones, so compaction leaves only the latest snapshots on the topic.
+ */
+public class CommandSnapshotTopic implements CommandSnapshotStore {
+
+  private static final Logger log = LoggerFactory.getLogger(CommandSnapshotTopic.class);
+
+  // Well below the default max.request.size and max.message.bytes of 1MB:
+  static final int CHUNK_BYTES = 512 * 1024;
+
+  static final String SNAPSHOT_ID_HEADER = "snapshotId";
+  static final String OFFSET_HEADER = "offset";
+  static final String CHUNK_HEADER = "chunk";
+  static final String NUM_CHUNKS_HEADER = "numChunks";
+
+  private static final Duration POLLING_TIMEOUT = Duration.ofMillis(5000);
+
+  private final String snapshotTopicName;
+  private final TopicPartition snapshotTopicPartition;
+  private final Consumer<String, byte[]> snapshotConsumer;
+  private final Producer<String, byte[]> snapshotProducer;
+  private final Serializer<CommandSnapshot> snapshotSerializer =
+      InternalTopicJsonSerdeUtil.getJsonSerializer(false);
+  private final Deserializer<CommandSnapshot> snapshotDeserializer =
+      InternalTopicJsonSerdeUtil.getJsonDeserializer(CommandSnapshot.class, false);
+  // The keys of the chunks on the topic that the next snapshot written replaces:
+  private final Set<String> replacedChunkKeys = new HashSet<>();
+
+  public CommandSnapshotTopic(
+      final String snapshotTopicName,
+      final Map<String, Object> kafkaConsumerProperties,
+      final Map<String, Object> kafkaProducerProperties
+  ) {
+    this(
+        snapshotTopicName,
+        new KafkaConsumer<>(
+            Objects.requireNonNull(kafkaConsumerProperties, "kafkaConsumerProperties"),
+            new StringDeserializer(),
+            new ByteArrayDeserializer()
+        ),
+        new KafkaProducer<>(
+            Objects.requireNonNull(kafkaProducerProperties, "kafkaProducerProperties"),
+            new StringSerializer(),
+            new ByteArraySerializer()
+        ));
+  }
+
+  CommandSnapshotTopic(
+      final String snapshotTopicName,
+      final Consumer<String, byte[]> snapshotConsumer,
+      final Producer<String, byte[]> snapshotProducer
+  ) {
+    this.snapshotTopicName = Objects.requireNonNull(snapshotTopicName, "snapshotTopicName");
+    this.snapshotTopicPartition = new TopicPartition(snapshotTopicName, 0);
+    this.snapshotConsumer = Objects.requireNonNull(snapshotConsumer, "snapshotConsumer");
+    this.snapshotProducer = Objects.requireNonNull(snapshotProducer, "snapshotProducer");
+    snapshotConsumer.assign(Collections.singleton(snapshotTopicPartition));
+  }
+
+  @Override
+  public Optional<CommandSnapshot> getLatestSnapshot() {
+    snapshotConsumer.seekToBeginning(Collections.singletonList(snapshotTopicPartition));
+
+    final Map<String, ConsumerRecord<String, byte[]>> chunks = new HashMap<>();
+    ConsumerRecords<String, byte[]> records = snapshotConsumer.poll(POLLING_TIMEOUT);
+    while (!records.isEmpty()) {
+      for (final ConsumerRecord<String, byte[]> record : records) {
+        if (record.value() == null) {
+          chunks.remove(record.key());
+        } else {
+          chunks.put(record.key(), record);
+        }
+      }
+      records = snapshotConsumer.poll(POLLING_TIMEOUT);
+    }
+    replacedChunkKeys.addAll(chunks.keySet());
+
+    final Map<String, List<ConsumerRecord<String, byte[]>>> chunksBySnapshot = new HashMap<>();
+    for (final ConsumerRecord<String, byte[]> chunk : chunks.values()) {
+      chunksBySnapshot
+          .computeIfAbsent(stringHeader(chunk, SNAPSHOT_ID_HEADER), id -> new ArrayList<>())
+          .add(chunk);
+    }
+
+    // Each server writes snapshots, so the last one written may not be the most recent:
+    List<ConsumerRecord<String, byte[]>> latest = null;
+    for (final List<ConsumerRecord<String, byte[]>> snapshotChunks : chunksBySnapshot.values()) {
+      if (snapshotChunks.size() == intHeader(snapshotChunks.get(0), NUM_CHUNKS_HEADER)
+          && (latest == null || longHeader(snapshotChunks.get(0), OFFSET_HEADER)
+              > longHeader(latest.get(0), OFFSET_HEADER))) {
+        latest = snapshotChunks;
+      }
+    }
+
+    if (latest == null) {
+      return Optional.empty();
+    }
+
+    latest.sort((a, b) -> Integer.compare(intHeader(a, CHUNK_HEADER), intHeader(b, CHUNK_HEADER)));
+    final ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    for (final ConsumerRecord<String, byte[]> chunk : latest) {
+      serialized.write(chunk.value(), 0, chunk.value().length);
+    }
+    final CommandSnapshot snapshot =
+        snapshotDeserializer.deserialize(snapshotTopicName, serialized.toByteArray());
+    log.info("Found snapshot of the command topic up to offset {}", snapshot.getOffset());
+    return Optional.of(snapshot);
+  }
+
+  @Override
+  public void writeSnapshot(final CommandSnapshot snapshot) {
+    final byte[] serialized = snapshotSerializer.serialize(
+        snapshotTopicName, Objects.requireNonNull(snapshot, "snapshot"));
+    final String snapshotId = UUID.randomUUID().toString();
+    final int numChunks = Math.max(1, (serialized.length + CHUNK_BYTES - 1) / CHUNK_BYTES);
+
+    final List<String> chunkKeys = new ArrayList<>();
+    final List<Future<RecordMetadata>> sent = new ArrayList<>();
+    for (int chunk = 0; chunk < numChunks; chunk++) {
+      final String key = snapshotId + "-" + chunk;
+      final int from = chunk * CHUNK_BYTES;
+      final int to = Math.min(serialized.length, from + CHUNK_BYTES);
+      chunkKeys.add(key);
+      sent.add(snapshotProducer.send(new ProducerRecord<>(
+          snapshotTopicName,
+          0,
+          key,
+          Arrays.copyOfRange(serialized, from, to),
+          Arrays.asList(
+              header(SNAPSHOT_ID_HEADER, snapshotId.getBytes(StandardCharsets.UTF_8)),
+              header(OFFSET_HEADER, ByteBuffer.allocate(Long.BYTES)
+                  .putLong(snapshot.getOffset()).array()),
+              header(CHUNK_HEADER, ByteBuffer.allocate(Integer.BYTES).putInt(chunk).array()),
+              header(NUM_CHUNKS_HEADER, ByteBuffer.allocate(Integer.BYTES)
+                  .putInt(numChunks).array())))));
+    }
+
+    try {
+      // Any chunks that were written are deleted along with the next snapshot written:
+      waitFor(sent);
+    } finally {
+      replacedChunkKeys.addAll(chunkKeys);
+    }
+    replacedChunkKeys.removeAll(chunkKeys);
+
+    final List<String> toDelete = new ArrayList<>(replacedChunkKeys);
+    final List<Future<RecordMetadata>> deleted = new ArrayList<>();
+    for (final String key : toDelete) {
+      deleted.add(snapshotProducer.send(new ProducerRecord<>(snapshotTopicName, 0, key, null)));
+    }
+    waitFor(deleted);
+    replacedChunkKeys.removeAll(toDelete);
+  }
+
+  @Override
+  public void close() {
+    snapshotConsumer.close();
+    snapshotProducer.close();
+  }
+
+  private static void waitFor(final List<Future<RecordMetadata>> sent) {
+    try {
+      for (final Future<RecordMetadata> future : sent) {
+        future.get();
+      }
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static Header header(final String key, final byte[] value) {
+    return new RecordHeader(key, value);
+  }
+
+  private static String stringHeader(final ConsumerRecord<?, ?> record, final String key) {
+    return new String(headerValue(record, key), StandardCharsets.UTF_8);
+  }
+
+  private static int intHeader(final ConsumerRecord<?, ?> record, final String key) {
+    return ByteBuffer.wrap(headerValue(record, key)).getInt();
+  }
+
+  private static long longHeader(final ConsumerRecord<?, ?> record, final String key) {
+    return ByteBuffer.wrap(headerValue(record, key)).getLong();
+  }
+
+  private static byte[] headerValue(final ConsumerRecord<?, ?> record, final String key) {
+    final Header header = record.headers().lastHeader(key);
+    if (header == null) {
+      throw new IllegalStateException("Snapshot chunk " + record.key() + " has no " + key);
+    }
+    return header.value();
+  }
+}
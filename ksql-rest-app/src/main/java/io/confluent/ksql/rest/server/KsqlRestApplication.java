@@ -43,6 +43,7 @@ import io.confluent.ksql.rest.entity.ServerInfo;
 import io.confluent.ksql.rest.server.computation.CommandIdAssigner;
 import io.confluent.ksql.rest.server.computation.CommandQueue;
 import io.confluent.ksql.rest.server.computation.CommandRunner;
+import io.confluent.ksql.rest.server.computation.CommandSnapshotStore;
 import io.confluent.ksql.rest.server.computation.CommandStore;
 import io.confluent.ksql.rest.server.computation.StatementExecutor;
 import io.confluent.ksql.rest.server.resources.KsqlExceptionMapper;
@@ -185,6 +186,8 @@ public final class KsqlRestApplication extends Application<KsqlRestConfig> imple
 
   @Override
   public void stop() {
+    ksqlResource.close();
+
     try {
       ksqlEngine.close();
     } catch (final Exception e) {
@@ -414,12 +417,29 @@ public final class KsqlRestApplication extends Application<KsqlRestConfig> imple
     final List<String> managedTopics = new LinkedList<>();
     managedTopics.add(commandTopic);
     processingLogTopic.ifPresent(managedTopics::add);
+    final int snapshotInterval =
+        restConfig.getInt(KsqlRestConfig.COMMAND_SNAPSHOT_INTERVAL_CONFIG);
+    Optional<CommandSnapshotStore> snapshotStore = Optional.empty();
+    if (snapshotInterval > 0) {
+      final String snapshotTopic = KsqlInternalTopicUtils.getTopicName(
+          ksqlConfig, KsqlRestConfig.COMMAND_SNAPSHOT_TOPIC_SUFFIX);
+      KsqlInternalTopicUtils.ensureCompactedTopic(
+          snapshotTopic, ksqlConfig, serviceContext.getTopicClient());
+      managedTopics.add(snapshotTopic);
+      snapshotStore = Optional.of(new CommandSnapshotTopic(
+          snapshotTopic,
+          restConfig.getCommandConsumerProperties(),
+          restConfig.getCommandProducerProperties()));
+    }
+
     final CommandRunner commandRunner = new CommandRunner(
         statementExecutor,
         commandStore,
         ksqlEngine,
         maxStatementRetries,
-        new ClusterTerminator(ksqlConfig, ksqlEngine, serviceContext, managedTopics)
+        new ClusterTerminator(ksqlConfig, ksqlEngine, serviceContext, managedTopics),
+        snapshotStore,
+        snapshotInterval
     );
 
     commandRunner.processPriorCommands();
@@ -52,6 +52,16 @@ public class KsqlRestConfig extends RestConfig {
 
   static final String COMMAND_TOPIC_SUFFIX = "command_topic";
 
+  static final String COMMAND_SNAPSHOT_TOPIC_SUFFIX = "command_snapshot_topic";
+
+  static final String COMMAND_SNAPSHOT_INTERVAL_CONFIG =
+      KSQL_CONFIG_PREFIX + "server.command.snapshot.interval";
+  private static final String COMMAND_SNAPSHOT_INTERVAL_DOC =
+      "The number of commands to execute between snapshots of the command topic. On restart, "
+          + "the server restores the latest snapshot and only executes the commands after it, "
+          + "rather than every command on the command topic. Snapshots are written to a "
+          + "compacted internal topic. Set to 0 to disable snapshots";
+
   static final String KSQL_WEBSOCKETS_NUM_THREADS =
       KSQL_CONFIG_PREFIX + "server.websockets.num.threads";
   private static final String KSQL_WEBSOCKETS_NUM_THREADS_DOC =
@@ -84,6 +94,13 @@ public class KsqlRestConfig extends RestConfig {
         5,
         Importance.LOW,
         KSQL_WEBSOCKETS_NUM_THREADS_DOC
+    ).define(
+        COMMAND_SNAPSHOT_INTERVAL_CONFIG,
+        Type.INT,
+        0,
+        ConfigDef.Range.atLeast(0),
+        Importance.LOW,
+        COMMAND_SNAPSHOT_INTERVAL_DOC
     );
   }
 
@@ -38,6 +38,13 @@ public class StatementParser {
       );
     }
 
-    return (PreparedStatement<T>) ksqlEngine.prepare(statements.get(0));
+    return prepare(statements.get(0));
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T extends Statement> PreparedStatement<T> prepare(
+      final ParsedStatement statement
+  ) {
+    return (PreparedStatement<T>) ksqlEngine.prepare(statement);
   }
 }
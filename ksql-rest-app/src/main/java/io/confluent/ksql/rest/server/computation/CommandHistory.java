@@ -0,0 +1,291 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.computation;
+
+import io.confluent.ksql.KsqlEngine;
+import io.confluent.ksql.query.QueryId;
+import io.confluent.ksql.rest.entity.CommandStatus;
+import io.confluent.ksql.rest.server.computation.CommandId.Action;
+import io.confluent.ksql.rest.server.computation.CommandId.Type;
+import io.confluent.ksql.util.PersistentQueryMetadata;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Records the commands the server has executed, and what they did, so that snapshots of the
+ * commands needed to rebuild the state of the server can be taken.
+ *
+ * <p>A command is left out of a snapshot if it has no effect on the current state:
+ * <ul>
+ *   <li>an {@code INSERT INTO} whose query has been terminated,</li>
+ *   <li>a {@code CREATE STREAM} or {@code CREATE TABLE}, with or without {@code AS SELECT},
+ *   whose source has been dropped and whose query, if any, has been terminated, together with the
+ *   drop, as long as no command left in between may have used the source,</li>
+ *   <li>the {@code TERMINATE} of a query whose command is left out.</li>
+ * </ul>
+ * All other commands, including those that failed, are kept. As each command is stored with the
+ * query id number it was first executed with, leaving commands out does not change the ids of
+ * the queries restored after them.
+ */
+final class CommandHistory {
+
+  private static final String INSERT_QUERY_PREFIX = "InsertQuery_";
+
+  private enum Kind {
+    CREATE_SOURCE,
+    CREATE_SOURCE_QUERY,
+    INSERT_QUERY,
+    DROP_SOURCE,
+    TERMINATE,
+    OTHER
+  }
+
+  private final KsqlEngine ksqlEngine;
+  private final StatementExecutor statementExecutor;
+  private final List<ExecutedCommand> executedCommands = new ArrayList<>();
+  private int numExecutedSinceSnapshot;
+
+  CommandHistory(final KsqlEngine ksqlEngine, final StatementExecutor statementExecutor) {
+    this.ksqlEngine = Objects.requireNonNull(ksqlEngine, "ksqlEngine");
+    this.statementExecutor = Objects.requireNonNull(statementExecutor, "statementExecutor");
+  }
+
+  /**
+   * Execute a command, recording what it does.
+   *
+   * @param queuedCommand the command.
+   * @param execution executes the command.
+   */
+  void execute(final QueuedCommand queuedCommand, final Runnable execution) {
+    final long queryIdNumber = ksqlEngine.getQueryIdGenerator().peekNext();
+    final Set<QueryId> queriesBefore = ksqlEngine.getPersistentQueries().stream()
+        .map(PersistentQueryMetadata::getQueryId)
+        .collect(Collectors.toSet());
+
+    execution.run();
+
+    final List<PersistentQueryMetadata> newQueries = ksqlEngine.getPersistentQueries().stream()
+        .filter(query -> !queriesBefore.contains(query.getQueryId()))
+        .collect(Collectors.toList());
+
+    final boolean succeeded = statementExecutor.getStatus(queuedCommand.getCommandId())
+        .map(status -> status.getStatus() == CommandStatus.Status.SUCCESS)
+        .orElse(false);
+
+    executedCommands.add(new ExecutedCommand(
+        queuedCommand.getCommandId(),
+        queuedCommand.getCommand(),
+        queryIdNumber,
+        kind(queuedCommand.getCommandId(), succeeded, newQueries),
+        newQueries.stream()
+            .map(query -> query.getQueryId().getId())
+            .collect(Collectors.toSet()),
+        newQueries.stream()
+            .flatMap(query -> query.getSourceNames().stream())
+            .collect(Collectors.toSet())));
+    numExecutedSinceSnapshot++;
+  }
+
+  /**
+   * @return the number of commands executed since the last snapshot.
+   */
+  int getNumExecutedSinceSnapshot() {
+    return numExecutedSinceSnapshot;
+  }
+
+  /**
+   * Take a snapshot of the commands needed to rebuild the current state, and forget the others.
+   *
+   * @param offset the offset of the first command on the command topic not yet executed.
+   * @return the snapshot.
+   */
+  CommandSnapshot snapshot(final long offset) {
+    final boolean[] leftOut = findLeftOut();
+
+    final List<ExecutedCommand> kept = new ArrayList<>();
+    for (int i = 0; i < executedCommands.size(); i++) {
+      if (!leftOut[i]) {
+        kept.add(executedCommands.get(i));
+      }
+    }
+    executedCommands.clear();
+    executedCommands.addAll(kept);
+    numExecutedSinceSnapshot = 0;
+
+    return new CommandSnapshot(
+        offset,
+        ksqlEngine.getQueryIdGenerator().peekNext(),
+        kept.stream()
+            .map(command -> new CommandSnapshot.Entry(
+                command.commandId, command.command, command.queryIdNumber))
+            .collect(Collectors.toList()));
+  }
+
+  private boolean[] findLeftOut() {
+    final boolean[] leftOut = new boolean[executedCommands.size()];
+
+    // Leaving a command out can only unblock others, so repeat until nothing changes:
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int i = 0; i < executedCommands.size(); i++) {
+        if (!leftOut[i] && isLeftOut(i, leftOut)) {
+          changed = true;
+        }
+      }
+    }
+    return leftOut;
+  }
+
+  private boolean isLeftOut(final int index, final boolean[] leftOut) {
+    final ExecutedCommand command = executedCommands.get(index);
+    if (command.kind != Kind.INSERT_QUERY
+        && command.kind != Kind.CREATE_SOURCE
+        && command.kind != Kind.CREATE_SOURCE_QUERY) {
+      return false;
+    }
+
+    if (command.queryIds.stream().anyMatch(this::isRunning)) {
+      return false;
+    }
+
+    if (command.kind == Kind.INSERT_QUERY) {
+      leftOut[index] = true;
+      leaveOutTerminates(command, leftOut);
+      return true;
+    }
+
+    final String sourceName = command.commandId.getEntity();
+    for (int i = index + 1; i < executedCommands.size(); i++) {
+      if (leftOut[i]) {
+        continue;
+      }
+
+      final ExecutedCommand later = executedCommands.get(i);
+      if (later.kind == Kind.DROP_SOURCE && later.commandId.getEntity().equals(sourceName)) {
+        if (later.commandId.getType() != command.commandId.getType()) {
+          return false;
+        }
+        leftOut[index] = true;
+        leftOut[i] = true;
+        leaveOutTerminates(command, leftOut);
+        return true;
+      }
+
+      if (mayUseSource(later, sourceName)) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  private static boolean mayUseSource(final ExecutedCommand command, final String sourceName) {
+    switch (command.kind) {
+      case CREATE_SOURCE_QUERY:
+      case INSERT_QUERY:
+        return command.commandId.getEntity().equals(sourceName)
+            || command.sourceNames.contains(sourceName);
+      case CREATE_SOURCE:
+      case DROP_SOURCE:
+        return command.commandId.getEntity().equals(sourceName);
+      case TERMINATE:
+        return false;
+      default:
+        return true;
+    }
+  }
+
+  private void leaveOutTerminates(final ExecutedCommand command, final boolean[] leftOut) {
+    for (int i = 0; i < executedCommands.size(); i++) {
+      final ExecutedCommand other = executedCommands.get(i);
+      if (other.kind == Kind.TERMINATE && command.queryIds.contains(other.commandId.getEntity())) {
+        leftOut[i] = true;
+      }
+    }
+  }
+
+  private boolean isRunning(final String queryId) {
+    return ksqlEngine.getPersistentQuery(new QueryId(queryId)).isPresent();
+  }
+
+  private static Kind kind(
+      final CommandId commandId,
+      final boolean succeeded,
+      final List<PersistentQueryMetadata> newQueries
+  ) {
+    if (!succeeded) {
+      return Kind.OTHER;
+    }
+
+    if (commandId.getType() == Type.TERMINATE) {
+      return Kind.TERMINATE;
+    }
+
+    if (commandId.getType() != Type.STREAM && commandId.getType() != Type.TABLE) {
+      return Kind.OTHER;
+    }
+
+    if (commandId.getAction() == Action.DROP) {
+      return Kind.DROP_SOURCE;
+    }
+
+    if (commandId.getAction() != Action.CREATE) {
+      return Kind.OTHER;
+    }
+
+    if (newQueries.isEmpty()) {
+      return Kind.CREATE_SOURCE;
+    }
+
+    if (newQueries.size() != 1) {
+      return Kind.OTHER;
+    }
+
+    return newQueries.get(0).getQueryId().getId().startsWith(INSERT_QUERY_PREFIX)
+        ? Kind.INSERT_QUERY
+        : Kind.CREATE_SOURCE_QUERY;
+  }
+
+  private static final class ExecutedCommand {
+
+    private final CommandId commandId;
+    private final Command command;
+    private final long queryIdNumber;
+    private final Kind kind;
+    private final Set<String> queryIds;
+    private final Set<String> sourceNames;
+
+    private ExecutedCommand(
+        final CommandId commandId,
+        final Command command,
+        final long queryIdNumber,
+        final Kind kind,
+        final Set<String> queryIds,
+        final Set<String> sourceNames
+    ) {
+      this.commandId = commandId;
+      this.command = command;
+      this.queryIdNumber = queryIdNumber;
+      this.kind = kind;
+      this.queryIds = Collections.unmodifiableSet(new HashSet<>(queryIds));
+      this.sourceNames = Collections.unmodifiableSet(new HashSet<>(sourceNames));
+    }
+  }
+}
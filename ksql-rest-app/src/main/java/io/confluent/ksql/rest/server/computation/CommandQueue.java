@@ -33,9 +33,29 @@ public interface CommandQueue extends Closeable {
 
   List<QueuedCommand> getRestoreCommands();
 
+  /**
+   * @param offset the offset of the first command to restore, e.g. the first command after a
+   *               snapshot of the command topic.
+   * @return the commands to restore.
+   */
+  List<QueuedCommand> getRestoreCommands(long offset);
+
+  /**
+   * @return the offset of the next command to be read.
+   */
+  long getNextOffset();
+
   void ensureConsumedPast(long seqNum, Duration timeout)
       throws InterruptedException, TimeoutException;
 
+  /**
+   * Mark the commands up to and including the given sequence number as executed, so that calls
+   * to {@link #ensureConsumedPast} waiting on them return without waiting for the next poll.
+   *
+   * @param seqNum the sequence number of the last command executed.
+   */
+  void markConsumedPast(long seqNum);
+
   boolean isEmpty();
 
   @Override
@@ -15,16 +15,24 @@
 package io.confluent.ksql.rest.server.computation;
 
 import io.confluent.ksql.KsqlEngine;
+import io.confluent.ksql.parser.KsqlParser.ParsedStatement;
 import io.confluent.ksql.rest.entity.ClusterTerminateRequest;
 import io.confluent.ksql.rest.util.ClusterTerminator;
 import io.confluent.ksql.rest.util.TerminateCluster;
-import io.confluent.ksql.util.PersistentQueryMetadata;
+import io.confluent.ksql.util.KsqlException;
 import io.confluent.ksql.util.RetryUtil;
 import java.io.Closeable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import org.apache.kafka.common.errors.WakeupException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +49,7 @@ public class CommandRunner implements Runnable, Closeable {
 
   private static final int STATEMENT_RETRY_MS = 100;
   private static final int MAX_STATEMENT_RETRY_MS = 5 * 1000;
+  private static final int RESTORE_THREADS = Runtime.getRuntime().availableProcessors();
 
   private final StatementExecutor statementExecutor;
   private final KsqlEngine ksqlEngine;
@@ -48,6 +57,9 @@ public class CommandRunner implements Runnable, Closeable {
   private volatile boolean closed;
   private final int maxRetries;
   private final ClusterTerminator clusterTerminator;
+  private final Optional<CommandSnapshotStore> snapshotStore;
+  private final Optional<CommandHistory> commandHistory;
+  private final int snapshotInterval;
 
   public CommandRunner(
       final StatementExecutor statementExecutor,
@@ -55,6 +67,29 @@ public class CommandRunner implements Runnable, Closeable {
       final KsqlEngine ksqlEngine,
       final int maxRetries,
       final ClusterTerminator clusterTerminator
+  ) {
+    this(
+        statementExecutor,
+        commandStore,
+        ksqlEngine,
+        maxRetries,
+        clusterTerminator,
+        Optional.empty(),
+        0);
+  }
+
+  /**
+   * @param snapshotStore where to read and write snapshots of the command topic, if anywhere.
+   * @param snapshotInterval the number of commands to execute between snapshots.
+   */
+  public CommandRunner(
+      final StatementExecutor statementExecutor,
+      final CommandQueue commandStore,
+      final KsqlEngine ksqlEngine,
+      final int maxRetries,
+      final ClusterTerminator clusterTerminator,
+      final Optional<CommandSnapshotStore> snapshotStore,
+      final int snapshotInterval
   ) {
     this.statementExecutor = Objects.requireNonNull(statementExecutor, "statementExecutor");
     this.commandStore = Objects.requireNonNull(commandStore, "commandStore");
@@ -62,6 +97,10 @@ public class CommandRunner implements Runnable, Closeable {
     this.maxRetries = maxRetries;
     closed = false;
     this.clusterTerminator = Objects.requireNonNull(clusterTerminator, "clusterTerminator");
+    this.snapshotStore = Objects.requireNonNull(snapshotStore, "snapshotStore");
+    this.commandHistory = snapshotStore
+        .map(store -> new CommandHistory(ksqlEngine, statementExecutor));
+    this.snapshotInterval = snapshotInterval;
   }
 
   /**
@@ -89,6 +128,7 @@ public class CommandRunner implements Runnable, Closeable {
   public void close() {
     closed = true;
     commandStore.close();
+    snapshotStore.ifPresent(CommandSnapshotStore::close);
   }
 
   void fetchAndRunCommands() {
@@ -100,40 +140,154 @@ public class CommandRunner implements Runnable, Closeable {
     }
     log.trace("Found {} new writes to command topic", commands.size());
     commands.forEach(this::executeStatement);
+    maybeWriteSnapshot();
   }
 
   /**
-   * Read and execute all commands on the command topic, starting at the earliest offset.
+   * Read and execute all commands on the command topic, starting at the earliest offset, or, if
+   * there is a snapshot of the command topic, the commands in the latest snapshot followed by
+   * those after it.
+   *
+   * <p>The commands are parsed in parallel, and those a later command undoes are skipped, before
+   * the rest are executed in order. The persistent queries are then started in parallel.
    */
   public void processPriorCommands() {
-    final List<QueuedCommand> restoreCommands = commandStore.getRestoreCommands();
-    final Optional<QueuedCommand> terminateCmd = findTerminateCommand(restoreCommands);
+    final Optional<CommandSnapshot> snapshot =
+        snapshotStore.flatMap(CommandSnapshotStore::getLatestSnapshot);
+    final List<QueuedCommand> newCommands = snapshot.isPresent()
+        ? commandStore.getRestoreCommands(snapshot.get().getOffset())
+        : commandStore.getRestoreCommands();
+    final Optional<QueuedCommand> terminateCmd = findTerminateCommand(newCommands);
     if (terminateCmd.isPresent()) {
       terminateCluster(terminateCmd.get().getCommand());
       return;
     }
-    restoreCommands.forEach(
-        command -> RetryUtil.retryWithBackoff(
-            maxRetries,
-            STATEMENT_RETRY_MS,
-            MAX_STATEMENT_RETRY_MS,
-            () -> statementExecutor.handleRestore(command),
-            WakeupException.class
-        )
-    );
-    final KsqlEngine ksqlEngine = statementExecutor.getKsqlEngine();
-    ksqlEngine.getPersistentQueries().forEach(PersistentQueryMetadata::start);
+
+    final List<CommandSnapshot.Entry> snapshotEntries = snapshot
+        .map(CommandSnapshot::getCommands)
+        .orElse(Collections.emptyList());
+    final List<QueuedCommand> restoreCommands = new ArrayList<>();
+    snapshotEntries.forEach(entry ->
+        restoreCommands.add(new QueuedCommand(entry.getCommandId(), entry.getCommand())));
+    restoreCommands.addAll(newCommands);
+
+    final ExecutorService restoreExecutor = Executors.newFixedThreadPool(RESTORE_THREADS);
+    try {
+      final List<Optional<ParsedStatement>> statements = awaitAll(restoreCommands.stream()
+          .map(command -> restoreExecutor.submit(() -> parseStatement(command)))
+          .collect(Collectors.toList()));
+
+      final Set<Integer> skippable =
+          RestoreCommandCompactor.findSkippable(restoreCommands, statements);
+      log.info("Restoring {} commands, {} of them from a snapshot, skipping {} that later "
+              + "commands undo",
+          restoreCommands.size() - skippable.size(), snapshotEntries.size(), skippable.size());
+
+      // Restore the commands in the snapshot with the query ids they were first executed with:
+      for (int i = 0; i < snapshotEntries.size(); i++) {
+        ksqlEngine.getQueryIdGenerator().setNext(snapshotEntries.get(i).getQueryIdNumber());
+        restoreCommand(restoreCommands.get(i), statements.get(i), skippable.contains(i));
+      }
+      snapshot.ifPresent(s -> ksqlEngine.getQueryIdGenerator().setNext(s.getNextQueryIdNumber()));
+
+      for (int i = snapshotEntries.size(); i < restoreCommands.size(); i++) {
+        restoreCommand(restoreCommands.get(i), statements.get(i), skippable.contains(i));
+      }
+
+      final KsqlEngine ksqlEngine = statementExecutor.getKsqlEngine();
+      awaitAll(ksqlEngine.getPersistentQueries().stream()
+          .map(query -> restoreExecutor.submit(query::start))
+          .collect(Collectors.toList()));
+    } finally {
+      restoreExecutor.shutdownNow();
+    }
+
+    maybeWriteSnapshot();
+  }
+
+  private void restoreCommand(
+      final QueuedCommand command,
+      final Optional<ParsedStatement> statement,
+      final boolean skip
+  ) {
+    if (skip) {
+      statementExecutor.handleSkippedRestore(command);
+      return;
+    }
+
+    execute(command, () -> RetryUtil.retryWithBackoff(
+        maxRetries,
+        STATEMENT_RETRY_MS,
+        MAX_STATEMENT_RETRY_MS,
+        () -> statementExecutor.handleRestore(command, statement),
+        WakeupException.class
+    ));
+  }
+
+  private Optional<ParsedStatement> parseStatement(final QueuedCommand command) {
+    try {
+      final List<ParsedStatement> statements =
+          ksqlEngine.parse(command.getCommand().getStatement());
+      return statements.size() == 1 ? Optional.of(statements.get(0)) : Optional.empty();
+    } catch (final RuntimeException e) {
+      // The error is reported when the command is executed:
+      return Optional.empty();
+    }
+  }
+
+  private static <T> List<T> awaitAll(final List<? extends Future<? extends T>> futures) {
+    final List<T> results = new ArrayList<>(futures.size());
+    for (final Future<? extends T> future : futures) {
+      try {
+        results.add(future.get());
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new KsqlException("Interrupted while restoring commands", e);
+      } catch (final ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new KsqlException("Failed to restore commands", e.getCause());
+      }
+    }
+    return results;
   }
 
   private void executeStatement(final QueuedCommand queuedCommand) {
     log.info("Executing statement: " + queuedCommand.getCommand().getStatement());
-    RetryUtil.retryWithBackoff(
+    execute(queuedCommand, () -> RetryUtil.retryWithBackoff(
         maxRetries,
         STATEMENT_RETRY_MS,
         MAX_STATEMENT_RETRY_MS,
         () -> statementExecutor.handleStatement(queuedCommand),
         WakeupException.class
-    );
+    ));
+    queuedCommand.getOffset().ifPresent(commandStore::markConsumedPast);
+  }
+
+  private void execute(final QueuedCommand queuedCommand, final Runnable execution) {
+    if (commandHistory.isPresent()) {
+      commandHistory.get().execute(queuedCommand, execution);
+    } else {
+      execution.run();
+    }
+  }
+
+  private void maybeWriteSnapshot() {
+    if (!snapshotStore.isPresent()
+        || commandHistory.get().getNumExecutedSinceSnapshot() < Math.max(snapshotInterval, 1)) {
+      return;
+    }
+
+    final CommandSnapshot snapshot = commandHistory.get().snapshot(commandStore.getNextOffset());
+    try {
+      snapshotStore.get().writeSnapshot(snapshot);
+      log.info("Wrote snapshot of {} commands up to offset {} of the command topic",
+          snapshot.getCommands().size(), snapshot.getOffset());
+    } catch (final RuntimeException e) {
+      // Restore falls back to the previous snapshot, and the commands after it:
+      log.error("Failed to write snapshot of the command topic", e);
+    }
   }
 
   private static Optional<QueuedCommand> findTerminateCommand(
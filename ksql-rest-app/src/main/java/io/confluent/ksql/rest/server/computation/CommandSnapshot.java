@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.computation;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The commands needed to rebuild the state of the server as of an offset of the command topic,
+ * so only the commands after that offset need to be read on restore.
+ *
+ * <p>Each command is stored with the number the id of the first query it started was built from,
+ * so restored queries keep their ids, and so their state, even though the commands that started
+ * queries which no longer exist are left out.
+ */
+public final class CommandSnapshot {
+
+  private final long offset;
+  private final long nextQueryIdNumber;
+  private final List<Entry> commands;
+
+  @JsonCreator
+  public CommandSnapshot(
+      @JsonProperty("offset") final long offset,
+      @JsonProperty("nextQueryIdNumber") final long nextQueryIdNumber,
+      @JsonProperty("commands") final List<Entry> commands
+  ) {
+    this.offset = offset;
+    this.nextQueryIdNumber = nextQueryIdNumber;
+    this.commands = ImmutableList.copyOf(Objects.requireNonNull(commands, "commands"));
+  }
+
+  /**
+   * @return the offset of the first command on the command topic not in the snapshot.
+   */
+  @JsonProperty("offset")
+  public long getOffset() {
+    return offset;
+  }
+
+  @JsonProperty("nextQueryIdNumber")
+  public long getNextQueryIdNumber() {
+    return nextQueryIdNumber;
+  }
+
+  @JsonProperty("commands")
+  public List<Entry> getCommands() {
+    return commands;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final CommandSnapshot that = (CommandSnapshot) o;
+    return offset == that.offset
+        && nextQueryIdNumber == that.nextQueryIdNumber
+        && Objects.equals(commands, that.commands);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(offset, nextQueryIdNumber, commands);
+  }
+
+  public static final class Entry {
+
+    private final CommandId commandId;
+    private final Command command;
+    private final long queryIdNumber;
+
+    @JsonCreator
+    public Entry(
+        @JsonProperty("commandId") final CommandId commandId,
+        @JsonProperty("statement") final String statement,
+        @JsonProperty("streamsProperties") final Map<String, Object> overwriteProperties,
+        @JsonProperty("originalProperties") final Map<String, String> originalProperties,
+        @JsonProperty("queryIdNumber") final long queryIdNumber
+    ) {
+      this(
+          commandId,
+          new Command(statement, overwriteProperties, originalProperties),
+          queryIdNumber);
+    }
+
+    Entry(final CommandId commandId, final Command command, final long queryIdNumber) {
+      this.commandId = Objects.requireNonNull(commandId, "commandId");
+      this.command = Objects.requireNonNull(command, "command");
+      this.queryIdNumber = queryIdNumber;
+    }
+
+    @JsonProperty("commandId")
+    public CommandId getCommandId() {
+      return commandId;
+    }
+
+    @JsonIgnore
+    public Command getCommand() {
+      return command;
+    }
+
+    @JsonProperty("statement")
+    public String getStatement() {
+      return command.getStatement();
+    }
+
+    @JsonProperty("streamsProperties")
+    public Map<String, Object> getOverwriteProperties() {
+      return command.getOverwriteProperties();
+    }
+
+    // Null for commands written before version 5, which are restored differently:
+    @JsonProperty("originalProperties")
+    public Map<String, String> getOriginalProperties() {
+      return command.isPreVersion5() ? null : command.getOriginalProperties();
+    }
+
+    @JsonProperty("queryIdNumber")
+    public long getQueryIdNumber() {
+      return queryIdNumber;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Entry that = (Entry) o;
+      return queryIdNumber == that.queryIdNumber
+          && Objects.equals(commandId, that.commandId)
+          && Objects.equals(command, that.command)
+          && command.isPreVersion5() == that.command.isPreVersion5();
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(commandId, command, queryIdNumber);
+    }
+  }
+}
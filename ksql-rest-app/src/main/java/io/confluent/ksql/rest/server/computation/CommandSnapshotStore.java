@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.computation;
+
+import java.io.Closeable;
+import java.util.Optional;
+
+/**
+ * Where snapshots of the command topic are kept.
+ */
+public interface CommandSnapshotStore extends Closeable {
+
+  /**
+   * @return the snapshot that covers the most of the command topic, if there is one.
+   */
+  Optional<CommandSnapshot> getLatestSnapshot();
+
+  void writeSnapshot(CommandSnapshot snapshot);
+
+  @Override
+  void close();
+}
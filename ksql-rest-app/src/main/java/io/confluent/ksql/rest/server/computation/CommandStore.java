@@ -16,6 +16,7 @@ package io.confluent.ksql.rest.server.computation;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import io.confluent.ksql.metrics.MetricCollectors;
 import io.confluent.ksql.parser.KsqlParser.PreparedStatement;
 import io.confluent.ksql.rest.server.CommandTopic;
 import io.confluent.ksql.util.KsqlConfig;
@@ -31,6 +32,14 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.Avg;
+import org.apache.kafka.common.metrics.stats.Max;
+import org.apache.kafka.common.metrics.stats.Percentile;
+import org.apache.kafka.common.metrics.stats.Percentiles;
+import org.apache.kafka.common.metrics.stats.Percentiles.BucketSizing;
 
 /**
  * Wrapper class for the command topic. Used for reading from the topic (either all messages from
@@ -41,11 +50,17 @@ public class CommandStore implements CommandQueue, Closeable {
   // CHECKSTYLE_RULES.ON: ClassDataAbstractionCoupling
 
   private static final Duration POLLING_TIMEOUT_FOR_COMMAND_TOPIC = Duration.ofMillis(5000);
+  private static final String METRIC_GROUP_NAME = "ksql-command-store";
+  private static final String WAIT_SENSOR_NAME = "command-sequence-number-wait";
+  private static final int WAIT_HISTOGRAM_SIZE_IN_BYTES = 4096;
+  private static final double WAIT_HISTOGRAM_MAX_MS = 30000;
 
   private final CommandTopic commandTopic;
   private final CommandIdAssigner commandIdAssigner;
   private final Map<CommandId, CommandStatusFuture> commandStatusMap;
   private final SequenceNumberFutureStore sequenceNumberFutureStore;
+  private final Metrics metrics;
+  private final Sensor waitTime;
 
   public CommandStore(
       final String commandTopicName,
@@ -63,12 +78,27 @@ public class CommandStore implements CommandQueue, Closeable {
       final CommandTopic commandTopic,
       final CommandIdAssigner commandIdAssigner,
       final SequenceNumberFutureStore sequenceNumberFutureStore
+  ) {
+    this(
+        commandTopic,
+        commandIdAssigner,
+        sequenceNumberFutureStore,
+        MetricCollectors.getMetrics());
+  }
+
+  CommandStore(
+      final CommandTopic commandTopic,
+      final CommandIdAssigner commandIdAssigner,
+      final SequenceNumberFutureStore sequenceNumberFutureStore,
+      final Metrics metrics
   ) {
     this.commandTopic = Objects.requireNonNull(commandTopic, "commandTopic");
     this.commandIdAssigner = Objects.requireNonNull(commandIdAssigner, "commandIdAssigner");
     this.commandStatusMap = Maps.newConcurrentMap();
     this.sequenceNumberFutureStore =
         Objects.requireNonNull(sequenceNumberFutureStore, "sequenceNumberFutureStore");
+    this.metrics = Objects.requireNonNull(metrics, "metrics");
+    this.waitTime = configureWaitTimeSensor(metrics);
   }
 
   /**
@@ -77,6 +107,7 @@ public class CommandStore implements CommandQueue, Closeable {
   @Override
   public void close() {
     commandTopic.close();
+    metrics.removeSensor(WAIT_SENSOR_NAME);
   }
 
   /**
@@ -133,6 +164,10 @@ public class CommandStore implements CommandQueue, Closeable {
   /**
    * Poll for new commands, blocking until at least one is available.
    *
+   * <p>Each command carries its offset, so that once it has been executed
+   * {@link #markConsumedPast} can release the requests waiting on it, rather than them waiting
+   * for the next poll.
+   *
    * @return The commands that have been polled from the command topic
    */
   public List<QueuedCommand> getNewCommands() {
@@ -146,7 +181,8 @@ public class CommandStore implements CommandQueue, Closeable {
                 new QueuedCommand(
                     c.key(),
                     c.value(),
-                    Optional.ofNullable(commandStatusMap.remove(c.key()))
+                    Optional.ofNullable(commandStatusMap.remove(c.key())),
+                    Optional.of(c.offset())
                 )
             );
           }
@@ -159,13 +195,25 @@ public class CommandStore implements CommandQueue, Closeable {
     return commandTopic.getRestoreCommands(POLLING_TIMEOUT_FOR_COMMAND_TOPIC);
   }
 
+  @Override
+  public List<QueuedCommand> getRestoreCommands(final long offset) {
+    return commandTopic.getRestoreCommands(POLLING_TIMEOUT_FOR_COMMAND_TOPIC, offset);
+  }
+
+  @Override
+  public long getNextOffset() {
+    return commandTopic.getCommandTopicConsumerPosition();
+  }
+
   @Override
   public void ensureConsumedPast(final long seqNum, final Duration timeout)
       throws InterruptedException, TimeoutException {
+    final long start = System.nanoTime();
     final CompletableFuture<Void> future =
         sequenceNumberFutureStore.getFutureForSequenceNumber(seqNum);
     try {
       future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+      waitTime.record((System.nanoTime() - start) / (double) TimeUnit.MILLISECONDS.toNanos(1));
     } catch (final ExecutionException e) {
       if (e.getCause() instanceof RuntimeException) {
         throw (RuntimeException) e.getCause();
@@ -181,10 +229,54 @@ public class CommandStore implements CommandQueue, Closeable {
     }
   }
 
+  @Override
+  public void markConsumedPast(final long seqNum) {
+    sequenceNumberFutureStore.completeFuturesUpToAndIncludingSequenceNumber(seqNum);
+  }
+
   public boolean isEmpty() {
     return commandTopic.getEndOffset() == 0;
   }
 
+  private static Sensor configureWaitTimeSensor(final Metrics metrics) {
+    final Sensor sensor = metrics.sensor(WAIT_SENSOR_NAME);
+    final MetricName avg = metrics.metricName(
+        "command-sequence-number-wait-time-avg",
+        METRIC_GROUP_NAME,
+        "The average time in ms requests wait for the command topic to be consumed past their "
+            + "command sequence number");
+    if (metrics.metric(avg) != null) {
+      return sensor;
+    }
+
+    sensor.add(avg, new Avg());
+    sensor.add(
+        metrics.metricName(
+            "command-sequence-number-wait-time-max",
+            METRIC_GROUP_NAME,
+            "The maximum time in ms requests wait for the command topic to be consumed past "
+                + "their command sequence number"),
+        new Max());
+    sensor.add(new Percentiles(
+        WAIT_HISTOGRAM_SIZE_IN_BYTES,
+        WAIT_HISTOGRAM_MAX_MS,
+        BucketSizing.LINEAR,
+        waitTimePercentile(metrics, 50),
+        waitTimePercentile(metrics, 95),
+        waitTimePercentile(metrics, 99)));
+    return sensor;
+  }
+
+  private static Percentile waitTimePercentile(final Metrics metrics, final int percentile) {
+    return new Percentile(
+        metrics.metricName(
+            "command-sequence-number-wait-time-p" + percentile,
+            METRIC_GROUP_NAME,
+            "The " + percentile + "th percentile of the time in ms requests wait for the "
+                + "command topic to be consumed past their command sequence number"),
+        percentile);
+  }
+
   private void completeSatisfiedSequenceNumberFutures() {
     sequenceNumberFutureStore.completeFuturesUpToAndIncludingSequenceNumber(
         commandTopic.getCommandTopicConsumerPosition() - 1);
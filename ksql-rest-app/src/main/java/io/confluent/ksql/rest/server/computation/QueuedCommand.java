@@ -21,13 +21,22 @@ public class QueuedCommand {
   private final CommandId commandId;
   private final Command command;
   private final Optional<CommandStatusFuture> status;
+  private final Optional<Long> offset;
 
   public QueuedCommand(final CommandId commandId,
                        final Command command,
                        final Optional<CommandStatusFuture> status) {
+    this(commandId, command, status, Optional.empty());
+  }
+
+  public QueuedCommand(final CommandId commandId,
+                       final Command command,
+                       final Optional<CommandStatusFuture> status,
+                       final Optional<Long> offset) {
     this.commandId = Objects.requireNonNull(commandId);
     this.command = Objects.requireNonNull(command);
     this.status = Objects.requireNonNull(status);
+    this.offset = Objects.requireNonNull(offset);
   }
 
   QueuedCommand(final CommandId commandId, final Command command) {
@@ -46,6 +55,13 @@ public class QueuedCommand {
     return command;
   }
 
+  /**
+   * @return the offset of the command on the command topic, if it was read from there.
+   */
+  public Optional<Long> getOffset() {
+    return offset;
+  }
+
   @Override
   public boolean equals(final Object o) {
     if (this == o) {
@@ -57,11 +73,12 @@ public class QueuedCommand {
     final QueuedCommand that = (QueuedCommand) o;
     return Objects.equals(commandId, that.commandId)
         && Objects.equals(command, that.command)
-        && Objects.equals(status, that.status);
+        && Objects.equals(status, that.status)
+        && Objects.equals(offset, that.offset);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(commandId, command, status);
+    return Objects.hash(commandId, command, status, offset);
   }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.computation;
+
+import io.confluent.ksql.parser.KsqlParser.ParsedStatement;
+import io.confluent.ksql.parser.SqlBaseParser.CreateStreamAsContext;
+import io.confluent.ksql.parser.SqlBaseParser.CreateStreamContext;
+import io.confluent.ksql.parser.SqlBaseParser.CreateTableAsContext;
+import io.confluent.ksql.parser.SqlBaseParser.CreateTableContext;
+import io.confluent.ksql.parser.SqlBaseParser.DropStreamContext;
+import io.confluent.ksql.parser.SqlBaseParser.DropTableContext;
+import io.confluent.ksql.parser.SqlBaseParser.DropTopicContext;
+import io.confluent.ksql.parser.SqlBaseParser.InsertIntoContext;
+import io.confluent.ksql.parser.SqlBaseParser.RegisterTopicContext;
+import io.confluent.ksql.parser.SqlBaseParser.RunScriptContext;
+import io.confluent.ksql.parser.SqlBaseParser.StatementContext;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Finds the commands read from the command topic on restore that can be skipped, as a later
+ * command undoes them.
+ *
+ * <p>A {@code CREATE STREAM} or {@code CREATE TABLE} statement is skipped, together with the
+ * statement that later drops the source, if no query is started and no topic is registered or
+ * dropped between the two, as then nothing can have used the source. Queries that are later
+ * terminated are still restored, as the id of a query, and so the state of its Kafka Streams
+ * application, depends on the number of queries started before it.
+ */
+final class RestoreCommandCompactor {
+
+  private RestoreCommandCompactor() {
+  }
+
+  /**
+   * @param commands the commands to restore, in order.
+   * @param statements the parsed statement of each command, if it could be parsed.
+   * @return the indexes of the commands that can be skipped.
+   */
+  static Set<Integer> findSkippable(
+      final List<QueuedCommand> commands,
+      final List<Optional<ParsedStatement>> statements
+  ) {
+    final Set<Integer> skippable = new HashSet<>();
+    final Set<String> createdSources = new HashSet<>();
+    final Map<String, Integer> droppableCreates = new HashMap<>();
+
+    for (int i = 0; i < commands.size(); i++) {
+      if (!statements.get(i).isPresent()) {
+        // Fails to parse on restore too, so changes nothing:
+        continue;
+      }
+
+      final StatementContext statement = statements.get(i).get().getStatement().statement();
+      final CommandId commandId = commands.get(i).getCommandId();
+      final String sourceName = commandId.getEntity();
+
+      if (statement instanceof RunScriptContext) {
+        // Scripts can create or drop any source:
+        break;
+      }
+
+      if (statement instanceof CreateStreamAsContext
+          || statement instanceof CreateTableAsContext) {
+        createdSources.add(sourceName);
+      }
+
+      if (statement instanceof CreateStreamAsContext
+          || statement instanceof CreateTableAsContext
+          || statement instanceof InsertIntoContext
+          || statement instanceof RegisterTopicContext
+          || statement instanceof DropTopicContext) {
+        droppableCreates.clear();
+        continue;
+      }
+
+      if (statement instanceof CreateStreamContext || statement instanceof CreateTableContext) {
+        if (createdSources.add(sourceName)) {
+          droppableCreates.put(sourceName, i);
+        } else {
+          // The source may already exist, in which case this statement fails on restore:
+          droppableCreates.remove(sourceName);
+        }
+        continue;
+      }
+
+      if (statement instanceof DropStreamContext || statement instanceof DropTableContext) {
+        final Integer createIndex = droppableCreates.remove(sourceName);
+        if (createIndex != null
+            && commands.get(createIndex).getCommandId().getType() == commandId.getType()) {
+          skippable.add(createIndex);
+          skippable.add(i);
+          createdSources.remove(sourceName);
+        }
+      }
+    }
+
+    return skippable;
+  }
+}
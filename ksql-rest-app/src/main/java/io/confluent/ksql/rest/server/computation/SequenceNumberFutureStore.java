@@ -37,7 +37,7 @@ class SequenceNumberFutureStore {
 
   void completeFuturesUpToAndIncludingSequenceNumber(final long seqNum) {
     synchronized (this) {
-      lastCompletedSequenceNumber = seqNum;
+      lastCompletedSequenceNumber = Math.max(lastCompletedSequenceNumber, seqNum);
     }
     sequenceNumberFutures.keySet().stream()
         .filter(k -> k <= seqNum)
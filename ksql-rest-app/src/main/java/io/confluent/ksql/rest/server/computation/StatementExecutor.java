@@ -94,18 +94,47 @@ public class StatementExecutor {
         queuedCommand.getCommand(),
         queuedCommand.getCommandId(),
         queuedCommand.getStatus(),
+        Optional.empty(),
         Mode.EXECUTE);
   }
 
   void handleRestore(final QueuedCommand queuedCommand) {
+    handleRestore(queuedCommand, Optional.empty());
+  }
+
+  /**
+   * Attempt to restore a single statement, which may have already been parsed.
+   *
+   * @param queuedCommand The command to be restored
+   * @param parsedStatement The parsed statement of the command, if it has already been parsed
+   */
+  void handleRestore(
+      final QueuedCommand queuedCommand,
+      final Optional<ParsedStatement> parsedStatement
+  ) {
     handleStatementWithTerminatedQueries(
         queuedCommand.getCommand(),
         queuedCommand.getCommandId(),
         queuedCommand.getStatus(),
+        parsedStatement,
         Mode.RESTORE
     );
   }
 
+  /**
+   * Record a command that is not restored, as a later command undoes it, as successful.
+   *
+   * @param queuedCommand The command that is skipped
+   */
+  void handleSkippedRestore(final QueuedCommand queuedCommand) {
+    putFinalStatus(
+        queuedCommand.getCommandId(),
+        queuedCommand.getStatus(),
+        new CommandStatus(
+            CommandStatus.Status.SUCCESS,
+            "Skipped on restore, as a later statement undoes it"));
+  }
+
   /**
    * Get details on the statuses of all the statements handled thus far.
    *
@@ -143,12 +172,14 @@ public class StatementExecutor {
    *
    * @param command The string containing the statement to be executed
    * @param commandId The ID to be used to track the status of the command
+   * @param parsedStatement The parsed statement, if it has already been parsed
    * @param mode was this table/stream subsequently dropped
    */
   private void handleStatementWithTerminatedQueries(
       final Command command,
       final CommandId commandId,
       final Optional<CommandStatusFuture> commandStatusFuture,
+      final Optional<ParsedStatement> parsedStatement,
       final Mode mode
   ) {
     try {
@@ -158,7 +189,9 @@ public class StatementExecutor {
           commandId,
           commandStatusFuture,
           new CommandStatus(CommandStatus.Status.PARSING, "Parsing statement"));
-      final PreparedStatement<?> statement = statementParser.parseSingleStatement(statementString);
+      final PreparedStatement<?> statement = parsedStatement.isPresent()
+          ? statementParser.prepare(parsedStatement.get())
+          : statementParser.parseSingleStatement(statementString);
       putStatus(
           commandId,
           commandStatusFuture,
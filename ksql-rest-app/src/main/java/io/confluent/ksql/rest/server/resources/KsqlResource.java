@@ -19,6 +19,7 @@ import static java.util.regex.Pattern.compile;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.confluent.ksql.KsqlEngine;
 import io.confluent.ksql.KsqlExecutionContext;
@@ -96,6 +97,7 @@ import io.confluent.ksql.util.KafkaConsumerGroupClientImpl;
 import io.confluent.ksql.util.KsqlConfig;
 import io.confluent.ksql.util.KsqlException;
 import io.confluent.ksql.util.KsqlStatementException;
+import io.confluent.ksql.util.Pair;
 import io.confluent.ksql.util.PersistentQueryMetadata;
 import io.confluent.ksql.util.QueryMetadata;
 import io.confluent.ksql.util.SchemaUtil;
@@ -109,7 +111,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
@@ -162,6 +170,8 @@ public class KsqlResource {
               castExecutor(KsqlResource::distributeStatement, TerminateQuery.class))
           .build();
 
+  private static final int VALIDATION_THREADS = Runtime.getRuntime().availableProcessors();
+
   private static final Set<Class<? extends Statement>> SYNC_BLACKLIST =
       ImmutableSet.<Class<? extends Statement>>builder()
           .add(ListTopics.class)
@@ -178,6 +188,7 @@ public class KsqlResource {
   private final CommandQueue commandQueue;
   private final Duration distributedCmdResponseTimeout;
   private final ActivenessRegistrar activenessRegistrar;
+  private final ExecutorService validationExecutor;
 
   public KsqlResource(
       final KsqlConfig ksqlConfig,
@@ -195,6 +206,16 @@ public class KsqlResource {
         Objects.requireNonNull(distributedCmdResponseTimeout, "distributedCmdResponseTimeout");
     this.activenessRegistrar =
         Objects.requireNonNull(activenessRegistrar, "activenessRegistrar cannot be null.");
+    this.validationExecutor = Executors.newFixedThreadPool(
+        VALIDATION_THREADS,
+        new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("ksql-statement-validation-%d")
+            .build());
+  }
+
+  public void close() {
+    validationExecutor.shutdownNow();
   }
 
   @POST
@@ -236,6 +257,18 @@ public class KsqlResource {
 
       final List<ParsedStatement> statements = ksqlEngine.parse(request.getKsql());
 
+      final Optional<StatementDependencies> dependencies = statements.size() > 1
+          ? StatementDependencies.of(statements, ksqlConfig
+              .cloneWithPropertyOverwrite(request.getStreamsProperties())
+              .getString(KsqlConfig.KSQL_OUTPUT_TOPIC_NAME_PREFIX_CONFIG))
+          : Optional.empty();
+      if (dependencies.isPresent()) {
+        validateIndependentStatements(
+            statements, dependencies.get(), request.getStreamsProperties(), request.getKsql());
+        return distributeIndependentStatements(
+            statements, dependencies.get(), request.getStreamsProperties());
+      }
+
       validateStatements(statements, request.getStreamsProperties(), request.getKsql());
 
       return executeStatements(statements, request.getStreamsProperties());
@@ -266,6 +299,171 @@ public class KsqlResource {
     requestValidator.checkCapacity(sql);
   }
 
+  /**
+   * Validate statements whose dependencies are known from their text.
+   *
+   * <p>The statements that a later statement depends on are validated in order, against one
+   * sandbox. Each of the others conflicts with no statement after it, so is validated in
+   * parallel, against its own copy of that sandbox. The first statement to fail, in request
+   * order, is reported, as it would be if all were validated in order.
+   */
+  private void validateIndependentStatements(
+      final List<ParsedStatement> statements,
+      final StatementDependencies dependencies,
+      final Map<String, Object> propertyOverrides,
+      final String sql
+  ) {
+    final RequestValidator requestValidator = new RequestValidator(
+        ksqlEngine.createSandbox(),
+        serviceContext,
+        ksqlConfig,
+        propertyOverrides);
+
+    int failedIndex = statements.size();
+    KsqlRestException failure = null;
+    final List<Integer> independent = new ArrayList<>();
+    for (int i = 0; i < statements.size(); i++) {
+      if (!dependencies.isDependedOn(i)) {
+        independent.add(i);
+        continue;
+      }
+      try {
+        requestValidator.validate(statements.get(i));
+      } catch (final KsqlRestException e) {
+        failedIndex = i;
+        failure = e;
+        break;
+      }
+    }
+
+    final int validatedUpTo = failedIndex;
+    final List<Integer> toValidate = independent.stream()
+        .filter(i -> i < validatedUpTo)
+        .collect(Collectors.toList());
+    final List<RequestValidator> copies = toValidate.stream()
+        .map(i -> requestValidator.copy())
+        .collect(Collectors.toList());
+
+    // Only statements before any that failed are validated, so any failure among them is first:
+    final Optional<KsqlRestException> parallelFailure =
+        validateInParallel(statements, toValidate, copies);
+    if (parallelFailure.isPresent()) {
+      throw parallelFailure.get();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+
+    requestValidator.checkCapacity(sql, copies);
+  }
+
+  /**
+   * @return the error of the first of the statements to fail validation, if any.
+   */
+  private Optional<KsqlRestException> validateInParallel(
+      final List<ParsedStatement> statements,
+      final List<Integer> indexes,
+      final List<RequestValidator> validators
+  ) {
+    final List<Future<Optional<KsqlRestException>>> results = new ArrayList<>();
+    try {
+      for (int i = 0; i < indexes.size(); i++) {
+        final RequestValidator validator = validators.get(i);
+        final ParsedStatement statement = statements.get(indexes.get(i));
+        results.add(validationExecutor.submit(() -> {
+          try {
+            validator.validate(statement);
+            return Optional.<KsqlRestException>empty();
+          } catch (final KsqlRestException e) {
+            return Optional.of(e);
+          }
+        }));
+      }
+
+      // Indexes are in request order, so the first failure found is the first in the request:
+      for (final Future<Optional<KsqlRestException>> result : results) {
+        final Optional<KsqlRestException> failure = result.get();
+        if (failure.isPresent()) {
+          return failure;
+        }
+      }
+      return Optional.empty();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new KsqlRestException(Errors.serverShuttingDown());
+    } catch (final RejectedExecutionException e) {
+      throw new KsqlRestException(Errors.serverShuttingDown());
+    } catch (final ExecutionException e) {
+      throw new KsqlException("Failed to validate statements", e.getCause());
+    } finally {
+      results.forEach(result -> result.cancel(true));
+    }
+  }
+
+  /**
+   * Distribute statements whose dependencies are known from their text.
+   *
+   * <p>Each statement is written to the command topic without waiting for the statements before
+   * it to be executed, unless it conflicts with one of them, so that independent statements are
+   * executed by the command runner back to back. The results are returned in request order.
+   */
+  private Response distributeIndependentStatements(
+      final List<ParsedStatement> statements,
+      final StatementDependencies dependencies,
+      final Map<String, Object> propertyOverrides
+  ) {
+    final KsqlEntityList entities = new KsqlEntityList();
+    final List<EnqueuedStatement> enqueued = new ArrayList<>();
+
+    for (int i = 0; i < statements.size(); i++) {
+      final int index = i;
+      if (enqueued.stream().anyMatch(e -> dependencies.conflict(e.index, index))) {
+        waitForEnqueuedStatements(enqueued, entities);
+      }
+
+      final ParsedStatement statement = statements.get(i);
+      try {
+        final PreparedStatement<?> prepared = prepareStatement(statement, ksqlEngine);
+        enqueued.add(new EnqueuedStatement(i, enqueueStatement(prepared, propertyOverrides)));
+      } catch (final Exception e) {
+        waitForEnqueuedStatements(enqueued, entities);
+        throw statementFailure(e, statement.getStatementText(), entities);
+      }
+    }
+
+    waitForEnqueuedStatements(enqueued, entities);
+    return Response.ok(entities).build();
+  }
+
+  private void waitForEnqueuedStatements(
+      final List<EnqueuedStatement> enqueued,
+      final KsqlEntityList entities
+  ) {
+    for (final EnqueuedStatement statement : enqueued) {
+      try {
+        entities.add(waitForDistributedStatement(statement.statement));
+      } catch (final Exception e) {
+        throw statementFailure(
+            e, statement.statement.getLeft().getStatementText(), entities);
+      }
+    }
+    enqueued.clear();
+  }
+
+  private static KsqlRestException statementFailure(
+      final Exception e,
+      final String statementText,
+      final KsqlEntityList entities
+  ) {
+    if (e instanceof KsqlRestException) {
+      return (KsqlRestException) e;
+    }
+    if (e instanceof KsqlException) {
+      return new KsqlRestException(Errors.badStatement(e, statementText, entities));
+    }
+    return new KsqlRestException(Errors.serverErrorForStatement(e, statementText, entities));
+  }
+
   private Response executeStatements(
       final List<ParsedStatement> statements,
       final Map<String, Object> propertyOverrides
@@ -616,6 +814,13 @@ public class KsqlResource {
   private CommandStatusEntity distributeStatement(
       final PreparedStatement<?> statement,
       final Map<String, Object> propertyOverrides
+  ) {
+    return waitForDistributedStatement(enqueueStatement(statement, propertyOverrides));
+  }
+
+  private Pair<PreparedStatement<?>, QueuedCommandStatus> enqueueStatement(
+      final PreparedStatement<?> statement,
+      final Map<String, Object> propertyOverrides
   ) {
     try {
       final PreparedStatement<?> withSchema = addInferredSchema(statement, serviceContext);
@@ -623,6 +828,20 @@ public class KsqlResource {
       final QueuedCommandStatus queuedCommandStatus = commandQueue
           .enqueueCommand(withSchema, ksqlConfig, propertyOverrides);
 
+      return new Pair<>(withSchema, queuedCommandStatus);
+    } catch (final Exception e) {
+      throw new KsqlException(String.format(
+          "Could not write the statement '%s' into the command " + "topic.",
+          statement.getStatementText()), e);
+    }
+  }
+
+  private CommandStatusEntity waitForDistributedStatement(
+      final Pair<PreparedStatement<?>, QueuedCommandStatus> enqueued
+  ) {
+    final PreparedStatement<?> withSchema = enqueued.getLeft();
+    final QueuedCommandStatus queuedCommandStatus = enqueued.getRight();
+    try {
       final CommandStatus commandStatus = queuedCommandStatus
           .tryWaitForFinalStatus(distributedCmdResponseTimeout);
 
@@ -635,7 +854,7 @@ public class KsqlResource {
     } catch (final Exception e) {
       throw new KsqlException(String.format(
           "Could not write the statement '%s' into the command " + "topic.",
-          statement.getStatementText()), e);
+          withSchema.getStatementText()), e);
     }
   }
 
@@ -750,6 +969,20 @@ public class KsqlResource {
         (KsqlEntity) ((BiFunction) handler).apply(ksqlResource, statement);
   }
 
+  private static final class EnqueuedStatement {
+
+    private final int index;
+    private final Pair<PreparedStatement<?>, QueuedCommandStatus> statement;
+
+    private EnqueuedStatement(
+        final int index,
+        final Pair<PreparedStatement<?>, QueuedCommandStatus> statement
+    ) {
+      this.index = index;
+      this.statement = statement;
+    }
+  }
+
   @FunctionalInterface
   private interface Handler<T extends Statement> {
 
@@ -866,9 +1099,32 @@ public class KsqlResource {
       }
     }
 
+    private RequestValidator copy() {
+      return new RequestValidator(
+          executionSandbox.createSandbox(),
+          serviceContext,
+          ksqlConfig,
+          scopedPropertyOverrides);
+    }
+
     private void checkCapacity(final String sql) {
+      checkCapacity(sql, Collections.emptyList());
+    }
+
+    /**
+     * @param copies validators of the statements validated against copies of this validator's
+     *               sandbox, whose queries are also counted.
+     */
+    private void checkCapacity(final String sql, final List<RequestValidator> copies) {
+      long newQueries = persistentQueryCount;
+      for (final RequestValidator copy : copies) {
+        newQueries += copy.persistentQueryCount
+            + copy.executionSandbox.numberOfPersistentQueries()
+            - executionSandbox.numberOfPersistentQueries();
+      }
+
       if (QueryCapacityUtil
-          .exceedsPersistentQueryCapacity(executionSandbox, ksqlConfig, persistentQueryCount)) {
+          .exceedsPersistentQueryCapacity(executionSandbox, ksqlConfig, newQueries)) {
         QueryCapacityUtil
             .throwTooManyActivePersistentQueriesException(executionSandbox, ksqlConfig, sql);
       }
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.resources;
+
+import io.confluent.ksql.ddl.DdlConfig;
+import io.confluent.ksql.parser.KsqlParser.ParsedStatement;
+import io.confluent.ksql.parser.SqlBaseParser.CreateStreamAsContext;
+import io.confluent.ksql.parser.SqlBaseParser.CreateStreamContext;
+import io.confluent.ksql.parser.SqlBaseParser.CreateTableAsContext;
+import io.confluent.ksql.parser.SqlBaseParser.CreateTableContext;
+import io.confluent.ksql.parser.SqlBaseParser.InsertIntoContext;
+import io.confluent.ksql.parser.SqlBaseParser.QualifiedNameContext;
+import io.confluent.ksql.parser.SqlBaseParser.StatementContext;
+import io.confluent.ksql.parser.SqlBaseParser.TableNameContext;
+import io.confluent.ksql.parser.SqlBaseParser.TablePropertiesContext;
+import io.confluent.ksql.parser.SqlBaseParser.TablePropertyContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+/**
+ * The dependencies between the statements of a request, found from the sources and topics each
+ * statement reads and writes.
+ *
+ * <p>Two statements conflict if one writes a source or topic the other reads or writes, or if
+ * they target the same source, and so would be given the same command id. Statements that do
+ * not conflict can be validated and distributed without waiting for each other. Names are
+ * compared ignoring case and quoting, which can only find more conflicts, never fewer.
+ *
+ * <p>Only requests made up of {@code CREATE STREAM}, {@code CREATE TABLE}, with or without
+ * {@code AS SELECT}, and {@code INSERT INTO} statements are supported, as the effect of any
+ * other statement on those after it is not known from its text alone.
+ */
+final class StatementDependencies {
+
+  private static final String TOPIC_PREFIX = "topic:";
+
+  private final List<StatementNames> statementNames;
+
+  private StatementDependencies(final List<StatementNames> statementNames) {
+    this.statementNames = statementNames;
+  }
+
+  /**
+   * @param statements the statements of the request, in order.
+   * @param outputTopicPrefix the prefix of the topic a query writes to if its statement does
+   *        not name one, i.e. the {@code ksql.output.topic.name.prefix} of the request.
+   * @return the dependencies between the statements, or empty if the request contains a
+   *         statement that is not supported.
+   */
+  static Optional<StatementDependencies> of(
+      final List<ParsedStatement> statements,
+      final String outputTopicPrefix
+  ) {
+    Objects.requireNonNull(outputTopicPrefix, "outputTopicPrefix");
+    final List<StatementNames> statementNames = new ArrayList<>(statements.size());
+    for (final ParsedStatement statement : statements) {
+      final Optional<StatementNames> names = StatementNames.of(statement, outputTopicPrefix);
+      if (!names.isPresent()) {
+        return Optional.empty();
+      }
+      statementNames.add(names.get());
+    }
+    return Optional.of(new StatementDependencies(statementNames));
+  }
+
+  /**
+   * @return {@code true} if the two statements must be handled in order.
+   */
+  boolean conflict(final int first, final int second) {
+    final StatementNames a = statementNames.get(first);
+    final StatementNames b = statementNames.get(second);
+    return a.target.equals(b.target)
+        || !Collections.disjoint(a.writes, b.reads)
+        || !Collections.disjoint(a.writes, b.writes)
+        || !Collections.disjoint(b.writes, a.reads);
+  }
+
+  /**
+   * @return {@code true} if any statement after the one at {@code index} conflicts with it.
+   */
+  boolean isDependedOn(final int index) {
+    for (int later = index + 1; later < statementNames.size(); later++) {
+      if (conflict(index, later)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class StatementNames {
+
+    private final String target;
+    private final Set<String> reads = new HashSet<>();
+    private final Set<String> writes = new HashSet<>();
+
+    private StatementNames(final String target) {
+      this.target = target;
+    }
+
+    private static Optional<StatementNames> of(
+        final ParsedStatement parsed,
+        final String outputTopicPrefix
+    ) {
+      final StatementContext statement = parsed.getStatement().statement();
+
+      if (statement instanceof CreateStreamContext) {
+        final CreateStreamContext create = (CreateStreamContext) statement;
+        return Optional.of(createSource(create.qualifiedName(), create.tableProperties()));
+      }
+
+      if (statement instanceof CreateTableContext) {
+        final CreateTableContext create = (CreateTableContext) statement;
+        return Optional.of(createSource(create.qualifiedName(), create.tableProperties()));
+      }
+
+      if (statement instanceof CreateStreamAsContext) {
+        final CreateStreamAsContext create = (CreateStreamAsContext) statement;
+        return Optional.of(createSourceAs(
+            create, create.qualifiedName(), create.tableProperties(), outputTopicPrefix));
+      }
+
+      if (statement instanceof CreateTableAsContext) {
+        final CreateTableAsContext create = (CreateTableAsContext) statement;
+        return Optional.of(createSourceAs(
+            create, create.qualifiedName(), create.tableProperties(), outputTopicPrefix));
+      }
+
+      if (statement instanceof InsertIntoContext) {
+        final InsertIntoContext insert = (InsertIntoContext) statement;
+        final StatementNames names = new StatementNames(name(insert.qualifiedName()));
+        names.reads.add(names.target);
+        addSourcesRead(insert.query(), names.reads);
+        return Optional.of(names);
+      }
+
+      return Optional.empty();
+    }
+
+    private static StatementNames createSource(
+        final QualifiedNameContext name,
+        final TablePropertiesContext properties
+    ) {
+      final StatementNames names = new StatementNames(name(name));
+      names.writes.add(names.target);
+      kafkaTopic(properties).ifPresent(topic -> names.reads.add(TOPIC_PREFIX + topic));
+      return names;
+    }
+
+    private static StatementNames createSourceAs(
+        final ParseTree statement,
+        final QualifiedNameContext name,
+        final TablePropertiesContext properties,
+        final String outputTopicPrefix
+    ) {
+      final StatementNames names = new StatementNames(name(name));
+      names.writes.add(names.target);
+      names.writes.add(TOPIC_PREFIX + kafkaTopic(properties)
+          .orElse(normalize(outputTopicPrefix + names.target)));
+      addSourcesRead(statement, names.reads);
+      return names;
+    }
+
+    private static void addSourcesRead(final ParseTree tree, final Set<String> reads) {
+      if (tree instanceof TableNameContext) {
+        reads.add(name(((TableNameContext) tree).qualifiedName()));
+        return;
+      }
+      for (int i = 0; i < tree.getChildCount(); i++) {
+        addSourcesRead(tree.getChild(i), reads);
+      }
+    }
+
+    private static Optional<String> kafkaTopic(final TablePropertiesContext properties) {
+      if (properties == null) {
+        return Optional.empty();
+      }
+      for (final TablePropertyContext property : properties.tableProperty()) {
+        if (normalize(property.identifier().getText())
+            .equals(DdlConfig.KAFKA_TOPIC_NAME_PROPERTY)) {
+          return Optional.of(normalize(property.expression().getText()));
+        }
+      }
+      return Optional.empty();
+    }
+
+    private static String name(final QualifiedNameContext name) {
+      return normalize(name.getText());
+    }
+
+    private static String normalize(final String text) {
+      return text.replaceAll("[`\"']", "").toUpperCase();
+    }
+  }
+}
@@ -65,6 +65,29 @@ public class KsqlInternalTopicUtils {
   public static void ensureTopic(final String name,
                                  final KsqlConfig ksqlConfig,
                                  final KafkaTopicClient topicClient) {
+    ensureTopic(name, ksqlConfig, topicClient, TopicConfig.CLEANUP_POLICY_DELETE);
+  }
+
+  /**
+   * Ensure that a compacted internal topic exists, creating it if necessary. Only the latest
+   * record for each key is kept in such a topic.
+   *
+   * @param name The name of the internal topic to ensure.
+   * @param ksqlConfig The KSQL config, which contains properties that are translated
+   *                   to topic configs.
+   * @param topicClient A topic client used to query topic configs and create the topic.
+   * @see #ensureTopic(String, KsqlConfig, KafkaTopicClient)
+   */
+  public static void ensureCompactedTopic(final String name,
+                                          final KsqlConfig ksqlConfig,
+                                          final KafkaTopicClient topicClient) {
+    ensureTopic(name, ksqlConfig, topicClient, TopicConfig.CLEANUP_POLICY_COMPACT);
+  }
+
+  private static void ensureTopic(final String name,
+                                  final KsqlConfig ksqlConfig,
+                                  final KafkaTopicClient topicClient,
+                                  final String cleanupPolicy) {
     final short replicationFactor =
         ksqlConfig.originals().containsKey(KsqlConfig.SINK_NUMBER_OF_REPLICAS_PROPERTY)
             ? ksqlConfig.getShort(KsqlConfig.SINK_NUMBER_OF_REPLICAS_PROPERTY) : 1;
@@ -108,7 +131,7 @@ public class KsqlInternalTopicUtils {
         replicationFactor,
         ImmutableMap.of(
             TopicConfig.RETENTION_MS_CONFIG, requiredTopicRetention,
-            TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_DELETE)
+            TopicConfig.CLEANUP_POLICY_CONFIG, cleanupPolicy)
     );
   }
 }
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import io.confluent.ksql.rest.server.computation.Command;
+import io.confluent.ksql.rest.server.computation.CommandId;
+import io.confluent.ksql.rest.server.computation.CommandId.Action;
+import io.confluent.ksql.rest.server.computation.CommandId.Type;
+import io.confluent.ksql.rest.server.computation.CommandSnapshot;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CommandSnapshotTopicTest {
+
+  private static final String TOPIC = "_snapshots";
+  private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+  private static final CommandSnapshot SNAPSHOT = snapshot(10L, "SELECT * FROM FOO;");
+  private static final CommandSnapshot OTHER_SNAPSHOT = snapshot(20L, "SELECT * FROM BAR;");
+
+  private MockProducer<String, byte[]> producer;
+  private CommandSnapshotTopic snapshotTopic;
+
+  @Before
+  public void setUp() {
+    producer = newProducer();
+    snapshotTopic = new CommandSnapshotTopic(TOPIC, newConsumer(), producer);
+  }
+
+  @Test
+  public void shouldFindNoSnapshotOnEmptyTopic() {
+    // When:
+    final Optional<CommandSnapshot> result = snapshotTopic.getLatestSnapshot();
+
+    // Then:
+    assertThat(result, is(Optional.empty()));
+  }
+
+  @Test
+  public void shouldReadBackWrittenSnapshot() {
+    // Given:
+    snapshotTopic.writeSnapshot(SNAPSHOT);
+
+    // When:
+    final Optional<CommandSnapshot> result = readLatest(producer.history());
+
+    // Then:
+    assertThat(producer.history(), hasSize(1));
+    assertThat(result, is(Optional.of(SNAPSHOT)));
+  }
+
+  @Test
+  public void shouldSplitLargeSnapshotIntoChunks() {
+    // Given:
+    final CommandSnapshot large = snapshot(
+        10L, Strings.repeat("x", CommandSnapshotTopic.CHUNK_BYTES * 2 + 100));
+
+    // When:
+    snapshotTopic.writeSnapshot(large);
+
+    // Then:
+    assertThat(producer.history(), hasSize(3));
+    assertThat(
+        producer.history().stream().map(r -> r.value().length).collect(Collectors.toList()),
+        everyItem(lessThanOrEqualTo(CommandSnapshotTopic.CHUNK_BYTES)));
+    assertThat(readLatest(producer.history()), is(Optional.of(large)));
+  }
+
+  @Test
+  public void shouldDeleteChunksOfSnapshotItReplaces() {
+    // Given:
+    final CommandSnapshot large = snapshot(
+        10L, Strings.repeat("x", CommandSnapshotTopic.CHUNK_BYTES + 100));
+    snapshotTopic.writeSnapshot(large);
+    final List<String> replacedKeys = keys(producer.history());
+
+    // When:
+    snapshotTopic.writeSnapshot(OTHER_SNAPSHOT);
+
+    // Then:
+    final List<ProducerRecord<String, byte[]>> tombstones = producer.history().subList(3, 5);
+    assertThat(keys(tombstones), containsInAnyOrder(replacedKeys.toArray()));
+    assertThat(tombstones.stream().map(ProducerRecord::value).collect(Collectors.toList()),
+        everyItem(is(nullValue())));
+    assertThat(readLatest(producer.history()), is(Optional.of(OTHER_SNAPSHOT)));
+  }
+
+  @Test
+  public void shouldDeleteChunksOfSnapshotsFoundOnTopic() {
+    // Given:
+    snapshotTopic.writeSnapshot(SNAPSHOT);
+    final MockProducer<String, byte[]> otherProducer = newProducer();
+    final CommandSnapshotTopic otherTopic =
+        new CommandSnapshotTopic(TOPIC, consumerOf(producer.history()), otherProducer);
+    otherTopic.getLatestSnapshot();
+
+    // When:
+    otherTopic.writeSnapshot(OTHER_SNAPSHOT);
+
+    // Then:
+    assertThat(otherProducer.history(), hasSize(2));
+    assertThat(otherProducer.history().get(1).key(), is(producer.history().get(0).key()));
+    assertThat(otherProducer.history().get(1).value(), is(nullValue()));
+  }
+
+  @Test
+  public void shouldIgnoreIncompleteSnapshot() {
+    // Given:
+    snapshotTopic.writeSnapshot(SNAPSHOT);
+    snapshotTopic.writeSnapshot(snapshot(
+        20L, Strings.repeat("x", CommandSnapshotTopic.CHUNK_BYTES + 100)));
+
+    // When:
+    final Optional<CommandSnapshot> result = readLatest(producer.history().subList(0, 2));
+
+    // Then:
+    assertThat(result, is(Optional.of(SNAPSHOT)));
+  }
+
+  @Test
+  public void shouldPickSnapshotCoveringMostOfCommandTopic() {
+    // Given:
+    final MockProducer<String, byte[]> otherProducer = newProducer();
+    new CommandSnapshotTopic(TOPIC, newConsumer(), otherProducer).writeSnapshot(OTHER_SNAPSHOT);
+    snapshotTopic.writeSnapshot(SNAPSHOT);
+
+    // When:
+    final Optional<CommandSnapshot> result = readLatest(
+        ImmutableList.<ProducerRecord<String, byte[]>>builder()
+            .addAll(otherProducer.history())
+            .addAll(producer.history())
+            .build());
+
+    // Then:
+    assertThat(result, is(Optional.of(OTHER_SNAPSHOT)));
+  }
+
+  private static Optional<CommandSnapshot> readLatest(
+      final List<ProducerRecord<String, byte[]>> written
+  ) {
+    return new CommandSnapshotTopic(TOPIC, consumerOf(written), newProducer())
+        .getLatestSnapshot();
+  }
+
+  private static MockConsumer<String, byte[]> consumerOf(
+      final List<ProducerRecord<String, byte[]>> written
+  ) {
+    final MockConsumer<String, byte[]> consumer = newConsumer();
+    consumer.assign(Collections.singleton(PARTITION));
+    long offset = 0;
+    for (final ProducerRecord<String, byte[]> record : written) {
+      consumer.addRecord(new ConsumerRecord<>(
+          TOPIC,
+          0,
+          offset++,
+          ConsumerRecord.NO_TIMESTAMP,
+          TimestampType.NO_TIMESTAMP_TYPE,
+          (long) ConsumerRecord.NULL_CHECKSUM,
+          ConsumerRecord.NULL_SIZE,
+          ConsumerRecord.NULL_SIZE,
+          record.key(),
+          record.value(),
+          record.headers()));
+    }
+    return consumer;
+  }
+
+  private static MockConsumer<String, byte[]> newConsumer() {
+    final MockConsumer<String, byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    consumer.updateBeginningOffsets(Collections.singletonMap(PARTITION, 0L));
+    return consumer;
+  }
+
+  private static MockProducer<String, byte[]> newProducer() {
+    return new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer());
+  }
+
+  private static List<String> keys(final List<ProducerRecord<String, byte[]>> records) {
+    return records.stream().map(ProducerRecord::key).collect(Collectors.toList());
+  }
+
+  private static CommandSnapshot snapshot(final long offset, final String statement) {
+    return new CommandSnapshot(offset, 1L, ImmutableList.of(new CommandSnapshot.Entry(
+        new CommandId(Type.STREAM, "FOO", Action.CREATE),
+        statement,
+        Collections.emptyMap(),
+        Collections.emptyMap(),
+        0L)));
+  }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.computation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableSet;
+import io.confluent.ksql.KsqlEngine;
+import io.confluent.ksql.query.QueryId;
+import io.confluent.ksql.rest.entity.CommandStatus;
+import io.confluent.ksql.rest.server.computation.CommandId.Action;
+import io.confluent.ksql.rest.server.computation.CommandId.Type;
+import io.confluent.ksql.util.PersistentQueryMetadata;
+import io.confluent.ksql.util.QueryIdGenerator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CommandHistoryTest {
+
+  private static final CommandId CREATE_FOO = new CommandId(Type.STREAM, "FOO", Action.CREATE);
+  private static final CommandId DROP_FOO = new CommandId(Type.STREAM, "FOO", Action.DROP);
+  private static final CommandId CREATE_BAR = new CommandId(Type.STREAM, "BAR", Action.CREATE);
+  private static final CommandId DROP_BAR = new CommandId(Type.STREAM, "BAR", Action.DROP);
+
+  private final QueryIdGenerator queryIdGenerator = new QueryIdGenerator();
+  private final Map<QueryId, PersistentQueryMetadata> runningQueries = new LinkedHashMap<>();
+  private final Map<CommandId, CommandStatus.Status> statuses = new HashMap<>();
+
+  private CommandHistory commandHistory;
+
+  @Before
+  public void setUp() {
+    final KsqlEngine ksqlEngine = mock(KsqlEngine.class);
+    final StatementExecutor statementExecutor = mock(StatementExecutor.class);
+
+    when(ksqlEngine.getQueryIdGenerator()).thenReturn(queryIdGenerator);
+    when(ksqlEngine.getPersistentQueries())
+        .thenAnswer(inv -> new ArrayList<>(runningQueries.values()));
+    when(ksqlEngine.getPersistentQuery(any()))
+        .thenAnswer(inv -> Optional.ofNullable(runningQueries.get(inv.<QueryId>getArgument(0))));
+    when(statementExecutor.getStatus(any())).thenAnswer(inv -> Optional.of(new CommandStatus(
+        statuses.getOrDefault(inv.<CommandId>getArgument(0), CommandStatus.Status.SUCCESS),
+        "")));
+
+    commandHistory = new CommandHistory(ksqlEngine, statementExecutor);
+  }
+
+  @Test
+  public void shouldLeaveOutCreateAndDropOfSameSource() {
+    // Given:
+    execute(CREATE_FOO);
+    execute(DROP_FOO);
+
+    // When:
+    final CommandSnapshot snapshot = commandHistory.snapshot(10L);
+
+    // Then:
+    assertThat(snapshot.getCommands(), is(empty()));
+  }
+
+  @Test
+  public void shouldKeepCreateAndDropIfSourceDroppedAsOtherType() {
+    // Given:
+    execute(CREATE_FOO);
+    execute(new CommandId(Type.TABLE, "FOO", Action.DROP));
+
+    // When:
+    final CommandSnapshot snapshot = commandHistory.snapshot(10L);
+
+    // Then:
+    assertThat(commandIds(snapshot),
+        contains(CREATE_FOO, new CommandId(Type.TABLE, "FOO", Action.DROP)));
+  }
+
+  @Test
+  public void shouldKeepCreateAndDropIfCommandInBetweenMayUseSource() {
+    // Given:
+    final CommandId registerTopic = new CommandId(Type.TOPIC, "foo", Action.CREATE);
+    execute(CREATE_FOO);
+    execute(registerTopic);
+    execute(DROP_FOO);
+
+    // When:
+    final CommandSnapshot snapshot = commandHistory.snapshot(10L);
+
+    // Then:
+    assertThat(commandIds(snapshot), contains(CREATE_FOO, registerTopic, DROP_FOO));
+  }
+
+  @Test
+  public void shouldKeepRunningQueriesAndTheSourcesTheyRead() {
+    // Given:
+    execute(CREATE_FOO);
+    executeStartingQuery(CREATE_BAR, "CSAS_BAR_0", "FOO");
+
+    // When:
+    final CommandSnapshot snapshot = commandHistory.snapshot(10L);
+
+    // Then:
+    assertThat(commandIds(snapshot), contains(CREATE_FOO, CREATE_BAR));
+    assertThat(snapshot.getCommands().get(1).getQueryIdNumber(), is(0L));
+    assertThat(snapshot.getNextQueryIdNumber(), is(1L));
+  }
+
+  @Test
+  public void shouldLeaveOutTerminatedQueryAndSourcesOnceAllDropped() {
+    // Given:
+    execute(CREATE_FOO);
+    executeStartingQuery(CREATE_BAR, "CSAS_BAR_0", "FOO");
+    executeTerminating("CSAS_BAR_0");
+    execute(DROP_BAR);
+    execute(DROP_FOO);
+
+    // When:
+    final CommandSnapshot snapshot = commandHistory.snapshot(10L);
+
+    // Then:
+    assertThat(snapshot.getCommands(), is(empty()));
+    assertThat(snapshot.getNextQueryIdNumber(), is(1L));
+  }
+
+  @Test
+  public void shouldKeepSourceReadByQueryThatIsNotLeftOut() {
+    // Given:
+    execute(CREATE_FOO);
+    executeStartingQuery(CREATE_BAR, "CSAS_BAR_0", "FOO");
+    executeTerminating("CSAS_BAR_0");
+    execute(DROP_FOO);
+
+    // When:
+    final CommandSnapshot snapshot = commandHistory.snapshot(10L);
+
+    // Then:
+    assertThat(commandIds(snapshot), contains(
+        CREATE_FOO,
+        CREATE_BAR,
+        new CommandId(Type.TERMINATE, "CSAS_BAR_0", Action.EXECUTE),
+        DROP_FOO));
+  }
+
+  @Test
+  public void shouldLeaveOutTerminatedInsertAndItsTerminate() {
+    // Given:
+    execute(CREATE_FOO);
+    execute(CREATE_BAR);
+    executeStartingQuery(CREATE_BAR, "InsertQuery_0", "FOO");
+    executeTerminating("InsertQuery_0");
+
+    // When:
+    final CommandSnapshot snapshot = commandHistory.snapshot(10L);
+
+    // Then:
+    assertThat(commandIds(snapshot), contains(CREATE_FOO, CREATE_BAR));
+  }
+
+  @Test
+  public void shouldKeepRunningInsert() {
+    // Given:
+    execute(CREATE_FOO);
+    execute(CREATE_BAR);
+    executeStartingQuery(CREATE_BAR, "InsertQuery_0", "FOO");
+
+    // When:
+    final CommandSnapshot snapshot = commandHistory.snapshot(10L);
+
+    // Then:
+    assertThat(commandIds(snapshot), contains(CREATE_FOO, CREATE_BAR, CREATE_BAR));
+  }
+
+  @Test
+  public void shouldKeepFailedCommands() {
+    // Given:
+    statuses.put(CREATE_FOO, CommandStatus.Status.ERROR);
+    execute(CREATE_FOO);
+    execute(DROP_FOO);
+
+    // When:
+    final CommandSnapshot snapshot = commandHistory.snapshot(10L);
+
+    // Then:
+    assertThat(commandIds(snapshot), contains(CREATE_FOO, DROP_FOO));
+  }
+
+  @Test
+  public void shouldCountCommandsExecutedSinceSnapshot() {
+    // Given:
+    execute(CREATE_FOO);
+    execute(CREATE_BAR);
+
+    // Then:
+    assertThat(commandHistory.getNumExecutedSinceSnapshot(), is(2));
+
+    // When:
+    commandHistory.snapshot(10L);
+
+    // Then:
+    assertThat(commandHistory.getNumExecutedSinceSnapshot(), is(0));
+  }
+
+  @Test
+  public void shouldForgetCommandsLeftOutOfSnapshot() {
+    // Given:
+    execute(CREATE_FOO);
+    execute(DROP_FOO);
+    commandHistory.snapshot(10L);
+    execute(CREATE_BAR);
+
+    // When:
+    final CommandSnapshot snapshot = commandHistory.snapshot(20L);
+
+    // Then:
+    assertThat(snapshot.getOffset(), is(20L));
+    assertThat(commandIds(snapshot), contains(CREATE_BAR));
+  }
+
+  private void execute(final CommandId commandId) {
+    commandHistory.execute(queued(commandId), () -> { });
+  }
+
+  private void executeStartingQuery(
+      final CommandId commandId,
+      final String queryId,
+      final String sourceName
+  ) {
+    commandHistory.execute(queued(commandId), () -> {
+      queryIdGenerator.getNextId();
+      final PersistentQueryMetadata query = mock(PersistentQueryMetadata.class);
+      when(query.getQueryId()).thenReturn(new QueryId(queryId));
+      when(query.getSourceNames()).thenReturn(ImmutableSet.of(sourceName));
+      runningQueries.put(new QueryId(queryId), query);
+    });
+  }
+
+  private void executeTerminating(final String queryId) {
+    commandHistory.execute(
+        queued(new CommandId(Type.TERMINATE, queryId, Action.EXECUTE)),
+        () -> runningQueries.remove(new QueryId(queryId)));
+  }
+
+  private static QueuedCommand queued(final CommandId commandId) {
+    return new QueuedCommand(
+        commandId,
+        new Command("statement for " + commandId, Collections.emptyMap(), Collections.emptyMap()));
+  }
+
+  private static List<CommandId> commandIds(final CommandSnapshot snapshot) {
+    return snapshot.getCommands().stream()
+        .map(CommandSnapshot.Entry::getCommandId)
+        .collect(Collectors.toList());
+  }
+}
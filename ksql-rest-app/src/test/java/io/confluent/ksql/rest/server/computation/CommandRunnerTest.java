@@ -28,11 +28,16 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableList;
 import io.confluent.ksql.KsqlEngine;
+import io.confluent.ksql.parser.DefaultKsqlParser;
+import io.confluent.ksql.parser.KsqlParser;
 import io.confluent.ksql.rest.util.ClusterTerminator;
 import io.confluent.ksql.rest.util.TerminateCluster;
+import io.confluent.ksql.util.PersistentQueryMetadata;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -44,6 +49,8 @@ import org.mockito.junit.MockitoJUnitRunner;
 @RunWith(MockitoJUnitRunner.class)
 public class CommandRunnerTest {
 
+  private static final KsqlParser PARSER = new DefaultKsqlParser();
+
   @Mock
   private StatementExecutor statementExecutor;
   @Mock
@@ -65,6 +72,10 @@ public class CommandRunnerTest {
   private Command command3;
   @Mock
   private CommandId commandId3;
+  @Mock
+  private PersistentQueryMetadata query1;
+  @Mock
+  private PersistentQueryMetadata query2;
 
   private CommandRunner commandRunner;
   private List<QueuedCommand> queuedCommandList;
@@ -96,9 +107,12 @@ public class CommandRunnerTest {
 
     // Then:
     final InOrder inOrder = Mockito.inOrder(statementExecutor);
-    inOrder.verify(statementExecutor).handleRestore(eq(queuedCommandList.get(0)));
-    inOrder.verify(statementExecutor).handleRestore(eq(queuedCommandList.get(1)));
-    inOrder.verify(statementExecutor).handleRestore(eq(queuedCommandList.get(2)));
+    inOrder.verify(statementExecutor)
+        .handleRestore(eq(queuedCommandList.get(0)), eq(Optional.empty()));
+    inOrder.verify(statementExecutor)
+        .handleRestore(eq(queuedCommandList.get(1)), eq(Optional.empty()));
+    inOrder.verify(statementExecutor)
+        .handleRestore(eq(queuedCommandList.get(2)), eq(Optional.empty()));
   }
 
   @Test
@@ -113,7 +127,45 @@ public class CommandRunnerTest {
     verify(ksqlEngine).stopAcceptingStatements();
     verify(commandStore).close();
     verify(clusterTerminator).terminateCluster(anyList());
-    verify(statementExecutor, never()).handleRestore(any());
+    verify(statementExecutor, never()).handleRestore(any(), any());
+  }
+
+  @Test
+  public void shouldSkipPriorCommandsThatLaterCommandsUndo() {
+    // Given:
+    givenParsedStatement(command1, "CREATE STREAM FOO (ID INT) WITH (KAFKA_TOPIC='foo', "
+        + "VALUE_FORMAT='JSON');");
+    givenParsedStatement(command2, "DROP STREAM FOO;");
+    givenParsedStatement(command3, "CREATE STREAM BAR (ID INT) WITH (KAFKA_TOPIC='bar', "
+        + "VALUE_FORMAT='JSON');");
+    when(commandId1.getEntity()).thenReturn("FOO");
+    when(commandId1.getType()).thenReturn(CommandId.Type.STREAM);
+    when(commandId2.getEntity()).thenReturn("FOO");
+    when(commandId2.getType()).thenReturn(CommandId.Type.STREAM);
+    when(commandId3.getEntity()).thenReturn("BAR");
+
+    // When:
+    commandRunner.processPriorCommands();
+
+    // Then:
+    verify(statementExecutor).handleSkippedRestore(queuedCommandList.get(0));
+    verify(statementExecutor).handleSkippedRestore(queuedCommandList.get(1));
+    verify(statementExecutor).handleRestore(eq(queuedCommandList.get(2)), any());
+    verify(statementExecutor, never()).handleRestore(eq(queuedCommandList.get(0)), any());
+    verify(statementExecutor, never()).handleRestore(eq(queuedCommandList.get(1)), any());
+  }
+
+  @Test
+  public void shouldStartPersistentQueriesAfterRestoringPriorCommands() {
+    // Given:
+    when(ksqlEngine.getPersistentQueries()).thenReturn(ImmutableList.of(query1, query2));
+
+    // When:
+    commandRunner.processPriorCommands();
+
+    // Then:
+    verify(query1).start();
+    verify(query2).start();
   }
 
   @Test
@@ -131,6 +183,26 @@ public class CommandRunnerTest {
   }
 
 
+  @Test
+  public void shouldMarkEachCommandConsumedPastOnceExecuted() {
+    // Given:
+    final QueuedCommand first = new QueuedCommand(
+        commandId1, command1, Optional.empty(), Optional.of(7L));
+    final QueuedCommand second = new QueuedCommand(
+        commandId2, command2, Optional.empty(), Optional.of(8L));
+    when(commandStore.getNewCommands()).thenReturn(ImmutableList.of(first, second));
+
+    // When:
+    commandRunner.fetchAndRunCommands();
+
+    // Then:
+    final InOrder inOrder = Mockito.inOrder(statementExecutor, commandStore);
+    inOrder.verify(statementExecutor).handleStatement(first);
+    inOrder.verify(commandStore).markConsumedPast(7L);
+    inOrder.verify(statementExecutor).handleStatement(second);
+    inOrder.verify(commandStore).markConsumedPast(8L);
+  }
+
   @Test
   public void shouldCloseTheCommandRunnerCorrectly() {
     // When:
@@ -149,6 +221,11 @@ public class CommandRunnerTest {
     commandRunner.close();
   }
 
+  private void givenParsedStatement(final Command command, final String statement) {
+    when(command.getStatement()).thenReturn(statement);
+    when(ksqlEngine.parse(statement)).thenReturn(PARSER.parse(statement));
+  }
+
   private static List<QueuedCommand> getQueuedCommands(final Object... args) {
     assertThat(args.length % 2, equalTo(0));
     final List<QueuedCommand> queuedCommandList = new ArrayList<>();
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.computation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.rest.server.computation.CommandId.Action;
+import io.confluent.ksql.rest.server.computation.CommandId.Type;
+import io.confluent.ksql.rest.util.InternalTopicJsonSerdeUtil;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.Test;
+
+public class CommandSnapshotTest {
+
+  private static final Serializer<CommandSnapshot> SERIALIZER =
+      InternalTopicJsonSerdeUtil.getJsonSerializer(false);
+  private static final Deserializer<CommandSnapshot> DESERIALIZER =
+      InternalTopicJsonSerdeUtil.getJsonDeserializer(CommandSnapshot.class, false);
+
+  private static final CommandSnapshot.Entry CREATE_FOO = new CommandSnapshot.Entry(
+      new CommandId(Type.STREAM, "FOO", Action.CREATE),
+      new Command(
+          "CREATE STREAM FOO (ID INT) WITH (KAFKA_TOPIC='foo', VALUE_FORMAT='JSON');",
+          Collections.emptyMap(),
+          ImmutableMap.of("ksql.service.id", "default_")),
+      0L);
+
+  private static final CommandSnapshot.Entry CREATE_BAR = new CommandSnapshot.Entry(
+      new CommandId(Type.STREAM, "BAR", Action.CREATE),
+      new Command(
+          "CREATE STREAM BAR AS SELECT * FROM FOO;",
+          ImmutableMap.of("auto.offset.reset", "earliest"),
+          ImmutableMap.of("ksql.service.id", "default_")),
+      3L);
+
+  @Test
+  public void shouldRoundTrip() {
+    // Given:
+    final CommandSnapshot snapshot =
+        new CommandSnapshot(42L, 4L, ImmutableList.of(CREATE_FOO, CREATE_BAR));
+
+    // When:
+    final CommandSnapshot result = roundTrip(snapshot);
+
+    // Then:
+    assertThat(result, is(equalTo(snapshot)));
+    assertThat(result.getOffset(), is(42L));
+    assertThat(result.getNextQueryIdNumber(), is(4L));
+    assertThat(result.getCommands().get(1).getQueryIdNumber(), is(3L));
+    assertThat(result.getCommands().get(1).getOverwriteProperties(),
+        is(ImmutableMap.of("auto.offset.reset", "earliest")));
+  }
+
+  @Test
+  public void shouldRoundTripEmptySnapshot() {
+    // Given:
+    final CommandSnapshot snapshot = new CommandSnapshot(0L, 0L, ImmutableList.of());
+
+    // When:
+    final CommandSnapshot result = roundTrip(snapshot);
+
+    // Then:
+    assertThat(result, is(equalTo(snapshot)));
+  }
+
+  @Test
+  public void shouldRoundTripPreVersion5Commands() {
+    // Given:
+    final CommandSnapshot.Entry preVersion5 = new CommandSnapshot.Entry(
+        new CommandId(Type.STREAM, "FOO", Action.CREATE),
+        new Command(
+            "CREATE STREAM FOO (ID INT) WITH (KAFKA_TOPIC='foo', VALUE_FORMAT='JSON');",
+            Collections.emptyMap(),
+            null),
+        0L);
+    final CommandSnapshot snapshot = new CommandSnapshot(1L, 0L, ImmutableList.of(preVersion5));
+
+    // When:
+    final CommandSnapshot result = roundTrip(snapshot);
+
+    // Then:
+    assertThat(result, is(equalTo(snapshot)));
+    assertThat(result.getCommands().get(0).getCommand().isPreVersion5(), is(true));
+    assertThat(result.getCommands().get(0).getOriginalProperties(), is(nullValue()));
+  }
+
+  @Test
+  public void shouldNotEqualSnapshotWithPreVersion5CommandOfSameStatement() {
+    // Given:
+    final CommandSnapshot.Entry preVersion5 = new CommandSnapshot.Entry(
+        CREATE_FOO.getCommandId(),
+        new Command(CREATE_FOO.getStatement(), Collections.emptyMap(), null),
+        0L);
+    final CommandSnapshot.Entry version5 = new CommandSnapshot.Entry(
+        CREATE_FOO.getCommandId(),
+        new Command(CREATE_FOO.getStatement(), Collections.emptyMap(), Collections.emptyMap()),
+        0L);
+
+    // Then:
+    assertThat(preVersion5, is(not(equalTo(version5))));
+  }
+
+  @Test
+  public void shouldSerializeCommandIdAsString() {
+    // Given:
+    final CommandSnapshot snapshot = new CommandSnapshot(1L, 1L, ImmutableList.of(CREATE_FOO));
+
+    // When:
+    final String json = new String(SERIALIZER.serialize("snapshots", snapshot),
+        StandardCharsets.UTF_8);
+
+    // Then:
+    assertThat(json, containsString("\"commandId\":\"stream/FOO/create\""));
+    assertThat(json, containsString("\"queryIdNumber\":0"));
+  }
+
+  private static CommandSnapshot roundTrip(final CommandSnapshot snapshot) {
+    return DESERIALIZER.deserialize("snapshots", SERIALIZER.serialize("snapshots", snapshot));
+  }
+}
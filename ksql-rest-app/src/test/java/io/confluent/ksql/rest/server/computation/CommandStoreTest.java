@@ -17,8 +17,10 @@ package io.confluent.ksql.rest.server.computation;
 import static org.hamcrest.CoreMatchers.anyOf;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.mockito.ArgumentMatchers.any;
@@ -40,6 +42,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -48,7 +51,9 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.MetricName;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.metrics.Metrics;
 import org.apache.kafka.common.record.RecordBatch;
 import org.junit.Before;
 import org.junit.Rule;
@@ -259,6 +264,44 @@ public class CommandStoreTest {
     inOrder.verify(commandTopic).getNewCommands(any());
   }
 
+  @Test
+  public void shouldIncludeOffsetInNewCommands() {
+    // When:
+    final List<QueuedCommand> commands = commandStore.getNewCommands();
+
+    // Then:
+    assertThat(commands.get(0).getOffset(), equalTo(Optional.of(0L)));
+  }
+
+  @Test
+  public void shouldCompleteFuturesWhenMarkedConsumedPast() {
+    // When:
+    commandStore.markConsumedPast(5L);
+
+    // Then:
+    verify(sequenceNumberFutureStore).completeFuturesUpToAndIncludingSequenceNumber(5L);
+  }
+
+  @Test
+  public void shouldRecordTimeWaitedForSequenceNumber() throws Exception {
+    // Given:
+    final Metrics metrics = new Metrics();
+    commandStore = new CommandStore(
+        commandTopic,
+        commandIdAssigner,
+        sequenceNumberFutureStore,
+        metrics);
+
+    // When:
+    commandStore.ensureConsumedPast(2, TIMEOUT);
+
+    // Then:
+    final MetricName maxWait = metrics.metricName(
+        "command-sequence-number-wait-time-max", "ksql-command-store");
+    assertThat(metrics.metric(maxWait), is(notNullValue()));
+    assertThat((Double) metrics.metric(maxWait).metricValue(), greaterThanOrEqualTo(0.0));
+  }
+
   @Test
   public void shouldComputeNotEmptyCorrectly() {
     // Given:
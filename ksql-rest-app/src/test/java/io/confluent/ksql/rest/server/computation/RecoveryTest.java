@@ -137,10 +137,27 @@ public class RecoveryTest {
       return restoreCommands;
     }
 
+    @Override
+    public List<QueuedCommand> getRestoreCommands(final long fromOffset) {
+      final List<QueuedCommand> restoreCommands =
+          ImmutableList.copyOf(commandLog.subList((int) fromOffset, commandLog.size()));
+      this.offset = commandLog.size();
+      return restoreCommands;
+    }
+
+    @Override
+    public long getNextOffset() {
+      return offset;
+    }
+
     @Override
     public void ensureConsumedPast(final long seqNum, final Duration timeout) {
     }
 
+    @Override
+    public void markConsumedPast(final long seqNum) {
+    }
+
     @Override
     public boolean isEmpty() {
       return commandLog.isEmpty();
@@ -151,6 +168,26 @@ public class RecoveryTest {
     }
   }
 
+  private static class FakeCommandSnapshotStore implements CommandSnapshotStore {
+    private final List<CommandSnapshot> snapshots = new LinkedList<>();
+
+    @Override
+    public Optional<CommandSnapshot> getLatestSnapshot() {
+      return snapshots.isEmpty()
+          ? Optional.empty()
+          : Optional.of(snapshots.get(snapshots.size() - 1));
+    }
+
+    @Override
+    public void writeSnapshot(final CommandSnapshot snapshot) {
+      snapshots.add(snapshot);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
   private class KsqlServer {
     final KsqlEngine ksqlEngine;
     final KsqlResource ksqlResource;
@@ -160,6 +197,14 @@ public class RecoveryTest {
     final CommandRunner commandRunner;
 
     KsqlServer(final List<QueuedCommand> commandLog) {
+      this(commandLog, Optional.empty(), 0);
+    }
+
+    KsqlServer(
+        final List<QueuedCommand> commandLog,
+        final Optional<CommandSnapshotStore> snapshotStore,
+        final int snapshotInterval
+    ) {
       this.ksqlEngine = createKsqlEngine();
       this.commandIdAssigner = new CommandIdAssigner(ksqlEngine.getMetaStore());
       this.fakeCommandQueue = new FakeCommandQueue(
@@ -182,7 +227,9 @@ public class RecoveryTest {
           fakeCommandQueue,
           ksqlEngine,
           1,
-          mock(ClusterTerminator.class)
+          mock(ClusterTerminator.class),
+          snapshotStore,
+          snapshotInterval
       );
     }
 
@@ -204,6 +251,7 @@ public class RecoveryTest {
     }
 
     void close() {
+      ksqlResource.close();
       ksqlEngine.close();
     }
   }
@@ -595,6 +643,36 @@ public class RecoveryTest {
     shouldRecover(commands);
   }
 
+  @Test
+  public void shouldRecoverFromSnapshotWithSameQueryIds() {
+    // Given:
+    final FakeCommandSnapshotStore snapshotStore = new FakeCommandSnapshotStore();
+    final KsqlServer server = new KsqlServer(commands, Optional.of(snapshotStore), 2);
+    server.submitCommands(
+        "CREATE STREAM A (COLUMN STRING) WITH (KAFKA_TOPIC='A', VALUE_FORMAT='JSON');",
+        "CREATE STREAM B AS SELECT * FROM A;",
+        "TERMINATE CSAS_B_0;",
+        "DROP STREAM B;",
+        "CREATE STREAM C AS SELECT * FROM A;"
+    );
+
+    // When:
+    final KsqlServer recovered = new KsqlServer(commands, Optional.of(snapshotStore), 2);
+    recovered.recover();
+
+    // Then:
+    assertThat(snapshotStore.snapshots.get(1).getOffset(), equalTo(4L));
+    assertThat(snapshotStore.snapshots.get(1).getCommands().size(), equalTo(1));
+    assertThat(recovered.ksqlEngine.getMetaStore(), sameStore(server.ksqlEngine.getMetaStore()));
+    assertThat(
+        recovered.ksqlEngine.getPersistentQueries().stream()
+            .map(PersistentQueryMetadata::getQueryId)
+            .collect(Collectors.toList()),
+        contains(new QueryId("CSAS_C_1")));
+    server.close();
+    recovered.close();
+  }
+
   @Test
   public void shouldCascade4Dot1Drop() {
     commands.addAll(
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.computation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+import io.confluent.ksql.parser.DefaultKsqlParser;
+import io.confluent.ksql.parser.KsqlParser;
+import io.confluent.ksql.parser.KsqlParser.ParsedStatement;
+import io.confluent.ksql.rest.server.computation.CommandId.Action;
+import io.confluent.ksql.rest.server.computation.CommandId.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.Test;
+
+public class RestoreCommandCompactorTest {
+
+  private static final KsqlParser PARSER = new DefaultKsqlParser();
+
+  private static final String CREATE_FOO = "CREATE STREAM FOO (ID INT) "
+      + "WITH (KAFKA_TOPIC='foo', VALUE_FORMAT='JSON');";
+  private static final String CREATE_FOO_TABLE = "CREATE TABLE FOO (ID INT) "
+      + "WITH (KAFKA_TOPIC='foo', VALUE_FORMAT='JSON', KEY='ID');";
+  private static final String CREATE_BAR = "CREATE STREAM BAR (ID INT) "
+      + "WITH (KAFKA_TOPIC='bar', VALUE_FORMAT='JSON');";
+  private static final String CSAS_FOO = "CREATE STREAM FOO AS SELECT * FROM BAR;";
+  private static final String DROP_FOO = "DROP STREAM FOO;";
+
+  private final List<QueuedCommand> commands = new ArrayList<>();
+  private final List<Optional<ParsedStatement>> statements = new ArrayList<>();
+
+  @Test
+  public void shouldSkipCreateAndLaterDrop() {
+    // Given:
+    givenCommand(Type.STREAM, "FOO", Action.CREATE, CREATE_FOO);
+    givenCommand(Type.STREAM, "BAR", Action.CREATE, CREATE_BAR);
+    givenCommand(Type.STREAM, "FOO", Action.DROP, DROP_FOO);
+
+    // When:
+    final Set<Integer> skippable = RestoreCommandCompactor.findSkippable(commands, statements);
+
+    // Then:
+    assertThat(skippable, containsInAnyOrder(0, 2));
+  }
+
+  @Test
+  public void shouldNotSkipCreateAndDropWithQueryBetween() {
+    // Given:
+    givenCommand(Type.STREAM, "FOO", Action.CREATE, CREATE_FOO);
+    givenCommand(Type.STREAM, "BAR", Action.CREATE, "CREATE STREAM BAR AS SELECT * FROM FOO;");
+    givenCommand(Type.STREAM, "FOO", Action.DROP, DROP_FOO);
+
+    // When:
+    final Set<Integer> skippable = RestoreCommandCompactor.findSkippable(commands, statements);
+
+    // Then:
+    assertThat(skippable, is(empty()));
+  }
+
+  @Test
+  public void shouldNotSkipCreateOfSourceThatMayAlreadyExist() {
+    // Given:
+    givenCommand(Type.STREAM, "BAR", Action.CREATE, CREATE_BAR);
+    givenCommand(Type.STREAM, "FOO", Action.CREATE, CSAS_FOO);
+    givenCommand(Type.STREAM, "FOO", Action.CREATE, CREATE_FOO);
+    givenCommand(Type.STREAM, "FOO", Action.DROP, DROP_FOO);
+
+    // When:
+    final Set<Integer> skippable = RestoreCommandCompactor.findSkippable(commands, statements);
+
+    // Then:
+    assertThat(skippable, is(empty()));
+  }
+
+  @Test
+  public void shouldNotSkipDropOfDifferentSourceType() {
+    // Given:
+    givenCommand(Type.TABLE, "FOO", Action.CREATE, CREATE_FOO_TABLE);
+    givenCommand(Type.STREAM, "FOO", Action.DROP, DROP_FOO);
+
+    // When:
+    final Set<Integer> skippable = RestoreCommandCompactor.findSkippable(commands, statements);
+
+    // Then:
+    assertThat(skippable, is(empty()));
+  }
+
+  @Test
+  public void shouldNotSkipAnythingAfterRunScript() {
+    // Given:
+    givenCommand(Type.STREAM, "RunScript", Action.EXECUTE, "RUN SCRIPT '/some/script.sql';");
+    givenCommand(Type.STREAM, "FOO", Action.CREATE, CREATE_FOO);
+    givenCommand(Type.STREAM, "FOO", Action.DROP, DROP_FOO);
+
+    // When:
+    final Set<Integer> skippable = RestoreCommandCompactor.findSkippable(commands, statements);
+
+    // Then:
+    assertThat(skippable, is(empty()));
+  }
+
+  @Test
+  public void shouldIgnoreCommandsThatCannotBeParsed() {
+    // Given:
+    givenCommand(Type.STREAM, "FOO", Action.CREATE, CREATE_FOO);
+    commands.add(new QueuedCommand(
+        new CommandId(Type.STREAM, "BAZ", Action.CREATE), mock(Command.class)));
+    statements.add(Optional.empty());
+    givenCommand(Type.STREAM, "FOO", Action.DROP, DROP_FOO);
+
+    // When:
+    final Set<Integer> skippable = RestoreCommandCompactor.findSkippable(commands, statements);
+
+    // Then:
+    assertThat(skippable, containsInAnyOrder(0, 2));
+  }
+
+  private void givenCommand(
+      final Type type,
+      final String entity,
+      final Action action,
+      final String statement
+  ) {
+    commands.add(new QueuedCommand(new CommandId(type, entity, action), mock(Command.class)));
+    statements.add(Optional.of(PARSER.parse(statement).get(0)));
+  }
+}
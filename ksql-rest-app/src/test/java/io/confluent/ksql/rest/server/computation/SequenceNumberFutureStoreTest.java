@@ -87,6 +87,18 @@ public class SequenceNumberFutureStoreTest {
     assertFutureIsNotCompleted(secondFuture);
   }
 
+  @Test
+  public void shouldNotUncompleteSequenceNumbers() {
+    // Given:
+    futureStore.completeFuturesUpToAndIncludingSequenceNumber(3);
+
+    // When:
+    futureStore.completeFuturesUpToAndIncludingSequenceNumber(2);
+
+    // Then:
+    assertFutureIsCompleted(futureStore.getFutureForSequenceNumber(3));
+  }
+
   @Test
   public void shouldBeThreadSafe() {
     // When:
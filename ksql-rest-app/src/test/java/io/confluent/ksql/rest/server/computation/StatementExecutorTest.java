@@ -432,6 +432,21 @@ public class StatementExecutorTest extends EasyMockSupport {
     Assert.assertEquals(CommandStatus.Status.ERROR, statusStore.get(ctasCommandId).getStatus());
   }
 
+  @Test
+  public void shouldRecordSkippedRestoreAsSuccess() {
+    // Given:
+    final CommandId commandId = new CommandId(CommandId.Type.STREAM, "foo", CommandId.Action.DROP);
+
+    // When:
+    statementExecutor.handleSkippedRestore(
+        new QueuedCommand(commandId, new Command(
+            "DROP STREAM foo;", Collections.emptyMap(), Collections.emptyMap())));
+
+    // Then:
+    assertThat(statementExecutor.getStatus(commandId).get().getStatus(),
+        equalTo(CommandStatus.Status.SUCCESS));
+  }
+
   @Test
   public void shouldEnforceReferentialIntegrity() {
 
@@ -48,6 +48,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -142,6 +143,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
@@ -226,6 +228,7 @@ public class KsqlResourceTest {
 
   @After
   public void tearDown() {
+    ksqlResource.close();
     realEngine.close();
     serviceContext.close();
   }
@@ -787,6 +790,51 @@ public class KsqlResourceTest {
     verify(commandStore, never()).enqueueCommand(any(), any(), any());
   }
 
+  @Test
+  public void shouldDistributeIndependentStatementsAndReturnResultsInOrder() {
+    // Given:
+    final String csas = "CREATE STREAM S AS SELECT * FROM test_stream;";
+    final String csas1 = "CREATE STREAM S1 AS SELECT * FROM test_stream;";
+
+    // When:
+    final List<CommandStatusEntity> results = makeMultipleRequest(
+        csas + csas1,
+        CommandStatusEntity.class);
+
+    // Then:
+    final InOrder inOrder = inOrder(commandStore);
+    inOrder.verify(commandStore).enqueueCommand(argThat(is(preparedStatementText(csas))), any(),
+        any());
+    inOrder.verify(commandStore).enqueueCommand(argThat(is(preparedStatementText(csas1))), any(),
+        any());
+
+    assertThat(results, hasSize(2));
+    assertThat(results.get(0).getStatementText(), is(csas));
+    assertThat(results.get(0).getCommandSequenceNumber(),
+        is(commandStatus.getCommandSequenceNumber()));
+    assertThat(results.get(1).getStatementText(), is(csas1));
+    assertThat(results.get(1).getCommandSequenceNumber(),
+        is(commandStatus1.getCommandSequenceNumber()));
+  }
+
+  @Test
+  public void shouldFailMultipleStatementsIfIndependentStatementFailsValidation() {
+    // Given:
+    final String badCreate = "CREATE STREAM S2 (foo INT) WITH(VALUE_FORMAT='JSON');";
+
+    // When:
+    final KsqlErrorMessage result = makeFailingRequest(
+        "CREATE STREAM S AS SELECT * FROM test_stream;" + badCreate,
+        Code.BAD_REQUEST);
+
+    // Then:
+    assertThat(result, is(instanceOf(KsqlStatementErrorMessage.class)));
+    assertThat(result.getErrorCode(), is(Errors.ERROR_CODE_BAD_STATEMENT));
+    assertThat(((KsqlStatementErrorMessage) result).getStatementText(), is(badCreate));
+
+    verify(commandStore, never()).enqueueCommand(any(), any(), any());
+  }
+
   @Test
   public void shouldDistributeTerminateQuery() {
     // Given:
@@ -1080,6 +1128,7 @@ public class KsqlResourceTest {
     final String ksqlString = "CREATE STREAM new_stream AS SELECT * FROM test_stream;"
         + "CREATE STREAM another_stream AS SELECT * FROM test_stream;";
     givenMockEngine();
+    when(sandbox.createSandbox()).thenReturn(sandbox);
 
     givenPersistentQueryCount(2);
 
@@ -1509,6 +1558,9 @@ public class KsqlResourceTest {
   }
 
   private void setUpKsqlResource() {
+    if (ksqlResource != null) {
+      ksqlResource.close();
+    }
     ksqlResource = new KsqlResource(
         ksqlConfig, ksqlEngine, serviceContext, commandStore, DISTRIBUTED_COMMAND_RESPONSE_TIMEOUT,
         activenessRegistrar);
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.resources;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import io.confluent.ksql.parser.DefaultKsqlParser;
+import io.confluent.ksql.parser.KsqlParser;
+import java.util.Optional;
+import org.junit.Test;
+
+public class StatementDependenciesTest {
+
+  private static final KsqlParser PARSER = new DefaultKsqlParser();
+
+  private static final String CREATE_FOO = "CREATE STREAM FOO (ID INT) "
+      + "WITH (KAFKA_TOPIC='foo', VALUE_FORMAT='JSON');";
+  private static final String CREATE_BAR = "CREATE STREAM BAR (ID INT) "
+      + "WITH (KAFKA_TOPIC='bar', VALUE_FORMAT='JSON');";
+
+  @Test
+  public void shouldNotFindConflictBetweenQueriesOverSameSource() {
+    // When:
+    final StatementDependencies dependencies = dependencies(
+        "CREATE STREAM A AS SELECT * FROM FOO;"
+            + "CREATE STREAM B AS SELECT * FROM FOO;");
+
+    // Then:
+    assertThat(dependencies.conflict(0, 1), is(false));
+    assertThat(dependencies.isDependedOn(0), is(false));
+  }
+
+  @Test
+  public void shouldFindConflictIfLaterStatementReadsSourceCreated() {
+    // When:
+    final StatementDependencies dependencies = dependencies(
+        CREATE_FOO
+            + "CREATE STREAM A AS SELECT * FROM FOO;"
+            + "CREATE STREAM B AS SELECT * FROM BAR;");
+
+    // Then:
+    assertThat(dependencies.conflict(0, 1), is(true));
+    assertThat(dependencies.conflict(0, 2), is(false));
+    assertThat(dependencies.isDependedOn(0), is(true));
+    assertThat(dependencies.isDependedOn(1), is(false));
+  }
+
+  @Test
+  public void shouldFindConflictIfSourceReadFromJoin() {
+    // When:
+    final StatementDependencies dependencies = dependencies(
+        CREATE_BAR
+            + "CREATE STREAM A AS SELECT * FROM FOO JOIN BAR WITHIN 1 SECOND "
+            + "ON FOO.ID = BAR.ID;");
+
+    // Then:
+    assertThat(dependencies.isDependedOn(0), is(true));
+  }
+
+  @Test
+  public void shouldFindConflictIgnoringCaseAndQuoting() {
+    // When:
+    final StatementDependencies dependencies = dependencies(
+        "CREATE STREAM A AS SELECT * FROM FOO;"
+            + "CREATE STREAM B AS SELECT * FROM `a`;");
+
+    // Then:
+    assertThat(dependencies.conflict(0, 1), is(true));
+  }
+
+  @Test
+  public void shouldFindConflictBetweenStatementsWithSameTarget() {
+    // When:
+    final StatementDependencies dependencies = dependencies(
+        "CREATE STREAM A AS SELECT * FROM FOO;"
+            + "INSERT INTO A SELECT * FROM BAR;");
+
+    // Then:
+    assertThat(dependencies.conflict(0, 1), is(true));
+  }
+
+  @Test
+  public void shouldFindConflictIfQueryWritesTopicSourceIsCreatedOver() {
+    // When:
+    final StatementDependencies dependencies = dependencies(
+        "CREATE STREAM A WITH (KAFKA_TOPIC='foo') AS SELECT * FROM BAR;"
+            + CREATE_FOO);
+
+    // Then:
+    assertThat(dependencies.conflict(0, 1), is(true));
+  }
+
+  @Test
+  public void shouldFindConflictIfQueriesWriteSameTopic() {
+    // When:
+    final StatementDependencies dependencies = dependencies(
+        "CREATE STREAM A WITH (KAFKA_TOPIC='out') AS SELECT * FROM FOO;"
+            + "CREATE STREAM B WITH (KAFKA_TOPIC='out') AS SELECT * FROM BAR;");
+
+    // Then:
+    assertThat(dependencies.conflict(0, 1), is(true));
+  }
+
+  @Test
+  public void shouldNotFindConflictBetweenSourcesOverSameTopic() {
+    // When:
+    final StatementDependencies dependencies = dependencies(
+        CREATE_FOO
+            + "CREATE STREAM FOO2 (ID INT) WITH (KAFKA_TOPIC='foo', VALUE_FORMAT='JSON');");
+
+    // Then:
+    assertThat(dependencies.conflict(0, 1), is(false));
+  }
+
+  @Test
+  public void shouldFindConflictIfSourceIsCreatedOverDefaultTopicOfQuery() {
+    // When:
+    final StatementDependencies dependencies = dependencies(
+        "CREATE STREAM A AS SELECT * FROM FOO;"
+            + "CREATE STREAM A_COPY (ID INT) "
+            + "WITH (KAFKA_TOPIC='out_A', VALUE_FORMAT='JSON');",
+        "out_");
+
+    // Then:
+    assertThat(dependencies.conflict(0, 1), is(true));
+  }
+
+  @Test
+  public void shouldNotFindConflictIfSourceIsCreatedOverTopicWithoutOutputPrefix() {
+    // When:
+    final StatementDependencies dependencies = dependencies(
+        "CREATE STREAM A AS SELECT * FROM FOO;"
+            + "CREATE STREAM A_COPY (ID INT) WITH (KAFKA_TOPIC='A', VALUE_FORMAT='JSON');",
+        "out_");
+
+    // Then:
+    assertThat(dependencies.conflict(0, 1), is(false));
+  }
+
+  @Test
+  public void shouldNotSupportOtherStatements() {
+    // When:
+    final Optional<StatementDependencies> dependencies = StatementDependencies.of(PARSER.parse(
+        "CREATE STREAM A AS SELECT * FROM FOO;"
+            + "DROP STREAM FOO;"), "");
+
+    // Then:
+    assertThat(dependencies.isPresent(), is(false));
+  }
+
+  private static StatementDependencies dependencies(final String sql) {
+    return dependencies(sql, "");
+  }
+
+  private static StatementDependencies dependencies(
+      final String sql,
+      final String outputTopicPrefix
+  ) {
+    return StatementDependencies.of(PARSER.parse(sql), outputTopicPrefix)
+        .orElseThrow(() -> new AssertionError("Statements not supported: " + sql));
+  }
+}
@@ -96,6 +96,17 @@ public class KsqlInternalTopicUtilsTest {
     verify(topicClient).createTopic(TOPIC_NAME, 1, NREPLICAS, commandTopicConfig);
   }
 
+  @Test
+  public void shouldCreateCompactedInternalTopicIfItDoesNotExist() {
+    // When:
+    KsqlInternalTopicUtils.ensureCompactedTopic(TOPIC_NAME, ksqlConfig, topicClient);
+
+    // Then:
+    verify(topicClient).createTopic(TOPIC_NAME, 1, NREPLICAS, ImmutableMap.of(
+        TopicConfig.RETENTION_MS_CONFIG, Long.MAX_VALUE,
+        TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT));
+  }
+
   @Test
   public void shouldNotAttemptToCreateInternalTopicIfItExists() {
     // Given:
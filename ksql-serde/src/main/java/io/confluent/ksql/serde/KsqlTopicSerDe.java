@@ -18,6 +18,7 @@ import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.processing.log.ProcessingLogContext;
 import io.confluent.ksql.util.KsqlConfig;
+import java.util.Set;
 import java.util.function.Supplier;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.connect.data.Schema;
@@ -42,4 +43,31 @@ public abstract class KsqlTopicSerDe {
       Supplier<SchemaRegistryClient> schemaRegistryClientFactory,
       String loggerNamePrefix,
       ProcessingLogContext processingLogContext);
+
+  /**
+   * Get a serde whose deserializer only reads the values of {@code requiredColumns}.
+   *
+   * <p>Rows keep the layout of the full schema, with {@code null} in the columns that are not
+   * required. Formats that can not skip columns return the same serde as
+   * {@link #getGenericRowSerde(Schema, KsqlConfig, boolean, Supplier, String,
+   * ProcessingLogContext)}.
+   *
+   * @param requiredColumns the names, without any source alias, of the columns to read.
+   */
+  public Serde<GenericRow> getGenericRowSerde(
+      final Schema schemaMaybeWithSource,
+      final KsqlConfig ksqlConfig,
+      final boolean isInternal,
+      final Supplier<SchemaRegistryClient> schemaRegistryClientFactory,
+      final String loggerNamePrefix,
+      final ProcessingLogContext processingLogContext,
+      final Set<String> requiredColumns) {
+    return getGenericRowSerde(
+        schemaMaybeWithSource,
+        ksqlConfig,
+        isInternal,
+        schemaRegistryClientFactory,
+        loggerNamePrefix,
+        processingLogContext);
+  }
 }
@@ -19,12 +19,15 @@ import com.google.common.collect.Iterables;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.serde.connect.ConnectDataTranslator;
 import io.confluent.ksql.serde.connect.DataTranslator;
+import io.confluent.ksql.serde.util.SerdeUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
@@ -38,11 +41,27 @@ public class AvroDataTranslator implements DataTranslator {
   private final Schema avroCompatibleSchema;
 
   public AvroDataTranslator(final Schema ksqlSchema, final String schemaFullName) {
+    this(ksqlSchema, schemaFullName, SerdeUtils.getColumnNames(ksqlSchema));
+  }
+
+  /**
+   * @param requiredColumns the names of the columns to translate. Other columns are left
+   *                        {@code null} in the rows returned by {@link #toKsqlRow}.
+   */
+  public AvroDataTranslator(
+      final Schema ksqlSchema,
+      final String schemaFullName,
+      final Set<String> requiredColumns) {
     this.ksqlSchema = ksqlSchema;
     this.avroCompatibleSchema = buildAvroCompatibleSchema(
         ksqlSchema,
         new TypeNameGenerator(Collections.singleton(schemaFullName)));
-    this.innerTranslator = new ConnectDataTranslator(avroCompatibleSchema);
+    this.innerTranslator = new ConnectDataTranslator(
+        avroCompatibleSchema,
+        ksqlSchema.fields().stream()
+            .filter(field -> SerdeUtils.isRequiredColumn(field, requiredColumns))
+            .map(AvroDataTranslator::avroCompatibleFieldName)
+            .collect(Collectors.toSet()));
   }
 
   @Override
@@ -61,6 +80,10 @@ public class AvroDataTranslator implements DataTranslator {
     return new GenericRow(columns);
   }
 
+  Schema getAvroCompatibleSchema() {
+    return avroCompatibleSchema;
+  }
+
   @Override
   public Struct toConnectRow(final GenericRow genericRow) {
     final List<Object> columns = new ArrayList<>(genericRow.getColumns().size());
@@ -94,7 +117,7 @@ public class AvroDataTranslator implements DataTranslator {
     }
   }
 
-  private String avroCompatibleFieldName(final Field field) {
+  static String avroCompatibleFieldName(final Field field) {
     // Currently the only incompatible field names expected are fully qualified
     // column identifiers. Once quoted identifier support is introduced we will
     // need to implement something more generic here.
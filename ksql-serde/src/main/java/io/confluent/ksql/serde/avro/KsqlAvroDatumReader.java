@@ -0,0 +1,504 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.serde.avro;
+
+import io.confluent.ksql.GenericRow;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.Decoder;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+
+/**
+ * Reads Avro binary data written with a given writer schema straight into a {@link GenericRow}.
+ *
+ * <p>The writer schema is resolved against the KSQL schema once, when the reader is built, with
+ * the same rules {@code AvroData} and {@code ConnectDataTranslator} apply to each record: fields
+ * are matched ignoring case, missing fields are {@code null}, and the same type widenings are
+ * allowed. Fields the KSQL schema does not need are skipped without being decoded.
+ *
+ * <p>Writer schemas that {@code AvroData} converts in ways not handled here, e.g. unions of more
+ * than one non-null type, are rejected by {@link #create}, so that the caller can fall back to
+ * the Connect based deserializer.
+ */
+final class KsqlAvroDatumReader implements DatumReader<GenericRow> {
+
+  private static final String PATH_SEPARATOR = "->";
+  private static final String MAP_ENTRY_NAME = "io.confluent.connect.avro.MapEntry";
+  private static final String MAP_ENTRY_KEY = "key";
+  private static final String MAP_ENTRY_VALUE = "value";
+  private static final org.apache.avro.Schema STRING_SCHEMA =
+      org.apache.avro.Schema.create(org.apache.avro.Schema.Type.STRING);
+
+  private final Schema ksqlSchema;
+  private final Predicate<Field> isRequiredColumn;
+  private FieldReader[] fieldReaders;
+
+  private KsqlAvroDatumReader(
+      final org.apache.avro.Schema writerSchema,
+      final Schema ksqlSchema,
+      final Predicate<Field> isRequiredColumn) {
+    this.ksqlSchema = ksqlSchema;
+    this.isRequiredColumn = isRequiredColumn;
+    setSchema(writerSchema);
+  }
+
+  /**
+   * @return a reader for data written with {@code writerSchema}, or empty if the writer schema
+   *         can only be read through Connect's {@code AvroData}.
+   */
+  static Optional<KsqlAvroDatumReader> create(
+      final org.apache.avro.Schema writerSchema,
+      final Schema ksqlSchema,
+      final Predicate<Field> isRequiredColumn) {
+    try {
+      return Optional.of(new KsqlAvroDatumReader(writerSchema, ksqlSchema, isRequiredColumn));
+    } catch (final UnsupportedSchemaException e) {
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public void setSchema(final org.apache.avro.Schema writerSchema) {
+    if (writerSchema.getType() != org.apache.avro.Schema.Type.RECORD) {
+      throw new UnsupportedSchemaException();
+    }
+    this.fieldReaders = fieldReaders(ksqlSchema, writerSchema, "", isRequiredColumn);
+  }
+
+  @Override
+  public GenericRow read(final GenericRow reuse, final Decoder in) throws IOException {
+    final List<Object> columns =
+        new ArrayList<>(Collections.nCopies(ksqlSchema.fields().size(), null));
+    for (final FieldReader fieldReader : fieldReaders) {
+      if (fieldReader.reader == null) {
+        GenericDatumReader.skip(fieldReader.writerSchema, in);
+      } else {
+        columns.set(fieldReader.ksqlField.index(), fieldReader.reader.read(in));
+      }
+    }
+    return new GenericRow(columns);
+  }
+
+  @FunctionalInterface
+  private interface ValueReader {
+    Object read(Decoder in) throws IOException;
+  }
+
+  private static final class FieldReader {
+    private final org.apache.avro.Schema writerSchema;
+    private final Field ksqlField;
+    private final ValueReader reader;
+
+    private FieldReader(
+        final org.apache.avro.Schema writerSchema,
+        final Field ksqlField,
+        final ValueReader reader) {
+      this.writerSchema = writerSchema;
+      this.ksqlField = ksqlField;
+      this.reader = reader;
+    }
+  }
+
+  private static final class UnsupportedSchemaException extends RuntimeException {
+  }
+
+  /**
+   * Builds a reader for each field of the writer record, in the order they are written. Fields
+   * without a matching, required, KSQL field get no reader and are skipped.
+   */
+  private static FieldReader[] fieldReaders(
+      final Schema ksqlSchema,
+      final org.apache.avro.Schema writerSchema,
+      final String pathStr,
+      final Predicate<Field> isRequiredField) {
+    final Map<String, org.apache.avro.Schema.Field> caseInsensitiveFieldMap = new HashMap<>();
+    for (final org.apache.avro.Schema.Field writerField : writerSchema.getFields()) {
+      caseInsensitiveFieldMap.put(writerField.name().toUpperCase(), writerField);
+    }
+
+    final Map<org.apache.avro.Schema.Field, Field> matches = new IdentityHashMap<>();
+    for (final Field field : ksqlSchema.fields()) {
+      final org.apache.avro.Schema.Field writerField = caseInsensitiveFieldMap.get(
+          AvroDataTranslator.avroCompatibleFieldName(field).toUpperCase());
+      if (writerField != null && isRequiredField.test(field)) {
+        matches.put(writerField, field);
+      }
+    }
+
+    final FieldReader[] readers = new FieldReader[writerSchema.getFields().size()];
+    for (final org.apache.avro.Schema.Field writerField : writerSchema.getFields()) {
+      final Field field = matches.get(writerField);
+      if (field == null) {
+        checkSupported(writerField.schema());
+        readers[writerField.pos()] = new FieldReader(writerField.schema(), null, null);
+      } else {
+        readers[writerField.pos()] = new FieldReader(
+            writerField.schema(),
+            field,
+            valueReader(
+                field.schema(),
+                writerField.schema(),
+                pathStr + PATH_SEPARATOR + AvroDataTranslator.avroCompatibleFieldName(field)));
+      }
+    }
+    return readers;
+  }
+
+  /**
+   * Rejects the writer schemas {@code AvroData} fails to convert, as their data can't be read
+   * through Connect either, even when none of its fields are needed.
+   */
+  private static void checkSupported(final org.apache.avro.Schema writerSchema) {
+    checkSupported(writerSchema, Collections.newSetFromMap(new IdentityHashMap<>()));
+  }
+
+  private static void checkSupported(
+      final org.apache.avro.Schema writerSchema,
+      final Set<org.apache.avro.Schema> visited) {
+    if (!visited.add(writerSchema)) {
+      // recursive schema
+      throw new UnsupportedSchemaException();
+    }
+    switch (writerSchema.getType()) {
+      case NULL:
+        throw new UnsupportedSchemaException();
+      case RECORD:
+        for (final org.apache.avro.Schema.Field field : writerSchema.getFields()) {
+          checkSupported(field.schema(), visited);
+        }
+        break;
+      case ARRAY:
+        checkSupported(writerSchema.getElementType(), visited);
+        break;
+      case MAP:
+        checkSupported(writerSchema.getValueType(), visited);
+        break;
+      case UNION:
+        for (final org.apache.avro.Schema type : writerSchema.getTypes()) {
+          if (type.getType() != org.apache.avro.Schema.Type.NULL) {
+            checkSupported(type, visited);
+          }
+        }
+        break;
+      default:
+        break;
+    }
+    visited.remove(writerSchema);
+  }
+
+  private static ValueReader valueReader(
+      final Schema schema,
+      final org.apache.avro.Schema writerSchema,
+      final String pathStr) {
+    if (writerSchema.getType() == org.apache.avro.Schema.Type.UNION) {
+      return optionalReader(schema, writerSchema, pathStr);
+    }
+
+    final org.apache.avro.Schema.Type writerType = writerSchema.getType();
+    switch (schema.type()) {
+      case BOOLEAN:
+        if (writerType == org.apache.avro.Schema.Type.BOOLEAN) {
+          return Decoder::readBoolean;
+        }
+        break;
+      case INT32:
+        if (writerType == org.apache.avro.Schema.Type.INT) {
+          return Decoder::readInt;
+        }
+        break;
+      case INT64:
+        if (writerType == org.apache.avro.Schema.Type.INT) {
+          return in -> (long) in.readInt();
+        }
+        if (writerType == org.apache.avro.Schema.Type.LONG) {
+          return Decoder::readLong;
+        }
+        break;
+      case FLOAT64:
+        if (writerType == org.apache.avro.Schema.Type.FLOAT) {
+          return in -> (double) in.readFloat();
+        }
+        if (writerType == org.apache.avro.Schema.Type.DOUBLE) {
+          return Decoder::readDouble;
+        }
+        break;
+      case STRING:
+        return stringReader(schema, writerSchema, pathStr);
+      case ARRAY:
+        if (writerType == org.apache.avro.Schema.Type.ARRAY
+            && !isMapEntry(writerSchema.getElementType())) {
+          return arrayReader(valueReader(
+              schema.valueSchema(),
+              writerSchema.getElementType(),
+              pathStr + PATH_SEPARATOR + "ARRAY"));
+        }
+        break;
+      case MAP:
+        if (writerType == org.apache.avro.Schema.Type.MAP) {
+          return mapReader(
+              valueReader(schema.keySchema(), STRING_SCHEMA, pathStr + PATH_SEPARATOR + "MAP_KEY"),
+              valueReader(
+                  schema.valueSchema(),
+                  writerSchema.getValueType(),
+                  pathStr + PATH_SEPARATOR + "MAP_VAL"));
+        }
+        if (writerType == org.apache.avro.Schema.Type.ARRAY
+            && isMapEntry(writerSchema.getElementType())) {
+          return mapEntriesReader(schema, writerSchema.getElementType(), pathStr);
+        }
+        break;
+      case STRUCT:
+        if (writerType == org.apache.avro.Schema.Type.RECORD) {
+          return structReader(schema, writerSchema, pathStr);
+        }
+        break;
+      default:
+        throw new RuntimeException(
+            "Unexpected data type seen in schema: " + schema.type().getName());
+    }
+
+    checkSupported(writerSchema);
+    return typeMismatch(schema, writerSchema, pathStr);
+  }
+
+  /**
+   * {@code AvroData} reads a union of {@code null} and one other type as an optional field of
+   * that type. Any other union becomes a struct, which is left to the Connect path.
+   */
+  private static ValueReader optionalReader(
+      final Schema schema,
+      final org.apache.avro.Schema writerSchema,
+      final String pathStr) {
+    final List<org.apache.avro.Schema> types = writerSchema.getTypes();
+    if (types.size() != 2) {
+      throw new UnsupportedSchemaException();
+    }
+    final int nullIndex;
+    if (types.get(0).getType() == org.apache.avro.Schema.Type.NULL) {
+      nullIndex = 0;
+    } else if (types.get(1).getType() == org.apache.avro.Schema.Type.NULL) {
+      nullIndex = 1;
+    } else {
+      throw new UnsupportedSchemaException();
+    }
+
+    final ValueReader valueReader = valueReader(schema, types.get(1 - nullIndex), pathStr);
+    if (valueReader instanceof TypeMismatch) {
+      // Connect checks the type even when the value is null
+      return valueReader;
+    }
+    return in -> {
+      if (in.readIndex() == nullIndex) {
+        in.readNull();
+        return null;
+      }
+      return valueReader.read(in);
+    };
+  }
+
+  private static ValueReader stringReader(
+      final Schema schema,
+      final org.apache.avro.Schema writerSchema,
+      final String pathStr) {
+    // use String.valueOf to convert various int types and Boolean to string, as Connect does
+    switch (writerSchema.getType()) {
+      case STRING:
+        return Decoder::readString;
+      case ENUM:
+        final List<String> symbols = writerSchema.getEnumSymbols();
+        return in -> symbols.get(in.readEnum());
+      case INT:
+        return in -> String.valueOf(in.readInt());
+      case LONG:
+        return in -> String.valueOf(in.readLong());
+      case BOOLEAN:
+        return in -> String.valueOf(in.readBoolean());
+      default:
+        checkSupported(writerSchema);
+        return typeMismatch(schema, writerSchema, pathStr);
+    }
+  }
+
+  private static ValueReader arrayReader(final ValueReader elementReader) {
+    return in -> {
+      long blockSize = in.readArrayStart();
+      final List<Object> array = new ArrayList<>((int) blockSize);
+      while (blockSize > 0) {
+        for (long i = 0; i < blockSize; i++) {
+          array.add(elementReader.read(in));
+        }
+        blockSize = in.arrayNext();
+      }
+      return array;
+    };
+  }
+
+  private static ValueReader mapReader(
+      final ValueReader keyReader,
+      final ValueReader valueReader) {
+    return in -> {
+      final Map<Object, Object> map = new HashMap<>();
+      long blockSize = in.readMapStart();
+      while (blockSize > 0) {
+        for (long i = 0; i < blockSize; i++) {
+          final Object key = keyReader.read(in);
+          map.put(key, valueReader.read(in));
+        }
+        blockSize = in.mapNext();
+      }
+      return map;
+    };
+  }
+
+  /**
+   * {@code AvroData} writes maps whose keys are not plain strings as arrays of key-value records.
+   */
+  private static ValueReader mapEntriesReader(
+      final Schema schema,
+      final org.apache.avro.Schema entrySchema,
+      final String pathStr) {
+    final ValueReader[] entryReaders = new ValueReader[entrySchema.getFields().size()];
+    for (final org.apache.avro.Schema.Field entryField : entrySchema.getFields()) {
+      switch (entryField.name()) {
+        case MAP_ENTRY_KEY:
+          entryReaders[entryField.pos()] = valueReader(
+              schema.keySchema(), entryField.schema(), pathStr + PATH_SEPARATOR + "MAP_KEY");
+          break;
+        case MAP_ENTRY_VALUE:
+          entryReaders[entryField.pos()] = valueReader(
+              schema.valueSchema(), entryField.schema(), pathStr + PATH_SEPARATOR + "MAP_VAL");
+          break;
+        default:
+          throw new UnsupportedSchemaException();
+      }
+    }
+    final int keyPos = entrySchema.getField(MAP_ENTRY_KEY).pos();
+
+    return in -> {
+      final Map<Object, Object> map = new HashMap<>();
+      long blockSize = in.readArrayStart();
+      while (blockSize > 0) {
+        for (long i = 0; i < blockSize; i++) {
+          Object key = null;
+          Object value = null;
+          for (int pos = 0; pos < entryReaders.length; pos++) {
+            if (pos == keyPos) {
+              key = entryReaders[pos].read(in);
+            } else {
+              value = entryReaders[pos].read(in);
+            }
+          }
+          map.put(key, value);
+        }
+        blockSize = in.arrayNext();
+      }
+      return map;
+    };
+  }
+
+  private static ValueReader structReader(
+      final Schema schema,
+      final org.apache.avro.Schema writerSchema,
+      final String pathStr) {
+    final FieldReader[] fieldReaders = fieldReaders(schema, writerSchema, pathStr, field -> true);
+    return in -> {
+      final Struct struct = new Struct(schema);
+      for (final FieldReader fieldReader : fieldReaders) {
+        if (fieldReader.reader == null) {
+          GenericDatumReader.skip(fieldReader.writerSchema, in);
+        } else {
+          struct.put(fieldReader.ksqlField, fieldReader.reader.read(in));
+        }
+      }
+      return struct;
+    };
+  }
+
+  private static boolean isMapEntry(final org.apache.avro.Schema elementSchema) {
+    return elementSchema.getType() == org.apache.avro.Schema.Type.RECORD
+        && MAP_ENTRY_NAME.equals(elementSchema.getFullName())
+        && elementSchema.getField(MAP_ENTRY_KEY) != null
+        && elementSchema.getField(MAP_ENTRY_VALUE) != null;
+  }
+
+  private static ValueReader typeMismatch(
+      final Schema schema,
+      final org.apache.avro.Schema writerSchema,
+      final String pathStr) {
+    return new TypeMismatch(String.format(
+        "Cannot deserialize type %s as type %s for field %s",
+        connectTypeName(writerSchema),
+        schema.type().getName(),
+        pathStr));
+  }
+
+  private static final class TypeMismatch implements ValueReader {
+    private final String message;
+
+    private TypeMismatch(final String message) {
+      this.message = message;
+    }
+
+    @Override
+    public Object read(final Decoder in) {
+      throw new DataException(message);
+    }
+  }
+
+  /**
+   * @return the name of the Connect type {@code AvroData} converts the writer schema to.
+   */
+  private static String connectTypeName(final org.apache.avro.Schema writerSchema) {
+    switch (writerSchema.getType()) {
+      case INT:
+        return Schema.Type.INT32.getName();
+      case LONG:
+        return Schema.Type.INT64.getName();
+      case FLOAT:
+        return Schema.Type.FLOAT32.getName();
+      case DOUBLE:
+        return Schema.Type.FLOAT64.getName();
+      case BOOLEAN:
+        return Schema.Type.BOOLEAN.getName();
+      case STRING:
+      case ENUM:
+        return Schema.Type.STRING.getName();
+      case BYTES:
+      case FIXED:
+        return Schema.Type.BYTES.getName();
+      case ARRAY:
+        return isMapEntry(writerSchema.getElementType())
+            ? Schema.Type.MAP.getName()
+            : Schema.Type.ARRAY.getName();
+      case MAP:
+        return Schema.Type.MAP.getName();
+      default:
+        return Schema.Type.STRUCT.getName();
+    }
+  }
+}
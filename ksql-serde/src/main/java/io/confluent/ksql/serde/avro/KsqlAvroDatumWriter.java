@@ -0,0 +1,301 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.serde.avro;
+
+import io.confluent.ksql.GenericRow;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.Encoder;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+
+/**
+ * Writes a {@link GenericRow} as Avro binary data, without building the Connect {@code Struct}
+ * and Avro {@code GenericRecord} the Connect based serializer goes through.
+ *
+ * <p>The Avro schema must be the one {@code AvroData} generates from the KSQL schema, as the
+ * values are checked against the KSQL schema in the same way Connect does.
+ */
+final class KsqlAvroDatumWriter implements DatumWriter<GenericRow> {
+
+  private static final String MAP_ENTRY_KEY = "key";
+  private static final String MAP_ENTRY_VALUE = "value";
+
+  private final Schema ksqlSchema;
+  private FieldWriter[] fieldWriters;
+
+  private KsqlAvroDatumWriter(final Schema ksqlSchema, final org.apache.avro.Schema avroSchema) {
+    this.ksqlSchema = ksqlSchema;
+    setSchema(avroSchema);
+  }
+
+  /**
+   * @return a writer for rows of {@code ksqlSchema}, or empty if the Avro schema has a shape
+   *         this writer does not handle.
+   */
+  static Optional<KsqlAvroDatumWriter> create(
+      final Schema ksqlSchema,
+      final org.apache.avro.Schema avroSchema) {
+    try {
+      return Optional.of(new KsqlAvroDatumWriter(ksqlSchema, avroSchema));
+    } catch (final UnsupportedSchemaException e) {
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public void setSchema(final org.apache.avro.Schema avroSchema) {
+    if (avroSchema.getType() != org.apache.avro.Schema.Type.RECORD) {
+      throw new UnsupportedSchemaException();
+    }
+    this.fieldWriters = fieldWriters(ksqlSchema, avroSchema);
+  }
+
+  @Override
+  public void write(final GenericRow row, final Encoder out) throws IOException {
+    final List<Object> columns = row.getColumns();
+    for (final FieldWriter fieldWriter : fieldWriters) {
+      fieldWriter.writer.write(columns.get(fieldWriter.ksqlField.index()), out);
+    }
+  }
+
+  @FunctionalInterface
+  private interface ValueWriter {
+    void write(Object value, Encoder out) throws IOException;
+  }
+
+  private static final class FieldWriter {
+    private final Field ksqlField;
+    private final ValueWriter writer;
+
+    private FieldWriter(final Field ksqlField, final ValueWriter writer) {
+      this.ksqlField = ksqlField;
+      this.writer = writer;
+    }
+  }
+
+  private static final class UnsupportedSchemaException extends RuntimeException {
+  }
+
+  /**
+   * Builds a writer for each field of the Avro record, in the order they are written.
+   */
+  private static FieldWriter[] fieldWriters(
+      final Schema ksqlSchema,
+      final org.apache.avro.Schema avroSchema) {
+    if (avroSchema.getFields().size() != ksqlSchema.fields().size()) {
+      throw new UnsupportedSchemaException();
+    }
+    final FieldWriter[] writers = new FieldWriter[ksqlSchema.fields().size()];
+    for (final Field field : ksqlSchema.fields()) {
+      final org.apache.avro.Schema.Field avroField =
+          avroSchema.getField(AvroDataTranslator.avroCompatibleFieldName(field));
+      if (avroField == null) {
+        throw new UnsupportedSchemaException();
+      }
+      writers[avroField.pos()] =
+          new FieldWriter(field, valueWriter(field.schema(), avroField.schema()));
+    }
+    return writers;
+  }
+
+  private static ValueWriter valueWriter(
+      final Schema schema,
+      final org.apache.avro.Schema avroSchema) {
+    if (avroSchema.getType() != org.apache.avro.Schema.Type.UNION) {
+      return nonNullValueWriter(schema, avroSchema);
+    }
+
+    // AvroData writes optional fields as a union of null and the field's type
+    final List<org.apache.avro.Schema> types = avroSchema.getTypes();
+    if (types.size() != 2) {
+      throw new UnsupportedSchemaException();
+    }
+    final int nullIndex;
+    if (types.get(0).getType() == org.apache.avro.Schema.Type.NULL) {
+      nullIndex = 0;
+    } else if (types.get(1).getType() == org.apache.avro.Schema.Type.NULL) {
+      nullIndex = 1;
+    } else {
+      throw new UnsupportedSchemaException();
+    }
+    final int valueIndex = 1 - nullIndex;
+    final ValueWriter writer = nonNullValueWriter(schema, types.get(valueIndex));
+    return (value, out) -> {
+      if (value == null) {
+        out.writeIndex(nullIndex);
+        out.writeNull();
+      } else {
+        out.writeIndex(valueIndex);
+        writer.write(value, out);
+      }
+    };
+  }
+
+  private static ValueWriter nonNullValueWriter(
+      final Schema schema,
+      final org.apache.avro.Schema avroSchema) {
+    final org.apache.avro.Schema.Type avroType = avroSchema.getType();
+    switch (schema.type()) {
+      case BOOLEAN:
+        if (avroType == org.apache.avro.Schema.Type.BOOLEAN) {
+          return (value, out) -> out.writeBoolean(cast(value, Boolean.class, schema));
+        }
+        break;
+      case INT32:
+        if (avroType == org.apache.avro.Schema.Type.INT) {
+          return (value, out) -> out.writeInt(cast(value, Integer.class, schema));
+        }
+        break;
+      case INT64:
+        if (avroType == org.apache.avro.Schema.Type.LONG) {
+          return (value, out) -> out.writeLong(cast(value, Long.class, schema));
+        }
+        break;
+      case FLOAT64:
+        if (avroType == org.apache.avro.Schema.Type.DOUBLE) {
+          return (value, out) -> out.writeDouble(cast(value, Double.class, schema));
+        }
+        break;
+      case STRING:
+        if (avroType == org.apache.avro.Schema.Type.STRING) {
+          return (value, out) -> out.writeString(cast(value, String.class, schema));
+        }
+        break;
+      case ARRAY:
+        if (avroType == org.apache.avro.Schema.Type.ARRAY) {
+          return arrayWriter(schema, avroSchema);
+        }
+        break;
+      case MAP:
+        if (avroType == org.apache.avro.Schema.Type.MAP) {
+          return mapWriter(schema, avroSchema);
+        }
+        if (avroType == org.apache.avro.Schema.Type.ARRAY) {
+          return mapEntriesWriter(schema, avroSchema.getElementType());
+        }
+        break;
+      case STRUCT:
+        if (avroType == org.apache.avro.Schema.Type.RECORD) {
+          return structWriter(schema, avroSchema);
+        }
+        break;
+      default:
+        break;
+    }
+    throw new UnsupportedSchemaException();
+  }
+
+  private static ValueWriter arrayWriter(
+      final Schema schema,
+      final org.apache.avro.Schema avroSchema) {
+    final ValueWriter elementWriter =
+        valueWriter(schema.valueSchema(), avroSchema.getElementType());
+    return (value, out) -> {
+      final List<?> list = cast(value, List.class, schema);
+      out.writeArrayStart();
+      out.setItemCount(list.size());
+      for (final Object element : list) {
+        out.startItem();
+        elementWriter.write(element, out);
+      }
+      out.writeArrayEnd();
+    };
+  }
+
+  private static ValueWriter mapWriter(
+      final Schema schema,
+      final org.apache.avro.Schema avroSchema) {
+    if (schema.keySchema().type() != Schema.Type.STRING) {
+      throw new UnsupportedSchemaException();
+    }
+    final ValueWriter valueWriter = valueWriter(schema.valueSchema(), avroSchema.getValueType());
+    return (value, out) -> {
+      final Map<?, ?> map = cast(value, Map.class, schema);
+      out.writeMapStart();
+      out.setItemCount(map.size());
+      for (final Map.Entry<?, ?> entry : map.entrySet()) {
+        out.startItem();
+        out.writeString(cast(entry.getKey(), String.class, schema.keySchema()));
+        valueWriter.write(entry.getValue(), out);
+      }
+      out.writeMapEnd();
+    };
+  }
+
+  /**
+   * {@code AvroData} writes maps whose keys are optional as arrays of key-value records.
+   */
+  private static ValueWriter mapEntriesWriter(
+      final Schema schema,
+      final org.apache.avro.Schema entrySchema) {
+    final org.apache.avro.Schema.Field keyField = entrySchema.getField(MAP_ENTRY_KEY);
+    final org.apache.avro.Schema.Field valueField = entrySchema.getField(MAP_ENTRY_VALUE);
+    if (entrySchema.getType() != org.apache.avro.Schema.Type.RECORD
+        || entrySchema.getFields().size() != 2
+        || keyField == null
+        || valueField == null) {
+      throw new UnsupportedSchemaException();
+    }
+    final ValueWriter keyWriter = valueWriter(schema.keySchema(), keyField.schema());
+    final ValueWriter valueWriter = valueWriter(schema.valueSchema(), valueField.schema());
+    final boolean keyFirst = keyField.pos() == 0;
+
+    return (value, out) -> {
+      final Map<?, ?> map = cast(value, Map.class, schema);
+      out.writeArrayStart();
+      out.setItemCount(map.size());
+      for (final Map.Entry<?, ?> entry : map.entrySet()) {
+        out.startItem();
+        if (keyFirst) {
+          keyWriter.write(entry.getKey(), out);
+          valueWriter.write(entry.getValue(), out);
+        } else {
+          valueWriter.write(entry.getValue(), out);
+          keyWriter.write(entry.getKey(), out);
+        }
+      }
+      out.writeArrayEnd();
+    };
+  }
+
+  private static ValueWriter structWriter(
+      final Schema schema,
+      final org.apache.avro.Schema avroSchema) {
+    final FieldWriter[] fieldWriters = fieldWriters(schema, avroSchema);
+    return (value, out) -> {
+      final Struct struct = cast(value, Struct.class, schema);
+      for (final FieldWriter fieldWriter : fieldWriters) {
+        fieldWriter.writer.write(struct.get(fieldWriter.ksqlField.name()), out);
+      }
+    };
+  }
+
+  private static <T> T cast(final Object value, final Class<T> type, final Schema schema) {
+    if (value == null) {
+      throw new DataException("Invalid value: null used for required field");
+    }
+    if (!type.isInstance(value)) {
+      throw new DataException(
+          "Invalid Java object for schema type " + schema.type() + ": " + value.getClass());
+    }
+    return type.cast(value);
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.serde.avro;
+
+import io.confluent.common.logging.StructuredLogger;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.processing.log.ProcessingLogContext;
+import io.confluent.ksql.serde.util.SerdeProcessingLogMessageFactory;
+import io.confluent.ksql.serde.util.SerdeUtils;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+
+/**
+ * Deserializes Avro data in the schema registry wire format into a {@link GenericRow}, without
+ * going through Connect's {@code AvroData} and {@code Struct}.
+ *
+ * <p>A {@link KsqlAvroDatumReader} is built for each writer schema id the first time it is seen.
+ * Data written with a schema that reader does not handle is passed to {@code fallback}.
+ *
+ * <p>Instances are not thread safe.
+ */
+public class KsqlAvroDeserializer implements Deserializer<GenericRow> {
+
+  private static final byte MAGIC_BYTE = 0x0;
+  private static final int HEADER_SIZE = 1 + Integer.BYTES;
+
+  private final Schema ksqlSchema;
+  private final Predicate<Field> isRequiredColumn;
+  private final SchemaRegistryClient schemaRegistryClient;
+  private final Deserializer<GenericRow> fallback;
+  private final StructuredLogger recordLogger;
+  private final ProcessingLogContext processingLogContext;
+  private final Map<Integer, Optional<KsqlAvroDatumReader>> readers = new HashMap<>();
+  private BinaryDecoder decoder;
+
+  KsqlAvroDeserializer(
+      final Schema ksqlSchema,
+      final Set<String> requiredColumns,
+      final SchemaRegistryClient schemaRegistryClient,
+      final Deserializer<GenericRow> fallback,
+      final StructuredLogger recordLogger,
+      final ProcessingLogContext processingLogContext) {
+    this.ksqlSchema = Objects.requireNonNull(ksqlSchema, "ksqlSchema");
+    Objects.requireNonNull(requiredColumns, "requiredColumns");
+    final boolean[] required = new boolean[ksqlSchema.fields().size()];
+    ksqlSchema.fields().forEach(
+        field -> required[field.index()] = SerdeUtils.isRequiredColumn(field, requiredColumns));
+    this.isRequiredColumn = field -> required[field.index()];
+    this.schemaRegistryClient = schemaRegistryClient;
+    this.fallback = Objects.requireNonNull(fallback, "fallback");
+    this.recordLogger = Objects.requireNonNull(recordLogger, "recordLogger");
+    this.processingLogContext =
+        Objects.requireNonNull(processingLogContext, "processingLogContext");
+  }
+
+  @Override
+  public void configure(final Map<String, ?> map, final boolean isKey) {
+    fallback.configure(map, isKey);
+  }
+
+  @Override
+  public GenericRow deserialize(final String topic, final byte[] bytes) {
+    if (bytes == null) {
+      return null;
+    }
+
+    final Optional<KsqlAvroDatumReader> reader;
+    try {
+      reader = getReader(bytes);
+    } catch (final RuntimeException e) {
+      logError(bytes, e);
+      throw e;
+    }
+
+    if (!reader.isPresent()) {
+      return fallback.deserialize(topic, bytes);
+    }
+
+    try {
+      decoder = DecoderFactory.get()
+          .binaryDecoder(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE, decoder);
+      return reader.get().read(null, decoder);
+    } catch (final IOException e) {
+      final SerializationException error = new SerializationException(
+          "Error deserializing Avro message from topic " + topic, e);
+      logError(bytes, error);
+      throw error;
+    } catch (final RuntimeException e) {
+      logError(bytes, e);
+      throw e;
+    }
+  }
+
+  private Optional<KsqlAvroDatumReader> getReader(final byte[] bytes) {
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    if (bytes.length < HEADER_SIZE || buffer.get() != MAGIC_BYTE) {
+      throw new SerializationException("Unknown magic byte!");
+    }
+    final int schemaId = buffer.getInt();
+
+    final Optional<KsqlAvroDatumReader> cached = readers.get(schemaId);
+    if (cached != null) {
+      return cached;
+    }
+
+    final org.apache.avro.Schema writerSchema;
+    try {
+      writerSchema = schemaRegistryClient.getById(schemaId);
+    } catch (final IOException | RestClientException e) {
+      throw new SerializationException("Error retrieving Avro schema for id " + schemaId, e);
+    }
+    final Optional<KsqlAvroDatumReader> reader =
+        KsqlAvroDatumReader.create(writerSchema, ksqlSchema, isRequiredColumn);
+    readers.put(schemaId, reader);
+    return reader;
+  }
+
+  private void logError(final byte[] bytes, final Exception e) {
+    recordLogger.error(
+        SerdeProcessingLogMessageFactory.deserializationErrorMsg(
+            e,
+            Optional.ofNullable(bytes),
+            processingLogContext.getConfig()));
+  }
+
+  @Override
+  public void close() {
+    fallback.close();
+  }
+}
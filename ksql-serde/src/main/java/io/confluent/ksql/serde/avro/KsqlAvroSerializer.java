@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.serde.avro;
+
+import io.confluent.connect.avro.AvroData;
+import io.confluent.connect.avro.AvroDataConfig;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.ksql.GenericRow;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.connect.data.Schema;
+
+/**
+ * Serializes a {@link GenericRow} as Avro data in the schema registry wire format, without going
+ * through Connect's {@code AvroData} and {@code Struct} for each row.
+ *
+ * <p>The Avro schema, and the subject it is registered under, are the ones the Connect based
+ * serializer would use. If {@link KsqlAvroDatumWriter} does not handle that schema, all rows are
+ * passed to {@code fallback}.
+ *
+ * <p>Instances are not thread safe.
+ */
+public class KsqlAvroSerializer implements Serializer<GenericRow> {
+
+  private static final byte MAGIC_BYTE = 0x0;
+  private static final String VALUE_SUBJECT_SUFFIX = "-value";
+
+  private final org.apache.avro.Schema avroSchema;
+  private final Optional<KsqlAvroDatumWriter> writer;
+  private final SchemaRegistryClient schemaRegistryClient;
+  private final Serializer<GenericRow> fallback;
+  private final Map<String, Integer> schemaIds = new HashMap<>();
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private BinaryEncoder encoder;
+
+  KsqlAvroSerializer(
+      final Schema ksqlSchema,
+      final AvroDataTranslator translator,
+      final SchemaRegistryClient schemaRegistryClient,
+      final Serializer<GenericRow> fallback) {
+    Objects.requireNonNull(ksqlSchema, "ksqlSchema");
+    this.avroSchema = toAvroRecordSchema(translator.getAvroCompatibleSchema());
+    this.writer = KsqlAvroDatumWriter.create(ksqlSchema, avroSchema);
+    this.schemaRegistryClient = schemaRegistryClient;
+    this.fallback = Objects.requireNonNull(fallback, "fallback");
+  }
+
+  private static org.apache.avro.Schema toAvroRecordSchema(final Schema avroCompatibleSchema) {
+    final AvroData avroData = new AvroData(new AvroDataConfig(
+        Collections.singletonMap(AvroDataConfig.CONNECT_META_DATA_CONFIG, false)));
+    final org.apache.avro.Schema avroSchema = avroData.fromConnectSchema(avroCompatibleSchema);
+    if (avroSchema.getType() != org.apache.avro.Schema.Type.UNION) {
+      return avroSchema;
+    }
+    // An optional row schema becomes a union with null, but records are registered, and
+    // written, with the schema of the record itself:
+    for (final org.apache.avro.Schema type : avroSchema.getTypes()) {
+      if (type.getType() != org.apache.avro.Schema.Type.NULL) {
+        return type;
+      }
+    }
+    return avroSchema;
+  }
+
+  @Override
+  public void configure(final Map<String, ?> map, final boolean isKey) {
+    fallback.configure(map, isKey);
+  }
+
+  @Override
+  public byte[] serialize(final String topic, final GenericRow genericRow) {
+    if (!writer.isPresent()) {
+      return fallback.serialize(topic, genericRow);
+    }
+    if (genericRow == null) {
+      return null;
+    }
+
+    final int schemaId = getSchemaId(topic);
+    try {
+      // reconfigure the encoder first, as that flushes anything left by a failed write:
+      encoder = EncoderFactory.get().binaryEncoder(out, encoder);
+      out.reset();
+      out.write(MAGIC_BYTE);
+      out.write(schemaId >>> 24);
+      out.write(schemaId >>> 16);
+      out.write(schemaId >>> 8);
+      out.write(schemaId);
+      writer.get().write(genericRow, encoder);
+      encoder.flush();
+      return out.toByteArray();
+    } catch (final IOException e) {
+      throw new SerializationException(
+          "Error serializing row to topic " + topic + " using Avro", e);
+    }
+  }
+
+  private int getSchemaId(final String topic) {
+    final Integer cached = schemaIds.get(topic);
+    if (cached != null) {
+      return cached;
+    }
+    try {
+      final int schemaId = schemaRegistryClient.register(topic + VALUE_SUBJECT_SUFFIX, avroSchema);
+      schemaIds.put(topic, schemaId);
+      return schemaId;
+    } catch (final IOException | RestClientException e) {
+      throw new SerializationException("Error registering Avro schema: " + avroSchema, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    fallback.close();
+  }
+}
@@ -17,6 +17,7 @@ package io.confluent.ksql.serde.avro;
 import static io.confluent.ksql.processing.log.ProcessingLoggerUtil.join;
 
 import com.google.common.collect.ImmutableMap;
+import io.confluent.common.logging.StructuredLogger;
 import io.confluent.connect.avro.AvroConverter;
 import io.confluent.connect.avro.AvroDataConfig;
 import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
@@ -33,6 +34,7 @@ import io.confluent.ksql.serde.util.SerdeUtils;
 import io.confluent.ksql.util.KsqlConfig;
 import io.confluent.ksql.util.SchemaUtil;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Supplier;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.Serde;
@@ -75,21 +77,54 @@ public class KsqlAvroTopicSerDe extends KsqlTopicSerDe {
       final Supplier<SchemaRegistryClient> schemaRegistryClientFactory,
       final String loggerNamePrefix,
       final ProcessingLogContext processingLogContext) {
+    return getGenericRowSerde(
+        schemaMaybeWithSource,
+        ksqlConfig,
+        isInternal,
+        schemaRegistryClientFactory,
+        loggerNamePrefix,
+        processingLogContext,
+        SerdeUtils.getColumnNames(schemaMaybeWithSource));
+  }
+
+  @Override
+  public Serde<GenericRow> getGenericRowSerde(
+      final Schema schemaMaybeWithSource,
+      final KsqlConfig ksqlConfig,
+      final boolean isInternal,
+      final Supplier<SchemaRegistryClient> schemaRegistryClientFactory,
+      final String loggerNamePrefix,
+      final ProcessingLogContext processingLogContext,
+      final Set<String> requiredColumns) {
     final Schema schema = isInternal
         ? schemaMaybeWithSource : SchemaUtil.getSchemaWithNoAlias(schemaMaybeWithSource);
-    final Serializer<GenericRow> genericRowSerializer = new ThreadLocalSerializer(
-        () -> new KsqlConnectSerializer(
-            new AvroDataTranslator(schema, this.fullSchemaName),
-            getAvroConverter(schemaRegistryClientFactory.get(), ksqlConfig)));
-    final Deserializer<GenericRow> genericRowDeserializer = new ThreadLocalDeserializer(
-        () -> new KsqlConnectDeserializer(
-            getAvroConverter(schemaRegistryClientFactory.get(), ksqlConfig),
-            new AvroDataTranslator(schema, this.fullSchemaName),
-            processingLogContext.getLoggerFactory().getLogger(
-                join(loggerNamePrefix, SerdeUtils.DESERIALIZER_LOGGER_NAME)),
-            processingLogContext
-        )
-    );
+    final Serializer<GenericRow> genericRowSerializer = new ThreadLocalSerializer(() -> {
+      final SchemaRegistryClient schemaRegistryClient = schemaRegistryClientFactory.get();
+      final AvroDataTranslator translator = new AvroDataTranslator(schema, this.fullSchemaName);
+      return new KsqlAvroSerializer(
+          schema,
+          translator,
+          schemaRegistryClient,
+          new KsqlConnectSerializer(
+              translator,
+              getAvroConverter(schemaRegistryClient, ksqlConfig)));
+    });
+    final Deserializer<GenericRow> genericRowDeserializer = new ThreadLocalDeserializer(() -> {
+      final SchemaRegistryClient schemaRegistryClient = schemaRegistryClientFactory.get();
+      final StructuredLogger recordLogger = processingLogContext.getLoggerFactory().getLogger(
+          join(loggerNamePrefix, SerdeUtils.DESERIALIZER_LOGGER_NAME));
+      return new KsqlAvroDeserializer(
+          schema,
+          requiredColumns,
+          schemaRegistryClient,
+          new KsqlConnectDeserializer(
+              getAvroConverter(schemaRegistryClient, ksqlConfig),
+              new AvroDataTranslator(schema, this.fullSchemaName, requiredColumns),
+              recordLogger,
+              processingLogContext),
+          recordLogger,
+          processingLogContext);
+    });
     return Serdes.serdeFrom(genericRowSerializer, genericRowDeserializer);
   }
 }
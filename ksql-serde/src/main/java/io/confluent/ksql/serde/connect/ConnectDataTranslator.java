@@ -15,12 +15,16 @@
 package io.confluent.ksql.serde.connect;
 
 import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.serde.util.SerdeUtils;
 import io.confluent.ksql.util.KsqlException;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
 import org.apache.kafka.connect.data.Date;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
@@ -32,10 +36,26 @@ import org.apache.kafka.connect.errors.DataException;
 public class ConnectDataTranslator implements DataTranslator {
   private static final String PATH_SEPARATOR = "->";
 
+  private static final Predicate<Field> ALL_FIELDS = field -> true;
+
   private final Schema schema;
+  private final Predicate<Field> isRequiredColumn;
 
   public ConnectDataTranslator(final Schema schema) {
+    this(schema, SerdeUtils.getColumnNames(schema));
+  }
+
+  /**
+   * @param requiredColumns the names of the columns to translate. Other columns are left
+   *                        {@code null} in the rows returned by {@link #toKsqlRow}.
+   */
+  public ConnectDataTranslator(final Schema schema, final Set<String> requiredColumns) {
     this.schema = schema;
+    Objects.requireNonNull(requiredColumns, "requiredColumns");
+    final boolean[] required = new boolean[schema.fields().size()];
+    schema.fields().forEach(
+        field -> required[field.index()] = SerdeUtils.isRequiredColumn(field, requiredColumns));
+    this.isRequiredColumn = field -> required[field.index()];
   }
 
   @Override
@@ -45,10 +65,15 @@ public class ConnectDataTranslator implements DataTranslator {
       throw new KsqlException("Schema for a KSQL row should be a struct");
     }
 
-    final Struct rowStruct = (Struct) toKsqlValue(schema, connectSchema, connectData, "");
-    if (rowStruct == null) {
+    if (connectSchema == null) {
       return null;
     }
+    validateSchema("", schema, connectSchema);
+    if (connectData == null) {
+      return null;
+    }
+    final Struct rowStruct =
+        toKsqlStruct(schema, connectSchema, (Struct) connectData, "", isRequiredColumn);
 
     // streams are expensive, so we don't use them from serdes. build the row using forEach
     final List<Object> fields = new ArrayList<>(schema.fields().size());
@@ -192,7 +217,7 @@ public class ConnectDataTranslator implements DataTranslator {
             schema.keySchema(), connectSchema.keySchema(),
             schema.valueSchema(), connectSchema.valueSchema(), (Map) convertedValue, pathStr);
       case STRUCT:
-        return toKsqlStruct(schema, connectSchema, (Struct) convertedValue, pathStr);
+        return toKsqlStruct(schema, connectSchema, (Struct) convertedValue, pathStr, ALL_FIELDS);
       case STRING:
         // use String.valueOf to convert various int types and Boolean to string
         return String.valueOf(convertedValue);
@@ -239,12 +264,16 @@ public class ConnectDataTranslator implements DataTranslator {
   private Struct toKsqlStruct(final Schema schema,
                               final Schema connectSchema,
                               final Struct connectStruct,
-                              final String pathStr) {
+                              final String pathStr,
+                              final Predicate<Field> isRequiredField) {
     // todo: check name here? e.g. what if the struct gets changed to a union?
     final Struct ksqlStruct = new Struct(schema);
     final Map<String, Field> caseInsensitiveFieldMap =
         getCaseInsensitiveFieldMap(connectSchema);
     schema.fields().forEach(field -> {
+      if (!isRequiredField.test(field)) {
+        return;
+      }
       final String fieldNameUppercase = field.name().toUpperCase();
       // TODO: should we throw an exception if this is not true? this means the schema changed
       //       or the user declared the source with a schema incompatible with the registry schema
@@ -18,6 +18,7 @@ import io.confluent.common.logging.StructuredLogger;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.processing.log.ProcessingLogContext;
 import io.confluent.ksql.serde.util.SerdeProcessingLogMessageFactory;
+import io.confluent.ksql.serde.util.SerdeUtils;
 import io.confluent.ksql.util.KsqlException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -25,16 +26,50 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
+import java.util.Set;
 import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 
+/**
+ * Deserializes a delimited line into a {@link GenericRow}.
+ *
+ * <p>The UTF-8 bytes are scanned once to find the bounds of each field, following the same rules
+ * as {@code CSVFormat.DEFAULT}: fields may be enclosed in double quotes, a doubled quote inside a
+ * quoted field is a literal quote, and the first line break ends the record. Numeric and boolean
+ * fields are then parsed straight from the bytes. Only the fields that end up as strings, and the
+ * rare numeric fields the fast paths do not handle, are decoded into a {@code String}.
+ */
 public class KsqlDelimitedDeserializer implements Deserializer<GenericRow> {
 
+  static final char DEFAULT_DELIMITER = ',';
+
+  private static final byte QUOTE = '"';
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+
+  // Fields in the bounds array: start, end and whether the field contains doubled quotes.
+  private static final int START = 0;
+  private static final int END = 1;
+  private static final int ESCAPED = 2;
+  private static final int BOUNDS_PER_FIELD = 3;
+
+  // Flags integers the fast path can not parse, which are then parsed from a String.
+  // This includes Long.MIN_VALUE itself, which is rare enough not to matter.
+  private static final long NOT_PARSED = Long.MIN_VALUE;
+
+  // Doubles with at most this many digits, and this many after the decimal point, can be
+  // computed exactly from their digits with a single, correctly rounded, division:
+  private static final int MAX_EXACT_DOUBLE_DIGITS = 15;
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
   private final Schema schema;
+  private final byte delimiter;
+  private final boolean[] requiredColumns;
   private final StructuredLogger recordLogger;
   private final ProcessingLogContext processingLogContext;
 
@@ -42,11 +77,41 @@ public class KsqlDelimitedDeserializer implements Deserializer<GenericRow> {
       final Schema schema,
       final StructuredLogger recordLogger,
       final ProcessingLogContext processingLogContext) {
+    this(schema, recordLogger, processingLogContext, SerdeUtils.getColumnNames(schema));
+  }
+
+  KsqlDelimitedDeserializer(
+      final Schema schema,
+      final StructuredLogger recordLogger,
+      final ProcessingLogContext processingLogContext,
+      final Set<String> requiredColumns) {
+    this(schema, DEFAULT_DELIMITER, recordLogger, processingLogContext, requiredColumns);
+  }
+
+  KsqlDelimitedDeserializer(
+      final Schema schema,
+      final char delimiter,
+      final StructuredLogger recordLogger,
+      final ProcessingLogContext processingLogContext,
+      final Set<String> requiredColumns) {
     this.schema = Objects.requireNonNull(schema);
+    this.delimiter = toDelimiterByte(delimiter);
+    this.requiredColumns = new boolean[schema.fields().size()];
+    for (final Field field : schema.fields()) {
+      this.requiredColumns[field.index()] = SerdeUtils.isRequiredColumn(field, requiredColumns);
+    }
     this.recordLogger = Objects.requireNonNull(recordLogger);
     this.processingLogContext = Objects.requireNonNull(processingLogContext);
   }
 
+  static byte toDelimiterByte(final char delimiter) {
+    if (delimiter > 0x7F || delimiter == QUOTE || delimiter == CR || delimiter == LF) {
+      throw new KsqlException("Invalid delimiter: '" + delimiter + "'. "
+          + "The delimiter must be a single ASCII character other than a quote or line break.");
+    }
+    return (byte) delimiter;
+  }
+
   @Override
   public void configure(final Map<String, ?> map, final boolean b) {
   }
@@ -56,36 +121,34 @@ public class KsqlDelimitedDeserializer implements Deserializer<GenericRow> {
     if (bytes == null) {
       return null;
     }
-    final String recordCsvString = new String(bytes, StandardCharsets.UTF_8);
     try {
-      final List<CSVRecord> csvRecords = CSVParser.parse(recordCsvString, CSVFormat.DEFAULT)
-          .getRecords();
+      final int fieldCount = schema.fields().size();
+      final int[] bounds = new int[fieldCount * BOUNDS_PER_FIELD];
+      final int csvFieldCount = scanFields(bytes, bounds);
 
-      if (csvRecords == null || csvRecords.isEmpty()) {
-        throw new KsqlException("Deserialization error in the delimited line: " + recordCsvString);
-      }
-      final CSVRecord csvRecord = csvRecords.get(0);
-      if (csvRecord == null || csvRecord.size() == 0) {
-        throw new KsqlException("Deserialization error in the delimited line: " + recordCsvString);
-      }
-      final List<Object> columns = new ArrayList<>();
-      if (csvRecord.size() != schema.fields().size()) {
+      if (csvFieldCount != fieldCount) {
         throw new KsqlException(
             String.format(
               "Unexpected field count, csvFields:%d schemaFields:%d line: %s",
-              csvRecord.size(),
-              schema.fields().size(),
-              recordCsvString
+              csvFieldCount,
+              fieldCount,
+              new String(bytes, StandardCharsets.UTF_8)
           )
         );
       }
-      for (int i = 0; i < csvRecord.size(); i++) {
-        if (csvRecord.get(i) == null) {
+
+      final List<Object> columns = new ArrayList<>(fieldCount);
+      for (int i = 0; i < fieldCount; i++) {
+        if (!requiredColumns[i]) {
           columns.add(null);
         } else {
-          columns.add(enforceFieldType(schema.fields().get(i).schema(), csvRecord.get(i)));
+          columns.add(enforceFieldType(
+              schema.fields().get(i).schema(),
+              bytes,
+              bounds[i * BOUNDS_PER_FIELD + START],
+              bounds[i * BOUNDS_PER_FIELD + END],
+              bounds[i * BOUNDS_PER_FIELD + ESCAPED] != 0));
         }
-
       }
       return new GenericRow(columns);
     } catch (final Exception e) {
@@ -95,13 +158,132 @@ public class KsqlDelimitedDeserializer implements Deserializer<GenericRow> {
               Optional.ofNullable(bytes),
               processingLogContext.getConfig()));
       throw new SerializationException(
-          "Exception in deserializing the delimited row: " + recordCsvString,
+          "Exception in deserializing the delimited row: "
+              + new String(bytes, StandardCharsets.UTF_8),
           e
       );
     }
   }
 
-  private Object enforceFieldType(final Schema fieldSchema, final String delimitedField) {
+  /**
+   * Finds the bounds of the fields of the first record in {@code bytes}, storing the bounds of
+   * as many fields as fit in {@code bounds}.
+   *
+   * @return the number of fields in the record.
+   */
+  private int scanFields(final byte[] bytes, final int[] bounds) {
+    int pos = 0;
+    // Empty lines are ignored:
+    while (pos < bytes.length && (bytes[pos] == CR || bytes[pos] == LF)) {
+      pos++;
+    }
+    if (pos == bytes.length) {
+      throw new KsqlException("Deserialization error in the delimited line: "
+          + new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    int fieldCount = 0;
+    while (true) {
+      final int start;
+      final int end;
+      boolean escaped = false;
+
+      if (pos < bytes.length && bytes[pos] == QUOTE) {
+        start = pos + 1;
+        pos = start;
+        while (true) {
+          if (pos == bytes.length) {
+            throw new KsqlException("EOF reached before encapsulated token finished");
+          }
+          if (bytes[pos] == QUOTE) {
+            if (pos + 1 < bytes.length && bytes[pos + 1] == QUOTE) {
+              escaped = true;
+              pos += 2;
+              continue;
+            }
+            break;
+          }
+          pos++;
+        }
+        end = pos;
+        pos++;
+        // Whitespace between the closing quote and the delimiter is ignored:
+        while (pos < bytes.length && !isEndOfField(bytes[pos])) {
+          if (!Character.isWhitespace(bytes[pos])) {
+            throw new KsqlException(
+                "Invalid char between encapsulated token and delimiter at position " + pos);
+          }
+          pos++;
+        }
+      } else {
+        start = pos;
+        while (pos < bytes.length && !isEndOfField(bytes[pos])) {
+          pos++;
+        }
+        end = pos;
+      }
+
+      if (fieldCount * BOUNDS_PER_FIELD < bounds.length) {
+        final int offset = fieldCount * BOUNDS_PER_FIELD;
+        bounds[offset + START] = start;
+        bounds[offset + END] = end;
+        bounds[offset + ESCAPED] = escaped ? 1 : 0;
+      }
+      fieldCount++;
+
+      if (pos == bytes.length || bytes[pos] != delimiter) {
+        return fieldCount;
+      }
+      pos++;
+    }
+  }
+
+  private boolean isEndOfField(final byte b) {
+    return b == delimiter || b == CR || b == LF;
+  }
+
+  private static Object enforceFieldType(
+      final Schema fieldSchema,
+      final byte[] bytes,
+      final int start,
+      final int end,
+      final boolean escaped
+  ) {
+    if (start == end) {
+      return null;
+    }
+    if (escaped) {
+      return enforceFieldType(fieldSchema, unescape(bytes, start, end));
+    }
+    switch (fieldSchema.type()) {
+      case BOOLEAN:
+        return parseBoolean(bytes, start, end);
+      case INT32: {
+        final long value = parseLong(bytes, start, end, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        return value == NOT_PARSED
+            ? enforceFieldType(fieldSchema, decode(bytes, start, end))
+            : (Object) (int) value;
+      }
+      case INT64: {
+        final long value = parseLong(bytes, start, end, Long.MIN_VALUE + 1, Long.MAX_VALUE);
+        return value == NOT_PARSED
+            ? enforceFieldType(fieldSchema, decode(bytes, start, end))
+            : (Object) value;
+      }
+      case FLOAT64: {
+        final double value = parseDouble(bytes, start, end);
+        return Double.isNaN(value)
+            ? enforceFieldType(fieldSchema, decode(bytes, start, end))
+            : (Object) value;
+      }
+      case STRING:
+        return decode(bytes, start, end);
+      default:
+        return enforceFieldType(fieldSchema, decode(bytes, start, end));
+    }
+  }
+
+  private static Object enforceFieldType(final Schema fieldSchema, final String delimitedField) {
 
     if (delimitedField.isEmpty()) {
       return null;
@@ -124,6 +306,110 @@ public class KsqlDelimitedDeserializer implements Deserializer<GenericRow> {
     }
   }
 
+  private static String decode(final byte[] bytes, final int start, final int end) {
+    return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+  }
+
+  private static String unescape(final byte[] bytes, final int start, final int end) {
+    final byte[] unescaped = new byte[end - start];
+    int length = 0;
+    for (int i = start; i < end; i++) {
+      unescaped[length++] = bytes[i];
+      if (bytes[i] == QUOTE) {
+        // skip the second quote of the pair
+        i++;
+      }
+    }
+    return new String(unescaped, 0, length, StandardCharsets.UTF_8);
+  }
+
+  private static boolean parseBoolean(final byte[] bytes, final int start, final int end) {
+    return end - start == 4
+        && (bytes[start] | 0x20) == 't'
+        && (bytes[start + 1] | 0x20) == 'r'
+        && (bytes[start + 2] | 0x20) == 'u'
+        && (bytes[start + 3] | 0x20) == 'e';
+  }
+
+  /**
+   * Parses an optionally signed run of ASCII digits within {@code [min, max]}.
+   *
+   * @return the value, or {@link #NOT_PARSED} if the field is anything else.
+   */
+  private static long parseLong(
+      final byte[] bytes,
+      final int start,
+      final int end,
+      final long min,
+      final long max
+  ) {
+    int pos = start;
+    final boolean negative = bytes[pos] == '-';
+    if (negative || bytes[pos] == '+') {
+      pos++;
+    }
+    if (pos == end) {
+      return NOT_PARSED;
+    }
+
+    // Accumulate negatively, as the negative range is the larger one:
+    final long limit = negative ? min : -max;
+    final long multiplyLimit = limit / 10;
+    long result = 0;
+    for (; pos < end; pos++) {
+      final int digit = bytes[pos] - '0';
+      if (digit < 0 || digit > 9 || result < multiplyLimit) {
+        return NOT_PARSED;
+      }
+      result *= 10;
+      if (result < limit + digit) {
+        return NOT_PARSED;
+      }
+      result -= digit;
+    }
+    return negative ? result : -result;
+  }
+
+  /**
+   * Parses a plain decimal such as {@code -12.50}, when it can be computed exactly.
+   *
+   * @return the value, or {@code NaN} if the field needs the full {@link Double#parseDouble}.
+   */
+  private static double parseDouble(final byte[] bytes, final int start, final int end) {
+    int pos = start;
+    final boolean negative = bytes[pos] == '-';
+    if (negative || bytes[pos] == '+') {
+      pos++;
+    }
+
+    long mantissa = 0;
+    int digits = 0;
+    int fractionDigits = -1;
+    for (; pos < end; pos++) {
+      final byte b = bytes[pos];
+      if (b == '.' && fractionDigits < 0) {
+        fractionDigits = 0;
+        continue;
+      }
+      final int digit = b - '0';
+      if (digit < 0 || digit > 9 || ++digits > MAX_EXACT_DOUBLE_DIGITS) {
+        return Double.NaN;
+      }
+      mantissa = mantissa * 10 + digit;
+      if (fractionDigits >= 0) {
+        fractionDigits++;
+      }
+    }
+    if (digits == 0) {
+      return Double.NaN;
+    }
+
+    final double value = fractionDigits > 0
+        ? mantissa / POWERS_OF_TEN[fractionDigits]
+        : mantissa;
+    return negative ? -value : value;
+  }
+
   @Override
   public void close() {
 
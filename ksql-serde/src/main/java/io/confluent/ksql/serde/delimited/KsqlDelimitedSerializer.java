@@ -28,9 +28,15 @@ import org.apache.kafka.connect.data.Schema;
 public class KsqlDelimitedSerializer implements Serializer<GenericRow> {
 
   private final Schema schema;
+  private final CSVFormat csvFormat;
 
   public KsqlDelimitedSerializer(final Schema schema) {
+    this(schema, KsqlDelimitedDeserializer.DEFAULT_DELIMITER);
+  }
+
+  public KsqlDelimitedSerializer(final Schema schema, final char delimiter) {
     this.schema = schema;
+    this.csvFormat = CSVFormat.DEFAULT.withDelimiter(delimiter);
   }
 
   @Override
@@ -45,7 +51,7 @@ public class KsqlDelimitedSerializer implements Serializer<GenericRow> {
     }
     try {
       final StringWriter stringWriter = new StringWriter();
-      final CSVPrinter csvPrinter = new CSVPrinter(stringWriter, CSVFormat.DEFAULT);
+      final CSVPrinter csvPrinter = new CSVPrinter(stringWriter, csvFormat);
       csvPrinter.printRecord(genericRow.getColumns());
       final String result = stringWriter.toString();
       return result.substring(0, result.length() - 2).getBytes(StandardCharsets.UTF_8);
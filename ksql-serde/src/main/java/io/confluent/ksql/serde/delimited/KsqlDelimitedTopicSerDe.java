@@ -23,8 +23,10 @@ import io.confluent.ksql.serde.DataSource;
 import io.confluent.ksql.serde.KsqlTopicSerDe;
 import io.confluent.ksql.serde.util.SerdeUtils;
 import io.confluent.ksql.util.KsqlConfig;
+import io.confluent.ksql.util.KsqlException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.Serde;
@@ -35,8 +37,40 @@ import org.apache.kafka.connect.data.Schema;
 
 public class KsqlDelimitedTopicSerDe extends KsqlTopicSerDe {
 
+  private final char delimiter;
+
   public KsqlDelimitedTopicSerDe() {
+    this(KsqlDelimitedDeserializer.DEFAULT_DELIMITER);
+  }
+
+  public KsqlDelimitedTopicSerDe(final char delimiter) {
     super(DataSource.DataSourceSerDe.DELIMITED);
+    KsqlDelimitedDeserializer.toDelimiterByte(delimiter);
+    this.delimiter = delimiter;
+  }
+
+  /**
+   * Parses the value of a {@code VALUE_DELIMITER} property: a single character, or {@code TAB}
+   * or {@code SPACE}.
+   *
+   * @param delimiter the value of the property, without quotes.
+   * @return the delimiter.
+   * @throws KsqlException if the value is not a valid delimiter.
+   */
+  public static char parseDelimiter(final String delimiter) {
+    if (delimiter.length() == 1) {
+      KsqlDelimitedDeserializer.toDelimiterByte(delimiter.charAt(0));
+      return delimiter.charAt(0);
+    }
+    switch (delimiter.toUpperCase()) {
+      case "TAB":
+        return '\t';
+      case "SPACE":
+        return ' ';
+      default:
+        throw new KsqlException("Invalid delimiter: '" + delimiter + "'. "
+            + "The delimiter must be a single character, or TAB or SPACE.");
+    }
   }
 
   @Override
@@ -47,16 +81,38 @@ public class KsqlDelimitedTopicSerDe extends KsqlTopicSerDe {
       final Supplier<SchemaRegistryClient> schemaRegistryClientFactory,
       final String loggerNamePrefix,
       final ProcessingLogContext processingLogContext) {
+    return getGenericRowSerde(
+        schema,
+        ksqlConfig,
+        isInternal,
+        schemaRegistryClientFactory,
+        loggerNamePrefix,
+        processingLogContext,
+        SerdeUtils.getColumnNames(schema));
+  }
+
+  @Override
+  public Serde<GenericRow> getGenericRowSerde(
+      final Schema schema,
+      final KsqlConfig ksqlConfig,
+      final boolean isInternal,
+      final Supplier<SchemaRegistryClient> schemaRegistryClientFactory,
+      final String loggerNamePrefix,
+      final ProcessingLogContext processingLogContext,
+      final Set<String> requiredColumns) {
     final Map<String, Object> serdeProps = new HashMap<>();
 
-    final Serializer<GenericRow> genericRowSerializer = new KsqlDelimitedSerializer(schema);
+    final Serializer<GenericRow> genericRowSerializer =
+        new KsqlDelimitedSerializer(schema, delimiter);
     genericRowSerializer.configure(serdeProps, false);
 
     final Deserializer<GenericRow> genericRowDeserializer = new KsqlDelimitedDeserializer(
         schema,
+        delimiter,
         processingLogContext.getLoggerFactory().getLogger(
             join(loggerNamePrefix, SerdeUtils.DESERIALIZER_LOGGER_NAME)),
-        processingLogContext
+        processingLogContext,
+        requiredColumns
     );
     genericRowDeserializer.configure(serdeProps, false);
 
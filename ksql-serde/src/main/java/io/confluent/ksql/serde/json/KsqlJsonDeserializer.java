@@ -12,9 +12,13 @@
  * specific language governing permissions and limitations under the License.
  */
 
+
 package io.confluent.ksql.serde.json;
 
-import com.google.gson.Gson;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import io.confluent.common.logging.StructuredLogger;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.processing.log.ProcessingLogContext;
@@ -22,6 +26,8 @@ import io.confluent.ksql.serde.util.SerdeProcessingLogMessageFactory;
 import io.confluent.ksql.serde.util.SerdeUtils;
 import io.confluent.ksql.util.KsqlException;
 import io.confluent.ksql.util.SchemaUtil;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -29,40 +35,74 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
-import org.apache.kafka.connect.data.SchemaAndValue;
 import org.apache.kafka.connect.data.Struct;
-import org.apache.kafka.connect.json.JsonConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Deserializes JSON objects into {@link GenericRow}s.
+ *
+ * <p>The JSON is read as a stream of tokens, directly into the types required by the schema.
+ * The readers for each column are built once, up front, from the schema, so that per-record work
+ * is limited to matching field names and converting values. Fields that are not part of the
+ * schema, or not required by the query, are skipped without being materialized.
+ */
 public class KsqlJsonDeserializer implements Deserializer<GenericRow> {
   private static final Logger LOG = LoggerFactory.getLogger(KsqlJsonDeserializer.class);
 
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
   private final Schema schema;
-  private final JsonConverter jsonConverter;
+  private final FieldLookup rowFields;
+  private final ValueReader[] columnReaders;
   private final StructuredLogger recordLogger;
   private final ProcessingLogContext processingLogContext;
 
-  private final Gson gson;
-
   public KsqlJsonDeserializer(
       final Schema schema,
       final boolean isInternal,
       final StructuredLogger recordLogger,
       final ProcessingLogContext processingLogContext) {
-    gson = new Gson();
+    this(
+        schema,
+        isInternal,
+        recordLogger,
+        processingLogContext,
+        SerdeUtils.getColumnNames(schema));
+  }
+
+  /**
+   * @param requiredColumns the names of the columns to read. Other columns are skipped, and
+   *                        left {@code null} in the deserialized rows.
+   */
+  public KsqlJsonDeserializer(
+      final Schema schema,
+      final boolean isInternal,
+      final StructuredLogger recordLogger,
+      final ProcessingLogContext processingLogContext,
+      final Set<String> requiredColumns) {
     // If this is a Deserializer for an internal topic in the streams app
     if (isInternal) {
       this.schema = schema;
     } else {
       this.schema = SchemaUtil.getSchemaWithNoAlias(schema);
     }
-    jsonConverter = new JsonConverter();
-    jsonConverter.configure(Collections.singletonMap("schemas.enable", false), false);
+    Objects.requireNonNull(requiredColumns, "requiredColumns");
+    final List<Field> fields = this.schema.fields();
+    this.rowFields = FieldLookup.forRow(
+        fields, field -> SerdeUtils.isRequiredColumn(field, requiredColumns));
+    this.columnReaders = new ValueReader[fields.size()];
+    for (final Field field : fields) {
+      if (SerdeUtils.isRequiredColumn(field, requiredColumns)) {
+        columnReaders[field.index()] = readerFor(field.schema());
+      }
+    }
     this.recordLogger = Objects.requireNonNull(recordLogger);
     this.processingLogContext = Objects.requireNonNull(processingLogContext);
   }
@@ -90,115 +130,275 @@ public class KsqlJsonDeserializer implements Deserializer<GenericRow> {
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private GenericRow getGenericRow(final byte[] rowJsonBytes) {
-    final SchemaAndValue schemaAndValue = jsonConverter.toConnectData("topic", rowJsonBytes);
-    final Map<String, Object> valueMap = (Map) schemaAndValue.value();
-    if (valueMap == null) {
+  private GenericRow getGenericRow(final byte[] rowJsonBytes) throws IOException {
+    if (rowJsonBytes == null) {
       return null;
     }
 
-    final Map<String, String> caseInsensitiveFieldNameMap =
-        getCaseInsensitiveFieldNameMap(valueMap, true);
+    try (JsonParser parser = JSON_FACTORY.createParser(rowJsonBytes)) {
+      final JsonToken token = parser.nextToken();
+      if (token == null || token == JsonToken.VALUE_NULL) {
+        return null;
+      }
+      if (token != JsonToken.START_OBJECT) {
+        throw new KsqlException("Expected a JSON object but got: " + token);
+      }
+
+      // Must be mutable: downstream nodes insert the ROWTIME and ROWKEY columns into the row.
+      final List<Object> columns = new ArrayList<>(Collections.nCopies(columnReaders.length, null));
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String fieldName = parser.getCurrentName();
+        parser.nextToken();
+
+        final int index = rowFields.indexOf(fieldName);
+        if (index < 0) {
+          parser.skipChildren();
+          continue;
+        }
 
-    final List<Object> columns = new ArrayList(schema.fields().size());
-    for (final Field field : schema.fields()) {
-      final Object columnVal = valueMap.get(caseInsensitiveFieldNameMap.get(field.name()));
-      columns.add(enforceFieldType(field.schema(), columnVal));
+        columns.set(index, columnReaders[index].read(parser));
+      }
+      return new GenericRow(columns);
     }
-    return new GenericRow(columns);
   }
 
-  // This is a temporary requirement until we can ensure that the types that Connect JSON
-  // convertor creates are supported in KSQL.
-  @SuppressWarnings("unchecked")
-  private Object enforceFieldType(final Schema fieldSchema, final Object columnVal) {
-    if (columnVal == null) {
-      return null;
-    }
+  private static ValueReader readerFor(final Schema fieldSchema) {
     switch (fieldSchema.type()) {
       case BOOLEAN:
-        return SerdeUtils.toBoolean(columnVal);
+        return nullSafe(parser -> SerdeUtils.toBoolean(readUntyped(parser)));
       case INT32:
-        return SerdeUtils.toInteger(columnVal);
+        return nullSafe(parser -> SerdeUtils.toInteger(readUntyped(parser)));
       case INT64:
-        return SerdeUtils.toLong(columnVal);
+        return nullSafe(KsqlJsonDeserializer::readLong);
       case FLOAT64:
-        return SerdeUtils.toDouble(columnVal);
+        return nullSafe(KsqlJsonDeserializer::readDouble);
       case STRING:
-        return processString(columnVal);
+        return nullSafe(KsqlJsonDeserializer::readString);
       case ARRAY:
-        return enforceFieldTypeForArray(fieldSchema, (List<?>) columnVal);
+        return nullSafe(arrayReader(readerFor(fieldSchema.valueSchema())));
       case MAP:
-        return enforceFieldTypeForMap(fieldSchema, (Map<String, Object>) columnVal);
+        return nullSafe(mapReader(readerFor(fieldSchema.valueSchema())));
       case STRUCT:
-        return enforceFieldTypeForStruct(fieldSchema, (Map<String, Object>) columnVal);
+        return nullSafe(structReader(fieldSchema));
       default:
         throw new KsqlException("Type is not supported: " + fieldSchema.type());
     }
   }
 
-  private String processString(final Object columnVal) {
-    if (columnVal instanceof Map) {
-      return gson.toJson(columnVal);
+  private static ValueReader nullSafe(final ValueReader reader) {
+    return parser -> parser.getCurrentToken() == JsonToken.VALUE_NULL
+        ? null
+        : reader.read(parser);
+  }
+
+  private static Object readLong(final JsonParser parser) throws IOException {
+    if (parser.getCurrentToken() == JsonToken.VALUE_NUMBER_INT) {
+      return parser.getLongValue();
     }
-    return columnVal.toString();
+    return SerdeUtils.toLong(readUntyped(parser));
   }
 
-  private List<?> enforceFieldTypeForArray(final Schema fieldSchema, final List<?> arrayList) {
-    final List<Object> array = new ArrayList<>(arrayList.size());
-    for (final Object item : arrayList) {
-      array.add(enforceFieldType(fieldSchema.valueSchema(), item));
+  private static Object readDouble(final JsonParser parser) throws IOException {
+    final JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT) {
+      return parser.getDoubleValue();
     }
-    return array;
-  }
-
-  private Map<String, Object> enforceFieldTypeForMap(
-      final Schema fieldSchema,
-      final Map<String, ?> columnMap) {
-    final Map<String, Object> ksqlMap = new HashMap<>();
-    for (final Map.Entry<String, ?> e : columnMap.entrySet()) {
-      ksqlMap.put(
-          enforceFieldType(Schema.OPTIONAL_STRING_SCHEMA, e.getKey()).toString(),
-          enforceFieldType(fieldSchema.valueSchema(), e.getValue())
-      );
+    return SerdeUtils.toDouble(readUntyped(parser));
+  }
+
+  private static Object readString(final JsonParser parser) throws IOException {
+    if (parser.getCurrentToken() == JsonToken.START_OBJECT) {
+      // Nested objects in VARCHAR columns are kept as their JSON text:
+      final StringWriter json = new StringWriter();
+      try (JsonGenerator generator = JSON_FACTORY.createGenerator(json)) {
+        generator.copyCurrentStructure(parser);
+      }
+      return json.toString();
     }
-    return ksqlMap;
-  }
-
-  private Struct enforceFieldTypeForStruct(
-      final Schema fieldSchema,
-      final Map<String, ?> structMap) {
-    final Struct columnStruct = new Struct(fieldSchema);
-    final Map<String, String> caseInsensitiveStructFieldNameMap =
-        getCaseInsensitiveFieldNameMap(structMap, false);
-    fieldSchema.fields()
-        .forEach(
-            field -> columnStruct.put(field.name(),
-                enforceFieldType(
-                    field.schema(), structMap.get(
-                        caseInsensitiveStructFieldNameMap.get(field.name().toUpperCase())
-                    ))));
-    return columnStruct;
-  }
-
-  private Map<String, String> getCaseInsensitiveFieldNameMap(final Map<String, ?> map,
-                                                             final boolean omitAt) {
-    final Map<String, String> keyMap = new HashMap<>();
-    for (final Map.Entry<String, ?> entry : map.entrySet()) {
-      if (omitAt && entry.getKey().startsWith("@")) {
-        if (entry.getKey().length() == 1) {
-          throw new KsqlException("Field name cannot be '@'.");
+    return readUntyped(parser).toString();
+  }
+
+  private static ValueReader arrayReader(final ValueReader elementReader) {
+    return parser -> {
+      expect(parser, JsonToken.START_ARRAY);
+      final List<Object> array = new ArrayList<>();
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        array.add(elementReader.read(parser));
+      }
+      return array;
+    };
+  }
+
+  private static ValueReader mapReader(final ValueReader valueReader) {
+    return parser -> {
+      expect(parser, JsonToken.START_OBJECT);
+      final Map<String, Object> map = new HashMap<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String key = parser.getCurrentName();
+        parser.nextToken();
+        map.put(key, valueReader.read(parser));
+      }
+      return map;
+    };
+  }
+
+  private static ValueReader structReader(final Schema structSchema) {
+    final List<Field> fields = structSchema.fields();
+    final FieldLookup lookup = FieldLookup.forStruct(fields);
+    final ValueReader[] fieldReaders = fields.stream()
+        .map(field -> readerFor(field.schema()))
+        .toArray(ValueReader[]::new);
+
+    return parser -> {
+      expect(parser, JsonToken.START_OBJECT);
+      final Object[] values = new Object[fieldReaders.length];
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String fieldName = parser.getCurrentName();
+        parser.nextToken();
+
+        final int index = lookup.indexOf(fieldName);
+        if (index < 0) {
+          parser.skipChildren();
+          continue;
         }
-        keyMap.put(entry.getKey().toUpperCase().substring(1), entry.getKey());
-      } else {
-        keyMap.put(entry.getKey().toUpperCase(), entry.getKey());
+
+        values[index] = fieldReaders[index].read(parser);
       }
+
+      final Struct struct = new Struct(structSchema);
+      for (int i = 0; i < values.length; i++) {
+        struct.put(fields.get(i), values[i]);
+      }
+      return struct;
+    };
+  }
+
+  /**
+   * Reads the current value without any schema, using the same types as Connect's schemaless
+   * {@code JsonConverter}: {@code Long} for integers, {@code Double} for decimals, and lists and
+   * maps for containers. Only used for values whose JSON type does not match the column type.
+   */
+  private static Object readUntyped(final JsonParser parser) throws IOException {
+    final JsonToken token = parser.getCurrentToken();
+    switch (token) {
+      case VALUE_NULL:
+        return null;
+      case VALUE_TRUE:
+        return true;
+      case VALUE_FALSE:
+        return false;
+      case VALUE_NUMBER_INT:
+        return parser.getLongValue();
+      case VALUE_NUMBER_FLOAT:
+        return parser.getDoubleValue();
+      case VALUE_STRING:
+        return parser.getText();
+      case START_ARRAY:
+        final List<Object> list = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          list.add(readUntyped(parser));
+        }
+        return list;
+      case START_OBJECT:
+        final Map<String, Object> map = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          final String key = parser.getCurrentName();
+          parser.nextToken();
+          map.put(key, readUntyped(parser));
+        }
+        return map;
+      default:
+        throw new KsqlException("Unexpected JSON token: " + token);
+    }
+  }
+
+  private static void expect(final JsonParser parser, final JsonToken expected) {
+    final JsonToken actual = parser.getCurrentToken();
+    if (actual != expected) {
+      throw new KsqlException("Expected JSON token " + expected + " but got: " + actual);
     }
-    return keyMap;
   }
 
   @Override
   public void close() {
   }
+
+  @FunctionalInterface
+  private interface ValueReader {
+    Object read(JsonParser parser) throws IOException;
+  }
+
+  /**
+   * Resolves JSON field names to field indexes, ignoring case.
+   *
+   * <p>Names that already match a field exactly are resolved without upper-casing the name.
+   */
+  private static final class FieldLookup {
+
+    private final Map<String, Integer> exactMatches;
+    private final Map<String, Integer> upperCaseMatches;
+    private final boolean stripAtPrefix;
+
+    private FieldLookup(
+        final Map<String, Integer> exactMatches,
+        final Map<String, Integer> upperCaseMatches,
+        final boolean stripAtPrefix
+    ) {
+      this.exactMatches = exactMatches;
+      this.upperCaseMatches = upperCaseMatches;
+      this.stripAtPrefix = stripAtPrefix;
+    }
+
+    /**
+     * Top level JSON field names are upper-cased and matched against the names of the included
+     * fields, and may be prefixed with '@'.
+     */
+    static FieldLookup forRow(final List<Field> fields, final Predicate<Field> include) {
+      final Map<String, Integer> exactMatches = new HashMap<>();
+      final Map<String, Integer> upperCaseMatches = new HashMap<>();
+      for (int i = 0; i < fields.size(); i++) {
+        if (!include.test(fields.get(i))) {
+          continue;
+        }
+        final String name = fields.get(i).name();
+        upperCaseMatches.put(name, i);
+        if (name.equals(name.toUpperCase())) {
+          exactMatches.put(name, i);
+        }
+      }
+      return new FieldLookup(exactMatches, upperCaseMatches, true);
+    }
+
+    /**
+     * Struct field names are matched against the upper-cased names of the struct's fields.
+     */
+    static FieldLookup forStruct(final List<Field> fields) {
+      final Map<String, Integer> exactMatches = new HashMap<>();
+      final Map<String, Integer> upperCaseMatches = new HashMap<>();
+      for (int i = 0; i < fields.size(); i++) {
+        final String name = fields.get(i).name();
+        upperCaseMatches.put(name.toUpperCase(), i);
+        if (name.equals(name.toUpperCase())) {
+          exactMatches.put(name, i);
+        }
+      }
+      return new FieldLookup(exactMatches, upperCaseMatches, false);
+    }
+
+    int indexOf(final String jsonFieldName) {
+      String name = jsonFieldName;
+      if (stripAtPrefix && name.startsWith("@")) {
+        if (name.length() == 1) {
+          throw new KsqlException("Field name cannot be '@'.");
+        }
+        name = name.substring(1);
+      }
+
+      Integer index = exactMatches.get(name);
+      if (index == null) {
+        index = upperCaseMatches.get(name.toUpperCase());
+      }
+      return index == null ? -1 : index;
+    }
+  }
 }
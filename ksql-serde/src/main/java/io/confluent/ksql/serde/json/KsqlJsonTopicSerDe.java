@@ -25,6 +25,7 @@ import io.confluent.ksql.serde.util.SerdeUtils;
 import io.confluent.ksql.util.KsqlConfig;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.Serde;
@@ -45,6 +46,25 @@ public class KsqlJsonTopicSerDe extends KsqlTopicSerDe {
       final Supplier<SchemaRegistryClient> schemaRegistryClientFactory,
       final String loggerNamePrefix,
       final ProcessingLogContext processingLogContext) {
+    return getGenericRowSerde(
+        schema,
+        ksqlConfig,
+        isInternal,
+        schemaRegistryClientFactory,
+        loggerNamePrefix,
+        processingLogContext,
+        SerdeUtils.getColumnNames(schema));
+  }
+
+  @Override
+  public Serde<GenericRow> getGenericRowSerde(
+      final Schema schema,
+      final KsqlConfig ksqlConfig,
+      final boolean isInternal,
+      final Supplier<SchemaRegistryClient> schemaRegistryClientFactory,
+      final String loggerNamePrefix,
+      final ProcessingLogContext processingLogContext,
+      final Set<String> requiredColumns) {
     final Map<String, Object> serdeProps = new HashMap<>();
     serdeProps.put("JsonPOJOClass", GenericRow.class);
 
@@ -56,7 +76,8 @@ public class KsqlJsonTopicSerDe extends KsqlTopicSerDe {
         isInternal,
         processingLogContext.getLoggerFactory().getLogger(
             join(loggerNamePrefix, SerdeUtils.DESERIALIZER_LOGGER_NAME)),
-        processingLogContext
+        processingLogContext,
+        requiredColumns
     );
 
     genericRowDeserializer.configure(serdeProps, false);
@@ -15,7 +15,12 @@
 package io.confluent.ksql.serde.util;
 
 import io.confluent.ksql.util.KsqlException;
+import io.confluent.ksql.util.SchemaUtil;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
 
 public final class SerdeUtils {
   public static final String DESERIALIZER_LOGGER_NAME = "deserializer";
@@ -23,6 +28,19 @@ public final class SerdeUtils {
   private SerdeUtils() {
   }
 
+  /**
+   * @return the names, without any source alias, of all the columns in {@code schema}.
+   */
+  public static Set<String> getColumnNames(final Schema schema) {
+    return schema.fields().stream()
+        .map(SchemaUtil::getFieldNameWithNoAlias)
+        .collect(Collectors.toSet());
+  }
+
+  public static boolean isRequiredColumn(final Field field, final Set<String> requiredColumns) {
+    return requiredColumns.contains(SchemaUtil.getFieldNameWithNoAlias(field));
+  }
+
   public static boolean toBoolean(final Object object) {
     Objects.requireNonNull(object, "Object cannot be null");
     if (object instanceof Boolean) {
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.serde.avro;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.confluent.connect.avro.AvroConverter;
+import io.confluent.connect.avro.AvroDataConfig;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.serializers.AbstractKafkaAvroSerDeConfig;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.processing.log.ProcessingLogContext;
+import io.confluent.ksql.serde.connect.KsqlConnectSerializer;
+import io.confluent.ksql.util.KsqlConfig;
+import io.confluent.ksql.util.KsqlConstants;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.Test;
+
+public class KsqlAvroSerializerTest {
+
+  private static final Schema ADDRESS_SCHEMA = SchemaBuilder.struct()
+      .field("STREET", Schema.OPTIONAL_STRING_SCHEMA)
+      .field("ZIP", Schema.OPTIONAL_INT32_SCHEMA)
+      .optional()
+      .build();
+
+  private static final Schema SCHEMA = SchemaBuilder.struct()
+      .field("ID", Schema.OPTIONAL_INT64_SCHEMA)
+      .field("NAME", Schema.OPTIONAL_STRING_SCHEMA)
+      .field("ACTIVE", Schema.OPTIONAL_BOOLEAN_SCHEMA)
+      .field("ADDRESS", ADDRESS_SCHEMA)
+      .field("TAGS", SchemaBuilder.array(Schema.OPTIONAL_STRING_SCHEMA).optional().build())
+      .field(
+          "SCORES",
+          SchemaBuilder.map(Schema.OPTIONAL_STRING_SCHEMA, Schema.OPTIONAL_FLOAT64_SCHEMA)
+              .optional()
+              .build())
+      .optional()
+      .build();
+
+  private final SchemaRegistryClient schemaRegistryClient = spy(new MockSchemaRegistryClient());
+  private final KsqlConfig ksqlConfig = new KsqlConfig(Collections.emptyMap());
+
+  @Test
+  public void shouldRoundTripNestedStructArrayAndMap() {
+    // Given:
+    final Serde<GenericRow> serde = avroSerde();
+    final GenericRow row = new GenericRow(Arrays.asList(
+        1L,
+        "alice",
+        true,
+        new Struct(ADDRESS_SCHEMA).put("STREET", "main").put("ZIP", 94301),
+        ImmutableList.of("a", "b"),
+        ImmutableMap.of("x", 1.5, "y", 2.5)));
+
+    // When:
+    final GenericRow result = serde.deserializer().deserialize(
+        "t1", serde.serializer().serialize("t1", row));
+
+    // Then:
+    assertThat(result.getColumns(), equalTo(row.getColumns()));
+  }
+
+  @Test
+  public void shouldRoundTripNulls() {
+    // Given:
+    final Serde<GenericRow> serde = avroSerde();
+    final GenericRow row = new GenericRow(Arrays.asList(
+        null,
+        null,
+        null,
+        new Struct(ADDRESS_SCHEMA).put("STREET", null).put("ZIP", 94301),
+        Arrays.asList("a", null),
+        Collections.singletonMap("x", null)));
+
+    // When:
+    final GenericRow result = serde.deserializer().deserialize(
+        "t1", serde.serializer().serialize("t1", row));
+
+    // Then:
+    assertThat(result.getColumns(), equalTo(row.getColumns()));
+  }
+
+  @Test
+  public void shouldRoundTripNullColumnsOfNestedTypes() {
+    // Given:
+    final Serde<GenericRow> serde = avroSerde();
+    final GenericRow row = new GenericRow(Arrays.asList(1L, "alice", false, null, null, null));
+
+    // When:
+    final GenericRow result = serde.deserializer().deserialize(
+        "t1", serde.serializer().serialize("t1", row));
+
+    // Then:
+    assertThat(result.getColumns(), equalTo(row.getColumns()));
+  }
+
+  @Test
+  public void shouldSerializeNullRowAsNull() {
+    assertThat(avroSerde().serializer().serialize("t1", null), nullValue());
+  }
+
+  @Test(expected = DataException.class)
+  public void shouldThrowOnValueOfWrongType() {
+    // Given:
+    final GenericRow row = new GenericRow(Arrays.asList(
+        "not a long", "alice", true, null, null, null));
+
+    // When:
+    avroSerde().serializer().serialize("t1", row);
+  }
+
+  @Test
+  public void shouldWriteSameBytesAsConnectSerializer() {
+    // Given:
+    final GenericRow row = new GenericRow(Arrays.asList(
+        1L,
+        "alice",
+        true,
+        new Struct(ADDRESS_SCHEMA).put("STREET", "main").put("ZIP", null),
+        ImmutableList.of("a", "b"),
+        ImmutableMap.of("x", 1.5)));
+    final AvroDataTranslator translator =
+        new AvroDataTranslator(SCHEMA, KsqlConstants.DEFAULT_AVRO_SCHEMA_FULL_NAME);
+    final Serializer<GenericRow> connectSerializer =
+        new KsqlConnectSerializer(translator, avroConverter());
+
+    // When:
+    final byte[] bytes = avroSerde().serializer().serialize("t1", row);
+
+    // Then:
+    assertThat(bytes, equalTo(connectSerializer.serialize("t1", row)));
+  }
+
+  @Test
+  public void shouldRegisterSchemaUnderValueSubjectOfTopic() throws Exception {
+    // Given:
+    final Serializer<GenericRow> serializer = avroSerde().serializer();
+    final GenericRow row = new GenericRow(Arrays.asList(1L, "alice", true, null, null, null));
+
+    // When:
+    final byte[] bytes = serializer.serialize("t1", row);
+
+    // Then:
+    assertThat(schemaRegistryClient.getAllSubjects(), contains("t1-value"));
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    assertThat(buffer.get(), equalTo((byte) 0));
+    assertThat(buffer.getInt(),
+        equalTo(schemaRegistryClient.getLatestSchemaMetadata("t1-value").getId()));
+  }
+
+  @Test
+  public void shouldRegisterSchemaOnceForEachTopic() throws Exception {
+    // Given:
+    final Serializer<GenericRow> serializer = avroSerde().serializer();
+    final GenericRow row = new GenericRow(Arrays.asList(1L, "alice", true, null, null, null));
+
+    // When:
+    serializer.serialize("t1", row);
+    serializer.serialize("t1", row);
+    serializer.serialize("t2", row);
+
+    // Then:
+    verify(schemaRegistryClient, times(1)).register(eq("t1-value"), any());
+    verify(schemaRegistryClient, times(1)).register(eq("t2-value"), any());
+    assertThat(schemaRegistryClient.getAllSubjects(),
+        containsInAnyOrder("t1-value", "t2-value"));
+  }
+
+  private Serde<GenericRow> avroSerde() {
+    return new KsqlAvroTopicSerDe(KsqlConstants.DEFAULT_AVRO_SCHEMA_FULL_NAME).getGenericRowSerde(
+        SCHEMA,
+        ksqlConfig,
+        false,
+        () -> schemaRegistryClient,
+        "loggerName",
+        ProcessingLogContext.create());
+  }
+
+  private AvroConverter avroConverter() {
+    final AvroConverter avroConverter = new AvroConverter(schemaRegistryClient);
+    avroConverter.configure(
+        ImmutableMap.of(
+            AbstractKafkaAvroSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            ksqlConfig.getString(KsqlConfig.SCHEMA_REGISTRY_URL_PROPERTY),
+            AvroDataConfig.CONNECT_META_DATA_CONFIG,
+            false
+        ),
+        false);
+    return avroConverter;
+  }
+}
@@ -16,9 +16,14 @@ package io.confluent.ksql.serde.avro;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.confluent.common.logging.StructuredLogger;
 import io.confluent.connect.avro.AvroConverter;
 import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
@@ -45,6 +50,7 @@ import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
 import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -188,6 +194,98 @@ public class KsqlGenericRowAvroDeserializerTest {
     Assert.assertNull(row.getColumns().get(5));
   }
 
+  @Test
+  public void shouldOnlyDeserializeRequiredColumns() {
+    // Given:
+    final SchemaRegistryClient schemaRegistryClient = new MockSchemaRegistryClient();
+    final byte[] bytes = serializeAvroRecord(
+        "t1", schemaRegistryClient, avroRecord(1511897796092L, 1L, "item_1", 10.0));
+
+    final Deserializer<GenericRow> deserializer =
+        new KsqlAvroTopicSerDe(KsqlConstants.DEFAULT_AVRO_SCHEMA_FULL_NAME).getGenericRowSerde(
+            schema,
+            ksqlConfig,
+            false,
+            () -> schemaRegistryClient,
+            "loggerName",
+            ProcessingLogContext.create(),
+            ImmutableSet.of("ORDERID", "ITEMID")).deserializer();
+
+    // When:
+    final GenericRow row = deserializer.deserialize("t1", bytes);
+
+    // Then:
+    assertThat(row.getColumns(), equalTo(Arrays.asList(null, 1L, "item_1", null, null, null)));
+  }
+
+  @Test
+  public void shouldOnlyFetchWriterSchemaOnceForEachSchemaId() throws Exception {
+    // Given:
+    final SchemaRegistryClient schemaRegistryClient = spy(new MockSchemaRegistryClient());
+    final byte[] bytes = serializeAvroRecord(
+        "t1", schemaRegistryClient, avroRecord(1511897796092L, 1L, "item_1", 10.0));
+    final Deserializer<GenericRow> deserializer = avroDeserializer(schema, schemaRegistryClient);
+
+    // When:
+    final GenericRow first = deserializer.deserialize("t1", bytes);
+    final GenericRow second = deserializer.deserialize("t1", bytes);
+
+    // Then:
+    assertThat(second, equalTo(first));
+    verify(schemaRegistryClient, times(1)).getById(anyInt());
+  }
+
+  @Test(expected = DataException.class)
+  public void shouldFailIfWriterTypeIsIncompatible() {
+    // Given:
+    final Schema ksqlSchema = SchemaBuilder.struct()
+        .field("ORDERTIME", Schema.OPTIONAL_INT32_SCHEMA)
+        .build();
+    final SchemaRegistryClient schemaRegistryClient = new MockSchemaRegistryClient();
+    final byte[] bytes = serializeAvroRecord(
+        "t1", schemaRegistryClient, avroRecord(1511897796092L, 1L, "item_1", 10.0));
+
+    // When:
+    avroDeserializer(ksqlSchema, schemaRegistryClient).deserialize("t1", bytes);
+  }
+
+  private GenericRecord avroRecord(
+      final long orderTime,
+      final long orderId,
+      final String itemId,
+      final double orderUnits) {
+    final GenericRecord avroRecord = new GenericData.Record(avroSchema);
+    avroRecord.put("orderTime", orderTime);
+    avroRecord.put("orderId", orderId);
+    avroRecord.put("itemId", itemId);
+    avroRecord.put("orderUnits", orderUnits);
+    avroRecord.put("arrayCol", Collections.emptyList());
+    avroRecord.put("mapCol", Collections.emptyMap());
+    return avroRecord;
+  }
+
+  private static byte[] serializeAvroRecord(
+      final String topicName,
+      final SchemaRegistryClient schemaRegistryClient,
+      final GenericRecord avroRecord) {
+    final Map<String, Object> map = new HashMap<>();
+    map.put(AbstractKafkaAvroSerDeConfig.AUTO_REGISTER_SCHEMAS, true);
+    map.put(AbstractKafkaAvroSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, "");
+    return new KafkaAvroSerializer(schemaRegistryClient, map).serialize(topicName, avroRecord);
+  }
+
+  private Deserializer<GenericRow> avroDeserializer(
+      final Schema schema,
+      final SchemaRegistryClient schemaRegistryClient) {
+    return new KsqlAvroTopicSerDe(KsqlConstants.DEFAULT_AVRO_SCHEMA_FULL_NAME).getGenericRowSerde(
+        schema,
+        ksqlConfig,
+        false,
+        () -> schemaRegistryClient,
+        "loggerName",
+        ProcessingLogContext.create()).deserializer();
+  }
+
   private GenericRow serializeDeserializeAvroRecord(final Schema schema,
                                                     final String topicName,
                                                     final SchemaRegistryClient schemaRegistryClient,
@@ -24,6 +24,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import com.google.common.collect.ImmutableMap;
 import io.confluent.ksql.GenericRow;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import org.apache.kafka.connect.data.Schema;
@@ -272,4 +273,25 @@ public class ConnectDataTranslatorTest {
     assertThat(row.getColumns().size(), equalTo(1));
     assertThat(row.getColumnValue(0), is(nullValue()));
   }
+
+  @Test
+  public void shouldOnlyTranslateRequiredColumns() {
+    // Given:
+    final Schema rowSchema = SchemaBuilder.struct()
+        .field("INT", SchemaBuilder.OPTIONAL_INT32_SCHEMA)
+        .field("STRING", SchemaBuilder.OPTIONAL_STRING_SCHEMA)
+        .optional()
+        .build();
+    final Struct connectStruct = new Struct(rowSchema)
+        .put("INT", 123)
+        .put("STRING", "foo");
+    final ConnectDataTranslator connectToKsqlTranslator =
+        new ConnectDataTranslator(rowSchema, Collections.singleton("STRING"));
+
+    // When:
+    final GenericRow row = connectToKsqlTranslator.toKsqlRow(rowSchema, connectStruct);
+
+    // Then:
+    assertThat(row.getColumns(), equalTo(Arrays.asList(null, "foo")));
+  }
 }
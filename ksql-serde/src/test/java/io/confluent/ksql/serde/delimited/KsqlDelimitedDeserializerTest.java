@@ -18,12 +18,14 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
+import com.google.common.collect.ImmutableSet;
 import io.confluent.common.logging.StructuredLogger;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.processing.log.ProcessingLogContext;
 import io.confluent.ksql.serde.SerdeTestUtils;
 import io.confluent.ksql.serde.util.SerdeProcessingLogMessageFactory;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Optional;
 import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.connect.data.Schema;
@@ -107,4 +109,88 @@ public class KsqlDelimitedDeserializerTest {
     Assert.assertNull(genericRow.getColumns().get(3));
   }
 
+  @Test
+  public void shouldOnlyDeserializeRequiredColumns() {
+    // Given:
+    final KsqlDelimitedDeserializer deserializer = new KsqlDelimitedDeserializer(
+        orderSchema,
+        recordLogger,
+        processingLogContext,
+        ImmutableSet.of("ORDERID", "ORDERUNITS"));
+
+    // When:
+    final GenericRow genericRow = deserializer.deserialize(
+        "",
+        "not-a-number,1,item_1,10.0\r\n".getBytes(StandardCharsets.UTF_8));
+
+    // Then:
+    assertThat(genericRow.getColumns(), equalTo(Arrays.asList(null, 1L, null, 10.0)));
+  }
+
+  @Test
+  public void shouldDeserializeQuotedFields() {
+    // When:
+    final GenericRow genericRow = delimitedDeserializer.deserialize(
+        "",
+        "\"1511897796092\",1,\"item \"\"1\"\", red\",\"-10.5\"\r\n"
+            .getBytes(StandardCharsets.UTF_8));
+
+    // Then:
+    assertThat(genericRow.getColumns(),
+        equalTo(Arrays.asList(1511897796092L, 1L, "item \"1\", red", -10.5)));
+  }
+
+  @Test
+  public void shouldDeserializeWithCustomDelimiter() {
+    // Given:
+    final KsqlDelimitedDeserializer deserializer = new KsqlDelimitedDeserializer(
+        orderSchema,
+        '|',
+        recordLogger,
+        processingLogContext,
+        ImmutableSet.of("ORDERTIME", "ORDERID", "ITEMID", "ORDERUNITS"));
+
+    // When:
+    final GenericRow genericRow = deserializer.deserialize(
+        "",
+        "1511897796092|-1|item,1|1e3".getBytes(StandardCharsets.UTF_8));
+
+    // Then:
+    assertThat(genericRow.getColumns(),
+        equalTo(Arrays.asList(1511897796092L, -1L, "item,1", 1000.0)));
+  }
+
+  @Test
+  public void shouldDeserializeNumbersOutsideTheFastPathLikeTheJdk() {
+    // When:
+    final GenericRow genericRow = delimitedDeserializer.deserialize(
+        "",
+        "-9223372036854775808,+7,item_1,0.12345678901234567890"
+            .getBytes(StandardCharsets.UTF_8));
+
+    // Then:
+    assertThat(genericRow.getColumns(), equalTo(Arrays.asList(
+        Long.MIN_VALUE, 7L, "item_1", Double.parseDouble("0.12345678901234567890"))));
+  }
+
+  @Test(expected = SerializationException.class)
+  public void shouldThrowOnIntegerOverflow() {
+    delimitedDeserializer.deserialize(
+        "",
+        "9223372036854775808,1,item_1,10.0".getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test(expected = SerializationException.class)
+  public void shouldThrowOnUnterminatedQuote() {
+    delimitedDeserializer.deserialize(
+        "",
+        "1511897796092,1,\"item_1,10.0".getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test(expected = SerializationException.class)
+  public void shouldThrowOnTooManyFields() {
+    delimitedDeserializer.deserialize(
+        "",
+        "1511897796092,1,item_1,10.0,extra".getBytes(StandardCharsets.UTF_8));
+  }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License; you may not use this file
+ * except in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.serde.delimited;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.processing.log.ProcessingLogContext;
+import io.confluent.ksql.util.KsqlConfig;
+import io.confluent.ksql.util.KsqlException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class KsqlDelimitedTopicSerDeTest {
+
+  private static final Schema SCHEMA = SchemaBuilder.struct()
+      .field("ID", Schema.OPTIONAL_INT64_SCHEMA)
+      .field("NAME", Schema.OPTIONAL_STRING_SCHEMA)
+      .build();
+
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
+  @Test
+  public void shouldParseSingleCharacterDelimiter() {
+    assertThat(KsqlDelimitedTopicSerDe.parseDelimiter("|"), equalTo('|'));
+  }
+
+  @Test
+  public void shouldParseNamedDelimiters() {
+    assertThat(KsqlDelimitedTopicSerDe.parseDelimiter("TAB"), equalTo('\t'));
+    assertThat(KsqlDelimitedTopicSerDe.parseDelimiter("space"), equalTo(' '));
+  }
+
+  @Test
+  public void shouldThrowOnMultiCharacterDelimiter() {
+    // Then:
+    expectedException.expect(KsqlException.class);
+    expectedException.expectMessage("Invalid delimiter: '<>'.");
+
+    // When:
+    KsqlDelimitedTopicSerDe.parseDelimiter("<>");
+  }
+
+  @Test
+  public void shouldThrowOnQuoteDelimiter() {
+    // Then:
+    expectedException.expect(KsqlException.class);
+    expectedException.expectMessage("Invalid delimiter: '\"'.");
+
+    // When:
+    KsqlDelimitedTopicSerDe.parseDelimiter("\"");
+  }
+
+  @Test
+  public void shouldRoundTripRowsWithDelimiter() {
+    // Given:
+    final Serde<GenericRow> serde = new KsqlDelimitedTopicSerDe('\t').getGenericRowSerde(
+        SCHEMA,
+        new KsqlConfig(Collections.emptyMap()),
+        false,
+        () -> null,
+        "loggerName",
+        ProcessingLogContext.create());
+    final GenericRow row = new GenericRow(Arrays.asList(1L, "a,b"));
+
+    // When:
+    final byte[] bytes = serde.serializer().serialize("t1", row);
+
+    // Then:
+    assertThat(new String(bytes, StandardCharsets.UTF_8), equalTo("1\ta,b"));
+    assertThat(serde.deserializer().deserialize("t1", bytes), equalTo(row));
+  }
+}
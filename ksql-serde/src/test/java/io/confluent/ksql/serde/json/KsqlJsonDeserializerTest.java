@@ -15,6 +15,7 @@
 package io.confluent.ksql.serde.json;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
@@ -22,11 +23,13 @@ import static org.junit.Assert.fail;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
 import io.confluent.common.logging.StructuredLogger;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.processing.log.ProcessingLogContext;
 import io.confluent.ksql.serde.SerdeTestUtils;
 import io.confluent.ksql.serde.util.SerdeProcessingLogMessageFactory;
+import io.confluent.ksql.util.KsqlException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
@@ -36,9 +39,11 @@ import java.util.Optional;
 import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
@@ -56,6 +61,9 @@ public class KsqlJsonDeserializerTest {
   @Rule
   public final MockitoRule mockitoRule = MockitoJUnit.rule();
 
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
   @Before
   public void before() {
     orderSchema = SchemaBuilder.struct()
@@ -200,4 +208,87 @@ public class KsqlJsonDeserializerTest {
             Optional.ofNullable(data),
             processingLogContext.getConfig()).get());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void shouldMatchFieldNamesIgnoringCaseAndSkipUnknownFields() {
+    // Given:
+    final Schema addressSchema = SchemaBuilder.struct()
+        .field("CITY", Schema.OPTIONAL_STRING_SCHEMA)
+        .field("zip", Schema.OPTIONAL_INT32_SCHEMA)
+        .optional()
+        .build();
+    final Schema schema = SchemaBuilder.struct()
+        .field("ID", Schema.OPTIONAL_INT64_SCHEMA)
+        .field("ADDRESS", addressSchema)
+        .build();
+    final KsqlJsonDeserializer deserializer = new KsqlJsonDeserializer(
+        schema,
+        false,
+        recordLogger,
+        processingLogContext);
+    final byte[] data = ("{\"unknown\":{\"nested\":[1,{\"a\":2}]},"
+        + "\"Address\":{\"city\":\"Palo Alto\",\"other\":[3],\"ZIP\":\"94301\"},"
+        + "\"@id\":10}").getBytes(StandardCharsets.UTF_8);
+
+    // When:
+    final GenericRow row = deserializer.deserialize("", data);
+
+    // Then:
+    final Struct expectedAddress = new Struct(addressSchema)
+        .put("CITY", "Palo Alto")
+        .put("zip", 94301);
+    assertThat(row, equalTo(new GenericRow(Arrays.asList(10L, expectedAddress))));
+  }
+
+  @Test
+  public void shouldReturnMutableRow() throws JsonProcessingException {
+    // Given:
+    final byte[] data = objectMapper.writeValueAsBytes(
+        Collections.singletonMap("ordertime", 1511897796092L));
+
+    // When:
+    final GenericRow row = ksqlJsonDeserializer.deserialize("", data);
+    row.getColumns().add(0, "rowkey");
+
+    // Then:
+    assertThat(row.getColumns().size(), equalTo(7));
+  }
+
+  @Test
+  public void shouldFailOnFieldNamedAt() {
+    // Given:
+    final byte[] data = "{\"@\":1}".getBytes(StandardCharsets.UTF_8);
+
+    // Expect:
+    expectedException.expect(SerializationException.class);
+    expectedException.expectCause(instanceOf(KsqlException.class));
+
+    // When:
+    ksqlJsonDeserializer.deserialize("", data);
+  }
+
+  @Test
+  public void shouldOnlyDeserializeRequiredColumns() throws JsonProcessingException {
+    // Given:
+    final KsqlJsonDeserializer deserializer = new KsqlJsonDeserializer(
+        orderSchema,
+        false,
+        recordLogger,
+        processingLogContext,
+        ImmutableSet.of("ORDERID", "ARRAYCOL"));
+
+    final Map<String, Object> orderRow = new HashMap<>();
+    orderRow.put("ordertime", 1511897796092L);
+    orderRow.put("orderid", 1L);
+    orderRow.put("itemid", "Item_1");
+    orderRow.put("arraycol", new Double[]{10.0, 20.0});
+    orderRow.put("mapcol", Collections.singletonMap("key1", 10.0));
+
+    // When:
+    final GenericRow row = deserializer.deserialize("", objectMapper.writeValueAsBytes(orderRow));
+
+    // Then:
+    assertThat(row.getColumns(),
+        equalTo(Arrays.asList(null, 1L, null, null, Arrays.asList(10.0, 20.0), null)));
+  }
+}